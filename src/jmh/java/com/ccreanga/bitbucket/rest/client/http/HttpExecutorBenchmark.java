@@ -0,0 +1,120 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.Range;
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.Parsers;
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.Samples;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole request pipeline against an in-process HTTP server returning a page of users: the buffered body parsed
+ * as a tree, the streamed body read by the adapters (blocking and async) and ProjectClient.getUsers(Range).
+ * The server runs with TCP_NODELAY, otherwise the delayed ACKs dominate the measurements. Note that gc.alloc.rate.norm
+ * only counts the benchmark thread, streamingAsync parses on the I/O dispatcher threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@State(Scope.Benchmark)
+public class HttpExecutorBenchmark {
+
+    private static final String URL = "/rest/api/1.0/users?start=0&limit=1000";
+
+    @Param({"25", "1000"})
+    public int size;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private BitBucketHttpExecutor executor;
+    private ProjectClientRest projectClient;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] body = Samples.usersPage(size).getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        executor = new BitBucketHttpExecutor("http://localhost:" + server.getAddress().getPort(), new BitBucketCredentials("user", "password"));
+        projectClient = new ProjectClientRest(executor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public Page<User> bufferedTree() {
+        HttpResponse response = executor.execute(new HttpRequest(URL, HttpMethod.GET, null));
+        return Parsers.pageParser(Parsers.userParser()).apply(new JsonParser().parse(response.getBody()));
+    }
+
+    @Benchmark
+    public Page<User> streaming() {
+        return executor.execute(new HttpRequest(URL, HttpMethod.GET, null),
+                (response, body) -> Parsers.pageAdapter(Parsers.userAdapter()).read(new JsonReader(body)));
+    }
+
+    @Benchmark
+    public Page<User> streamingAsync() {
+        return executor.executeAsync(new HttpRequest(URL, HttpMethod.GET, null),
+                (response, body) -> Parsers.pageAdapter(Parsers.userAdapter()).read(new JsonReader(body))).join();
+    }
+
+    @Benchmark
+    public Page<User> projectClient() {
+        return projectClient.getUsers(new Range(0, 1000));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.ccreanga.bitbucket.rest.client.fakeserver.FakeBitbucketServer;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestState;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole crawl (10 projects, 100 repositories, their branches and all their pull requests) of the fake server, with
+ * a server latency and a fraction of the requests failing with 503 and retried by the client. The requests received by
+ * the server and the injected errors of the last crawl are reported as counters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@State(Scope.Benchmark)
+public class InstanceCrawlerBenchmark {
+
+    @Param({"0", "10"})
+    public long latency;
+
+    @Param({"0", "0.05"})
+    public double errorRate;
+
+    @Param({"8", "32"})
+    public int parallelism;
+
+    private FakeBitbucketServer server;
+    private BitBucketClientFactory factory;
+    private InstanceCrawler crawler;
+
+    @Setup
+    public void setup() throws IOException {
+        //without a configuration logback logs the http client at DEBUG level
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        server = FakeBitbucketServer.builder().setProjects(10).setRepositoriesPerProject(10).
+                setLatency(latency, latency / 2).setErrorRate(errorRate, 503).start();
+        BitBucketClientConfig config = BitBucketClientConfig.builder().
+                setMaxTotalConnections(parallelism).setMaxConnectionsPerRoute(parallelism).
+                setMaxAttempts(5).setRetryInitialBackoff(5).setRetryMaxBackoff(50).build();
+        factory = new BitBucketClientFactory(server.getBaseUrl(), new BitBucketCredentials("user", "password"), config);
+        crawler = InstanceCrawler.builder(factory.getProjectClient()).setParallelism(parallelism).
+                setPullRequestState(PullRequestState.ALL).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public CrawlProgress crawl(CrawlRequests counters) {
+        long requests = server.getRequests();
+        long injectedErrors = server.getInjectedErrors();
+        CrawlProgress progress = crawler.crawl(new SnapshotSink() {
+        }).join();
+        counters.requests = server.getRequests() - requests;
+        counters.injectedErrors = server.getInjectedErrors() - injectedErrors;
+        return progress;
+    }
+
+    /**
+     * The requests of the last crawl, the retried ones included
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class CrawlRequests {
+        public long requests;
+        public long injectedErrors;
+    }
+}
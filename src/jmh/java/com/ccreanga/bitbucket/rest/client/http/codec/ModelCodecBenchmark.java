@@ -0,0 +1,136 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.codec;
+
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.Parsers;
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.Samples;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The binary codec against the java serialization, encoding and decoding pages of users, pull requests and
+ * activities and a large diff. The encoding benchmarks report the encoded size as the encodedBytes counter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelCodecBenchmark {
+
+    @Param({"users", "pullRequests", "activities", "diff"})
+    public String payload;
+
+    private Object value;
+    private Codec<Object> codec;
+    private byte[] binary;
+    private byte[] serialized;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() throws IOException {
+        switch (payload) {
+            case "users":
+                value = Parsers.pageParser(Parsers.userParser()).apply(new JsonParser().parse(Samples.usersPage(1000)));
+                codec = (Codec) ModelCodecs.page(ModelCodecs.USER);
+                break;
+            case "pullRequests":
+                StringBuilder values = new StringBuilder("[");
+                for (int i = 0; i < 100; i++) {
+                    values.append(i > 0 ? "," : "").append(Samples.resource("pull_requests.json"));
+                }
+                value = Parsers.pageParser(Parsers.pullRequestParser()).apply(new JsonParser().parse(Samples.page(values.append(']').toString(), 100, 0, true)));
+                codec = (Codec) ModelCodecs.page(ModelCodecs.PULL_REQUEST);
+                break;
+            case "activities":
+                value = Parsers.pageParser(Parsers.pullRequestActivityParser(1)).apply(new JsonParser().parse(Samples.activitiesPage(300)));
+                codec = (Codec) ModelCodecs.page(ModelCodecs.PULL_REQUEST_ACTIVITY);
+                break;
+            case "diff":
+                value = Parsers.diffParser().apply(new JsonParser().parse(Samples.diff(50, 10)));
+                codec = (Codec) ModelCodecs.DIFF;
+                break;
+            default:
+                throw new IllegalArgumentException(payload);
+        }
+        binary = ModelCodecs.encode(codec, value);
+        serialized = javaSerialize();
+    }
+
+    @Benchmark
+    public byte[] binaryEncode(EncodedSize size) {
+        byte[] bytes = ModelCodecs.encode(codec, value);
+        size.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return ModelCodecs.decode(codec, binary);
+    }
+
+    @Benchmark
+    public byte[] javaEncode(EncodedSize size) throws IOException {
+        byte[] bytes = javaSerialize();
+        size.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object javaDecode() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+
+    private byte[] javaSerialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The size of the last encoded value
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class EncodedSize {
+        public long encodedBytes;
+    }
+}
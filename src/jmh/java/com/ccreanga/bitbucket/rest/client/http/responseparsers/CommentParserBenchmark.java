@@ -0,0 +1,68 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Comment;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The recursive comment parsing on threads of nested replies
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommentParserBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int depth;
+
+    private String thread;
+
+    @Setup
+    public void setup() {
+        thread = Samples.commentThread(depth);
+    }
+
+    @Benchmark
+    public Comment tree() {
+        return Parsers.commentParser().apply(new JsonParser().parse(thread));
+    }
+
+    @Benchmark
+    public Comment streaming() throws IOException {
+        return Parsers.commentAdapter().read(new JsonReader(new StringReader(thread)));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * PageParser against PageAdapter on large synthetic pages of users and of pull request activities
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageParserBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private String users;
+    private String activities;
+
+    private final Function<JsonElement, Page<User>> usersParser = Parsers.pageParser(Parsers.userParser());
+    private final StreamParser<Page<User>> usersAdapter = Parsers.pageAdapter(Parsers.userAdapter());
+    private final Function<JsonElement, Page<PullRequestActivity>> activitiesParser = Parsers.pageParser(Parsers.pullRequestActivityParser(1));
+    private final StreamParser<Page<PullRequestActivity>> activitiesAdapter = Parsers.pageAdapter(Parsers.pullRequestActivityAdapter(1));
+
+    @Setup
+    public void setup() {
+        users = Samples.usersPage(size);
+        activities = Samples.activitiesPage(size);
+    }
+
+    @Benchmark
+    public Page<User> usersTree() {
+        return usersParser.apply(new JsonParser().parse(users));
+    }
+
+    @Benchmark
+    public Page<User> usersStreaming() throws IOException {
+        return usersAdapter.read(new JsonReader(new StringReader(users)));
+    }
+
+    @Benchmark
+    public Page<PullRequestActivity> activitiesTree() {
+        return activitiesParser.apply(new JsonParser().parse(activities));
+    }
+
+    @Benchmark
+    public Page<PullRequestActivity> activitiesStreaming() throws IOException {
+        return activitiesAdapter.read(new JsonReader(new StringReader(activities)));
+    }
+}
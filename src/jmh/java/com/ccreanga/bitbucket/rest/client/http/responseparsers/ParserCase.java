@@ -0,0 +1,74 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.google.gson.JsonElement;
+
+import java.util.function.Function;
+
+/**
+ * One case per Parsers function: a representative payload with its tree parser and its streaming adapter
+ */
+public enum ParserCase {
+    BUILD_STATS(Samples.buildStats(20), Parsers.buildStatsParser(), Parsers.buildStatsAdapter()),
+    BRANCH(Samples.branch(), Parsers.branchParser(), Parsers.branchAdapter()),
+    LINK(Samples.json("pull_requests.json", "links", "self", "0"), Parsers.linkParser(), Parsers.linkAdapter()),
+    PAGE(Samples.usersPage(25), Parsers.pageParser(Parsers.userParser()), Parsers.pageAdapter(Parsers.userAdapter())),
+    LIST(Samples.json("pull_requests.json", "reviewers"),
+            Parsers.listParser(Parsers.pullRequestParticipantParser()), null),
+    PROJECT(Samples.json("repo.json", "project"), Parsers.projectParser(), Parsers.projectAdapter()),
+    REPOSITORY(Samples.resource("repo.json"), Parsers.repositoryParser(), Parsers.repositoryAdapter()),
+    REPOSITORY_SSH_KEY(Samples.repositorySshKey(), Parsers.repositorySshKeyParser(), Parsers.repositorySshKeyAdapter()),
+    USER_SSH_KEY(Samples.userSshKey(), Parsers.userSshKeyParser(), Parsers.userSshKeyAdapter()),
+    USER(Samples.user(1), Parsers.userParser(), Parsers.userAdapter()),
+    PULL_REQUEST(Samples.resource("pull_requests.json"), Parsers.pullRequestParser(), Parsers.pullRequestAdapter()),
+    PULL_REQUEST_PARTICIPANT(Samples.json("pull_requests.json", "author"),
+            Parsers.pullRequestParticipantParser(), Parsers.pullRequestParticipantAdapter()),
+    PULL_REQUEST_BRANCH(Samples.json("pull_requests.json", "fromRef"), Parsers.pullRequestBranchParser(), Parsers.pullRequestBranchAdapter()),
+    PULL_REQUEST_CHANGE(Samples.resource("pull_requests_changes.json"), Parsers.pullRequestChangeParser(), Parsers.pullRequestChangeAdapter()),
+    PULL_REQUEST_ACTIVITY(Samples.resource("pull_requests_activities_commented.json"),
+            Parsers.pullRequestActivityParser(1), Parsers.pullRequestActivityAdapter(1)),
+    COMMENT(Samples.json("pull_requests_activities_commented.json", "comment"), Parsers.commentParser(), Parsers.commentAdapter()),
+    PATH(Samples.json("pull_requests_changes.json", "path"), Parsers.pathParser(), Parsers.pathAdapter()),
+    ERROR(Samples.error(), Parsers.errorParser(), Parsers.errorAdapter()),
+    ERRORS(Samples.errors(), Parsers.errorsParser(), Parsers.errorsAdapter()),
+    COMMIT(Samples.json("pull_requests_activities_rescoped.json", "added", "commits", "0"), Parsers.commitParser(), Parsers.commitAdapter()),
+    MINIMAL_COMMIT(Samples.json("pull_requests_activities_rescoped.json", "added", "commits", "0", "parents", "0"),
+            Parsers.minimalCommitParser(), Parsers.minimalCommitAdapter()),
+    COMMENT_ANCHOR(Samples.json("pull_requests_activities_commented.json", "commentAnchor"),
+            Parsers.commentAnchorParser(), Parsers.commentAnchorAdapter()),
+    DIFF(Samples.diff(5, 10), Parsers.diffParser(), Parsers.diffAdapter()),
+    DIFF_LINE(Samples.diffLine(1), Parsers.diffLineParser(), Parsers.diffLineAdapter()),
+    DIFF_HUNK(Samples.diffHunk(1, 10), Parsers.diffHunkParser(), Parsers.diffHunkAdapter()),
+    DIFF_SEGMENT(Samples.diffSegment("ADDED", 1, 10), Parsers.diffSegmentParser(), Parsers.diffSegmentAdapter()),
+    TASK(Samples.resource("pull_requests_tasks.json"), Parsers.taskParser(), Parsers.taskAdapter()),
+    TASK_OPERATIONS(Samples.json("pull_requests_tasks.json", "permittedOperations"),
+            Parsers.taskOperationsParser(), Parsers.taskOperationsAdapter()),
+    PERMITTED_OPERATIONS(Samples.json("pull_requests_activities_commented.json", "comment", "permittedOperations"),
+            Parsers.permittedOperationsParser(), Parsers.permittedOperationsAdapter());
+
+    final String json;
+    final Function<JsonElement, ?> parser;
+    final StreamParser<?> adapter;
+
+    ParserCase(String json, Function<JsonElement, ?> parser, StreamParser<?> adapter) {
+        this.json = json;
+        this.parser = parser;
+        //there is no streaming list parser, the lists are read by the adapter of the enclosing object
+        this.adapter = adapter != null ? adapter : Parsers.adapter(parser);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.google.common.io.CharStreams;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON payloads used by the benchmarks, built from the test resources or generated with a configurable size
+ */
+public final class Samples {
+
+    private Samples() {
+    }
+
+    public static String resource(String name) {
+        try (InputStream in = Samples.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null)
+                throw new IllegalArgumentException("missing resource " + name);
+            return CharStreams.toString(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Navigates from the root of a resource, the path elements are field names or array indexes
+     */
+    public static JsonElement element(String resource, String... path) {
+        JsonElement element = new JsonParser().parse(resource(resource));
+        for (String name : path) {
+            element = element.isJsonArray() ? element.getAsJsonArray().get(Integer.parseInt(name)) : element.getAsJsonObject().get(name);
+        }
+        return element;
+    }
+
+    public static String json(String resource, String... path) {
+        return element(resource, path).toString();
+    }
+
+    public static String user(int id) {
+        return "{\"id\":" + id + ",\"name\":\"user" + id + "\",\"emailAddress\":\"user" + id + "@example.com\"," +
+                "\"displayName\":\"User " + id + "\",\"active\":true,\"slug\":\"user" + id + "\",\"type\":\"NORMAL\"}";
+    }
+
+    public static String page(String values, int size, int start, boolean lastPage) {
+        return "{\"size\":" + size + ",\"limit\":" + size + ",\"isLastPage\":" + lastPage + ",\"start\":" + start +
+                (lastPage ? "" : ",\"nextPageStart\":" + (start + size)) + ",\"values\":" + values + "}";
+    }
+
+    public static String usersPage(int size) {
+        StringBuilder values = new StringBuilder(size * 160).append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                values.append(',');
+            values.append(user(i));
+        }
+        return page(values.append(']').toString(), size, 0, true);
+    }
+
+    /**
+     * A page cycling through the commented, rescoped and merged activities of the test resources
+     */
+    public static String activitiesPage(int size) {
+        String[] activities = {
+                resource("pull_requests_activities_commented.json"),
+                resource("pull_requests_activities_rescoped.json"),
+                resource("pull_requests_activities_merged.json")};
+        StringBuilder values = new StringBuilder().append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                values.append(',');
+            values.append(activities[i % activities.length]);
+        }
+        return page(values.append(']').toString(), size, 0, true);
+    }
+
+    /**
+     * A comment with a chain of depth nested replies
+     */
+    public static String commentThread(int depth) {
+        JsonObject root = null;
+        JsonObject parent = null;
+        for (int i = 0; i < depth; i++) {
+            JsonObject comment = element("pull_requests_activities_commented.json", "comment", "comments", "0").getAsJsonObject();
+            comment.addProperty("id", i);
+            comment.add("comments", new JsonArray());
+            if (parent == null) {
+                root = comment;
+            } else {
+                parent.getAsJsonArray("comments").add(comment);
+            }
+            parent = comment;
+        }
+        return root.toString();
+    }
+
+    public static String diffLine(int line) {
+        return "{\"source\":" + line + ",\"destination\":" + line + ",\"line\":\"    return new Page<>(size, limit, lastPage, start, nextPageStart, values);\",\"truncated\":false}";
+    }
+
+    public static String diffSegment(String type, int firstLine, int lines) {
+        StringBuilder sb = new StringBuilder("{\"type\":\"").append(type).append("\",\"truncated\":false,\"lines\":[");
+        for (int i = 0; i < lines; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(diffLine(firstLine + i));
+        }
+        return sb.append("]}").toString();
+    }
+
+    public static String diffHunk(int firstLine, int linesPerSegment) {
+        return "{\"sourceLine\":" + firstLine + ",\"sourceSpan\":" + 2 * linesPerSegment + ",\"destinationLine\":" + firstLine +
+                ",\"destinationSpan\":" + 2 * linesPerSegment + ",\"truncated\":false,\"segments\":[" +
+                diffSegment("CONTEXT", firstLine, linesPerSegment) + "," +
+                diffSegment("REMOVED", firstLine + linesPerSegment, linesPerSegment) + "," +
+                diffSegment("ADDED", firstLine + linesPerSegment, linesPerSegment) + "]}";
+    }
+
+    public static String diff(int hunks, int linesPerSegment) {
+        StringBuilder sb = new StringBuilder("{\"source\":{\"components\":[\"src\",\"main\",\"Page.java\"]},")
+                .append("\"destination\":{\"components\":[\"src\",\"main\",\"Page.java\"]},\"truncated\":false,\"hunks\":[");
+        for (int i = 0; i < hunks; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(diffHunk(1 + i * 100, linesPerSegment));
+        }
+        return sb.append("]}").toString();
+    }
+
+    public static String buildStats(int commits) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < commits; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(String.format("\"%040x\":{\"successful\":%d,\"inProgress\":1,\"failed\":0}", i, i));
+        }
+        return sb.append('}').toString();
+    }
+
+    public static String branch() {
+        return "{\"id\":\"refs/heads/master\",\"displayId\":\"master\",\"latestChangeset\":\"8d51122def5632836d1cb1026e879069e10a1e13\"," +
+                "\"isDefault\":true,\"metadata\":{\"com.atlassian.bitbucket.server.bitbucket-branch:ahead-behind-metadata-provider\":" +
+                "{\"ahead\":0,\"behind\":2}}}";
+    }
+
+    public static String userSshKey() {
+        return "{\"id\":1,\"text\":\"ssh-rsa AAAAB3NzaC1yc2EAAAADAQABAAABAQC me@example.com\",\"label\":\"me@example.com\"}";
+    }
+
+    public static String repositorySshKey() {
+        return "{\"key\":" + userSshKey() + ",\"permission\":\"REPO_READ\",\"repository\":" + resource("repo.json") + "}";
+    }
+
+    public static String error() {
+        return "{\"context\":null,\"message\":\"Authentication failed\",\"exceptionName\":\"com.atlassian.AuthenticationException\"}";
+    }
+
+    public static String errors() {
+        return "{\"error\":[" + error() + "]}";
+    }
+}
@@ -21,8 +21,11 @@ import com.ccreanga.bitbucket.rest.client.model.BuildStatsSummary;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface BuildStatusClient {
     Map<String, BuildStatsSummary> getBuildSummaries(List<String> commits);
 
+    CompletableFuture<Map<String, BuildStatsSummary>> getBuildSummariesAsync(List<String> commits);
+
 }
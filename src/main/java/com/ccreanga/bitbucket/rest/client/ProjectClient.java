@@ -20,6 +20,7 @@ package com.ccreanga.bitbucket.rest.client;
 import com.ccreanga.bitbucket.rest.client.model.*;
 import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
 import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestRole;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffVisitor;
 import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
 import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestChange;
 import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestState;
@@ -29,6 +30,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface ProjectClient {
     /**
@@ -39,6 +42,13 @@ public interface ProjectClient {
      */
     Page<Project> getProjects(@Nonnull Range range);
 
+    /**
+     * Asynchronous version of {@link #getProjects(Range)}
+     * @param range limit object
+     * @return a future completed with a Page of projects
+     */
+    CompletableFuture<Page<Project>> getProjectsAsync(@Nonnull Range range);
+
     /**
      * Returns all the projects
      * Only projects for which the authenticated user has the PROJECT_VIEW permission will be returned
@@ -46,6 +56,20 @@ public interface ProjectClient {
      */
     Set<Project> getProjects();
 
+    /**
+     * Asynchronous version of {@link #getProjects()}
+     * @return a future completed with a Set of projects
+     */
+    CompletableFuture<Set<Project>> getProjectsAsync();
+
+    /**
+     * Returns all the projects
+     * Only projects for which the authenticated user has the PROJECT_VIEW permission will be returned
+     * The pages are requested only when the stream reaches them, use stream.iterator() for an Iterator
+     * @return a lazy Stream of projects
+     */
+    Stream<Project> streamProjects();
+
     /**
      * Returns a project specified by its project key
      * @param projectKey project key
@@ -53,6 +77,13 @@ public interface ProjectClient {
      */
     Optional<Project> getProjectByKey(@Nonnull String projectKey);
 
+    /**
+     * Asynchronous version of {@link #getProjectByKey(String)}
+     * @param projectKey project key
+     * @return a future completed with an Optional object wrapping the project
+     */
+    CompletableFuture<Optional<Project>> getProjectByKeyAsync(@Nonnull String projectKey);
+
     /**
      * Returns a page of repositories (between Range.start and Range.start+Range.limit)  belonging to a project
      * The authenticated user must have REPO_READ permission for the specified project
@@ -62,6 +93,14 @@ public interface ProjectClient {
      */
     Page<Repository> getProjectRepositories(@Nonnull String projectKey, @Nonnull Range range);
 
+    /**
+     * Asynchronous version of {@link #getProjectRepositories(String, Range)}
+     * @param projectKey project key
+     * @param range limit object
+     * @return a future completed with a Page of repositories
+     */
+    CompletableFuture<Page<Repository>> getProjectRepositoriesAsync(@Nonnull String projectKey, @Nonnull Range range);
+
     /**
      * Returns all the repositories belonging to a project
      * The authenticated user must have REPO_READ permission for the specified project
@@ -69,12 +108,35 @@ public interface ProjectClient {
      * @return a Set of repositories
      */
     Set<Repository> getProjectRepositories(@Nonnull String projectKey);
+
+    /**
+     * Asynchronous version of {@link #getProjectRepositories(String)}
+     * @param projectKey project key
+     * @return a future completed with a Set of repositories
+     */
+    CompletableFuture<Set<Repository>> getProjectRepositoriesAsync(@Nonnull String projectKey);
+
+    /**
+     * Returns all the repositories belonging to a project
+     * The authenticated user must have REPO_READ permission for the specified project
+     * The pages are requested only when the stream reaches them, use stream.iterator() for an Iterator
+     * @param projectKey project key
+     * @return a lazy Stream of repositories belonging to a project
+     */
+    Stream<Repository> streamProjectRepositories(@Nonnull String projectKey);
     /**
      * Returns a page of repositories (between Range.start and Range.start+Range.limit) 
      * @param range limit object
      * @return a Page of repositories
      */
     Page<Repository> getAllRepositories(@Nonnull Range range);
+
+    /**
+     * Asynchronous version of {@link #getAllRepositories(Range)}
+     * @param range limit object
+     * @return a future completed with a Page of repositories
+     */
+    CompletableFuture<Page<Repository>> getAllRepositoriesAsync(@Nonnull Range range);
     /**
      * Returns all the repositories
      * The authenticated user must have REPO_READ permission for the specified project
@@ -82,6 +144,19 @@ public interface ProjectClient {
      */
     Set<Repository> getAllRepositories();
 
+    /**
+     * Asynchronous version of {@link #getAllRepositories()}
+     * @return a future completed with a Set of repositories
+     */
+    CompletableFuture<Set<Repository>> getAllRepositoriesAsync();
+
+    /**
+     * Returns all the repositories
+     * The pages are requested only when the stream reaches them, use stream.iterator() for an Iterator
+     * @return a lazy Stream of repositories
+     */
+    Stream<Repository> streamAllRepositories();
+
     /**
      * Returns a repository specified by its project key/repository slug
      * @param projectKey project key
@@ -90,6 +165,14 @@ public interface ProjectClient {
      */
     Optional<Repository> getRepositoryBySlug(@Nonnull String projectKey, @Nonnull String repositorySlug);
 
+    /**
+     * Asynchronous version of {@link #getRepositoryBySlug(String, String)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @return a future completed with an Optional object wrapping the repository
+     */
+    CompletableFuture<Optional<Repository>> getRepositoryBySlugAsync(@Nonnull String projectKey, @Nonnull String repositorySlug);
+
     /**
      * Returns a page of repository branches (between Range.start and Range.start+Range.limit)
      * @param projectKey project key
@@ -101,6 +184,17 @@ public interface ProjectClient {
      */
     Page<Branch> getBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query, @Nonnull Range range, boolean details);
 
+    /**
+     * Asynchronous version of {@link #getBranches(String, String, String, Range, boolean)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param query optional parameter. If not null it will return the branches matching this parameter
+     * @param range limit object
+     * @param details boolean for whether to expand details per branch
+     * @return a future completed with a Page of branches
+     */
+    CompletableFuture<Page<Branch>> getBranchesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query, @Nonnull Range range, boolean details);
+
     /**
      * Returns a page of repository branches (between Range.start and Range.start+Range.limit)
      * @param projectKey project key
@@ -119,6 +213,25 @@ public interface ProjectClient {
      */
     Set<Branch> getBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query);
 
+    /**
+     * Asynchronous version of {@link #getBranches(String, String, String)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param query optional parameter. If not null it will return the branches matching this parameter
+     * @return a future completed with a Set of branches
+     */
+    CompletableFuture<Set<Branch>> getBranchesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query);
+
+    /**
+     * Returns all the branches of a repository
+     * The pages are requested only when the stream reaches them, use stream.iterator() for an Iterator
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param query optional parameter. If not null it will return the branches matching this parameter
+     * @return a lazy Stream of branches of a repository
+     */
+    Stream<Branch> streamBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query);
+
     /**
      * Returns a page of forks (between Range.start and Range.start+Range.limit)  associated with a repository
      * @param projectKey project key
@@ -127,6 +240,15 @@ public interface ProjectClient {
      * @return a Page of forks
      */
     Page<Repository> getForks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Range range);
+
+    /**
+     * Asynchronous version of {@link #getForks(String, String, Range)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param range limit object
+     * @return a future completed with a Page of repositories
+     */
+    CompletableFuture<Page<Repository>> getForksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Range range);
     /**
      * Returns all the repository forks
      * @param projectKey project key
@@ -135,6 +257,23 @@ public interface ProjectClient {
      */
     Set<Repository> getForks(@Nonnull String projectKey, @Nonnull String repositorySlug);
 
+    /**
+     * Asynchronous version of {@link #getForks(String, String)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @return a future completed with a Set of repositories
+     */
+    CompletableFuture<Set<Repository>> getForksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug);
+
+    /**
+     * Returns all the forks of a repository
+     * The pages are requested only when the stream reaches them, use stream.iterator() for an Iterator
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @return a lazy Stream of forks of a repository
+     */
+    Stream<Repository> streamForks(@Nonnull String projectKey, @Nonnull String repositorySlug);
+
     /**
      * Returns the default branch for a repository
      * @param projectKey project key
@@ -143,6 +282,14 @@ public interface ProjectClient {
      */
     Optional<Branch> getDefaultBranch(@Nonnull String projectKey, @Nonnull String repositorySlug);
 
+    /**
+     * Asynchronous version of {@link #getDefaultBranch(String, String)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @return a future completed with an Optional object wrapping the default branch
+     */
+    CompletableFuture<Optional<Branch>> getDefaultBranchAsync(@Nonnull String projectKey, @Nonnull String repositorySlug);
+
     /**
      * Returns a page of pull requests (between Range.start and Range.start+Range.limit)  associated with a project/repository, with the specified state
      * @param projectKey project key
@@ -195,6 +342,32 @@ public interface ProjectClient {
             boolean[] approved,
             @Nonnull Range range);
 
+    /**
+     * Asynchronous version of {@link #getPullRequests(String, String, PullRequestState, boolean, String, boolean, String[], PullRequestRole[], boolean[], Range)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestState (optional) pullRequest state; null means all the states
+     * @param incoming the direction relative to the specified repository (true=INCOMING false=OUTGOING).
+     * @param branchId (optional) a fully-qualified branch ID to find pull requests to or from
+     * @param newestFirst the order to return pull requests in (newest/oldest)
+     * @param users filter the pull request specifying an array of participants
+     * @param pullRequestRoles (optional) - specify the role for each participant
+     * @param approved (optional) - the approved status associated with the users
+     * @param range limit object
+     * @return a future completed with a Page of pull requests
+     */
+    CompletableFuture<Page<PullRequest>> getPullRequestsAsync(
+            @Nonnull String projectKey,
+            @Nonnull String repositorySlug,
+            PullRequestState pullRequestState,
+            boolean incoming,
+            String branchId,
+            boolean newestFirst,
+            String[] users,
+            PullRequestRole[] pullRequestRoles,
+            boolean[] approved,
+            @Nonnull Range range);
+
     /**
      * Returns a page of pull requests (between Range.start and Range.start+Range.limit)  associated with a project/repository, with the specified state
      * The filtering parameters users/  will work only for stash version >= 3.10 otherwise they are ignored
@@ -220,6 +393,55 @@ public interface ProjectClient {
             PullRequestRole[] pullRequestRoles,
             boolean[] approved);
 
+    /**
+     * Asynchronous version of {@link #getPullRequests(String, String, PullRequestState, boolean, String, boolean, String[], PullRequestRole[], boolean[])}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestState (optional) pullRequest state; null means all the states
+     * @param incoming the direction relative to the specified repository (true=INCOMING false=OUTGOING).
+     * @param branchId (optional) a fully-qualified branch ID to find pull requests to or from
+     * @param newestFirst the order to return pull requests in (newest/oldest)
+     * @param users filter the pull request specifying an array of participants
+     * @param pullRequestRoles (optional) - specify the role for each participant
+     * @param approved (optional) - the approved status associated with the users
+     * @return a future completed with a Set of pull requests
+     */
+    CompletableFuture<Set<PullRequest>> getPullRequestsAsync(
+            @Nonnull String projectKey,
+            @Nonnull String repositorySlug,
+            PullRequestState pullRequestState,
+            boolean incoming,
+            String branchId,
+            boolean newestFirst,
+            String[] users,
+            PullRequestRole[] pullRequestRoles,
+            boolean[] approved);
+
+    /**
+     * Returns all the pull requests of a repository
+     * The pages are requested only when the stream reaches them, use stream.iterator() for an Iterator
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestState (optional) pullRequest state; null means all the states
+     * @param incoming the direction relative to the specified repository (true=INCOMING false=OUTGOING).
+     * @param branchId (optional) a fully-qualified branch ID to find pull requests to or from
+     * @param newestFirst the order to return pull requests in (newest/oldest)
+     * @param users filter the pull request specifying an array of participants
+     * @param pullRequestRoles (optional) - specify the role for each participant
+     * @param approved (optional) - the approved status associated with the users
+     * @return a lazy Stream of pull requests of a repository
+     */
+    Stream<PullRequest> streamPullRequests(
+            @Nonnull String projectKey,
+            @Nonnull String repositorySlug,
+            PullRequestState pullRequestState,
+            boolean incoming,
+            String branchId,
+            boolean newestFirst,
+            String[] users,
+            PullRequestRole[] pullRequestRoles,
+            boolean[] approved);
+
     /**
      * Returns a page of changes (between Range.start and Range.start+Range.limit)  associated with a project/repository/pull request
      * @param projectKey project key
@@ -230,6 +452,17 @@ public interface ProjectClient {
      * @return a Page of PullRequestChange objects
      */
     Page<PullRequestChange> getPullRequestsChanges(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId, @Nonnull Range range);
+
+    /**
+     * Asynchronous version of {@link #getPullRequestsChanges(String, String, Long, String, Range)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @param sinceCommitId the commit to which until should be compared to produce a page of changes. If not specified the commit's first parent is assumed
+     * @param range limit object
+     * @return a future completed with a Page of pull request changes
+     */
+    CompletableFuture<Page<PullRequestChange>> getPullRequestsChangesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId, @Nonnull Range range);
     /**
      * Returns all the changes associated with a project/repository/pull request
      * @param projectKey project key
@@ -240,6 +473,77 @@ public interface ProjectClient {
      */
     Set<PullRequestChange> getPullRequestsChanges(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId);
 
+    /**
+     * Asynchronous version of {@link #getPullRequestsChanges(String, String, Long, String)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @param sinceCommitId the commit to which until should be compared to produce a page of changes. If not specified the commit's first parent is assumed
+     * @return a future completed with a Set of pull request changes
+     */
+    CompletableFuture<Set<PullRequestChange>> getPullRequestsChangesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId);
+
+    /**
+     * Returns all the changes of a pull request
+     * The pages are requested only when the stream reaches them, use stream.iterator() for an Iterator
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @param sinceCommitId the commit to which until should be compared to produce a page of changes. If not specified the commit's first parent is assumed
+     * @return a lazy Stream of changes of a pull request
+     */
+    Stream<PullRequestChange> streamPullRequestsChanges(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId);
+
+    /**
+     * Streams the diff of a pull request to the visitor, one hunk at a time, without building the whole diff in memory.
+     * Use a {@link com.ccreanga.bitbucket.rest.client.model.diff.CompactDiffCollector} for a compact copy of the diff.
+     * An unknown pull request visits nothing.
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @param contextLines the number of context lines around the changes, -1 for the server default
+     * @param visitor receives the diff of every file
+     * @return true if the server truncated the diff
+     */
+    boolean streamPullRequestDiff(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, int contextLines, @Nonnull DiffVisitor visitor);
+
+    /**
+     * Asynchronous version of {@link #streamPullRequestDiff(String, String, Long, int, DiffVisitor)}; the visitor is
+     * called from an I/O dispatcher thread
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @param contextLines the number of context lines around the changes, -1 for the server default
+     * @param visitor receives the diff of every file
+     * @return a future completed with true if the server truncated the diff
+     */
+    CompletableFuture<Boolean> streamPullRequestDiffAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, int contextLines, @Nonnull DiffVisitor visitor);
+
+    /**
+     * Streams the diff of a commit to the visitor, one hunk at a time. An unknown commit visits nothing.
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param commitId commit id
+     * @param sinceCommitId (optional) the commit to compare to; if not specified the commit's first parent is assumed
+     * @param contextLines the number of context lines around the changes, -1 for the server default
+     * @param visitor receives the diff of every file
+     * @return true if the server truncated the diff
+     */
+    boolean streamCommitDiff(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull String commitId, @Nullable String sinceCommitId, int contextLines, @Nonnull DiffVisitor visitor);
+
+    /**
+     * Asynchronous version of {@link #streamCommitDiff(String, String, String, String, int, DiffVisitor)}; the visitor is
+     * called from an I/O dispatcher thread
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param commitId commit id
+     * @param sinceCommitId (optional) the commit to compare to; if not specified the commit's first parent is assumed
+     * @param contextLines the number of context lines around the changes, -1 for the server default
+     * @param visitor receives the diff of every file
+     * @return a future completed with true if the server truncated the diff
+     */
+    CompletableFuture<Boolean> streamCommitDiffAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull String commitId, @Nullable String sinceCommitId, int contextLines, @Nonnull DiffVisitor visitor);
+
     /**
      * Returns a page of activities (between Range.start and Range.start+Range.limit)  associated with a project/repository/pull request
      * @param projectKey project key
@@ -249,6 +553,16 @@ public interface ProjectClient {
      * @return a Page of PullRequestActivity objects
      */
     Page<PullRequestActivity> getPullRequestsActivities(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range);
+
+    /**
+     * Asynchronous version of {@link #getPullRequestsActivities(String, String, Long, Range)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @param range limit object
+     * @return a future completed with a Page of pull request activities
+     */
+    CompletableFuture<Page<PullRequestActivity>> getPullRequestsActivitiesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range);
     /**
      * Returns all the associated with a project/repository/pull request
      * @param projectKey project key
@@ -258,6 +572,25 @@ public interface ProjectClient {
      */
     Set<PullRequestActivity> getPullRequestsActivities(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId);
 
+    /**
+     * Asynchronous version of {@link #getPullRequestsActivities(String, String, Long)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @return a future completed with a Set of pull request activities
+     */
+    CompletableFuture<Set<PullRequestActivity>> getPullRequestsActivitiesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId);
+
+    /**
+     * Returns all the activities of a pull request
+     * The pages are requested only when the stream reaches them, use stream.iterator() for an Iterator
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @return a lazy Stream of activities of a pull request
+     */
+    Stream<PullRequestActivity> streamPullRequestsActivities(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId);
+
     /**
      * Returns a page of tasks (between Range.start and Range.start+Range.limit)  associated with a project/repository/pull request
      * @param projectKey project key
@@ -267,6 +600,16 @@ public interface ProjectClient {
      * @return a Page of Task objects
      */
     Page<Task> getPullRequestsTasks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range);
+
+    /**
+     * Asynchronous version of {@link #getPullRequestsTasks(String, String, Long, Range)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @param range limit object
+     * @return a future completed with a Page of tasks
+     */
+    CompletableFuture<Page<Task>> getPullRequestsTasksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range);
     /**
      * Returns all the tasks associated with a project/repository/pull request
      * @param projectKey project key
@@ -276,18 +619,57 @@ public interface ProjectClient {
      */
     Set<Task> getPullRequestsTasks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId);
 
+    /**
+     * Asynchronous version of {@link #getPullRequestsTasks(String, String, Long)}
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @return a future completed with a Set of tasks
+     */
+    CompletableFuture<Set<Task>> getPullRequestsTasksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId);
+
+    /**
+     * Returns all the tasks of a pull request
+     * The pages are requested only when the stream reaches them, use stream.iterator() for an Iterator
+     * @param projectKey project key
+     * @param repositorySlug repository slug
+     * @param pullRequestId pull request id
+     * @return a lazy Stream of tasks of a pull request
+     */
+    Stream<Task> streamPullRequestsTasks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId);
+
     /**
      * Returns a page of users (between Range.start and Range.start+Range.limit) 
      * @param range limit object
      * @return a Page of User objects
      */
     Page<User> getUsers(@Nonnull Range range);
+
+    /**
+     * Asynchronous version of {@link #getUsers(Range)}
+     * @param range limit object
+     * @return a future completed with a Page of users
+     */
+    CompletableFuture<Page<User>> getUsersAsync(@Nonnull Range range);
     /**
      * Returns all the users (between Range.start and Range.start+Range.limit)
      * @return a Set of User objects
      */
     Set<User> getUsers();
 
+    /**
+     * Asynchronous version of {@link #getUsers()}
+     * @return a future completed with a Set of users
+     */
+    CompletableFuture<Set<User>> getUsersAsync();
+
+    /**
+     * Returns all the users
+     * The pages are requested only when the stream reaches them, use stream.iterator() for an Iterator
+     * @return a lazy Stream of users
+     */
+    Stream<User> streamUsers();
+
 
     /**
      * Retrieve version information and other application properties
@@ -295,6 +677,12 @@ public interface ProjectClient {
      */
     ImmutableMap<String, String> getBitBucketApplicationProperties();
 
+    /**
+     * Asynchronous version of {@link #getBitBucketApplicationProperties()}
+     * @return a future completed with a map of properties
+     */
+    CompletableFuture<ImmutableMap<String, String>> getBitBucketApplicationPropertiesAsync();
+
     /**
      * Creates a project belonging to the current user
      * @param projectKey project key (unique key)
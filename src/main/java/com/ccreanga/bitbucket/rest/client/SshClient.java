@@ -21,10 +21,16 @@ import com.ccreanga.bitbucket.rest.client.model.Page;
 import com.ccreanga.bitbucket.rest.client.model.RepositorySshKey;
 import com.ccreanga.bitbucket.rest.client.model.UserSshKey;
 
+import java.util.concurrent.CompletableFuture;
+
 
 public interface SshClient {
     Page<RepositorySshKey> getRepositoryKeys(String projectKey, String repositorySlug, Range range);
 
     Page<UserSshKey> getCurrentUserKeys(Range range);
 
+    CompletableFuture<Page<RepositorySshKey>> getRepositoryKeysAsync(String projectKey, String repositorySlug, Range range);
+
+    CompletableFuture<Page<UserSshKey>> getCurrentUserKeysAsync(Range range);
+
 }
@@ -0,0 +1,88 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * Concurrency limiter with an AIMD (additive increase, multiplicative decrease) limit.
+ * Every request completed normally raises the limit by 1/limit, so the limit grows by about one per round trip;
+ * a 429/503 response, a timeout or a latency greater than latencyTolerance times the average latency multiplies it
+ * by BACKOFF_RATIO, at most once per average latency so a burst of failures counts as one signal.
+ */
+class AdaptiveConcurrencyLimiter extends ConcurrencyLimiter {
+
+    static final double BACKOFF_RATIO = 0.7;
+    private static final double LATENCY_SMOOTHING = 0.05;
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+
+    private double limit;
+    private double averageLatency;
+    private long samples;
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, double latencyTolerance) {
+        super(maxLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = maxLimit;
+        this.lastDecrease = System.nanoTime();
+    }
+
+    /**
+     * Releases the slot of a request that ended normally
+     */
+    public void release(long latencyNanos) {
+        synchronized (this) {
+            samples++;
+            averageLatency = samples == 1 ? latencyNanos : averageLatency + LATENCY_SMOOTHING * (latencyNanos - averageLatency);
+            if (samples > WARMUP_SAMPLES && latencyNanos > latencyTolerance * averageLatency) {
+                decrease();
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+        release();
+    }
+
+    /**
+     * Releases the slot of a request that was throttled or timed out
+     */
+    public void releaseOverloaded() {
+        synchronized (this) {
+            decrease();
+        }
+        release();
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        if (now - lastDecrease >= averageLatency) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            lastDecrease = now;
+        }
+    }
+
+    @Override
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+}
@@ -18,18 +18,34 @@ package com.ccreanga.bitbucket.rest.client.http;
 
 import com.ccreanga.bitbucket.rest.client.Range;
 import com.ccreanga.bitbucket.rest.client.http.dto.BitBucketError;
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.EntityRegistry;
 import com.ccreanga.bitbucket.rest.client.http.responseparsers.Parsers;
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.StreamParser;
+import com.ccreanga.bitbucket.rest.client.model.Page;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
@@ -39,10 +55,14 @@ abstract class BitBucketClient {
     private static Logger LOGGER = LoggerFactory.getLogger(BitBucketClient.class);
 
     private BitBucketHttpExecutor bitBucketHttpExecutor;
+    private RequestMetrics metrics;
+    private EntityRegistry entityRegistry;
 
 
     public BitBucketClient(BitBucketHttpExecutor bitBucketHttpExecutor) {
         this.bitBucketHttpExecutor = bitBucketHttpExecutor;
+        this.metrics = bitBucketHttpExecutor.getConfig().getRequestMetrics();
+        this.entityRegistry = bitBucketHttpExecutor.getConfig().getEntityRegistry();
     }
 
     protected String addLimits(Range range) {
@@ -72,13 +92,122 @@ abstract class BitBucketClient {
 
     protected Optional<JsonElement> execute(String requestUrl, HttpMethod method, String requestData) {
 
-        HttpResponse response = bitBucketHttpExecutor.execute(new HttpRequest(requestUrl, method, requestData));
+        HttpRequest request = new HttpRequest(requestUrl, method, requestData);
+        HttpResponse response = bitBucketHttpExecutor.execute(request);
+        return handleResponse(request, response);
+    }
+
+    protected CompletableFuture<Optional<JsonElement>> executeAsync(String requestUrl, HttpMethod method) {
+        return executeAsync(requestUrl, method, (String) null);
+    }
+
+    protected CompletableFuture<Optional<JsonElement>> executeAsync(String requestUrl, HttpMethod method, JsonObject requestJson) {
+
+        String requestData = requestJson != null ? requestJson.toString() : null;
+        return executeAsync(requestUrl, method, requestData);
+    }
+
+    protected CompletableFuture<Optional<JsonElement>> executeAsync(String requestUrl, HttpMethod method, String requestData) {
+        HttpRequest request = new HttpRequest(requestUrl, method, requestData);
+        return bitBucketHttpExecutor.executeAsync(request).thenApply(response -> handleResponse(request, response));
+    }
+
+    /**
+     * Reads the response with responseAdapter straight from the connection, so only the element being parsed is held
+     * in memory instead of the body string plus its JsonElement tree
+     */
+    protected <T> Optional<T> execute(String requestUrl, HttpMethod method, StreamParser<T> responseAdapter) {
+        return execute(requestUrl, method, null, responseAdapter);
+    }
+
+    protected <T> Optional<T> execute(String requestUrl, HttpMethod method, String requestData, StreamParser<T> responseAdapter) {
+        HttpRequest request = new HttpRequest(requestUrl, method, requestData);
+        return bitBucketHttpExecutor.execute(request, new AdapterHandler<>(request, responseAdapter));
+    }
+
+    protected <T> CompletableFuture<Optional<T>> executeAsync(String requestUrl, HttpMethod method, StreamParser<T> responseAdapter) {
+        return executeAsync(requestUrl, method, null, responseAdapter);
+    }
+
+    protected <T> CompletableFuture<Optional<T>> executeAsync(String requestUrl, HttpMethod method, String requestData, StreamParser<T> responseAdapter) {
+        HttpRequest request = new HttpRequest(requestUrl, method, requestData);
+        return bitBucketHttpExecutor.executeAsync(request, new AdapterHandler<>(request, responseAdapter));
+    }
+
+    /**
+     * Executes a GET whose adapter has side effects (it hands the parsed objects to a visitor): the request is never
+     * coalesced nor answered from the conditional request cache, and an I/O error while the body is read is not
+     * retried, as the visitor would see the same objects again
+     */
+    protected <T> Optional<T> executeStreaming(String requestUrl, StreamParser<T> responseAdapter) {
+        HttpRequest request = new HttpRequest(requestUrl, HttpMethod.GET, null, false);
+        return bitBucketHttpExecutor.execute(request, (response, body) -> handleStreamingResponse(request, response, body, responseAdapter));
+    }
+
+    protected <T> CompletableFuture<Optional<T>> executeStreamingAsync(String requestUrl, StreamParser<T> responseAdapter) {
+        HttpRequest request = new HttpRequest(requestUrl, HttpMethod.GET, null, false);
+        return bitBucketHttpExecutor.executeAsync(request, (response, body) -> handleStreamingResponse(request, response, body, responseAdapter));
+    }
+
+    private <T> Optional<T> handleStreamingResponse(HttpRequest request, HttpResponse response, Reader body, StreamParser<T> responseAdapter) {
+        try {
+            return handleResponse(request, response, body, responseAdapter);
+        } catch (IOException e) {
+            throw new BitBucketException("the response stream failed after it was partially consumed", e);
+        }
+    }
+
+    /**
+     * Replaces a ResourceNotFoundException failure with the fallback value, mirroring the try/catch blocks of the
+     * blocking methods
+     */
+    protected static <T> CompletableFuture<T> recoverNotFound(CompletableFuture<T> future, Supplier<T> fallback) {
+        return future.handle((value, e) -> {
+            if (e == null)
+                return value;
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof ResourceNotFoundException)
+                return fallback.get();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+        });
+    }
+
+    /**
+     * Walks all the pages returned by pageFunction, keeping up to BitBucketClientConfig.pageParallelism requests in flight
+     */
+    protected <T> CompletableFuture<Set<T>> getAllAsync(Function<Range, CompletableFuture<Page<T>>> pageFunction, int limit) {
+        return PageCollector.collect(pageFunction, limit, bitBucketHttpExecutor.getConfig().getPageParallelism());
+    }
+
+    /**
+     * Lazily walks all the pages returned by pageFunction, a page being requested only when the stream reaches it
+     */
+    protected static <T> Stream<T> stream(Function<Range, Page<T>> pageFunction, int limit) {
+        return StreamSupport.stream(new PageSpliterator<>(pageFunction, limit), false);
+    }
+
+    /**
+     * Waits for the future, rethrowing the BitBucketException (or any other runtime exception) which failed it
+     */
+    protected static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new BitBucketException(e.getCause());
+        }
+    }
+
+    private Optional<JsonElement> handleResponse(HttpRequest request, HttpResponse response) {
 
         String responseString = response.getBody();
         LOGGER.trace(String.format("doRestCall response: code=%d; response='%s'", response.getStatusCode(), responseString));
 
+        long start = System.nanoTime();
         Optional<JsonElement> jsonElement = getJsonElement(response, responseString);
         if (response.isSuccessful()) {
+            metrics.onParse(request.getEndpoint(), System.nanoTime() - start);
             return jsonElement;
         } else {
             List<BitBucketError> errors;
@@ -90,6 +219,42 @@ abstract class BitBucketClient {
 
     }
 
+    private <T> Optional<T> handleResponse(HttpRequest request, HttpResponse response, Reader body, StreamParser<T> responseAdapter) throws IOException {
+        if (body == null) {
+            //unsuccessful or empty response, already buffered
+            Optional<JsonElement> json = handleResponse(request, response);
+            EntityRegistry.Scope scope = entityRegistry.open();
+            try {
+                return json.map(responseAdapter::fromJsonTree);
+            } finally {
+                scope.close();
+            }
+        }
+        LOGGER.trace(String.format("doRestCall streamed response: code=%d", response.getStatusCode()));
+        JsonReader reader = new JsonReader(body);
+        try {
+            reader.peek();
+        } catch (EOFException e) {
+            //empty body
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        try {
+            T value;
+            EntityRegistry.Scope scope = entityRegistry.open();
+            try {
+                value = responseAdapter.read(reader);
+            } finally {
+                scope.close();
+            }
+            //includes the reads from the connection when the body is streamed
+            metrics.onParse(request.getEndpoint(), System.nanoTime() - start);
+            return Optional.ofNullable(value);
+        } catch (MalformedJsonException | JsonParseException | IllegalStateException | NumberFormatException e) {
+            throw createStashRestException(response, BitBucketException.toErrors("Failed to parse response: " + e.getMessage()), null);
+        }
+    }
+
     private Optional<JsonElement> getJsonElement(HttpResponse response, String responseString) {
         try {
             return responseString==null?Optional.empty():Optional.of(new JsonParser().parse(responseString));
@@ -118,4 +283,28 @@ abstract class BitBucketClient {
             throw new RuntimeException("UTF-8 not supported", ex);
         }
     }
+
+    /**
+     * Reads the response with the adapter. The same url may be read with different adapters (the activities of a pull
+     * request are also read as tasks), so the adapter is the result key of the cached values.
+     */
+    private class AdapterHandler<T> implements ResponseBodyHandler<Optional<T>> {
+        private final HttpRequest request;
+        private final StreamParser<T> responseAdapter;
+
+        private AdapterHandler(HttpRequest request, StreamParser<T> responseAdapter) {
+            this.request = request;
+            this.responseAdapter = responseAdapter;
+        }
+
+        @Override
+        public Optional<T> handle(HttpResponse response, Reader body) throws IOException {
+            return handleResponse(request, response, body, responseAdapter);
+        }
+
+        @Override
+        public Object getResultKey() {
+            return responseAdapter;
+        }
+    }
 }
@@ -0,0 +1,805 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.EntityRegistry;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool and timeout settings used by the http clients created by BitBucketClientFactory.
+ * All the durations are expressed in milliseconds; a negative timeout means the system default.
+ */
+public class BitBucketClientConfig {
+
+    private final int maxTotalConnections;
+    private final int maxConnectionsPerRoute;
+    private final long connectionTimeToLive;
+    private final long idleConnectionTimeout;
+    private final long idleConnectionReaperInterval;
+    private final int validateAfterInactivity;
+    private final int connectTimeout;
+    private final int socketTimeout;
+    private final int connectionRequestTimeout;
+    private final int ioThreadCount;
+    private final int pageParallelism;
+    private final int conditionalRequestCacheSize;
+    private final boolean contentCompression;
+    private final int maxAttempts;
+    private final long retryInitialBackoff;
+    private final long retryMaxBackoff;
+    private final Set<Integer> retryStatusCodes;
+    private final boolean retryOnIOException;
+    private final double rateLimit;
+    private final int rateLimitBurst;
+    private final Map<EndpointFamily, Double> endpointRateLimits;
+    private final boolean adaptiveConcurrency;
+    private final int minConcurrencyLimit;
+    private final int maxConcurrencyLimit;
+    private final double latencyTolerance;
+    private final Map<EndpointFamily, Integer> bulkheadLimits;
+    private final boolean circuitBreaker;
+    private final int circuitBreakerWindowSize;
+    private final int circuitBreakerMinimumCalls;
+    private final double circuitBreakerFailureRateThreshold;
+    private final long circuitBreakerOpenDuration;
+    private final RequestMetrics requestMetrics;
+    private final boolean requestCoalescing;
+    private final Path diskCacheDirectory;
+    private final long diskCacheMaxSize;
+    private final long diskCacheTtl;
+    private final int buildSummaryBatchSize;
+    private final int buildSummaryParallelism;
+    private final int buildSummaryCacheSize;
+    private final long buildSummaryBatchWindow;
+    private final EntityRegistry entityRegistry;
+
+    private BitBucketClientConfig(Builder builder) {
+        this.maxTotalConnections = builder.maxTotalConnections;
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+        this.connectionTimeToLive = builder.connectionTimeToLive;
+        this.idleConnectionTimeout = builder.idleConnectionTimeout;
+        this.idleConnectionReaperInterval = builder.idleConnectionReaperInterval;
+        this.validateAfterInactivity = builder.validateAfterInactivity;
+        this.connectTimeout = builder.connectTimeout;
+        this.socketTimeout = builder.socketTimeout;
+        this.connectionRequestTimeout = builder.connectionRequestTimeout;
+        this.ioThreadCount = builder.ioThreadCount;
+        this.pageParallelism = builder.pageParallelism;
+        this.conditionalRequestCacheSize = builder.conditionalRequestCacheSize;
+        this.contentCompression = builder.contentCompression;
+        this.maxAttempts = builder.maxAttempts;
+        this.retryInitialBackoff = builder.retryInitialBackoff;
+        this.retryMaxBackoff = builder.retryMaxBackoff;
+        this.retryStatusCodes = builder.retryStatusCodes;
+        this.retryOnIOException = builder.retryOnIOException;
+        this.rateLimit = builder.rateLimit;
+        this.rateLimitBurst = builder.rateLimitBurst;
+        this.endpointRateLimits = ImmutableMap.copyOf(builder.endpointRateLimits);
+        this.adaptiveConcurrency = builder.adaptiveConcurrency;
+        this.minConcurrencyLimit = builder.minConcurrencyLimit;
+        this.maxConcurrencyLimit = builder.maxConcurrencyLimit > 0 ? builder.maxConcurrencyLimit : builder.maxTotalConnections;
+        this.latencyTolerance = builder.latencyTolerance;
+        this.bulkheadLimits = ImmutableMap.copyOf(builder.bulkheadLimits);
+        this.circuitBreaker = builder.circuitBreaker;
+        this.circuitBreakerWindowSize = builder.circuitBreakerWindowSize;
+        this.circuitBreakerMinimumCalls = builder.circuitBreakerMinimumCalls;
+        this.circuitBreakerFailureRateThreshold = builder.circuitBreakerFailureRateThreshold;
+        this.circuitBreakerOpenDuration = builder.circuitBreakerOpenDuration;
+        this.requestMetrics = builder.requestMetrics;
+        this.requestCoalescing = builder.requestCoalescing;
+        this.diskCacheDirectory = builder.diskCacheDirectory;
+        this.diskCacheMaxSize = builder.diskCacheMaxSize;
+        this.diskCacheTtl = builder.diskCacheTtl;
+        this.buildSummaryBatchSize = builder.buildSummaryBatchSize;
+        this.buildSummaryParallelism = builder.buildSummaryParallelism;
+        this.buildSummaryCacheSize = builder.buildSummaryCacheSize;
+        this.buildSummaryBatchWindow = builder.buildSummaryBatchWindow;
+        this.entityRegistry = builder.entityRegistry;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static BitBucketClientConfig defaultConfig() {
+        return builder().build();
+    }
+
+    /**
+     * @return the maximum number of pooled connections
+     */
+    public int getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+
+    /**
+     * @return the maximum number of pooled connections to the Bitbucket host
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * @return the maximum lifetime of a pooled connection, negative means unlimited
+     */
+    public long getConnectionTimeToLive() {
+        return connectionTimeToLive;
+    }
+
+    /**
+     * @return connections idle for more than this value are closed by the reaper, 0 disables the idle eviction
+     */
+    public long getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+
+    /**
+     * @return how often the reaper checks the pools, 0 disables the reaper
+     */
+    public long getIdleConnectionReaperInterval() {
+        return idleConnectionReaperInterval;
+    }
+
+    /**
+     * @return a pooled connection idle for more than this value is validated before being reused
+     */
+    public int getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    /**
+     * @return how long a request waits for a connection to be leased from the pool
+     */
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    /**
+     * @return the number of I/O dispatcher threads used by the async client, 0 means one per available processor
+     */
+    public int getIoThreadCount() {
+        return ioThreadCount;
+    }
+
+    /**
+     * @return the maximum number of page requests in flight when all the pages of a resource are retrieved.
+     * 1 means the pages are retrieved one after another, 2 means the next page is prefetched while the current one
+     * is parsed, greater values fan out the requests at consecutive offsets
+     */
+    public int getPageParallelism() {
+        return pageParallelism;
+    }
+
+    /**
+     * @return the number of GET urls for which the validators (ETag, Last-Modified) and the parsed response are kept,
+     * so the next request for the url is conditional and a 304 Not Modified is answered locally. The parsed values are
+     * the same instances for all the callers and should not be modified. 0 disables the conditional requests
+     */
+    public int getConditionalRequestCacheSize() {
+        return conditionalRequestCacheSize;
+    }
+
+    /**
+     * @return true if the requests accept gzip and deflate encoded responses, which are inflated while being parsed
+     */
+    public boolean isContentCompression() {
+        return contentCompression;
+    }
+
+    /**
+     * @return the maximum number of times a GET or DELETE request is sent, 1 disables the retries
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return the upper bound of the first retry delay; the bound doubles with every attempt and the actual delay is
+     * a random value below it
+     */
+    public long getRetryInitialBackoff() {
+        return retryInitialBackoff;
+    }
+
+    /**
+     * @return the maximum delay between two attempts; a longer Retry-After sent by the server is not waited for
+     */
+    public long getRetryMaxBackoff() {
+        return retryMaxBackoff;
+    }
+
+    /**
+     * @return the response status codes that are retried
+     */
+    public Set<Integer> getRetryStatusCodes() {
+        return retryStatusCodes;
+    }
+
+    /**
+     * @return true if the requests failed with an I/O error (connection refused or reset, timeout...) are retried
+     */
+    public boolean isRetryOnIOException() {
+        return retryOnIOException;
+    }
+
+    /**
+     * @return the maximum number of requests per second sent to the server, 0 means unlimited
+     */
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * @return the number of requests that can be sent at once after an idle period, for every rate limit
+     */
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    /**
+     * @return the maximum number of requests per second for the endpoint families, applied on top of rateLimit
+     */
+    public Map<EndpointFamily, Double> getEndpointRateLimits() {
+        return endpointRateLimits;
+    }
+
+    /**
+     * @return true if the number of requests in flight is limited by an AIMD limit between minConcurrencyLimit and
+     * maxConcurrencyLimit, lowered on 429/503 responses, timeouts and latency spikes
+     */
+    public boolean isAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
+    public int getMinConcurrencyLimit() {
+        return minConcurrencyLimit;
+    }
+
+    /**
+     * @return the upper bound (and the start value) of the adaptive concurrency limit, maxTotalConnections by default
+     */
+    public int getMaxConcurrencyLimit() {
+        return maxConcurrencyLimit;
+    }
+
+    /**
+     * @return a response slower than latencyTolerance times the average latency lowers the adaptive concurrency limit
+     */
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    /**
+     * @return the maximum number of requests in flight for the endpoint families, so a slow family can not take all
+     * the connections of the pool
+     */
+    public Map<EndpointFamily, Integer> getBulkheadLimits() {
+        return bulkheadLimits;
+    }
+
+    /**
+     * @return true if every endpoint family has a circuit breaker failing the requests fast with a
+     * CircuitBreakerOpenException while the family is unhealthy
+     */
+    public boolean isCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return the number of the last calls used to compute the failure rate of a circuit breaker
+     */
+    public int getCircuitBreakerWindowSize() {
+        return circuitBreakerWindowSize;
+    }
+
+    /**
+     * @return the minimum number of calls in the window before a circuit breaker can open
+     */
+    public int getCircuitBreakerMinimumCalls() {
+        return circuitBreakerMinimumCalls;
+    }
+
+    /**
+     * @return the rate of failed calls (5xx responses and I/O errors) opening a circuit breaker, between 0 and 1
+     */
+    public double getCircuitBreakerFailureRateThreshold() {
+        return circuitBreakerFailureRateThreshold;
+    }
+
+    /**
+     * @return how many milliseconds a circuit breaker stays open before letting a probe request through
+     */
+    public long getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    /**
+     * @return the instrumentation called for every request attempt and parsed response, RequestMetrics.NONE by default
+     */
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
+    }
+
+    /**
+     * @return true if the concurrent identical GETs share one request and one parsed result
+     */
+    public boolean isRequestCoalescing() {
+        return requestCoalescing;
+    }
+
+    /**
+     * @return the directory where the responses kept by the conditional request caches are persisted, so they can be
+     * revalidated after a restart instead of being downloaded again; null (the default) to keep them only in memory
+     */
+    public Path getDiskCacheDirectory() {
+        return diskCacheDirectory;
+    }
+
+    /**
+     * @return the maximum number of bytes taken by the files of the disk cache
+     */
+    public long getDiskCacheMaxSize() {
+        return diskCacheMaxSize;
+    }
+
+    /**
+     * @return the number of milliseconds after which a response not revalidated is dropped from the disk cache
+     */
+    public long getDiskCacheTtl() {
+        return diskCacheTtl;
+    }
+
+    /**
+     * @return the maximum number of commits sent in one build summaries request; longer lists are split
+     */
+    public int getBuildSummaryBatchSize() {
+        return buildSummaryBatchSize;
+    }
+
+    /**
+     * @return the maximum number of build summaries requests in flight for one list of commits
+     */
+    public int getBuildSummaryParallelism() {
+        return buildSummaryParallelism;
+    }
+
+    /**
+     * @return the maximum number of build summaries cached per commit, 0 (the default) to disable the cache. Only the
+     * summaries without builds in progress are cached
+     */
+    public int getBuildSummaryCacheSize() {
+        return buildSummaryCacheSize;
+    }
+
+    /**
+     * @return the number of milliseconds the build summaries lookups are queued in order to be merged with the
+     * lookups of the other callers; a batch is sent earlier when it reaches buildSummaryBatchSize commits. 0 (the
+     * default) sends every lookup immediately
+     */
+    public long getBuildSummaryBatchWindow() {
+        return buildSummaryBatchWindow;
+    }
+
+    /**
+     * @return the registry sharing one instance between the equal users, projects and repositories parsed,
+     * EntityRegistry.NONE (no sharing) by default
+     */
+    public EntityRegistry getEntityRegistry() {
+        return entityRegistry;
+    }
+
+    @Override
+    public String toString() {
+        return "BitBucketClientConfig{" +
+                "maxTotalConnections=" + maxTotalConnections +
+                ", maxConnectionsPerRoute=" + maxConnectionsPerRoute +
+                ", connectionTimeToLive=" + connectionTimeToLive +
+                ", idleConnectionTimeout=" + idleConnectionTimeout +
+                ", idleConnectionReaperInterval=" + idleConnectionReaperInterval +
+                ", validateAfterInactivity=" + validateAfterInactivity +
+                ", connectTimeout=" + connectTimeout +
+                ", socketTimeout=" + socketTimeout +
+                ", connectionRequestTimeout=" + connectionRequestTimeout +
+                ", ioThreadCount=" + ioThreadCount +
+                ", pageParallelism=" + pageParallelism +
+                ", conditionalRequestCacheSize=" + conditionalRequestCacheSize +
+                ", contentCompression=" + contentCompression +
+                ", maxAttempts=" + maxAttempts +
+                ", retryInitialBackoff=" + retryInitialBackoff +
+                ", retryMaxBackoff=" + retryMaxBackoff +
+                ", retryStatusCodes=" + retryStatusCodes +
+                ", retryOnIOException=" + retryOnIOException +
+                ", rateLimit=" + rateLimit +
+                ", rateLimitBurst=" + rateLimitBurst +
+                ", endpointRateLimits=" + endpointRateLimits +
+                ", adaptiveConcurrency=" + adaptiveConcurrency +
+                ", minConcurrencyLimit=" + minConcurrencyLimit +
+                ", maxConcurrencyLimit=" + maxConcurrencyLimit +
+                ", latencyTolerance=" + latencyTolerance +
+                ", bulkheadLimits=" + bulkheadLimits +
+                ", circuitBreaker=" + circuitBreaker +
+                ", circuitBreakerWindowSize=" + circuitBreakerWindowSize +
+                ", circuitBreakerMinimumCalls=" + circuitBreakerMinimumCalls +
+                ", circuitBreakerFailureRateThreshold=" + circuitBreakerFailureRateThreshold +
+                ", circuitBreakerOpenDuration=" + circuitBreakerOpenDuration +
+                ", requestMetrics=" + requestMetrics +
+                ", requestCoalescing=" + requestCoalescing +
+                ", diskCacheDirectory=" + diskCacheDirectory +
+                ", diskCacheMaxSize=" + diskCacheMaxSize +
+                ", diskCacheTtl=" + diskCacheTtl +
+                ", buildSummaryBatchSize=" + buildSummaryBatchSize +
+                ", buildSummaryParallelism=" + buildSummaryParallelism +
+                ", buildSummaryCacheSize=" + buildSummaryCacheSize +
+                ", buildSummaryBatchWindow=" + buildSummaryBatchWindow +
+                ", entityRegistry=" + entityRegistry +
+                '}';
+    }
+
+    public static class Builder {
+        private int maxTotalConnections = 5;
+        private int maxConnectionsPerRoute = 4;
+        private long connectionTimeToLive = -1;
+        private long idleConnectionTimeout = 30_000;
+        private long idleConnectionReaperInterval = 5_000;
+        private int validateAfterInactivity = 2_000;
+        private int connectTimeout = -1;
+        private int socketTimeout = -1;
+        private int connectionRequestTimeout = -1;
+        private int ioThreadCount = 0;
+        private int pageParallelism = 2;
+        private int conditionalRequestCacheSize = 256;
+        private boolean contentCompression = true;
+        private int maxAttempts = 3;
+        private long retryInitialBackoff = 200;
+        private long retryMaxBackoff = 10_000;
+        private Set<Integer> retryStatusCodes = ImmutableSet.of(429, 502, 503, 504);
+        private boolean retryOnIOException = true;
+        private double rateLimit = 0;
+        private int rateLimitBurst = 1;
+        private Map<EndpointFamily, Double> endpointRateLimits = new EnumMap<>(EndpointFamily.class);
+        private boolean adaptiveConcurrency = false;
+        private int minConcurrencyLimit = 1;
+        private int maxConcurrencyLimit = 0;
+        private double latencyTolerance = 2;
+        private Map<EndpointFamily, Integer> bulkheadLimits = new EnumMap<>(EndpointFamily.class);
+        private boolean circuitBreaker = false;
+        private int circuitBreakerWindowSize = 20;
+        private int circuitBreakerMinimumCalls = 10;
+        private double circuitBreakerFailureRateThreshold = 0.5;
+        private long circuitBreakerOpenDuration = 30_000;
+        private RequestMetrics requestMetrics = RequestMetrics.NONE;
+        private boolean requestCoalescing = true;
+        private Path diskCacheDirectory = null;
+        private long diskCacheMaxSize = 100 * 1024 * 1024;
+        private long diskCacheTtl = TimeUnit.DAYS.toMillis(7);
+        private int buildSummaryBatchSize = 100;
+        private int buildSummaryParallelism = 4;
+        private int buildSummaryCacheSize = 0;
+        private long buildSummaryBatchWindow = 0;
+        private EntityRegistry entityRegistry = EntityRegistry.NONE;
+
+        public Builder() {
+        }
+
+        public Builder setMaxTotalConnections(int maxTotalConnections) {
+            if (maxTotalConnections <= 0)
+                throw new IllegalArgumentException("maxTotalConnections should be greater than 0 not:" + maxTotalConnections);
+            this.maxTotalConnections = maxTotalConnections;
+            return this;
+        }
+
+        public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            if (maxConnectionsPerRoute <= 0)
+                throw new IllegalArgumentException("maxConnectionsPerRoute should be greater than 0 not:" + maxConnectionsPerRoute);
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public Builder setConnectionTimeToLive(long connectionTimeToLive) {
+            this.connectionTimeToLive = connectionTimeToLive;
+            return this;
+        }
+
+        public Builder setIdleConnectionTimeout(long idleConnectionTimeout) {
+            if (idleConnectionTimeout < 0)
+                throw new IllegalArgumentException("idleConnectionTimeout should be positive not:" + idleConnectionTimeout);
+            this.idleConnectionTimeout = idleConnectionTimeout;
+            return this;
+        }
+
+        public Builder setIdleConnectionReaperInterval(long idleConnectionReaperInterval) {
+            if (idleConnectionReaperInterval < 0)
+                throw new IllegalArgumentException("idleConnectionReaperInterval should be positive not:" + idleConnectionReaperInterval);
+            this.idleConnectionReaperInterval = idleConnectionReaperInterval;
+            return this;
+        }
+
+        public Builder setValidateAfterInactivity(int validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+
+        public Builder setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder setSocketTimeout(int socketTimeout) {
+            this.socketTimeout = socketTimeout;
+            return this;
+        }
+
+        public Builder setConnectionRequestTimeout(int connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+            return this;
+        }
+
+        public Builder setIoThreadCount(int ioThreadCount) {
+            if (ioThreadCount < 0)
+                throw new IllegalArgumentException("ioThreadCount should be positive not:" + ioThreadCount);
+            this.ioThreadCount = ioThreadCount;
+            return this;
+        }
+
+        public Builder setPageParallelism(int pageParallelism) {
+            if (pageParallelism < 1)
+                throw new IllegalArgumentException("pageParallelism should be greater than 0 not:" + pageParallelism);
+            this.pageParallelism = pageParallelism;
+            return this;
+        }
+
+        public Builder setConditionalRequestCacheSize(int conditionalRequestCacheSize) {
+            if (conditionalRequestCacheSize < 0)
+                throw new IllegalArgumentException("conditionalRequestCacheSize should be positive not:" + conditionalRequestCacheSize);
+            this.conditionalRequestCacheSize = conditionalRequestCacheSize;
+            return this;
+        }
+
+        public Builder setContentCompression(boolean contentCompression) {
+            this.contentCompression = contentCompression;
+            return this;
+        }
+
+        public Builder setMaxAttempts(int maxAttempts) {
+            if (maxAttempts < 1)
+                throw new IllegalArgumentException("maxAttempts should be greater than 0 not:" + maxAttempts);
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder setRetryInitialBackoff(long retryInitialBackoff) {
+            if (retryInitialBackoff < 0)
+                throw new IllegalArgumentException("retryInitialBackoff should be positive not:" + retryInitialBackoff);
+            this.retryInitialBackoff = retryInitialBackoff;
+            return this;
+        }
+
+        public Builder setRetryMaxBackoff(long retryMaxBackoff) {
+            if (retryMaxBackoff < 0)
+                throw new IllegalArgumentException("retryMaxBackoff should be positive not:" + retryMaxBackoff);
+            this.retryMaxBackoff = retryMaxBackoff;
+            return this;
+        }
+
+        public Builder setRetryStatusCodes(Integer... retryStatusCodes) {
+            this.retryStatusCodes = ImmutableSet.copyOf(retryStatusCodes);
+            return this;
+        }
+
+        public Builder setRetryOnIOException(boolean retryOnIOException) {
+            this.retryOnIOException = retryOnIOException;
+            return this;
+        }
+
+        public Builder setRateLimit(double rateLimit) {
+            if (rateLimit < 0)
+                throw new IllegalArgumentException("rateLimit should be positive not:" + rateLimit);
+            this.rateLimit = rateLimit;
+            return this;
+        }
+
+        public Builder setRateLimitBurst(int rateLimitBurst) {
+            if (rateLimitBurst < 1)
+                throw new IllegalArgumentException("rateLimitBurst should be greater than 0 not:" + rateLimitBurst);
+            this.rateLimitBurst = rateLimitBurst;
+            return this;
+        }
+
+        public Builder setEndpointRateLimit(EndpointFamily family, double rateLimit) {
+            if (rateLimit < 0)
+                throw new IllegalArgumentException("rateLimit should be positive not:" + rateLimit);
+            if (rateLimit == 0) {
+                endpointRateLimits.remove(family);
+            } else {
+                endpointRateLimits.put(family, rateLimit);
+            }
+            return this;
+        }
+
+        public Builder setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+            this.adaptiveConcurrency = adaptiveConcurrency;
+            return this;
+        }
+
+        public Builder setMinConcurrencyLimit(int minConcurrencyLimit) {
+            if (minConcurrencyLimit < 1)
+                throw new IllegalArgumentException("minConcurrencyLimit should be greater than 0 not:" + minConcurrencyLimit);
+            this.minConcurrencyLimit = minConcurrencyLimit;
+            return this;
+        }
+
+        public Builder setMaxConcurrencyLimit(int maxConcurrencyLimit) {
+            if (maxConcurrencyLimit < 1)
+                throw new IllegalArgumentException("maxConcurrencyLimit should be greater than 0 not:" + maxConcurrencyLimit);
+            this.maxConcurrencyLimit = maxConcurrencyLimit;
+            return this;
+        }
+
+        public Builder setLatencyTolerance(double latencyTolerance) {
+            if (latencyTolerance <= 1)
+                throw new IllegalArgumentException("latencyTolerance should be greater than 1 not:" + latencyTolerance);
+            this.latencyTolerance = latencyTolerance;
+            return this;
+        }
+
+        /**
+         * @param bulkheadLimit the maximum number of requests in flight for the family, 0 for no limit
+         */
+        public Builder setBulkheadLimit(EndpointFamily family, int bulkheadLimit) {
+            if (bulkheadLimit < 0)
+                throw new IllegalArgumentException("bulkheadLimit should be positive not:" + bulkheadLimit);
+            if (bulkheadLimit == 0) {
+                bulkheadLimits.remove(family);
+            } else {
+                bulkheadLimits.put(family, bulkheadLimit);
+            }
+            return this;
+        }
+
+        public Builder setCircuitBreaker(boolean circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        public Builder setCircuitBreakerWindowSize(int circuitBreakerWindowSize) {
+            if (circuitBreakerWindowSize < 1)
+                throw new IllegalArgumentException("circuitBreakerWindowSize should be greater than 0 not:" + circuitBreakerWindowSize);
+            this.circuitBreakerWindowSize = circuitBreakerWindowSize;
+            return this;
+        }
+
+        public Builder setCircuitBreakerMinimumCalls(int circuitBreakerMinimumCalls) {
+            if (circuitBreakerMinimumCalls < 1)
+                throw new IllegalArgumentException("circuitBreakerMinimumCalls should be greater than 0 not:" + circuitBreakerMinimumCalls);
+            this.circuitBreakerMinimumCalls = circuitBreakerMinimumCalls;
+            return this;
+        }
+
+        public Builder setCircuitBreakerFailureRateThreshold(double circuitBreakerFailureRateThreshold) {
+            if (circuitBreakerFailureRateThreshold <= 0 || circuitBreakerFailureRateThreshold > 1)
+                throw new IllegalArgumentException("circuitBreakerFailureRateThreshold should be between 0 and 1 not:" + circuitBreakerFailureRateThreshold);
+            this.circuitBreakerFailureRateThreshold = circuitBreakerFailureRateThreshold;
+            return this;
+        }
+
+        public Builder setCircuitBreakerOpenDuration(long circuitBreakerOpenDuration) {
+            if (circuitBreakerOpenDuration < 0)
+                throw new IllegalArgumentException("circuitBreakerOpenDuration should be positive not:" + circuitBreakerOpenDuration);
+            this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+            return this;
+        }
+
+        public Builder setRequestMetrics(RequestMetrics requestMetrics) {
+            if (requestMetrics == null)
+                throw new IllegalArgumentException("requestMetrics should not be null");
+            this.requestMetrics = requestMetrics;
+            return this;
+        }
+
+        public Builder setRequestCoalescing(boolean requestCoalescing) {
+            this.requestCoalescing = requestCoalescing;
+            return this;
+        }
+
+        /**
+         * @param diskCacheDirectory requires a conditionalRequestCacheSize greater than 0, null to disable the disk cache
+         */
+        public Builder setDiskCacheDirectory(Path diskCacheDirectory) {
+            this.diskCacheDirectory = diskCacheDirectory;
+            return this;
+        }
+
+        public Builder setDiskCacheMaxSize(long diskCacheMaxSize) {
+            if (diskCacheMaxSize <= 0)
+                throw new IllegalArgumentException("diskCacheMaxSize should be greater than 0 not:" + diskCacheMaxSize);
+            this.diskCacheMaxSize = diskCacheMaxSize;
+            return this;
+        }
+
+        public Builder setDiskCacheTtl(long diskCacheTtl) {
+            if (diskCacheTtl <= 0)
+                throw new IllegalArgumentException("diskCacheTtl should be greater than 0 not:" + diskCacheTtl);
+            this.diskCacheTtl = diskCacheTtl;
+            return this;
+        }
+
+        public Builder setBuildSummaryBatchSize(int buildSummaryBatchSize) {
+            if (buildSummaryBatchSize <= 0)
+                throw new IllegalArgumentException("buildSummaryBatchSize should be greater than 0 not:" + buildSummaryBatchSize);
+            this.buildSummaryBatchSize = buildSummaryBatchSize;
+            return this;
+        }
+
+        public Builder setBuildSummaryParallelism(int buildSummaryParallelism) {
+            if (buildSummaryParallelism <= 0)
+                throw new IllegalArgumentException("buildSummaryParallelism should be greater than 0 not:" + buildSummaryParallelism);
+            this.buildSummaryParallelism = buildSummaryParallelism;
+            return this;
+        }
+
+        public Builder setBuildSummaryCacheSize(int buildSummaryCacheSize) {
+            if (buildSummaryCacheSize < 0)
+                throw new IllegalArgumentException("buildSummaryCacheSize should be positive not:" + buildSummaryCacheSize);
+            this.buildSummaryCacheSize = buildSummaryCacheSize;
+            return this;
+        }
+
+        public Builder setBuildSummaryBatchWindow(long buildSummaryBatchWindow) {
+            if (buildSummaryBatchWindow < 0)
+                throw new IllegalArgumentException("buildSummaryBatchWindow should be positive not:" + buildSummaryBatchWindow);
+            this.buildSummaryBatchWindow = buildSummaryBatchWindow;
+            return this;
+        }
+
+        public Builder setEntityRegistry(EntityRegistry entityRegistry) {
+            if (entityRegistry == null)
+                throw new IllegalArgumentException("entityRegistry should not be null");
+            this.entityRegistry = entityRegistry;
+            return this;
+        }
+
+        public BitBucketClientConfig build() {
+            if (maxConnectionsPerRoute > maxTotalConnections)
+                throw new IllegalArgumentException("maxConnectionsPerRoute should not be greater than maxTotalConnections");
+            if (retryInitialBackoff > retryMaxBackoff)
+                throw new IllegalArgumentException("retryInitialBackoff should not be greater than retryMaxBackoff");
+            if (minConcurrencyLimit > (maxConcurrencyLimit > 0 ? maxConcurrencyLimit : maxTotalConnections))
+                throw new IllegalArgumentException("minConcurrencyLimit should not be greater than maxConcurrencyLimit");
+            if (circuitBreakerMinimumCalls > circuitBreakerWindowSize)
+                throw new IllegalArgumentException("circuitBreakerMinimumCalls should not be greater than circuitBreakerWindowSize");
+            if (diskCacheDirectory != null && conditionalRequestCacheSize == 0)
+                throw new IllegalArgumentException("the disk cache requires a conditionalRequestCacheSize greater than 0");
+            return new BitBucketClientConfig(this);
+        }
+    }
+}
@@ -21,6 +21,8 @@ import com.ccreanga.bitbucket.rest.client.BuildStatusClient;
 import com.ccreanga.bitbucket.rest.client.ProjectClient;
 import com.ccreanga.bitbucket.rest.client.SshClient;
 
+import java.util.Map;
+
 public class BitBucketClientFactory {
 
     private ProjectClient projectClient;
@@ -29,7 +31,11 @@ public class BitBucketClientFactory {
     private BitBucketHttpExecutor bitBucketHttpExecutor;
 
     public BitBucketClientFactory(String baseUrl, BitBucketCredentials credentials) {
-        bitBucketHttpExecutor = new BitBucketHttpExecutor(baseUrl, credentials);
+        this(baseUrl, credentials, BitBucketClientConfig.defaultConfig());
+    }
+
+    public BitBucketClientFactory(String baseUrl, BitBucketCredentials credentials, BitBucketClientConfig config) {
+        bitBucketHttpExecutor = new BitBucketHttpExecutor(baseUrl, credentials, config);
         projectClient = new ProjectClientRest(bitBucketHttpExecutor);
         buildStatusClient = new BuildStatusClientRest(bitBucketHttpExecutor);
         sshClient = new SshClientRest(bitBucketHttpExecutor);
@@ -39,6 +45,41 @@ public class BitBucketClientFactory {
         bitBucketHttpExecutor.shutdown();
     }
 
+    /**
+     * @return the bytes received for the compressed responses, before and after the inflation
+     */
+    public CompressionStats getCompressionStats() {
+        return bitBucketHttpExecutor.getCompressionStats();
+    }
+
+    /**
+     * @return the number of requests sent and retried
+     */
+    public RetryStats getRetryStats() {
+        return bitBucketHttpExecutor.getRetryStats();
+    }
+
+    /**
+     * @return the current adaptive concurrency limit, -1 if BitBucketClientConfig.adaptiveConcurrency is disabled
+     */
+    public int getConcurrencyLimit() {
+        return bitBucketHttpExecutor.getConcurrencyLimit();
+    }
+
+    /**
+     * @return the state of the circuit breaker of every endpoint family, empty if the circuit breakers are disabled
+     */
+    public Map<EndpointFamily, CircuitBreakerState> getCircuitBreakerStates() {
+        return bitBucketHttpExecutor.getCircuitBreakerStates();
+    }
+
+    /**
+     * @return the number of GETs served by an identical request already in flight
+     */
+    public long getCoalescedRequests() {
+        return bitBucketHttpExecutor.getCoalescedRequests();
+    }
+
     public ProjectClient getProjectClient() {
         return projectClient;
     }
@@ -20,92 +20,605 @@ package com.ccreanga.bitbucket.rest.client.http;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import org.apache.http.Header;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
 import org.apache.http.StatusLine;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.AuthCache;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.protocol.BasicAsyncResponseConsumer;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.net.URI;
-import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 class BitBucketHttpExecutor {
 
     private static Logger LOGGER = LoggerFactory.getLogger(BitBucketHttpExecutor.class);
+
     private CloseableHttpClient httpClient;
+    private CloseableHttpAsyncClient asyncHttpClient;
+    private IdleConnectionReaper idleConnectionReaper;
     private String baseUrl;
-    private HttpClientContext context;
+    private BitBucketClientConfig config;
+    private CredentialsProvider credentialsProvider;
+    private AuthCache authCache;
+    private ConditionalRequestCache responseCache;
+    private ConditionalRequestCache modelCache;
+    private RequestCoalescer responseCoalescer;
+    private RequestCoalescer modelCoalescer;
+    private ContentDecoder contentDecoder = new ContentDecoder();
+    private RetryPolicy retryPolicy;
+    private RequestThrottle throttle;
+    private ScheduledExecutorService scheduler;
+    private RequestMetrics metrics;
 
     public BitBucketHttpExecutor(String baseUrl, BitBucketCredentials credentials) {
+        this(baseUrl, credentials, BitBucketClientConfig.defaultConfig());
+    }
+
+    public BitBucketHttpExecutor(String baseUrl, BitBucketCredentials credentials, BitBucketClientConfig config) {
         this.baseUrl = baseUrl;
+        this.config = config;
 
         HttpHost targetHost = HttpHost.create(baseUrl);
-        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-        connectionManager.setMaxTotal(5);
-        connectionManager.setDefaultMaxPerRoute(4);
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(config.getConnectionTimeToLive(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(config.getMaxTotalConnections());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivity());
 
+        PoolingNHttpClientConnectionManager asyncConnectionManager = createAsyncConnectionManager(config);
+        asyncConnectionManager.setMaxTotal(config.getMaxTotalConnections());
+        asyncConnectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+
+        RequestConfig requestConfig = RequestConfig.custom().
+                setConnectTimeout(config.getConnectTimeout()).
+                setSocketTimeout(config.getSocketTimeout()).
+                setConnectionRequestTimeout(config.getConnectionRequestTimeout()).
+                build();
 
         BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
         credentialsProvider.setCredentials(
                 new AuthScope(targetHost),
                 new UsernamePasswordCredentials(credentials.getUsername(), credentials.getPassword())
         );
+        this.credentialsProvider = credentialsProvider;
 
-        AuthCache authCache = new BasicAuthCache();
+        authCache = new BasicAuthCache();
         BasicScheme basicAuth = new BasicScheme();
         authCache.put(targetHost, basicAuth);
 
-        context = HttpClientContext.create();
-        context.setCredentialsProvider(credentialsProvider);
-        context.setAuthCache(authCache);
+        retryPolicy = new RetryPolicy(config);
+        throttle = new RequestThrottle(config);
+        metrics = config.getRequestMetrics();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bitbucket-request-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (config.isRequestCoalescing()) {
+            responseCoalescer = new RequestCoalescer();
+            modelCoalescer = new RequestCoalescer();
+        }
+        if (config.getConditionalRequestCacheSize() > 0) {
+            DiskResponseStore diskStore = createDiskStore(baseUrl, credentials, config);
+            responseCache = new ConditionalRequestCache(config.getConditionalRequestCacheSize(), diskStore);
+            modelCache = new ConditionalRequestCache(config.getConditionalRequestCacheSize(), diskStore);
+        }
 
-        httpClient =
+        HttpClientBuilder httpClientBuilder =
                 HttpClients.custom().
+                        //the responses are decoded by contentDecoder, the same way for the blocking and the async client
+                        disableContentCompression().
+                        setRequestExecutor(new TimedRequestExecutor()).
                         setConnectionManager(connectionManager).
+                        setDefaultRequestConfig(requestConfig).
+                        setDefaultCredentialsProvider(credentialsProvider);
+        if (config.getMaxAttempts() > 1) {
+            //the I/O errors are retried by retryPolicy
+            httpClientBuilder.disableAutomaticRetries();
+        }
+        httpClient = httpClientBuilder.build();
+
+        //the async client multiplexes all the connections over a few I/O dispatcher threads (one per core)
+        asyncHttpClient =
+                HttpAsyncClients.custom().
+                        setConnectionManager(asyncConnectionManager).
+                        setDefaultRequestConfig(requestConfig).
                         setDefaultCredentialsProvider(credentialsProvider).
                         build();
+        asyncHttpClient.start();
 
+        if (config.getIdleConnectionReaperInterval() > 0) {
+            idleConnectionReaper = new IdleConnectionReaper(
+                    connectionManager,
+                    asyncConnectionManager,
+                    config.getIdleConnectionTimeout(),
+                    config.getIdleConnectionReaperInterval());
+        }
+    }
+
+    /**
+     * @return the store shared by the two conditional request caches, or null if there is no disk cache directory
+     */
+    private static DiskResponseStore createDiskStore(String baseUrl, BitBucketCredentials credentials, BitBucketClientConfig config) {
+        if (config.getDiskCacheDirectory() == null)
+            return null;
+        try {
+            //the users can see different data, so the entries of a user are not visible to the others
+            return new DiskResponseStore(config.getDiskCacheDirectory(), credentials.getUsername() + "@" + baseUrl,
+                    config.getDiskCacheMaxSize(), config.getDiskCacheTtl());
+        } catch (IOException e) {
+            throw new BitBucketException("cannot open the disk cache directory " + config.getDiskCacheDirectory(), e);
+        }
+    }
+
+    private PoolingNHttpClientConnectionManager createAsyncConnectionManager(BitBucketClientConfig config) {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom().
+                setIoThreadCount(config.getIoThreadCount() > 0 ? config.getIoThreadCount() : Runtime.getRuntime().availableProcessors()).
+                setConnectTimeout(Math.max(config.getConnectTimeout(), 0)).
+                setSoTimeout(Math.max(config.getSocketTimeout(), 0)).
+                build();
+        Registry<SchemeIOSessionStrategy> sessionStrategies = RegistryBuilder.<SchemeIOSessionStrategy>create().
+                register("http", NoopIOSessionStrategy.INSTANCE).
+                register("https", SSLIOSessionStrategy.getDefaultStrategy()).
+                build();
+        try {
+            return new PoolingNHttpClientConnectionManager(
+                    new DefaultConnectingIOReactor(ioReactorConfig),
+                    null,
+                    sessionStrategies,
+                    null,
+                    null,
+                    config.getConnectionTimeToLive(),
+                    TimeUnit.MILLISECONDS);
+        } catch (IOReactorException e) {
+            throw new BitBucketException("cannot create the I/O reactor", e);
+        }
     }
 
+    public BitBucketClientConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return the scheduler of the retries, usable by the clients for short timer tasks
+     */
+    ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    public CompressionStats getCompressionStats() {
+        return contentDecoder.getStats();
+    }
+
+    public RetryStats getRetryStats() {
+        return retryPolicy.getStats();
+    }
+
+    /**
+     * @return the current adaptive concurrency limit, -1 if disabled
+     */
+    public int getConcurrencyLimit() {
+        return throttle.getConcurrencyLimit();
+    }
+
+    public Map<EndpointFamily, CircuitBreakerState> getCircuitBreakerStates() {
+        return throttle.getCircuitBreakerStates();
+    }
+
+    /**
+     * @return the number of GETs served by an identical request already in flight
+     */
+    public long getCoalescedRequests() {
+        return responseCoalescer == null ? 0 : responseCoalescer.getCoalesced() + modelCoalescer.getCoalesced();
+    }
+
+    /**
+     * Concurrent identical GETs share the same request and the same response, see BitBucketClientConfig.requestCoalescing
+     */
     public HttpResponse execute(HttpRequest httpRequest) throws BitBucketException {
-        HttpRequestBase request;
+        if (!isCoalescable(responseCoalescer, httpRequest))
+            return execute(httpRequest, responseCache, (entry, response) -> toHttpResponse(httpRequest, entry, response));
+        return responseCoalescer.execute(httpRequest.getUrl(),
+                () -> execute(httpRequest, responseCache, (entry, response) -> toHttpResponse(httpRequest, entry, response)));
+    }
+
+    /**
+     * Executes the request without blocking the caller thread. The returned future is completed by one of the
+     * I/O dispatcher threads, so the dependent stages should not block.
+     * @param httpRequest request
+     * @return a future completed with the response or exceptionally with a BitBucketException
+     */
+    public CompletableFuture<HttpResponse> executeAsync(HttpRequest httpRequest) {
+        ResponseConverter<HttpResponse> converter = (entry, response) -> toHttpResponse(httpRequest, entry, response);
+        if (!isCoalescable(responseCoalescer, httpRequest)) {
+            CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+            executeAsync(httpRequest, 1, responseCache, converter, result);
+            return result;
+        }
+        return responseCoalescer.executeAsync(httpRequest.getUrl(), result -> executeAsync(httpRequest, 1, responseCache, converter, result));
+    }
+
+    /**
+     * Executes the request and hands the entity content to the handler as it comes from the socket, without buffering
+     * the body; the connection is released after the handler returns.
+     * A GET answered with 304 Not Modified returns, without calling the handler, the value produced for the previous
+     * response by a handler with the same result key (see ResponseBodyHandler.getResultKey()). That value is the same
+     * instance for all the callers and should not be modified. Like the 304 responses, the concurrent GETs of the url
+     * with handlers of equal result keys share the value produced by the handler of the first one.
+     * @param httpRequest request
+     * @param handler consumes the response
+     * @return the value returned by the handler
+     */
+    public <T> T execute(HttpRequest httpRequest, ResponseBodyHandler<T> handler) throws BitBucketException {
+        ResponseConverter<T> converter = new HandlerConverter<>(httpRequest, handler);
+        if (!isCoalescable(modelCoalescer, httpRequest))
+            return execute(httpRequest, modelCache, converter);
+        return modelCoalescer.execute(coalescingKey(httpRequest, converter), () -> execute(httpRequest, modelCache, converter));
+    }
+
+    /**
+     * Asynchronous version of execute(HttpRequest, ResponseBodyHandler). The async client holds the entity in its
+     * own buffer, the handler reads it from there without the intermediate byte array and String copies.
+     * The handler runs on an I/O dispatcher thread.
+     * @param httpRequest request
+     * @param handler consumes the response
+     * @return a future completed with the value returned by the handler
+     */
+    public <T> CompletableFuture<T> executeAsync(HttpRequest httpRequest, ResponseBodyHandler<T> handler) {
+        ResponseConverter<T> converter = new HandlerConverter<>(httpRequest, handler);
+        if (!isCoalescable(modelCoalescer, httpRequest)) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            executeAsync(httpRequest, 1, modelCache, converter, result);
+            return result;
+        }
+        return modelCoalescer.<T>executeAsync(coalescingKey(httpRequest, converter),
+                result -> executeAsync(httpRequest, 1, modelCache, converter, result));
+    }
+
+    /**
+     * The same url may be read into different types, so the calls are coalesced by url and result key
+     */
+    private static List<Object> coalescingKey(HttpRequest httpRequest, ResponseConverter<?> converter) {
+        return Arrays.asList(httpRequest.getUrl(), converter.getResultKey());
+    }
+
+    /**
+     * The credentials are the same for all the requests of the executor, so the url identifies a GET
+     */
+    private static boolean isCoalescable(RequestCoalescer coalescer, HttpRequest httpRequest) {
+        return coalescer != null && httpRequest.getMethod() == HttpMethod.GET && httpRequest.isShared();
+    }
+
+    /**
+     * Sends the request until the response is not retryable according to the retry policy or the attempts are
+     * exhausted, sleeping between the attempts
+     */
+    private <T> T execute(HttpRequest httpRequest, ConditionalRequestCache cache, ResponseConverter<T> converter) {
+        for (int attempt = 1; ; attempt++) {
+            long delay;
+            try {
+                return send(httpRequest, attempt, cache, converter);
+            } catch (RetryableResponseException e) {
+                delay = e.delay;
+            } catch (IOException e) {
+                delay = retryPolicy.getDelay(httpRequest, attempt, e);
+                if (delay < 0)
+                    throw new BitBucketException(e);
+            }
+            sleep(delay);
+        }
+    }
+
+    /**
+     * Sends one attempt after waiting for the rate limits and for a slot of the bulkhead and of the concurrency limit.
+     * An open circuit breaker fails the request without retrying it. Once acquired, the slot is given back on every
+     * exit path, including the failures of the request creation.
+     */
+    private <T> T send(HttpRequest httpRequest, int attempt, ConditionalRequestCache cache, ResponseConverter<T> converter) throws IOException {
+        sleep(throttle.reserve(httpRequest));
+        throttle.acquire(httpRequest);
+        RequestTiming timing = new RequestTiming();
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            HttpRequestBase request = createRequest(httpRequest);
+            ConditionalRequestCache.Entry entry = prepare(cache, httpRequest, converter.getResultKey(), request);
+            retryPolicy.onAttempt();
+            HttpClientContext context = createContext();
+            context.setAttribute(RequestTiming.ATTRIBUTE, timing);
+            return httpClient.execute(request, response -> {
+                int statusCode = response.getStatusLine().getStatusCode();
+                throttle.release(httpRequest, timing.onResponseReceived(), statusCode);
+                released.set(true);
+                CountingEntity entity = countBytes(response);
+                try {
+                    long statusDelay = retryPolicy.getDelay(httpRequest, attempt, response);
+                    if (statusDelay >= 0) {
+                        //consumed so the connection goes back to the pool
+                        EntityUtils.consumeQuietly(response.getEntity());
+                        throw new RetryableResponseException(statusDelay);
+                    }
+                    return converter.convert(entry, response);
+                } finally {
+                    metrics.onRequest(timing.toSample(httpRequest, statusCode, entity));
+                }
+            }, context);
+        } catch (IOException | RuntimeException e) {
+            if (released.compareAndSet(false, true)) {
+                throttle.release(httpRequest, e);
+                metrics.onRequest(timing.toSample(httpRequest, 0, null));
+            }
+            throw e;
+        } finally {
+            if (released.compareAndSet(false, true))
+                throttle.cancel(httpRequest);
+        }
+    }
+
+    private <T> void executeAsync(HttpRequest httpRequest, int attempt, ConditionalRequestCache cache, ResponseConverter<T> converter,
+                                  CompletableFuture<T> result) {
+        long wait = throttle.reserve(httpRequest);
+        Runnable send = () -> {
+            try {
+                throttle.acquireAsync(httpRequest, () -> sendAsync(httpRequest, attempt, cache, converter, result));
+            } catch (CircuitBreakerOpenException e) {
+                result.completeExceptionally(e);
+            }
+        };
+        if (wait > 0) {
+            schedule(send, wait, result);
+        } else {
+            send.run();
+        }
+    }
+
+    private <T> void sendAsync(HttpRequest httpRequest, int attempt, ConditionalRequestCache cache, ResponseConverter<T> converter,
+                               CompletableFuture<T> result) {
+        if (result.isDone()) {
+            //cancelled by the caller while waiting
+            throttle.cancel(httpRequest);
+            return;
+        }
+        RequestTiming timing = new RequestTiming();
         try {
-            request = createRequest(httpRequest);
+            HttpRequestBase request = createRequest(httpRequest);
+            ConditionalRequestCache.Entry entry = prepare(cache, httpRequest, converter.getResultKey(), request);
+            retryPolicy.onAttempt();
+            BasicAsyncResponseConsumer consumer = new BasicAsyncResponseConsumer() {
+                @Override
+                protected void onResponseReceived(org.apache.http.HttpResponse response) throws IOException {
+                    timing.onResponseReceived();
+                    super.onResponseReceived(response);
+                }
+            };
+            asyncHttpClient.execute(new TimedRequestProducer(HttpAsyncMethods.create(request), timing), consumer, createContext(),
+                    new FutureCallback<org.apache.http.HttpResponse>() {
+                @Override
+                public void completed(org.apache.http.HttpResponse response) {
+                    int statusCode = response.getStatusLine().getStatusCode();
+                    //the body is already buffered, the conversion is not part of the latency
+                    throttle.release(httpRequest, timing.onResponseCompleted(), statusCode);
+                    CountingEntity entity = countBytes(response);
+                    try {
+                        long delay = retryPolicy.getDelay(httpRequest, attempt, response);
+                        if (delay >= 0) {
+                            EntityUtils.consumeQuietly(response.getEntity());
+                            retryAsync(httpRequest, attempt, cache, converter, result, delay);
+                            return;
+                        }
+                        result.complete(converter.convert(entry, response));
+                    } catch (IOException e) {
+                        result.completeExceptionally(new BitBucketException(e));
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e);
+                    } finally {
+                        metrics.onRequest(timing.toSample(httpRequest, statusCode, entity));
+                    }
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    throttle.release(httpRequest, e);
+                    metrics.onRequest(timing.toSample(httpRequest, 0, null));
+                    long delay = retryPolicy.getDelay(httpRequest, attempt, e);
+                    if (delay >= 0) {
+                        retryAsync(httpRequest, attempt, cache, converter, result, delay);
+                    } else {
+                        result.completeExceptionally(new BitBucketException(e));
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    throttle.cancel(httpRequest);
+                    result.cancel(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            //the client was shut down
+            throttle.release(httpRequest, e);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private <T> void retryAsync(HttpRequest httpRequest, int attempt, ConditionalRequestCache cache, ResponseConverter<T> converter,
+                                CompletableFuture<T> result, long delay) {
+        if (result.isDone()) {
+            //cancelled by the caller
+            return;
+        }
+        schedule(() -> executeAsync(httpRequest, attempt + 1, cache, converter, result), delay, result);
+    }
 
-            org.apache.http.HttpResponse response = httpClient.execute(request, context);
-            StatusLine status = response.getStatusLine();
-            Map<String, String> headers = toHeaderMultimap(response.getAllHeaders());
+    private void schedule(Runnable task, long delay, CompletableFuture<?> result) {
+        try {
+            scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new BitBucketException("the executor was shut down", e));
+        }
+    }
 
-            String body = null;
-            if (response.getEntity() != null) {
-                ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
-                response.getEntity().writeTo(out);
-                body = new String(out.toByteArray(), "UTF-8");
+    private static void sleep(long delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BitBucketException("interrupted while waiting to retry the request", e);
+        }
+    }
+    private <T> T handle(HttpRequest httpRequest, ConditionalRequestCache.Entry entry, org.apache.http.HttpResponse response,
+                         ResponseBodyHandler<T> handler) throws IOException {
+        StatusLine status = response.getStatusLine();
+        if (entry != null && status.getStatusCode() == 304) {
+            EntityUtils.consume(response.getEntity());
+            return modelCache.notModified(httpRequest.getUrl(), handler.getResultKey(), entry, stored -> handler.handle(
+                    new HttpResponse(stored.getStatusCode(), stored.getStatusMessage(), stored.getHeaders(), null),
+                    new StringReader(stored.getBody())));
+        }
+        HttpEntity entity = contentDecoder.decode(response.getEntity());
+        if (entity == null || status.getStatusCode() < 200 || status.getStatusCode() >= 400) {
+            return handler.handle(toHttpResponse(response), null);
+        }
+        HttpResponse headers = new HttpResponse(status.getStatusCode(), status.getReasonPhrase(), toHeaderMultimap(response.getAllHeaders()), null);
+        boolean revalidable = isRevalidable(modelCache, httpRequest, headers);
+        T value;
+        String persisted = null;
+        try (Reader content = new InputStreamReader(entity.getContent(), getCharset(entity))) {
+            if (revalidable && headers.hasValidators() && modelCache.isPersistent()) {
+                //the body read by the handler is copied for the disk store
+                CopyingReader body = new CopyingReader(content, modelCache.getMaxPersistedLength());
+                value = handler.handle(headers, body);
+                persisted = body.copy();
+            } else {
+                value = handler.handle(headers, content);
             }
-            return new HttpResponse(status.getStatusCode(), status.getReasonPhrase(), headers, body);
+        }
+        if (revalidable) {
+            modelCache.store(httpRequest.getUrl(), handler.getResultKey(), headers, value, persisted);
+        }
+        return value;
+    }
 
-        } catch (IOException e) {
-            throw new BitBucketException(e);
+    /**
+     * Wraps the entity of the response in order to count the bytes read from it
+     * @return the wrapper, null if the response has no entity
+     */
+    private static CountingEntity countBytes(org.apache.http.HttpResponse response) {
+        if (response.getEntity() == null)
+            return null;
+        CountingEntity entity = new CountingEntity(response.getEntity());
+        response.setEntity(entity);
+        return entity;
+    }
+
+    /**
+     * Adds the validators stored for a GET url to the request
+     * @return the stored entry or null if the request is not conditional
+     */
+    private static ConditionalRequestCache.Entry prepare(ConditionalRequestCache cache, HttpRequest httpRequest, Object resultKey,
+                                                         HttpRequestBase request) {
+        if (cache == null || httpRequest.getMethod() != HttpMethod.GET || !httpRequest.isShared())
+            return null;
+        return cache.prepare(httpRequest.getUrl(), resultKey, request);
+    }
+
+    private static boolean isRevalidable(ConditionalRequestCache cache, HttpRequest httpRequest, HttpResponse response) {
+        return cache != null && httpRequest.getMethod() == HttpMethod.GET && httpRequest.isShared() && response.getStatusCode() >= 200 && response.getStatusCode() < 300;
+    }
+
+    private static Charset getCharset(HttpEntity entity) {
+        Charset charset = ContentType.getOrDefault(entity).getCharset();
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    private HttpClientContext createContext() {
+        HttpClientContext httpContext = HttpClientContext.create();
+        httpContext.setCredentialsProvider(credentialsProvider);
+        httpContext.setAuthCache(authCache);
+        return httpContext;
+    }
+
+    private HttpResponse toHttpResponse(HttpRequest httpRequest, ConditionalRequestCache.Entry entry, org.apache.http.HttpResponse response) throws IOException {
+        if (entry != null && response.getStatusLine().getStatusCode() == 304) {
+            EntityUtils.consume(response.getEntity());
+            return responseCache.notModified(httpRequest.getUrl(), entry, stored -> stored);
         }
+        HttpResponse httpResponse = toHttpResponse(response);
+        if (isRevalidable(responseCache, httpRequest, httpResponse)) {
+            responseCache.store(httpRequest.getUrl(), httpResponse, httpResponse, httpResponse.getBody());
+        }
+        return httpResponse;
+    }
+
+    private HttpResponse toHttpResponse(org.apache.http.HttpResponse response) throws IOException {
+        StatusLine status = response.getStatusLine();
+        Map<String, String> headers = toHeaderMultimap(response.getAllHeaders());
+
+        String body = null;
+        HttpEntity entity = contentDecoder.decode(response.getEntity());
+        if (entity != null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
+            entity.writeTo(out);
+            body = new String(out.toByteArray(), "UTF-8");
+        }
+        return new HttpResponse(status.getStatusCode(), status.getReasonPhrase(), headers, body);
     }
 
     private Map<String, String> toHeaderMultimap(Header[] headers) {
@@ -121,6 +634,14 @@ class BitBucketHttpExecutor {
     }
 
     private HttpRequestBase createRequest(HttpRequest httpRequest) {
+        HttpRequestBase request = createMethod(httpRequest);
+        if (config.isContentCompression()) {
+            request.setHeader(HttpHeaders.ACCEPT_ENCODING, ContentDecoder.ACCEPT_ENCODING);
+        }
+        return request;
+    }
+
+    private HttpRequestBase createMethod(HttpRequest httpRequest) {
         URI fullUri = URI.create(baseUrl + "/" + httpRequest.getUrl()).normalize();
         String payload;
         switch (httpRequest.getMethod()) {
@@ -142,12 +663,139 @@ class BitBucketHttpExecutor {
     }
 
     public void shutdown() {
+        if (idleConnectionReaper != null) {
+            idleConnectionReaper.shutdown();
+        }
+        scheduler.shutdownNow();
 
         try {
             httpClient.close();
         } catch (IOException e) {
             LOGGER.warn("exception when trying to close the http client",e);
         }
+        try {
+            asyncHttpClient.close();
+        } catch (IOException e) {
+            LOGGER.warn("exception when trying to close the async http client",e);
+        }
     }
 
+    /**
+     * Builds the value returned to the caller from a response that is not going to be retried
+     */
+    private interface ResponseConverter<T> {
+        T convert(ConditionalRequestCache.Entry entry, org.apache.http.HttpResponse response) throws IOException;
+
+        /**
+         * @return the key of the value in the conditional request cache, next to the url
+         */
+        default Object getResultKey() {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the value with a ResponseBodyHandler, cached under the result key of the handler
+     */
+    private class HandlerConverter<T> implements ResponseConverter<T> {
+        private final HttpRequest httpRequest;
+        private final ResponseBodyHandler<T> handler;
+
+        private HandlerConverter(HttpRequest httpRequest, ResponseBodyHandler<T> handler) {
+            this.httpRequest = httpRequest;
+            this.handler = handler;
+        }
+
+        @Override
+        public T convert(ConditionalRequestCache.Entry entry, org.apache.http.HttpResponse response) throws IOException {
+            return handle(httpRequest, entry, response, handler);
+        }
+
+        @Override
+        public Object getResultKey() {
+            return handler.getResultKey();
+        }
+    }
+
+    /**
+     * Thrown from the response handler to release the connection of a response that is going to be retried
+     */
+    private static class RetryableResponseException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final long delay;
+
+        private RetryableResponseException(long delay) {
+            this.delay = delay;
+        }
+    }
+
+    /**
+     * Marks the moment a blocking request was written on the leased connection
+     */
+    private static class TimedRequestExecutor extends HttpRequestExecutor {
+        @Override
+        protected org.apache.http.HttpResponse doSendRequest(org.apache.http.HttpRequest request, HttpClientConnection conn,
+                                                             HttpContext context) throws IOException, HttpException {
+            org.apache.http.HttpResponse response = super.doSendRequest(request, conn, context);
+            Object timing = context.getAttribute(RequestTiming.ATTRIBUTE);
+            if (timing != null)
+                ((RequestTiming) timing).onRequestSent();
+            return response;
+        }
+    }
+
+    /**
+     * Marks the moment an async request was written on the leased connection
+     */
+    private static class TimedRequestProducer implements HttpAsyncRequestProducer {
+        private final HttpAsyncRequestProducer producer;
+        private final RequestTiming timing;
+
+        private TimedRequestProducer(HttpAsyncRequestProducer producer, RequestTiming timing) {
+            this.producer = producer;
+            this.timing = timing;
+        }
+
+        @Override
+        public HttpHost getTarget() {
+            return producer.getTarget();
+        }
+
+        @Override
+        public org.apache.http.HttpRequest generateRequest() throws IOException, HttpException {
+            return producer.generateRequest();
+        }
+
+        @Override
+        public void produceContent(ContentEncoder encoder, IOControl ioctrl) throws IOException {
+            producer.produceContent(encoder, ioctrl);
+        }
+
+        @Override
+        public void requestCompleted(HttpContext context) {
+            timing.onRequestSent();
+            producer.requestCompleted(context);
+        }
+
+        @Override
+        public void failed(Exception ex) {
+            producer.failed(ex);
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return producer.isRepeatable();
+        }
+
+        @Override
+        public void resetRequest() throws IOException {
+            producer.resetRequest();
+        }
+
+        @Override
+        public void close() throws IOException {
+            producer.close();
+        }
+    }
 }
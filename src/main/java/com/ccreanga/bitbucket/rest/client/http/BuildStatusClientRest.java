@@ -20,33 +20,55 @@ package com.ccreanga.bitbucket.rest.client.http;
 import com.ccreanga.bitbucket.rest.client.BuildStatusClient;
 import com.ccreanga.bitbucket.rest.client.model.BuildStatsSummary;
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.ccreanga.bitbucket.rest.client.http.HttpMethod.POST;
-import static com.ccreanga.bitbucket.rest.client.http.responseparsers.Parsers.buildStatsParser;
+import static com.ccreanga.bitbucket.rest.client.http.responseparsers.Parsers.buildStatsAdapter;
 
 class BuildStatusClientRest extends BitBucketClient implements BuildStatusClient {
 
     public static final int DEFAULT_LIMIT = 100;
 
+    private final BuildSummaryBatcher batcher;
+    private final BuildSummaryAggregator aggregator;
+
     public BuildStatusClientRest(BitBucketHttpExecutor bitBucketHttpExecutor) {
         super(bitBucketHttpExecutor);
+        BitBucketClientConfig config = bitBucketHttpExecutor.getConfig();
+        batcher = new BuildSummaryBatcher(this::getBuildSummariesChunk, config.getBuildSummaryBatchSize(),
+                config.getBuildSummaryParallelism(), config.getBuildSummaryCacheSize());
+        aggregator = config.getBuildSummaryBatchWindow() == 0 ? null : new BuildSummaryAggregator(batcher::getBuildSummaries,
+                config.getBuildSummaryBatchWindow(), config.getBuildSummaryBatchSize(), bitBucketHttpExecutor.getScheduler());
     }
 
+    /**
+     * The commits are sent in chunks of BitBucketClientConfig.buildSummaryBatchSize commits. With a
+     * buildSummaryBatchWindow the lookups of the concurrent callers are merged, unless all the commits are cached
+     */
     @Override
     public Map<String, BuildStatsSummary> getBuildSummaries(List<String> commits) {
+        return join(getBuildSummariesAsync(commits));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, BuildStatsSummary>> getBuildSummariesAsync(List<String> commits) {
+        if (aggregator == null)
+            return batcher.getBuildSummaries(commits);
+        Map<String, BuildStatsSummary> cached = batcher.getCached(commits);
+        return cached != null ? CompletableFuture.completedFuture(cached) : aggregator.getBuildSummaries(commits);
+    }
+
+    private CompletableFuture<Map<String, BuildStatsSummary>> getBuildSummariesChunk(List<String> commits) {
         String requestUrl = "/rest/build-status/latest/commits/stats";
-        try {
-            final String requestJson = new Gson().toJson(commits);
-            JsonElement jsonElement = execute(requestUrl, POST, requestJson).get();
-            return buildStatsParser().apply(jsonElement);
-        }catch (ResourceNotFoundException e){
-            return Collections.emptyMap();
-        }
+        final String requestJson = new Gson().toJson(commits);
+        return recoverNotFound(
+                executeAsync(requestUrl, POST, requestJson, buildStatsAdapter()).thenApply(Optional::get),
+                Collections::emptyMap);
     }
 
 }
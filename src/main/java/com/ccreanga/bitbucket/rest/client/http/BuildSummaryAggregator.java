@@ -0,0 +1,145 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.model.BuildStatsSummary;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collapses the build summaries lookups of many callers into one request. The commits are queued for window
+ * milliseconds after the first lookup of a batch, or until maxCommits distinct commits are queued, then sent together;
+ * every caller receives the summaries of its own commits taken from the merged response.
+ */
+class BuildSummaryAggregator {
+
+    private final Function<List<String>, CompletableFuture<Map<String, BuildStatsSummary>>> batchFunction;
+    private final long window;
+    private final int maxCommits;
+    private final ScheduledExecutorService scheduler;
+    private Batch current;
+
+    public BuildSummaryAggregator(Function<List<String>, CompletableFuture<Map<String, BuildStatsSummary>>> batchFunction,
+                                  long window, int maxCommits, ScheduledExecutorService scheduler) {
+        if (window < 1)
+            throw new IllegalArgumentException("window should be greater than 0 not:" + window);
+        if (maxCommits < 1)
+            throw new IllegalArgumentException("maxCommits should be greater than 0 not:" + maxCommits);
+        this.batchFunction = batchFunction;
+        this.window = window;
+        this.maxCommits = maxCommits;
+        this.scheduler = scheduler;
+    }
+
+    public CompletableFuture<Map<String, BuildStatsSummary>> getBuildSummaries(List<String> commits) {
+        CompletableFuture<Map<String, BuildStatsSummary>> result = new CompletableFuture<>();
+        if (commits.isEmpty()) {
+            result.complete(new HashMap<>());
+            return result;
+        }
+        Batch full = null;
+        Batch started = null;
+        synchronized (this) {
+            if (current == null) {
+                current = new Batch();
+                started = current;
+            }
+            current.add(commits, result);
+            if (current.commits.size() >= maxCommits) {
+                full = current;
+                current = null;
+            }
+        }
+        if (full != null) {
+            send(full);
+        } else if (started != null) {
+            Batch batch = started;
+            try {
+                scheduler.schedule(() -> onWindowElapsed(batch), window, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                onWindowElapsed(batch);
+            }
+        }
+        return result;
+    }
+
+    private void onWindowElapsed(Batch batch) {
+        synchronized (this) {
+            //already sent because it was full
+            if (current != batch)
+                return;
+            current = null;
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        CompletableFuture<Map<String, BuildStatsSummary>> response;
+        try {
+            response = batchFunction.apply(new ArrayList<>(batch.commits));
+        } catch (RuntimeException e) {
+            batch.fail(e);
+            return;
+        }
+        response.whenComplete((summaries, e) -> {
+            if (e != null)
+                batch.fail(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            else
+                batch.complete(summaries);
+        });
+    }
+
+    private static class Batch {
+        private final Set<String> commits = new LinkedHashSet<>();
+        private final List<List<String>> callerCommits = new ArrayList<>();
+        private final List<CompletableFuture<Map<String, BuildStatsSummary>>> callers = new ArrayList<>();
+
+        private void add(List<String> commits, CompletableFuture<Map<String, BuildStatsSummary>> caller) {
+            this.commits.addAll(commits);
+            callerCommits.add(new ArrayList<>(commits));
+            callers.add(caller);
+        }
+
+        private void complete(Map<String, BuildStatsSummary> summaries) {
+            for (int i = 0; i < callers.size(); i++) {
+                Map<String, BuildStatsSummary> own = new HashMap<>();
+                for (String commit : callerCommits.get(i)) {
+                    BuildStatsSummary summary = summaries.get(commit);
+                    if (summary != null)
+                        own.put(commit, summary);
+                }
+                callers.get(i).complete(own);
+            }
+        }
+
+        private void fail(Throwable e) {
+            callers.forEach(caller -> caller.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.model.BuildStatsSummary;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Splits the commits of a build summaries request into chunks of at most batchSize commits, sends up to parallelism
+ * chunks at the same time and merges the results. The summaries of the commits without builds in progress are
+ * kept in an optional cache: a finished build does not change, so those commits are not requested again.
+ */
+class BuildSummaryBatcher {
+
+    private final Function<List<String>, CompletableFuture<Map<String, BuildStatsSummary>>> chunkFunction;
+    private final int batchSize;
+    private final int parallelism;
+    private final Cache<String, BuildStatsSummary> cache;
+
+    /**
+     * @param cacheSize the maximum number of summaries cached, 0 to disable the cache
+     */
+    public BuildSummaryBatcher(Function<List<String>, CompletableFuture<Map<String, BuildStatsSummary>>> chunkFunction,
+                               int batchSize, int parallelism, int cacheSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize should be greater than 0 not:" + batchSize);
+        this.chunkFunction = chunkFunction;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.cache = cacheSize == 0 ? null : CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    public CompletableFuture<Map<String, BuildStatsSummary>> getBuildSummaries(List<String> commits) {
+        Map<String, BuildStatsSummary> summaries = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String commit : new LinkedHashSet<>(commits)) {
+            BuildStatsSummary cached = cache == null ? null : cache.getIfPresent(commit);
+            if (cached != null)
+                summaries.put(commit, cached);
+            else
+                missing.add(commit);
+        }
+        if (missing.isEmpty())
+            return CompletableFuture.completedFuture(summaries);
+
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < missing.size(); i += batchSize) {
+            chunks.add(missing.subList(i, Math.min(missing.size(), i + batchSize)));
+        }
+        CompletableFuture<Map<String, BuildStatsSummary>> result = new CompletableFuture<>();
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(parallelism);
+        AtomicInteger remaining = new AtomicInteger(chunks.size());
+        for (List<String> chunk : chunks) {
+            limiter.acquireAsync(() -> {
+                if (result.isDone()) {
+                    limiter.release();
+                    return;
+                }
+                CompletableFuture<Map<String, BuildStatsSummary>> response;
+                try {
+                    response = chunkFunction.apply(chunk);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                    limiter.release();
+                    return;
+                }
+                response.whenComplete((chunkSummaries, e) -> {
+                    if (e != null) {
+                        result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                    } else {
+                        synchronized (summaries) {
+                            summaries.putAll(chunkSummaries);
+                        }
+                        cacheFinished(chunkSummaries);
+                        if (remaining.decrementAndGet() == 0)
+                            result.complete(summaries);
+                    }
+                    //released after the failure is recorded, so the waiting chunks are skipped
+                    limiter.release();
+                });
+            });
+        }
+        return result;
+    }
+
+    /**
+     * @return the cached summaries of the commits, or null if any of them is not cached
+     */
+    public Map<String, BuildStatsSummary> getCached(List<String> commits) {
+        if (cache == null)
+            return null;
+        Map<String, BuildStatsSummary> summaries = new HashMap<>();
+        for (String commit : commits) {
+            BuildStatsSummary cached = cache.getIfPresent(commit);
+            if (cached == null)
+                return null;
+            summaries.put(commit, cached);
+        }
+        return summaries;
+    }
+
+    private void cacheFinished(Map<String, BuildStatsSummary> chunkSummaries) {
+        if (cache == null)
+            return;
+        chunkSummaries.forEach((commit, summary) -> {
+            if (isFinished(summary))
+                cache.put(commit, summary);
+        });
+    }
+
+    /**
+     * @return true if the commit has builds and none of them is in progress
+     */
+    static boolean isFinished(BuildStatsSummary summary) {
+        return count(summary.getInProgress()) == 0 && count(summary.getFailed()) + count(summary.getSuccessful()) > 0;
+    }
+
+    private static long count(Long value) {
+        return value == null ? 0 : value;
+    }
+}
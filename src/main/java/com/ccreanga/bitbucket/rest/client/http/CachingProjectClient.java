@@ -0,0 +1,628 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.ProjectClient;
+import com.ccreanga.bitbucket.rest.client.Range;
+import com.ccreanga.bitbucket.rest.client.model.Branch;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.ccreanga.bitbucket.rest.client.model.Project;
+import com.ccreanga.bitbucket.rest.client.model.ProjectType;
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.Task;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffVisitor;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestChange;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestRole;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestState;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * ProjectClient decorator caching the results of getProjectByKey, getRepositoryBySlug, getDefaultBranch and
+ * getBitBucketApplicationProperties (blocking and async). Every method has its own cache with its own time to live;
+ * each cache keeps at most maximumSize entries and evicts the least recently used ones. The empty results are cached
+ * as well. createProject, createRepository, deleteProject and deleteRepository invalidate the entries they change,
+ * any other change made on the server is visible only after the entries expire or are invalidated explicitly.
+ * All the other methods are passed to the delegate.
+ */
+public class CachingProjectClient implements ProjectClient {
+
+    private static final String APPLICATION_PROPERTIES_KEY = "application-properties";
+
+    private final ProjectClient delegate;
+    private final Cache<String, CompletableFuture<Optional<Project>>> projects;
+    private final Cache<String, CompletableFuture<Optional<Repository>>> repositories;
+    private final Cache<String, CompletableFuture<Optional<Branch>>> defaultBranches;
+    private final Cache<String, CompletableFuture<ImmutableMap<String, String>>> applicationProperties;
+
+    private CachingProjectClient(Builder builder) {
+        this.delegate = builder.delegate;
+        this.projects = cache(builder.projectTtl, builder);
+        this.repositories = cache(builder.repositoryTtl, builder);
+        this.defaultBranches = cache(builder.defaultBranchTtl, builder);
+        this.applicationProperties = cache(builder.applicationPropertiesTtl, builder);
+    }
+
+    public static Builder builder(ProjectClient delegate) {
+        return new Builder(delegate);
+    }
+
+    private static <T> Cache<String, CompletableFuture<T>> cache(long ttl, Builder builder) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(builder.maximumSize)
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .ticker(builder.ticker)
+                .recordStats()
+                .build();
+    }
+
+    private static String repositoryKey(String projectKey, String repositorySlug) {
+        return projectKey + "/" + repositorySlug;
+    }
+
+    /**
+     * Returns the cached value or loads it with the delegate; concurrent callers of the same key wait for a single load.
+     */
+    private static <T> T get(Cache<String, CompletableFuture<T>> cache, String key, Supplier<T> loader) {
+        try {
+            return BitBucketClient.join(cache.get(key, () -> CompletableFuture.completedFuture(loader.get())));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new BitBucketException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the cached future or starts a request with the delegate. A request completed exceptionally is removed
+     * from the cache, so the failures are never cached.
+     */
+    private static <T> CompletableFuture<T> getAsync(Cache<String, CompletableFuture<T>> cache, String key, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<T> future;
+        try {
+            future = cache.get(key, loader::get);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e.getCause());
+            return failed;
+        }
+        future.whenComplete((value, e) -> {
+            if (e != null)
+                cache.asMap().remove(key, future);
+        });
+        //the callers get a copy so they can not complete or cancel the cached future
+        return future.thenApply(Function.identity());
+    }
+
+    /**
+     * Removes the cached project and all the cached repositories and default branches of the project.
+     */
+    public void invalidateProject(@Nonnull String projectKey) {
+        projects.invalidate(projectKey);
+        String prefix = projectKey + "/";
+        repositories.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        defaultBranches.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Removes the cached repository and its cached default branch.
+     */
+    public void invalidateRepository(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        String key = repositoryKey(projectKey, repositorySlug);
+        repositories.invalidate(key);
+        defaultBranches.invalidate(key);
+    }
+
+    public void invalidateDefaultBranch(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        defaultBranches.invalidate(repositoryKey(projectKey, repositorySlug));
+    }
+
+    public void invalidateApplicationProperties() {
+        applicationProperties.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        projects.invalidateAll();
+        repositories.invalidateAll();
+        defaultBranches.invalidateAll();
+        applicationProperties.invalidateAll();
+    }
+
+    public CacheStats getProjectStats() {
+        return projects.stats();
+    }
+
+    public CacheStats getRepositoryStats() {
+        return repositories.stats();
+    }
+
+    public CacheStats getDefaultBranchStats() {
+        return defaultBranches.stats();
+    }
+
+    public CacheStats getApplicationPropertiesStats() {
+        return applicationProperties.stats();
+    }
+
+    /**
+     * @return the statistics of all the caches added together
+     */
+    public CacheStats getStats() {
+        return projects.stats()
+                .plus(repositories.stats())
+                .plus(defaultBranches.stats())
+                .plus(applicationProperties.stats());
+    }
+
+    @Override
+    public Optional<Project> getProjectByKey(@Nonnull String projectKey) {
+        return get(projects, projectKey, () -> delegate.getProjectByKey(projectKey));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Project>> getProjectByKeyAsync(@Nonnull String projectKey) {
+        return getAsync(projects, projectKey, () -> delegate.getProjectByKeyAsync(projectKey));
+    }
+
+    @Override
+    public Optional<Repository> getRepositoryBySlug(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return get(repositories, repositoryKey(projectKey, repositorySlug), () -> delegate.getRepositoryBySlug(projectKey, repositorySlug));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Repository>> getRepositoryBySlugAsync(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return getAsync(repositories, repositoryKey(projectKey, repositorySlug), () -> delegate.getRepositoryBySlugAsync(projectKey, repositorySlug));
+    }
+
+    @Override
+    public Optional<Branch> getDefaultBranch(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return get(defaultBranches, repositoryKey(projectKey, repositorySlug), () -> delegate.getDefaultBranch(projectKey, repositorySlug));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Branch>> getDefaultBranchAsync(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return getAsync(defaultBranches, repositoryKey(projectKey, repositorySlug), () -> delegate.getDefaultBranchAsync(projectKey, repositorySlug));
+    }
+
+    @Override
+    public ImmutableMap<String, String> getBitBucketApplicationProperties() {
+        return get(applicationProperties, APPLICATION_PROPERTIES_KEY, delegate::getBitBucketApplicationProperties);
+    }
+
+    @Override
+    public CompletableFuture<ImmutableMap<String, String>> getBitBucketApplicationPropertiesAsync() {
+        return getAsync(applicationProperties, APPLICATION_PROPERTIES_KEY, delegate::getBitBucketApplicationPropertiesAsync);
+    }
+
+    @Override
+    public Project createProject(@Nonnull String projectKey, @Nonnull String name, @Nonnull ProjectType type, @Nullable String description) {
+        try {
+            return delegate.createProject(projectKey, name, type, description);
+        } finally {
+            invalidateProject(projectKey);
+        }
+    }
+
+    @Override
+    public Repository createRepository(@Nonnull String projectKey, @Nonnull String name, @Nonnull String scmId, boolean forkable) {
+        Repository repository;
+        try {
+            repository = delegate.createRepository(projectKey, name, scmId, forkable);
+        } catch (RuntimeException e) {
+            //the slug is known only from the response
+            invalidateProject(projectKey);
+            throw e;
+        }
+        invalidateRepository(projectKey, repository.getSlug());
+        return repository;
+    }
+
+    @Override
+    public void deleteProject(@Nonnull String projectKey) {
+        try {
+            delegate.deleteProject(projectKey);
+        } finally {
+            invalidateProject(projectKey);
+        }
+    }
+
+    @Override
+    public void deleteRepository(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        try {
+            delegate.deleteRepository(projectKey, repositorySlug);
+        } finally {
+            invalidateRepository(projectKey, repositorySlug);
+        }
+    }
+
+    @Override
+    public Page<Project> getProjects(@Nonnull Range range) {
+        return delegate.getProjects(range);
+    }
+
+    @Override
+    public CompletableFuture<Page<Project>> getProjectsAsync(@Nonnull Range range) {
+        return delegate.getProjectsAsync(range);
+    }
+
+    @Override
+    public Set<Project> getProjects() {
+        return delegate.getProjects();
+    }
+
+    @Override
+    public CompletableFuture<Set<Project>> getProjectsAsync() {
+        return delegate.getProjectsAsync();
+    }
+
+    @Override
+    public Stream<Project> streamProjects() {
+        return delegate.streamProjects();
+    }
+
+    @Override
+    public Page<Repository> getProjectRepositories(@Nonnull String projectKey, @Nonnull Range range) {
+        return delegate.getProjectRepositories(projectKey, range);
+    }
+
+    @Override
+    public CompletableFuture<Page<Repository>> getProjectRepositoriesAsync(@Nonnull String projectKey, @Nonnull Range range) {
+        return delegate.getProjectRepositoriesAsync(projectKey, range);
+    }
+
+    @Override
+    public Set<Repository> getProjectRepositories(@Nonnull String projectKey) {
+        return delegate.getProjectRepositories(projectKey);
+    }
+
+    @Override
+    public CompletableFuture<Set<Repository>> getProjectRepositoriesAsync(@Nonnull String projectKey) {
+        return delegate.getProjectRepositoriesAsync(projectKey);
+    }
+
+    @Override
+    public Stream<Repository> streamProjectRepositories(@Nonnull String projectKey) {
+        return delegate.streamProjectRepositories(projectKey);
+    }
+
+    @Override
+    public Page<Repository> getAllRepositories(@Nonnull Range range) {
+        return delegate.getAllRepositories(range);
+    }
+
+    @Override
+    public CompletableFuture<Page<Repository>> getAllRepositoriesAsync(@Nonnull Range range) {
+        return delegate.getAllRepositoriesAsync(range);
+    }
+
+    @Override
+    public Set<Repository> getAllRepositories() {
+        return delegate.getAllRepositories();
+    }
+
+    @Override
+    public CompletableFuture<Set<Repository>> getAllRepositoriesAsync() {
+        return delegate.getAllRepositoriesAsync();
+    }
+
+    @Override
+    public Stream<Repository> streamAllRepositories() {
+        return delegate.streamAllRepositories();
+    }
+
+    @Override
+    public Page<Branch> getBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query, @Nonnull Range range, boolean details) {
+        return delegate.getBranches(projectKey, repositorySlug, query, range, details);
+    }
+
+    @Override
+    public CompletableFuture<Page<Branch>> getBranchesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query, @Nonnull Range range, boolean details) {
+        return delegate.getBranchesAsync(projectKey, repositorySlug, query, range, details);
+    }
+
+    @Override
+    public Page<Branch> getBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query, @Nonnull Range range) {
+        return delegate.getBranches(projectKey, repositorySlug, query, range);
+    }
+
+    @Override
+    public Set<Branch> getBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query) {
+        return delegate.getBranches(projectKey, repositorySlug, query);
+    }
+
+    @Override
+    public CompletableFuture<Set<Branch>> getBranchesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query) {
+        return delegate.getBranchesAsync(projectKey, repositorySlug, query);
+    }
+
+    @Override
+    public Stream<Branch> streamBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query) {
+        return delegate.streamBranches(projectKey, repositorySlug, query);
+    }
+
+    @Override
+    public Page<Repository> getForks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Range range) {
+        return delegate.getForks(projectKey, repositorySlug, range);
+    }
+
+    @Override
+    public CompletableFuture<Page<Repository>> getForksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Range range) {
+        return delegate.getForksAsync(projectKey, repositorySlug, range);
+    }
+
+    @Override
+    public Set<Repository> getForks(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return delegate.getForks(projectKey, repositorySlug);
+    }
+
+    @Override
+    public CompletableFuture<Set<Repository>> getForksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return delegate.getForksAsync(projectKey, repositorySlug);
+    }
+
+    @Override
+    public Stream<Repository> streamForks(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return delegate.streamForks(projectKey, repositorySlug);
+    }
+
+    @Override
+    public Page<PullRequest> getPullRequests(@Nonnull String projectKey, @Nonnull String repositorySlug, PullRequestState pullRequestState, boolean incoming,
+                                             String branchId, @Nonnull Range range) {
+        return delegate.getPullRequests(projectKey, repositorySlug, pullRequestState, incoming, branchId, range);
+    }
+
+    @Override
+    public Set<PullRequest> getPullRequests(@Nonnull String projectKey, @Nonnull String repositorySlug, PullRequestState pullRequestState, boolean incoming,
+                                            String branchId) {
+        return delegate.getPullRequests(projectKey, repositorySlug, pullRequestState, incoming, branchId);
+    }
+
+    @Override
+    public Page<PullRequest> getPullRequests(@Nonnull String projectKey, @Nonnull String repositorySlug, PullRequestState pullRequestState, boolean incoming,
+                                             String branchId, boolean newestFirst, String[] users, PullRequestRole[] pullRequestRoles, boolean[] approved,
+                                             @Nonnull Range range) {
+        return delegate.getPullRequests(projectKey, repositorySlug, pullRequestState, incoming, branchId, newestFirst, users, pullRequestRoles, approved, range);
+    }
+
+    @Override
+    public CompletableFuture<Page<PullRequest>> getPullRequestsAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, PullRequestState pullRequestState, boolean incoming,
+                                                                     String branchId, boolean newestFirst, String[] users, PullRequestRole[] pullRequestRoles, boolean[] approved,
+                                                                     @Nonnull Range range) {
+        return delegate.getPullRequestsAsync(projectKey, repositorySlug, pullRequestState, incoming, branchId, newestFirst, users, pullRequestRoles, approved, range);
+    }
+
+    @Override
+    public Set<PullRequest> getPullRequests(@Nonnull String projectKey, @Nonnull String repositorySlug, PullRequestState pullRequestState, boolean incoming,
+                                            String branchId, boolean newestFirst, String[] users, PullRequestRole[] pullRequestRoles, boolean[] approved) {
+        return delegate.getPullRequests(projectKey, repositorySlug, pullRequestState, incoming, branchId, newestFirst, users, pullRequestRoles, approved);
+    }
+
+    @Override
+    public CompletableFuture<Set<PullRequest>> getPullRequestsAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, PullRequestState pullRequestState, boolean incoming,
+                                                                    String branchId, boolean newestFirst, String[] users, PullRequestRole[] pullRequestRoles, boolean[] approved) {
+        return delegate.getPullRequestsAsync(projectKey, repositorySlug, pullRequestState, incoming, branchId, newestFirst, users, pullRequestRoles, approved);
+    }
+
+    @Override
+    public Stream<PullRequest> streamPullRequests(@Nonnull String projectKey, @Nonnull String repositorySlug, PullRequestState pullRequestState, boolean incoming,
+                                                  String branchId, boolean newestFirst, String[] users, PullRequestRole[] pullRequestRoles, boolean[] approved) {
+        return delegate.streamPullRequests(projectKey, repositorySlug, pullRequestState, incoming, branchId, newestFirst, users, pullRequestRoles, approved);
+    }
+
+    @Override
+    public Page<PullRequestChange> getPullRequestsChanges(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId, @Nonnull Range range) {
+        return delegate.getPullRequestsChanges(projectKey, repositorySlug, pullRequestId, sinceCommitId, range);
+    }
+
+    @Override
+    public CompletableFuture<Page<PullRequestChange>> getPullRequestsChangesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId, @Nonnull Range range) {
+        return delegate.getPullRequestsChangesAsync(projectKey, repositorySlug, pullRequestId, sinceCommitId, range);
+    }
+
+    @Override
+    public Set<PullRequestChange> getPullRequestsChanges(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId) {
+        return delegate.getPullRequestsChanges(projectKey, repositorySlug, pullRequestId, sinceCommitId);
+    }
+
+    @Override
+    public CompletableFuture<Set<PullRequestChange>> getPullRequestsChangesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId) {
+        return delegate.getPullRequestsChangesAsync(projectKey, repositorySlug, pullRequestId, sinceCommitId);
+    }
+
+    @Override
+    public Stream<PullRequestChange> streamPullRequestsChanges(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId) {
+        return delegate.streamPullRequestsChanges(projectKey, repositorySlug, pullRequestId, sinceCommitId);
+    }
+
+    @Override
+    public Page<PullRequestActivity> getPullRequestsActivities(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range) {
+        return delegate.getPullRequestsActivities(projectKey, repositorySlug, pullRequestId, range);
+    }
+
+    @Override
+    public CompletableFuture<Page<PullRequestActivity>> getPullRequestsActivitiesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range) {
+        return delegate.getPullRequestsActivitiesAsync(projectKey, repositorySlug, pullRequestId, range);
+    }
+
+    @Override
+    public Set<PullRequestActivity> getPullRequestsActivities(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return delegate.getPullRequestsActivities(projectKey, repositorySlug, pullRequestId);
+    }
+
+    @Override
+    public CompletableFuture<Set<PullRequestActivity>> getPullRequestsActivitiesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return delegate.getPullRequestsActivitiesAsync(projectKey, repositorySlug, pullRequestId);
+    }
+
+    @Override
+    public Stream<PullRequestActivity> streamPullRequestsActivities(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return delegate.streamPullRequestsActivities(projectKey, repositorySlug, pullRequestId);
+    }
+
+    @Override
+    public Page<Task> getPullRequestsTasks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range) {
+        return delegate.getPullRequestsTasks(projectKey, repositorySlug, pullRequestId, range);
+    }
+
+    @Override
+    public CompletableFuture<Page<Task>> getPullRequestsTasksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range) {
+        return delegate.getPullRequestsTasksAsync(projectKey, repositorySlug, pullRequestId, range);
+    }
+
+    @Override
+    public Set<Task> getPullRequestsTasks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return delegate.getPullRequestsTasks(projectKey, repositorySlug, pullRequestId);
+    }
+
+    @Override
+    public CompletableFuture<Set<Task>> getPullRequestsTasksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return delegate.getPullRequestsTasksAsync(projectKey, repositorySlug, pullRequestId);
+    }
+
+    @Override
+    public Stream<Task> streamPullRequestsTasks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return delegate.streamPullRequestsTasks(projectKey, repositorySlug, pullRequestId);
+    }
+
+    @Override
+    public Page<User> getUsers(@Nonnull Range range) {
+        return delegate.getUsers(range);
+    }
+
+    @Override
+    public CompletableFuture<Page<User>> getUsersAsync(@Nonnull Range range) {
+        return delegate.getUsersAsync(range);
+    }
+
+    @Override
+    public Set<User> getUsers() {
+        return delegate.getUsers();
+    }
+
+    @Override
+    public CompletableFuture<Set<User>> getUsersAsync() {
+        return delegate.getUsersAsync();
+    }
+
+    @Override
+    public Stream<User> streamUsers() {
+        return delegate.streamUsers();
+    }
+
+    /**
+     * Cache settings; the times to live are expressed in milliseconds and 0 disables the cache of that method.
+     */
+    @Override
+    public boolean streamPullRequestDiff(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, int contextLines, @Nonnull DiffVisitor visitor) {
+        return delegate.streamPullRequestDiff(projectKey, repositorySlug, pullRequestId, contextLines, visitor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> streamPullRequestDiffAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, int contextLines, @Nonnull DiffVisitor visitor) {
+        return delegate.streamPullRequestDiffAsync(projectKey, repositorySlug, pullRequestId, contextLines, visitor);
+    }
+
+    @Override
+    public boolean streamCommitDiff(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull String commitId, @Nullable String sinceCommitId, int contextLines, @Nonnull DiffVisitor visitor) {
+        return delegate.streamCommitDiff(projectKey, repositorySlug, commitId, sinceCommitId, contextLines, visitor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> streamCommitDiffAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull String commitId, @Nullable String sinceCommitId, int contextLines, @Nonnull DiffVisitor visitor) {
+        return delegate.streamCommitDiffAsync(projectKey, repositorySlug, commitId, sinceCommitId, contextLines, visitor);
+    }
+
+    public static class Builder {
+        private final ProjectClient delegate;
+        private long maximumSize = 1_000;
+        private long projectTtl = 300_000;
+        private long repositoryTtl = 300_000;
+        private long defaultBranchTtl = 60_000;
+        private long applicationPropertiesTtl = 3_600_000;
+        private Ticker ticker = Ticker.systemTicker();
+
+        private Builder(ProjectClient delegate) {
+            if (delegate == null)
+                throw new IllegalArgumentException("delegate should not be null");
+            this.delegate = delegate;
+        }
+
+        /**
+         * @param maximumSize the maximum number of entries kept by the cache of each method
+         */
+        public Builder setMaximumSize(long maximumSize) {
+            if (maximumSize < 0)
+                throw new IllegalArgumentException("maximumSize should be positive not:" + maximumSize);
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder setProjectTtl(long projectTtl) {
+            if (projectTtl < 0)
+                throw new IllegalArgumentException("projectTtl should be positive not:" + projectTtl);
+            this.projectTtl = projectTtl;
+            return this;
+        }
+
+        public Builder setRepositoryTtl(long repositoryTtl) {
+            if (repositoryTtl < 0)
+                throw new IllegalArgumentException("repositoryTtl should be positive not:" + repositoryTtl);
+            this.repositoryTtl = repositoryTtl;
+            return this;
+        }
+
+        public Builder setDefaultBranchTtl(long defaultBranchTtl) {
+            if (defaultBranchTtl < 0)
+                throw new IllegalArgumentException("defaultBranchTtl should be positive not:" + defaultBranchTtl);
+            this.defaultBranchTtl = defaultBranchTtl;
+            return this;
+        }
+
+        public Builder setApplicationPropertiesTtl(long applicationPropertiesTtl) {
+            if (applicationPropertiesTtl < 0)
+                throw new IllegalArgumentException("applicationPropertiesTtl should be positive not:" + applicationPropertiesTtl);
+            this.applicationPropertiesTtl = applicationPropertiesTtl;
+            return this;
+        }
+
+        Builder setTicker(Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public CachingProjectClient build() {
+            return new CachingProjectClient(this);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker of an endpoint family. The outcomes of the last windowSize requests are kept in a ring buffer;
+ * when at least minimumCalls outcomes are known and the failure rate (I/O errors and 5xx responses) reaches
+ * failureRateThreshold the breaker opens and the requests are rejected for openDuration. After that one probe request
+ * is let through (half open): its success closes the breaker, its failure opens it again.
+ */
+class CircuitBreaker {
+
+    private final EndpointFamily family;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDuration;
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int calls;
+    private int failures;
+
+    private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+    private final LongAdder rejected = new LongAdder();
+
+    public CircuitBreaker(EndpointFamily family, int windowSize, int minimumCalls, double failureRateThreshold, long openDuration) {
+        this.family = family;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = TimeUnit.MILLISECONDS.toNanos(openDuration);
+    }
+
+    /**
+     * @throws CircuitBreakerOpenException if the request should not be sent
+     */
+    public void acquirePermission() {
+        acquirePermission(System.nanoTime());
+    }
+
+    synchronized void acquirePermission(long now) {
+        switch (state) {
+            case CLOSED:
+                return;
+            case OPEN:
+                long elapsed = now - openedAt;
+                if (elapsed < openDuration) {
+                    rejected.increment();
+                    throw new CircuitBreakerOpenException(family, TimeUnit.NANOSECONDS.toMillis(openDuration - elapsed));
+                }
+                state = CircuitBreakerState.HALF_OPEN;
+                probeInFlight = true;
+                return;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    rejected.increment();
+                    throw new CircuitBreakerOpenException(family, 0);
+                }
+                probeInFlight = true;
+        }
+    }
+
+    public void onSuccess() {
+        onOutcome(false, System.nanoTime());
+    }
+
+    public void onFailure() {
+        onOutcome(true, System.nanoTime());
+    }
+
+    synchronized void onOutcome(boolean failure, long now) {
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            probeInFlight = false;
+            if (failure) {
+                open(now);
+            } else {
+                state = CircuitBreakerState.CLOSED;
+            }
+            return;
+        }
+        if (state == CircuitBreakerState.OPEN) {
+            //a request sent before the breaker opened
+            return;
+        }
+        if (calls == window.length) {
+            if (window[windowIndex])
+                failures--;
+        } else {
+            calls++;
+        }
+        window[windowIndex] = failure;
+        if (failure)
+            failures++;
+        windowIndex = (windowIndex + 1) % window.length;
+        if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+            open(now);
+        }
+    }
+
+    /**
+     * The permitted request was not sent
+     */
+    public synchronized void onCancel() {
+        if (state == CircuitBreakerState.HALF_OPEN)
+            probeInFlight = false;
+    }
+
+    private void open(long now) {
+        state = CircuitBreakerState.OPEN;
+        openedAt = now;
+        calls = 0;
+        failures = 0;
+        windowIndex = 0;
+    }
+
+    public synchronized CircuitBreakerState getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of requests rejected without being sent
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * Thrown without sending the request while the circuit breaker of its endpoint family is open.
+ */
+public class CircuitBreakerOpenException extends BitBucketException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final EndpointFamily endpointFamily;
+    private final long retryAfter;
+
+    public CircuitBreakerOpenException(EndpointFamily endpointFamily, long retryAfter) {
+        super("the circuit breaker of " + endpointFamily + " is open, retry after " + retryAfter + "ms");
+        this.endpointFamily = endpointFamily;
+        this.retryAfter = retryAfter;
+    }
+
+    public EndpointFamily getEndpointFamily() {
+        return endpointFamily;
+    }
+
+    /**
+     * @return milliseconds until the circuit breaker lets a probe request through
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
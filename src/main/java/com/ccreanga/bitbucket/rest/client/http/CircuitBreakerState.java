@@ -0,0 +1,33 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+public enum CircuitBreakerState {
+    /**
+     * the requests are sent
+     */
+    CLOSED,
+    /**
+     * the endpoint failed too often, the requests fail with CircuitBreakerOpenException without being sent
+     */
+    OPEN,
+    /**
+     * the open duration elapsed, a single probe request is sent to find out if the endpoint recovered
+     */
+    HALF_OPEN
+}
@@ -0,0 +1,71 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * Bytes received for the gzip and deflate encoded responses, before and after the inflation.
+ */
+public class CompressionStats {
+
+    private final long responses;
+    private final long compressedBytes;
+    private final long uncompressedBytes;
+
+    public CompressionStats(long responses, long compressedBytes, long uncompressedBytes) {
+        this.responses = responses;
+        this.compressedBytes = compressedBytes;
+        this.uncompressedBytes = uncompressedBytes;
+    }
+
+    /**
+     * @return the number of compressed responses
+     */
+    public long getResponses() {
+        return responses;
+    }
+
+    /**
+     * @return the bytes read from the wire
+     */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * @return the bytes produced by inflating the compressed bytes
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * @return compressedBytes/uncompressedBytes, 1 if nothing was received
+     */
+    public double getCompressionRatio() {
+        return uncompressedBytes == 0 ? 1 : (double) compressedBytes / uncompressedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats{" +
+                "responses=" + responses +
+                ", compressedBytes=" + compressedBytes +
+                ", uncompressedBytes=" + uncompressedBytes +
+                '}';
+    }
+}
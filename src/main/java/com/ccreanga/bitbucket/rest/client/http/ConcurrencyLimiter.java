@@ -0,0 +1,102 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Bounds the number of requests in flight; the requests over the limit wait in a FIFO queue and are started by the
+ * thread releasing a slot. The blocking and the async callers share the same queue.
+ */
+class ConcurrencyLimiter {
+
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+    private final int limit;
+    private int inFlight;
+
+    public ConcurrencyLimiter(int limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("limit should be greater than 0 not:" + limit);
+        this.limit = limit;
+    }
+
+    /**
+     * Blocks until a request can be sent
+     */
+    public void acquire() {
+        CountDownLatch granted = new CountDownLatch(1);
+        Runnable waiter = granted::countDown;
+        acquireAsync(waiter);
+        try {
+            granted.await();
+        } catch (InterruptedException e) {
+            boolean grantedMeanwhile;
+            synchronized (this) {
+                grantedMeanwhile = !waiting.remove(waiter);
+            }
+            if (grantedMeanwhile)
+                release();
+            Thread.currentThread().interrupt();
+            throw new BitBucketException("interrupted while waiting for a request slot", e);
+        }
+    }
+
+    /**
+     * Runs the task now if a request can be sent, otherwise when a slot is released
+     */
+    public void acquireAsync(Runnable task) {
+        synchronized (this) {
+            if (inFlight >= getLimit() || !waiting.isEmpty()) {
+                waiting.addLast(task);
+                return;
+            }
+            inFlight++;
+        }
+        task.run();
+    }
+
+    public void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        while (true) {
+            Runnable task;
+            synchronized (this) {
+                if (waiting.isEmpty() || inFlight >= getLimit())
+                    return;
+                task = waiting.pollFirst();
+                inFlight++;
+            }
+            task.run();
+        }
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getWaiting() {
+        return waiting.size();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.http.client.methods.HttpRequestBase;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps, for the last maximumSize GET urls, the validators (ETag, Last-Modified) of the response together with the
+ * value produced from it. A repeated GET is sent with If-None-Match/If-Modified-Since and a 304 Not Modified is
+ * answered with the stored value, so an unchanged resource is neither transferred nor parsed again.
+ * The values are stored by url and result key, as the same url may be read into different types: a value is only
+ * returned for the result key it was stored with. The stored values are shared by all the callers and should not
+ * be modified.
+ * With a DiskResponseStore the responses are also persisted: after a restart, a url missing from memory is
+ * revalidated with the validators found on disk and, on 304, its value is rebuilt from the stored body.
+ */
+class ConditionalRequestCache {
+
+    private final Cache<Key, Entry> entries;
+    private final DiskResponseStore diskStore;
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder modified = new LongAdder();
+
+    public ConditionalRequestCache(long maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * @param diskStore the persistent tier, or null
+     */
+    public ConditionalRequestCache(long maximumSize, DiskResponseStore diskStore) {
+        entries = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.diskStore = diskStore;
+    }
+
+    public Entry prepare(String url, HttpRequestBase request) {
+        return prepare(url, null, request);
+    }
+
+    /**
+     * Makes the request conditional if a value is stored for its url and result key. A response found on disk is
+     * used for any result key, the value being rebuilt from its body.
+     * @return the stored entry, to be passed back to notModified(), or null
+     */
+    public Entry prepare(String url, Object resultKey, HttpRequestBase request) {
+        Entry entry = entries.getIfPresent(new Key(url, resultKey));
+        if (entry == null && diskStore != null) {
+            HttpResponse stored = diskStore.load(url);
+            if (stored != null && stored.hasValidators())
+                entry = new Entry(stored.getETag(), stored.getLastModified(), null, stored);
+        }
+        if (entry != null) {
+            if (entry.eTag != null)
+                request.setHeader(HttpUtil.IF_NONE_MATCH, entry.eTag);
+            if (entry.lastModified != null)
+                request.setHeader(HttpUtil.IF_MODIFIED_SINCE, entry.lastModified);
+        }
+        return entry;
+    }
+
+    public void store(String url, HttpResponse response, Object value) {
+        store(url, null, response, value, null);
+    }
+
+    public void store(String url, HttpResponse response, Object value, String body) {
+        store(url, null, response, value, body);
+    }
+
+    /**
+     * Stores the value produced from a successful response carrying validators, or drops the stale entry otherwise
+     * @param body the body of the response, to be persisted by the disk store; null if it is not available
+     */
+    public void store(String url, Object resultKey, HttpResponse response, Object value, String body) {
+        if (response.hasValidators()) {
+            entries.put(new Key(url, resultKey), new Entry(response.getETag(), response.getLastModified(), value, null));
+            if (diskStore != null && body != null)
+                diskStore.store(url, response, body);
+        } else {
+            entries.invalidate(new Key(url, resultKey));
+            if (diskStore != null)
+                diskStore.remove(url);
+        }
+        modified.increment();
+    }
+
+    public <T> T notModified(String url, Entry entry, StoredResponseConverter<T> converter) throws IOException {
+        return notModified(url, null, entry, converter);
+    }
+
+    /**
+     * @param converter rebuilds the value from the response stored on disk, when the entry was not in memory
+     * @return the value of the entry
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T notModified(String url, Object resultKey, Entry entry, StoredResponseConverter<T> converter) throws IOException {
+        notModified.increment();
+        if (diskStore != null)
+            diskStore.validated(url);
+        if (entry.stored == null)
+            return (T) entry.value;
+        T value = converter.convert(entry.stored);
+        entries.put(new Key(url, resultKey), new Entry(entry.eTag, entry.lastModified, value, null));
+        return value;
+    }
+
+    /**
+     * @return the number of conditional requests answered with 304 Not Modified
+     */
+    public long getNotModifiedCount() {
+        return notModified.sum();
+    }
+
+    /**
+     * @return the number of responses whose value was produced from the body
+     */
+    public long getModifiedCount() {
+        return modified.sum();
+    }
+
+    /**
+     * @return true if the responses are also stored on disk
+     */
+    public boolean isPersistent() {
+        return diskStore != null;
+    }
+
+    /**
+     * @return the longest body the disk store accepts
+     */
+    public int getMaxPersistedLength() {
+        return diskStore != null ? (int) Math.min(diskStore.getMaxEntrySize(), Integer.MAX_VALUE) : 0;
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    static class Entry {
+        private final String eTag;
+        private final String lastModified;
+        private final Object value;
+        private final HttpResponse stored;
+
+        private Entry(String eTag, String lastModified, Object value, HttpResponse stored) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.value = value;
+            this.stored = stored;
+        }
+    }
+
+    private static class Key {
+        private final String url;
+        private final Object resultKey;
+
+        private Key(String url, Object resultKey) {
+            this.url = url;
+            this.resultKey = resultKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return url.equals(key.url) && Objects.equals(resultKey, key.resultKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * url.hashCode() + Objects.hashCode(resultKey);
+        }
+    }
+
+    interface StoredResponseConverter<T> {
+        T convert(HttpResponse stored) throws IOException;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Inflates the gzip and deflate encoded entities while they are read, without buffering the decoded content, and
+ * counts the bytes received on the wire and the bytes produced by the inflation.
+ */
+class ContentDecoder {
+
+    public static final String ACCEPT_ENCODING = "gzip,deflate";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder uncompressedBytes = new LongAdder();
+
+    /**
+     * @return an entity returning the decoded content, or the same entity if it is not compressed
+     */
+    public HttpEntity decode(HttpEntity entity) {
+        if (entity == null || entity.getContentEncoding() == null)
+            return entity;
+        String encoding = entity.getContentEncoding().getValue().trim().toLowerCase(Locale.ROOT);
+        if (!encoding.equals("gzip") && !encoding.equals("x-gzip") && !encoding.equals("deflate"))
+            return entity;
+        responses.increment();
+        return new DecodedEntity(entity, encoding.equals("deflate"));
+    }
+
+    /**
+     * "deflate" should be a zlib stream but some servers send raw deflate data, so the zlib header is checked first
+     */
+    private static InputStream inflateDeflate(InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, 2);
+        int cmf = pushback.read();
+        int flg = pushback.read();
+        if (flg != -1)
+            pushback.unread(flg);
+        if (cmf != -1)
+            pushback.unread(cmf);
+        boolean zlib = cmf != -1 && flg != -1 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        return new InflaterInputStream(pushback, new Inflater(!zlib), BUFFER_SIZE);
+    }
+
+    public CompressionStats getStats() {
+        return new CompressionStats(responses.sum(), compressedBytes.sum(), uncompressedBytes.sum());
+    }
+
+    private class DecodedEntity extends HttpEntityWrapper {
+        private final boolean deflate;
+
+        private DecodedEntity(HttpEntity entity, boolean deflate) {
+            super(entity);
+            this.deflate = deflate;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            InputStream compressed = new CountingInputStream(super.getContent(), compressedBytes);
+            InputStream inflated = deflate ? inflateDeflate(compressed) : new GZIPInputStream(compressed, BUFFER_SIZE);
+            return new CountingInputStream(inflated, uncompressedBytes);
+        }
+
+        @Override
+        public Header getContentEncoding() {
+            return null;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try (InputStream in = getContent()) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }
+
+        @Override
+        public long getContentLength() {
+            //the decoded length is not known in advance
+            return -1;
+        }
+    }
+}
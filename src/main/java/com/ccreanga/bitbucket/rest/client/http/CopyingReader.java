@@ -0,0 +1,82 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Keeps a copy of the characters read through it, up to maxLength characters.
+ */
+class CopyingReader extends FilterReader {
+
+    private final int maxLength;
+    private StringBuilder copy = new StringBuilder();
+
+    public CopyingReader(Reader in, int maxLength) {
+        super(in);
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = super.read();
+        if (c != -1)
+            append(new char[]{(char) c}, 0, 1);
+        return c;
+    }
+
+    @Override
+    public int read(char[] buffer, int off, int len) throws IOException {
+        int read = super.read(buffer, off, len);
+        if (read > 0)
+            append(buffer, off, read);
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        //the skipped characters have to be copied too
+        char[] buffer = new char[(int) Math.min(n, 8192)];
+        int read = read(buffer, 0, buffer.length);
+        return Math.max(read, 0);
+    }
+
+    private void append(char[] buffer, int off, int len) {
+        if (copy == null)
+            return;
+        if (copy.length() + len > maxLength) {
+            copy = null;
+        } else {
+            copy.append(buffer, off, len);
+        }
+    }
+
+    /**
+     * Reads what the consumer left unread
+     * @return all the characters of the underlying reader, or null if there were more than maxLength
+     */
+    public String copy() throws IOException {
+        char[] buffer = new char[8192];
+        while (copy != null && read(buffer, 0, buffer.length) != -1) {
+            //copied by read
+        }
+        return copy != null ? copy.toString() : null;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * The levels of the hierarchy walked by the {@link InstanceCrawler}.
+ */
+public enum CrawlLevel {
+    /**
+     * the project list, a single task
+     */
+    PROJECTS,
+    /**
+     * one task per project, listing its repositories
+     */
+    REPOSITORIES,
+    /**
+     * one task per repository, listing its branches
+     */
+    BRANCHES,
+    /**
+     * one task per repository, listing its pull requests
+     */
+    PULL_REQUESTS
+}
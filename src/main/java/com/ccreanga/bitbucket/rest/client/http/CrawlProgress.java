@@ -0,0 +1,105 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Progress of a crawl: the objects found and the tasks completed, failed and not started yet on every level.
+ */
+public class CrawlProgress {
+
+    private final Map<CrawlLevel, Long> found;
+    private final Map<CrawlLevel, Long> completed;
+    private final Map<CrawlLevel, Long> failed;
+    private final long pending;
+    private final long elapsedMillis;
+    private final boolean done;
+
+    public CrawlProgress(Map<CrawlLevel, Long> found, Map<CrawlLevel, Long> completed, Map<CrawlLevel, Long> failed,
+                         long pending, long elapsedMillis, boolean done) {
+        this.found = new EnumMap<>(found);
+        this.completed = new EnumMap<>(completed);
+        this.failed = new EnumMap<>(failed);
+        this.pending = pending;
+        this.elapsedMillis = elapsedMillis;
+        this.done = done;
+    }
+
+    /**
+     * @return the number of objects found on the level (projects, repositories, branches or pull requests)
+     */
+    public long getFound(CrawlLevel level) {
+        return found.getOrDefault(level, 0L);
+    }
+
+    /**
+     * @return the number of tasks of the level that listed all their objects
+     */
+    public long getCompleted(CrawlLevel level) {
+        return completed.getOrDefault(level, 0L);
+    }
+
+    public long getFailed(CrawlLevel level) {
+        return failed.getOrDefault(level, 0L);
+    }
+
+    public long getTotalFound() {
+        return found.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getTotalFailed() {
+        return failed.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @return the number of tasks scheduled or running
+     */
+    public long getPending() {
+        return pending;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return the objects found per second since the crawl started
+     */
+    public double getThroughput() {
+        return elapsedMillis == 0 ? 0 : getTotalFound() * 1000.0 / elapsedMillis;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public String toString() {
+        return "CrawlProgress{" +
+                "found=" + found +
+                ", completed=" + completed +
+                ", failed=" + failed +
+                ", pending=" + pending +
+                ", elapsedMillis=" + elapsedMillis +
+                ", throughput=" + String.format("%.1f/s", getThroughput()) +
+                ", done=" + done +
+                '}';
+    }
+}
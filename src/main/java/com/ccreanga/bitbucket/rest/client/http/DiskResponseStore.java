@@ -0,0 +1,238 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent tier of the ConditionalRequestCache: keeps the successful GET responses carrying validators as files
+ * in a directory, one file per url, so a restarted process can revalidate them instead of downloading them again.
+ * The modification time of a file is the last time its response was validated by the server: the entries not
+ * validated for ttl milliseconds are dropped, and when the files take more than maxSize bytes the least recently
+ * validated ones are deleted. A file is written under a temporary name and then renamed, so the readers (including
+ * other processes sharing the directory) never see a partial entry.
+ */
+class DiskResponseStore {
+
+    private static Logger LOGGER = LoggerFactory.getLogger(DiskResponseStore.class);
+
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".response";
+
+    private final Path directory;
+    private final String keyPrefix;
+    private final long maxSize;
+    private final long ttl;
+
+    private final ConcurrentMap<Path, Long> sizes = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * @param keyPrefix distinguishes the servers and the users sharing the directory
+     */
+    public DiskResponseStore(Path directory, String keyPrefix, long maxSize, long ttl) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.keyPrefix = keyPrefix;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                long fileSize = Files.size(file);
+                sizes.put(file, fileSize);
+                size.addAndGet(fileSize);
+            }
+        }
+    }
+
+    /**
+     * @return the response stored for the url, or null if there is none or it expired
+     */
+    public HttpResponse load(String url) {
+        Path file = fileOf(url);
+        try {
+            if (System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis() > ttl) {
+                delete(file);
+                return null;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() != VERSION || !in.readUTF().equals(keyPrefix + url)) {
+                    return null;
+                }
+                int statusCode = in.readInt();
+                String statusMessage = in.readUTF();
+                int headerCount = in.readInt();
+                Map<String, String> headers = new LinkedHashMap<>();
+                for (int i = 0; i < headerCount; i++) {
+                    headers.put(in.readUTF(), in.readUTF());
+                }
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                hits.increment();
+                return new HttpResponse(statusCode, statusMessage, headers, new String(body, StandardCharsets.UTF_8));
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("cannot read the stored response of " + url + ", deleting it", e);
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the response with the body, kept as UTF-8
+     */
+    public void store(String url, HttpResponse response, String text) {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        if (body.length > getMaxEntrySize())
+            return;
+        Path file = fileOf(url);
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, "store", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(VERSION);
+                out.writeUTF(keyPrefix + url);
+                out.writeInt(response.getStatusCode());
+                out.writeUTF(response.getStatusMessage() != null ? response.getStatusMessage() : "");
+                out.writeInt(response.getHeaders().size());
+                for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+                    out.writeUTF(header.getKey());
+                    out.writeUTF(header.getValue());
+                }
+                out.writeInt(body.length);
+                out.write(body);
+            }
+            long fileSize = Files.size(temporary);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Long previous = sizes.put(file, fileSize);
+            size.addAndGet(fileSize - (previous != null ? previous : 0));
+        } catch (IOException e) {
+            LOGGER.warn("cannot store the response of " + url, e);
+            if (temporary != null)
+                deleteQuietly(temporary);
+            return;
+        }
+        if (size.get() > maxSize)
+            evict();
+    }
+
+    /**
+     * The server confirmed that the stored response is still valid
+     */
+    public void validated(String url) {
+        try {
+            Files.setLastModifiedTime(fileOf(url), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            LOGGER.debug("cannot touch the stored response of " + url, e);
+        }
+    }
+
+    public void remove(String url) {
+        delete(fileOf(url));
+    }
+
+    /**
+     * Deletes the least recently validated entries until the store takes less than 90% of maxSize
+     */
+    private synchronized void evict() {
+        if (size.get() <= maxSize)
+            return;
+        List<Path> files = new ArrayList<>(sizes.keySet());
+        Map<Path, Long> validated = new HashMap<>();
+        for (Path file : files) {
+            try {
+                validated.put(file, Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException e) {
+                validated.put(file, 0L);
+            }
+        }
+        files.sort((first, second) -> Long.compare(validated.get(first), validated.get(second)));
+        long target = maxSize / 10 * 9;
+        for (Path file : files) {
+            if (size.get() <= target)
+                break;
+            delete(file);
+        }
+    }
+
+    private void delete(Path file) {
+        deleteQuietly(file);
+        Long fileSize = sizes.remove(file);
+        if (fileSize != null)
+            size.addAndGet(-fileSize);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.debug("cannot delete " + file, e);
+        }
+    }
+
+    private Path fileOf(String url) {
+        return directory.resolve(Hashing.sha256().hashString(keyPrefix + url, StandardCharsets.UTF_8) + SUFFIX);
+    }
+
+    /**
+     * @return the size of the largest body stored, a tenth of maxSize so that an entry does not evict most of the others
+     */
+    public long getMaxEntrySize() {
+        return maxSize / 10;
+    }
+
+    /**
+     * @return the number of bytes taken by the stored responses
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * @return the number of responses read from the disk
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * Groups of REST resources that are limited and isolated together.
+ */
+public enum EndpointFamily {
+    /**
+     * /rest/api/1.0/projects and /rest/api/1.0/repos, except the pull requests
+     */
+    PROJECTS,
+    /**
+     * /rest/api/1.0/projects/{key}/repos/{slug}/pull-requests and everything below
+     */
+    PULL_REQUESTS,
+    /**
+     * /rest/build-status
+     */
+    BUILD_STATUS,
+    /**
+     * /rest/keys and /rest/ssh
+     */
+    SSH_KEYS,
+    /**
+     * users, application properties and anything else
+     */
+    OTHER;
+
+    public static EndpointFamily of(String url) {
+        if (url.startsWith("/rest/build-status"))
+            return BUILD_STATUS;
+        if (url.startsWith("/rest/keys") || url.startsWith("/rest/ssh"))
+            return SSH_KEYS;
+        if (url.startsWith("/rest/api/1.0/projects") || url.startsWith("/rest/api/1.0/repos"))
+            return url.contains("/pull-requests") ? PULL_REQUESTS : PROJECTS;
+        return OTHER;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * The metrics recorded by HistogramRequestMetrics for one endpoint. The histograms are in microseconds.
+ */
+public class EndpointMetrics {
+
+    private final String endpoint;
+    private final long[] requests;
+    private final long bytesReceived;
+    private final HistogramSnapshot timeToFirstByte;
+    private final HistogramSnapshot latency;
+    private final HistogramSnapshot parseTime;
+    private final HistogramSnapshot sendTime;
+
+    EndpointMetrics(String endpoint, long[] requests, long bytesReceived, HistogramSnapshot timeToFirstByte,
+                    HistogramSnapshot latency, HistogramSnapshot parseTime, HistogramSnapshot sendTime) {
+        this.endpoint = endpoint;
+        this.requests = requests;
+        this.bytesReceived = bytesReceived;
+        this.timeToFirstByte = timeToFirstByte;
+        this.latency = latency;
+        this.parseTime = parseTime;
+        this.sendTime = sendTime;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the number of attempts, including the retries
+     */
+    public long getRequests() {
+        long total = 0;
+        for (long count : requests) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @param statusClass 1 to 5 for the 1xx to 5xx responses, 0 for the attempts failed without a response
+     */
+    public long getRequests(int statusClass) {
+        if (statusClass < 0 || statusClass >= requests.length)
+            throw new IllegalArgumentException("statusClass should be between 0 and " + (requests.length - 1) + " not:" + statusClass);
+        return requests[statusClass];
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public HistogramSnapshot getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    public HistogramSnapshot getParseTime() {
+        return parseTime;
+    }
+
+    /**
+     * @return the time spent leasing a connection, connecting and writing the request, see RequestSample.getSendTimeNanos()
+     */
+    public HistogramSnapshot getSendTime() {
+        return sendTime;
+    }
+
+    /**
+     * @return the time spent in this endpoint, the sum of the latencies, in microseconds
+     */
+    public long getTotalLatency() {
+        return latency.getSum();
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointMetrics{" +
+                "endpoint='" + endpoint + '\'' +
+                ", requests=" + getRequests() +
+                ", 2xx=" + requests[2] +
+                ", 3xx=" + requests[3] +
+                ", 4xx=" + requests[4] +
+                ", 5xx=" + requests[5] +
+                ", failed=" + requests[0] +
+                ", bytesReceived=" + bytesReceived +
+                ", timeToFirstByte=" + timeToFirstByte +
+                ", latency=" + latency +
+                ", parseTime=" + parseTime +
+                ", sendTime=" + sendTime +
+                '}';
+    }
+}
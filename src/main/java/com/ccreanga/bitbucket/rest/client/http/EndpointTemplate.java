@@ -0,0 +1,79 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+
+/**
+ * Turns the request urls into the endpoint templates used to tag the metrics, for example
+ * /rest/api/1.0/projects/PRJ/repos/my-repo/pull-requests/12/activities?start=0 into
+ * /projects/{key}/repos/{slug}/pull-requests/{id}/activities
+ */
+class EndpointTemplate {
+
+    private static final String API_PREFIX = "/rest/api/1.0";
+
+    /**
+     * The segment following one of these is a path parameter
+     */
+    private static final Map<String, String> PARAMETERS = ImmutableMap.<String, String>builder().
+            put("projects", "{key}").
+            put("repos", "{slug}").
+            put("users", "{slug}").
+            put("pull-requests", "{id}").
+            put("comments", "{id}").
+            put("tasks", "{id}").
+            put("commits", "{id}").
+            build();
+
+    private EndpointTemplate() {
+    }
+
+    public static String of(String url) {
+        int query = url.indexOf('?');
+        String path = query >= 0 ? url.substring(0, query) : url;
+        if (path.startsWith(API_PREFIX))
+            path = path.substring(API_PREFIX.length());
+        StringBuilder template = new StringBuilder(path.length());
+        String parameter = null;
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty())
+                continue;
+            template.append('/');
+            if (parameter != null && !segment.equals("stats")) {
+                template.append(parameter);
+                parameter = null;
+            } else if (isNumber(segment)) {
+                template.append("{id}");
+            } else {
+                template.append(segment);
+                parameter = PARAMETERS.get(segment);
+            }
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    private static boolean isNumber(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RequestMetrics keeping per endpoint counters and LatencyHistograms in memory, queried with getEndpointMetrics.
+ * The times are recorded in microseconds, up to one hour.
+ */
+public class HistogramRequestMetrics implements RequestMetrics {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final ConcurrentMap<String, Recorder> recorders = new ConcurrentHashMap<>();
+
+    @Override
+    public void onRequest(RequestSample sample) {
+        recorder(sample.getEndpoint()).record(sample);
+    }
+
+    @Override
+    public void onParse(String endpoint, long parseNanos) {
+        recorder(endpoint).parseTime.record(TimeUnit.NANOSECONDS.toMicros(parseNanos));
+    }
+
+    private Recorder recorder(String endpoint) {
+        Recorder recorder = recorders.get(endpoint);
+        return recorder != null ? recorder : recorders.computeIfAbsent(endpoint, key -> new Recorder());
+    }
+
+    /**
+     * @return the metrics of every endpoint called so far, sorted by endpoint
+     */
+    public Map<String, EndpointMetrics> getEndpointMetrics() {
+        Map<String, EndpointMetrics> metrics = new TreeMap<>();
+        for (Map.Entry<String, Recorder> recorder : recorders.entrySet()) {
+            metrics.put(recorder.getKey(), recorder.getValue().snapshot(recorder.getKey()));
+        }
+        return metrics;
+    }
+
+    /**
+     * @return the metrics of the endpoint, null if it was not called
+     */
+    public EndpointMetrics getEndpointMetrics(String endpoint) {
+        Recorder recorder = recorders.get(endpoint);
+        return recorder != null ? recorder.snapshot(endpoint) : null;
+    }
+
+    public void reset() {
+        recorders.clear();
+    }
+
+    private static class Recorder {
+        //indexed by the status class, 0 for the attempts failed without a response
+        private final LongAdder[] requests = new LongAdder[6];
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LatencyHistogram timeToFirstByte = new LatencyHistogram(HIGHEST_TRACKABLE_MICROS);
+        private final LatencyHistogram latency = new LatencyHistogram(HIGHEST_TRACKABLE_MICROS);
+        private final LatencyHistogram parseTime = new LatencyHistogram(HIGHEST_TRACKABLE_MICROS);
+        private final LatencyHistogram sendTime = new LatencyHistogram(HIGHEST_TRACKABLE_MICROS);
+
+        private Recorder() {
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new LongAdder();
+            }
+        }
+
+        private void record(RequestSample sample) {
+            requests[Math.min(sample.getStatusClass(), requests.length - 1)].increment();
+            bytesReceived.add(sample.getBytesReceived());
+            if (sample.getTimeToFirstByteNanos() >= 0)
+                timeToFirstByte.record(TimeUnit.NANOSECONDS.toMicros(sample.getTimeToFirstByteNanos()));
+            latency.record(TimeUnit.NANOSECONDS.toMicros(sample.getLatencyNanos()));
+            sendTime.record(TimeUnit.NANOSECONDS.toMicros(sample.getSendTimeNanos()));
+        }
+
+        private EndpointMetrics snapshot(String endpoint) {
+            long[] requestCounts = new long[requests.length];
+            for (int i = 0; i < requests.length; i++) {
+                requestCounts[i] = requests[i].sum();
+            }
+            return new EndpointMetrics(endpoint, requestCounts, bytesReceived.sum(),
+                    timeToFirstByte.getSnapshot(), latency.getSnapshot(), parseTime.getSnapshot(), sendTime.getSnapshot());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * Immutable copy of the counts of a LatencyHistogram.
+ */
+public class HistogramSnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long sum, long max) {
+        this.counts = counts;
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the highest value of the bucket holding the percentile (capped at max), 0 if the histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("percentile should be between 0 and 100 not:" + percentile);
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(LatencyHistogram.highestValueAt(i), max);
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{" +
+                "count=" + count +
+                ", mean=" + Math.round(getMean()) +
+                ", p50=" + getValueAtPercentile(50) +
+                ", p90=" + getValueAtPercentile(90) +
+                ", p99=" + getValueAtPercentile(99) +
+                ", max=" + max +
+                '}';
+    }
+}
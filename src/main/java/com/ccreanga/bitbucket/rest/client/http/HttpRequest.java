@@ -21,6 +21,8 @@ class HttpRequest {
     private String url;
     private HttpMethod method;
     private String payload;
+    private String endpoint;
+    private boolean shared = true;
 
     public HttpRequest(String url, HttpMethod method, String payload) {
         this.url = url;
@@ -28,6 +30,15 @@ class HttpRequest {
         this.payload = payload;
     }
 
+    /**
+     * @param shared false if the handler has side effects (a streaming visitor), so the response can be neither
+     *               coalesced with an identical request nor served from the conditional request cache
+     */
+    public HttpRequest(String url, HttpMethod method, String payload, boolean shared) {
+        this(url, method, payload);
+        this.shared = shared;
+    }
+
     public String getUrl() {
         return url;
     }
@@ -40,4 +51,17 @@ class HttpRequest {
         return payload;
     }
 
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * @return the url template used to tag the metrics
+     */
+    public String getEndpoint() {
+        if (endpoint == null)
+            endpoint = EndpointTemplate.of(url);
+        return endpoint;
+    }
+
 }
@@ -57,6 +57,28 @@ class HttpResponse {
     }
 
 
+    /**
+     * @return the entity tag validator sent by the server or null
+     */
+    public String getETag() {
+        return headers.get(HttpUtil.ETAG);
+    }
+
+    /**
+     * @return the Last-Modified validator sent by the server or null
+     */
+    public String getLastModified() {
+        return headers.get(HttpUtil.LAST_MODIFIED);
+    }
+
+    public boolean hasValidators() {
+        return getETag() != null || getLastModified() != null;
+    }
+
+    public boolean isNotModified() {
+        return statusCode == 304;
+    }
+
     public Map<String, String> getHeaders() {
         return headers;
     }
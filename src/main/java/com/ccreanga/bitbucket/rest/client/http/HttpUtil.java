@@ -25,6 +25,10 @@ import java.util.regex.Pattern;
 
 class HttpUtil {
     public static String CONTENT_TYPE = "Content-Type";
+    public static String ETAG = "ETag";
+    public static String LAST_MODIFIED = "Last-Modified";
+    public static String IF_NONE_MATCH = "If-None-Match";
+    public static String IF_MODIFIED_SINCE = "If-Modified-Since";
     public static Pattern CHARSET_REGEX = Pattern.compile("charset\\s*=\\s*(.*)$", Pattern.CASE_INSENSITIVE);
 
     @Nullable
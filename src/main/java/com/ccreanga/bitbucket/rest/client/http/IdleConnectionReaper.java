@@ -0,0 +1,73 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background task closing the expired and the idle connections of the blocking and of the async pools, so a long
+ * running process does not keep sockets already dropped by the server or by a proxy.
+ */
+class IdleConnectionReaper {
+
+    private static Logger LOGGER = LoggerFactory.getLogger(IdleConnectionReaper.class);
+
+    private final HttpClientConnectionManager connectionManager;
+    private final NHttpClientConnectionManager asyncConnectionManager;
+    private final long idleConnectionTimeout;
+    private final ScheduledExecutorService scheduler;
+
+    public IdleConnectionReaper(HttpClientConnectionManager connectionManager,
+                                NHttpClientConnectionManager asyncConnectionManager,
+                                long idleConnectionTimeout,
+                                long interval) {
+        this.connectionManager = connectionManager;
+        this.asyncConnectionManager = asyncConnectionManager;
+        this.idleConnectionTimeout = idleConnectionTimeout;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bitbucket-idle-connection-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reap, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    void reap() {
+        try {
+            connectionManager.closeExpiredConnections();
+            asyncConnectionManager.closeExpiredConnections();
+            if (idleConnectionTimeout > 0) {
+                connectionManager.closeIdleConnections(idleConnectionTimeout, TimeUnit.MILLISECONDS);
+                asyncConnectionManager.closeIdleConnections(idleConnectionTimeout, TimeUnit.MILLISECONDS);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("exception when trying to close the idle connections", e);
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.ProjectClient;
+import com.ccreanga.bitbucket.rest.client.model.Branch;
+import com.ccreanga.bitbucket.rest.client.model.Project;
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestState;
+
+import javax.annotation.Nonnull;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Walks projects, repositories, branches and pull requests of the whole instance and streams them to a
+ * {@link SnapshotSink}. Every project and every repository becomes a task run by a fixed pool of threads, so the
+ * repositories of a large project do not wait behind the small ones. The tasks block on the requests, so each one holds
+ * a thread: the pool size bounds the total number of requests in flight and every level has its own budget, so for
+ * example the branch listings cannot starve the repository listings; the tasks over the budget wait in a FIFO queue
+ * without holding a thread.
+ * <p>
+ * The crawler can be reused, every call of {@link #crawl(SnapshotSink)} starts a new walk with its own pool.
+ */
+public class InstanceCrawler {
+
+    private final ProjectClient client;
+    private final int parallelism;
+    private final Map<CrawlLevel, Integer> levelConcurrency;
+    private final boolean crawlBranches;
+    private final boolean crawlPullRequests;
+    private final PullRequestState pullRequestState;
+    private final Consumer<CrawlProgress> progressListener;
+    private final long progressInterval;
+
+    private InstanceCrawler(Builder builder) {
+        this.client = builder.client;
+        this.parallelism = builder.parallelism;
+        this.levelConcurrency = new EnumMap<>(builder.levelConcurrency);
+        this.crawlBranches = builder.crawlBranches;
+        this.crawlPullRequests = builder.crawlPullRequests;
+        this.pullRequestState = builder.pullRequestState;
+        this.progressListener = builder.progressListener;
+        this.progressInterval = builder.progressInterval;
+    }
+
+    public static Builder builder(ProjectClient client) {
+        return new Builder(client);
+    }
+
+    /**
+     * Starts the walk. The future is completed with the final progress when every task has finished, the failed
+     * tasks included; cancelling it stops the walk, the running tasks stop after their current page.
+     */
+    public CompletableFuture<CrawlProgress> crawl(@Nonnull SnapshotSink sink) {
+        return new Crawl(sink).start();
+    }
+
+    private class Crawl {
+        private final SnapshotSink sink;
+        private final ExecutorService pool = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            private final AtomicInteger threads = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "bitbucket-crawl-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        private final Map<CrawlLevel, ConcurrencyLimiter> limiters = new EnumMap<>(CrawlLevel.class);
+        private final Map<CrawlLevel, LongAdder> found = new EnumMap<>(CrawlLevel.class);
+        private final Map<CrawlLevel, LongAdder> completed = new EnumMap<>(CrawlLevel.class);
+        private final Map<CrawlLevel, LongAdder> failed = new EnumMap<>(CrawlLevel.class);
+        //scheduled or running tasks, the crawl is over when it drops to 0
+        private final AtomicLong pending = new AtomicLong();
+        private final CompletableFuture<CrawlProgress> result = new CompletableFuture<>();
+        private final long startNanos = System.nanoTime();
+        private ScheduledExecutorService reporter;
+
+        private Crawl(SnapshotSink sink) {
+            this.sink = sink;
+            for (CrawlLevel level : CrawlLevel.values()) {
+                limiters.put(level, new ConcurrencyLimiter(levelConcurrency.getOrDefault(level, parallelism)));
+                found.put(level, new LongAdder());
+                completed.put(level, new LongAdder());
+                failed.put(level, new LongAdder());
+            }
+        }
+
+        private CompletableFuture<CrawlProgress> start() {
+            if (progressListener != null) {
+                reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "bitbucket-crawl-progress");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                reporter.scheduleAtFixedRate(() -> progressListener.accept(progress(false)),
+                        progressInterval, progressInterval, TimeUnit.MILLISECONDS);
+            }
+            schedule(CrawlLevel.PROJECTS, "", () -> {
+                Iterator<Project> projects = client.streamProjects().iterator();
+                while (projects.hasNext() && !result.isDone()) {
+                    Project project = projects.next();
+                    found(CrawlLevel.PROJECTS);
+                    sink.onProject(project);
+                    schedule(CrawlLevel.REPOSITORIES, project.getKey(), () -> crawlRepositories(project.getKey()));
+                }
+            });
+            return result;
+        }
+
+        private void crawlRepositories(String projectKey) {
+            Iterator<Repository> repositories = client.streamProjectRepositories(projectKey).iterator();
+            while (repositories.hasNext() && !result.isDone()) {
+                Repository repository = repositories.next();
+                found(CrawlLevel.REPOSITORIES);
+                sink.onRepository(repository);
+                String key = projectKey + "/" + repository.getSlug();
+                if (crawlBranches)
+                    schedule(CrawlLevel.BRANCHES, key, () -> forEach(CrawlLevel.BRANCHES,
+                            client.streamBranches(projectKey, repository.getSlug(), null),
+                            (Branch branch) -> sink.onBranch(repository, branch)));
+                if (crawlPullRequests)
+                    schedule(CrawlLevel.PULL_REQUESTS, key, () -> forEach(CrawlLevel.PULL_REQUESTS,
+                            client.streamPullRequests(projectKey, repository.getSlug(), pullRequestState, true, null, true, null, null, null),
+                            (PullRequest pullRequest) -> sink.onPullRequest(repository, pullRequest)));
+            }
+        }
+
+        private <T> void forEach(CrawlLevel level, Stream<T> stream, Consumer<T> consumer) {
+            Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext() && !result.isDone()) {
+                T value = iterator.next();
+                found(level);
+                consumer.accept(value);
+            }
+        }
+
+        private void found(CrawlLevel level) {
+            found.get(level).increment();
+        }
+
+        private void schedule(CrawlLevel level, String key, Runnable task) {
+            pending.incrementAndGet();
+            ConcurrencyLimiter limiter = limiters.get(level);
+            limiter.acquireAsync(() -> pool.execute(() -> {
+                try {
+                    if (!result.isDone()) {
+                        task.run();
+                        completed.get(level).increment();
+                    }
+                } catch (RuntimeException | Error e) {
+                    failed.get(level).increment();
+                    try {
+                        sink.onError(level, key, e);
+                    } catch (RuntimeException ignored) {
+                        //the sink failing to handle the error should not stop the crawl
+                    }
+                } finally {
+                    limiter.release();
+                    if (pending.decrementAndGet() == 0)
+                        finish();
+                }
+            }));
+        }
+
+        private void finish() {
+            if (reporter != null)
+                reporter.shutdownNow();
+            pool.shutdown();
+            CrawlProgress progress = progress(true);
+            if (progressListener != null)
+                progressListener.accept(progress);
+            result.complete(progress);
+        }
+
+        private CrawlProgress progress(boolean done) {
+            return new CrawlProgress(sums(found), sums(completed), sums(failed), pending.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), done);
+        }
+
+        private Map<CrawlLevel, Long> sums(Map<CrawlLevel, LongAdder> counters) {
+            Map<CrawlLevel, Long> sums = new EnumMap<>(CrawlLevel.class);
+            counters.forEach((level, counter) -> sums.put(level, counter.sum()));
+            return sums;
+        }
+    }
+
+    public static class Builder {
+        private final ProjectClient client;
+        private int parallelism = 8;
+        private final Map<CrawlLevel, Integer> levelConcurrency = new EnumMap<>(CrawlLevel.class);
+        private boolean crawlBranches = true;
+        private boolean crawlPullRequests = true;
+        private PullRequestState pullRequestState = PullRequestState.OPEN;
+        private Consumer<CrawlProgress> progressListener;
+        private long progressInterval = 10_000;
+
+        private Builder(ProjectClient client) {
+            if (client == null)
+                throw new IllegalArgumentException("client should not be null");
+            this.client = client;
+        }
+
+        /**
+         * @param parallelism the number of threads of the pool, which is also the maximum number of requests in flight
+         */
+        public Builder setParallelism(int parallelism) {
+            if (parallelism <= 0)
+                throw new IllegalArgumentException("parallelism should be greater than 0 not:" + parallelism);
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param concurrency the maximum number of tasks of the level running at the same time; by default the
+         *                    parallelism
+         */
+        public Builder setLevelConcurrency(CrawlLevel level, int concurrency) {
+            if (level == null)
+                throw new IllegalArgumentException("level should not be null");
+            if (concurrency <= 0)
+                throw new IllegalArgumentException("concurrency should be greater than 0 not:" + concurrency);
+            levelConcurrency.put(level, concurrency);
+            return this;
+        }
+
+        public Builder setCrawlBranches(boolean crawlBranches) {
+            this.crawlBranches = crawlBranches;
+            return this;
+        }
+
+        public Builder setCrawlPullRequests(boolean crawlPullRequests) {
+            this.crawlPullRequests = crawlPullRequests;
+            return this;
+        }
+
+        /**
+         * @param pullRequestState the state of the pull requests listed, OPEN by default; null or ALL lists all of them
+         */
+        public Builder setPullRequestState(PullRequestState pullRequestState) {
+            this.pullRequestState = pullRequestState;
+            return this;
+        }
+
+        /**
+         * @param progressListener called every progressInterval milliseconds from a separate thread and once more
+         *                         when the crawl is over
+         */
+        public Builder setProgressListener(Consumer<CrawlProgress> progressListener, long progressInterval) {
+            if (progressInterval <= 0)
+                throw new IllegalArgumentException("progressInterval should be greater than 0 not:" + progressInterval);
+            this.progressListener = progressListener;
+            this.progressInterval = progressInterval;
+            return this;
+        }
+
+        public InstanceCrawler build() {
+            return new InstanceCrawler(this);
+        }
+    }
+}
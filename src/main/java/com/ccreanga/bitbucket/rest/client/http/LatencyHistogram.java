@@ -0,0 +1,92 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of positive long values with a bounded relative error, in the style of HdrHistogram: the values
+ * below 64 have their own bucket and every power of two above is split into 32 linear sub-buckets, so a value is
+ * reported with an error under 1/32 (about 3%). Recording is a few bit operations and one atomic increment; the
+ * values above highestTrackableValue are counted in the last bucket.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(long highestTrackableValue) {
+        if (highestTrackableValue < LINEAR_LIMIT)
+            throw new IllegalArgumentException("highestTrackableValue should be at least " + LINEAR_LIMIT + " not:" + highestTrackableValue);
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(indexOf(highestTrackableValue) + 1);
+    }
+
+    public void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), highestTrackableValue);
+        counts.incrementAndGet(indexOf(clamped));
+        sum.add(clamped);
+        if (clamped > max.get())
+            max.accumulateAndGet(clamped, Math::max);
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * @return the lowest value counted in the bucket
+     */
+    static long lowestValueAt(int index) {
+        if (index < LINEAR_LIMIT)
+            return index;
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        return (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+    }
+
+    /**
+     * @return the highest value counted in the bucket
+     */
+    static long highestValueAt(int index) {
+        if (index < LINEAR_LIMIT)
+            return index;
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        return lowestValueAt(index) + (1L << shift) - 1;
+    }
+
+    /**
+     * The snapshot is not atomic: the values recorded while it is taken may be partially included
+     */
+    public HistogramSnapshot getSnapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new HistogramSnapshot(copy, sum.sum(), max.get());
+    }
+}
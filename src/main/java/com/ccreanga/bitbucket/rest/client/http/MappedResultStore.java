@@ -0,0 +1,410 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.http.codec.BinaryWriter;
+import com.ccreanga.bitbucket.rest.client.http.codec.ModelCodecs;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Append-only store of model objects in a memory mapped file, for analysing the data of a whole instance without
+ * keeping it on the heap. Every value is encoded by the codec of its {@link RecordType} into a record; the heap only
+ * holds primitive arrays: the offset of every record and an open addressing table from the key hash to the record.
+ * The records are read through {@link StoredRecord} views over the mapped bytes, decoded only when asked.
+ * <p>
+ * The file is mapped in segments of segmentSize bytes and a record never spans two segments. A record is
+ * [length:int][key hash:long][timestamp:long][tag:int][key][value], the key and the value having their own string
+ * tables so that the value bytes can be decoded on their own. The length is written last so that a record
+ * interrupted by a crash is ignored when the file is opened again. The bytes after the last complete record are then
+ * cleared, so a shorter record appended in its place does not leave old bytes that a later crash could expose as a
+ * record. A key appended twice resolves to the last record,
+ * while the iteration returns all of them in append order.
+ * <p>
+ * The header of the file records the {@link ModelCodecs#SCHEMA_VERSION} of the codecs that created it; the files
+ * of an older version are read with the old schema and cannot be appended to.
+ * <p>
+ * The appends are serialized; the reads can run concurrently with each other but not with an append.
+ */
+public class MappedResultStore<T> implements Closeable, Iterable<StoredRecord<T>> {
+
+    private static Logger LOGGER = LoggerFactory.getLogger(MappedResultStore.class);
+
+    private static final int MAGIC = 0x42425253;
+    private static final int VERSION = 2;
+    private static final int FILE_HEADER = 16;
+    static final int RECORD_HEADER = 24;
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final Path file;
+    private final RecordType<T> type;
+    private final int segmentSize;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final BinaryWriter keyWriter = new BinaryWriter(64);
+    private final BinaryWriter writer = new BinaryWriter(1024);
+
+    private int schemaVersion = ModelCodecs.SCHEMA_VERSION;
+    private long position = FILE_HEADER;
+    private long[] offsets = new long[1024];
+    private int size;
+    //open addressing table, slots[i] = ordinal + 1 of the record whose key hash is hashes[i], 0 for a free slot
+    private long[] hashes = new long[2048];
+    private int[] slots = new int[2048];
+    private boolean closed;
+
+    public MappedResultStore(Path file, RecordType<T> type) throws IOException {
+        this(file, type, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the file, creating it if needed; the records already in the file are indexed
+     *
+     * @param segmentSize the size of the mapped regions, which bounds the size of a record
+     */
+    public MappedResultStore(Path file, RecordType<T> type, int segmentSize) throws IOException {
+        if (segmentSize < 4096)
+            throw new IllegalArgumentException("segmentSize should be at least 4096 not:" + segmentSize);
+        this.file = file;
+        this.type = type;
+        this.segmentSize = segmentSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long fileSize = channel.size();
+            if (fileSize == 0) {
+                ByteBuffer header = segment(0);
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putInt(8, segmentSize);
+                header.putInt(12, schemaVersion);
+            } else {
+                load(fileSize);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void load(long fileSize) throws IOException {
+        ByteBuffer header = segment(0);
+        if (header.getInt(0) != MAGIC)
+            throw new IOException(file + " is not a result store");
+        if (header.getInt(4) != VERSION)
+            throw new IOException(file + " has the unsupported version:" + header.getInt(4));
+        if (header.getInt(8) != segmentSize)
+            throw new IOException(file + " was written with the segmentSize:" + header.getInt(8));
+        schemaVersion = header.getInt(12);
+        if (schemaVersion < 1 || schemaVersion > ModelCodecs.SCHEMA_VERSION)
+            throw new IOException(file + " was written with the unsupported schema version:" + schemaVersion);
+        long end = position;
+        while (position < fileSize) {
+            int index = (int) (position / segmentSize);
+            int offset = (int) (position % segmentSize);
+            if (segmentSize - offset < RECORD_HEADER) {
+                position = (long) (index + 1) * segmentSize;
+                continue;
+            }
+            ByteBuffer segment = segment(index);
+            int length = segment.getInt(offset);
+            if (length == 0) {
+                //the rest of the segment was skipped by an append, or was never written
+                position = (long) (index + 1) * segmentSize;
+                continue;
+            }
+            if (length < RECORD_HEADER || length > segmentSize - offset) {
+                LOGGER.warn("corrupted record at " + position + " in " + file + ", ignoring the rest of the file");
+                break;
+            }
+            register(position, segment.getLong(offset + 4));
+            position += length;
+            end = position;
+        }
+        position = end;
+        if (end < fileSize)
+            clear(end, fileSize);
+    }
+
+    /**
+     * Zeroes the bytes between the two offsets of the file
+     */
+    private void clear(long from, long to) throws IOException {
+        byte[] zeros = new byte[4096];
+        for (long offset = from; offset < to; ) {
+            int index = (int) (offset / segmentSize);
+            ByteBuffer segment = segment(index).duplicate();
+            segment.position((int) (offset % segmentSize));
+            segment.limit((int) Math.min(segmentSize, to - (long) index * segmentSize));
+            while (segment.hasRemaining()) {
+                segment.put(zeros, 0, Math.min(zeros.length, segment.remaining()));
+            }
+            offset = (long) (index + 1) * segmentSize;
+        }
+    }
+
+    /**
+     * Appends the value under the key of its record type
+     *
+     * @return the ordinal of the record
+     */
+    public int append(T value) throws IOException {
+        return append(type.keyOf(value), value);
+    }
+
+    public synchronized int append(String key, T value) throws IOException {
+        if (closed)
+            throw new IOException(file + " is closed");
+        if (schemaVersion != ModelCodecs.SCHEMA_VERSION)
+            throw new IOException(file + " was written with the schema version " + schemaVersion + ", it can only be read");
+        keyWriter.reset();
+        keyWriter.writeString(key);
+        writer.reset();
+        type.getCodec().write(writer, value);
+        int length = RECORD_HEADER + keyWriter.size() + writer.size();
+        if (length > segmentSize - FILE_HEADER)
+            throw new IllegalArgumentException("the record of " + key + " takes " + length + " bytes, more than the segmentSize:" + segmentSize);
+        int index = (int) (position / segmentSize);
+        int offset = (int) (position % segmentSize);
+        if (length > segmentSize - offset) {
+            index++;
+            offset = 0;
+            position = (long) index * segmentSize;
+        }
+        long hash = hash(key);
+        ByteBuffer segment = segment(index).duplicate();
+        segment.putLong(offset + 4, hash);
+        segment.putLong(offset + 12, type.timestampOf(value));
+        segment.putInt(offset + 20, type.tagOf(value));
+        segment.position(offset + RECORD_HEADER);
+        keyWriter.writeTo(segment);
+        writer.writeTo(segment);
+        segment.putInt(offset, length);
+        int ordinal = register(position, hash);
+        position += length;
+        return ordinal;
+    }
+
+    /**
+     * @return a view of the last record appended with the key, or null if there is none
+     */
+    public StoredRecord<T> get(String key) {
+        int ordinal = find(key);
+        return ordinal >= 0 ? new StoredRecord<T>(this).moveTo(ordinal) : null;
+    }
+
+    /**
+     * @return the decoded value of the last record appended with the key, or null if there is none
+     */
+    public T read(String key) {
+        StoredRecord<T> record = get(key);
+        return record != null ? record.get() : null;
+    }
+
+    public boolean contains(String key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return a view of the record, which can be moved to other records with {@link StoredRecord#moveTo(int)}
+     */
+    public StoredRecord<T> getRecord(int ordinal) {
+        return new StoredRecord<T>(this).moveTo(ordinal);
+    }
+
+    /**
+     * Iterates over all the records in append order, reusing the same view: a record returned by the iterator is
+     * only valid until the next call of next()
+     */
+    @Override
+    public Iterator<StoredRecord<T>> iterator() {
+        StoredRecord<T> record = new StoredRecord<>(this);
+        int end = size;
+        return new Iterator<StoredRecord<T>>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public StoredRecord<T> next() {
+                if (next >= end)
+                    throw new NoSuchElementException();
+                return record.moveTo(next++);
+            }
+        };
+    }
+
+    /**
+     * @return the number of records, including the ones whose key was appended again later
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes used in the file
+     */
+    public long getDataSize() {
+        return position;
+    }
+
+    public RecordType<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return the codec schema version of the records, the version of the codecs that created the file
+     */
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    /**
+     * Forces the mapped segments to the disk
+     */
+    public synchronized void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Flushes the segments and truncates the file to the data written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            flush();
+            channel.truncate(position);
+        } catch (IOException e) {
+            LOGGER.debug("cannot truncate " + file, e);
+        } finally {
+            channel.close();
+        }
+    }
+
+    long offsetOf(int ordinal) {
+        if (ordinal < 0 || ordinal >= size)
+            throw new IndexOutOfBoundsException("ordinal should be between 0 and " + (size - 1) + " not:" + ordinal);
+        return offsets[ordinal];
+    }
+
+    ByteBuffer segmentOf(long offset) {
+        return segments.get((int) (offset / segmentSize));
+    }
+
+    int segmentOffsetOf(long offset) {
+        return (int) (offset % segmentSize);
+    }
+
+    private ByteBuffer segment(int index) throws IOException {
+        while (segments.size() <= index) {
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * segmentSize, segmentSize));
+        }
+        return segments.get(index);
+    }
+
+    private int find(String key) {
+        long hash = hash(key);
+        int mask = slots.length - 1;
+        StoredRecord<T> record = null;
+        for (int i = slot(hash, mask); slots[i] != 0; i = (i + 1) & mask) {
+            if (hashes[i] != hash)
+                continue;
+            if (record == null)
+                record = new StoredRecord<>(this);
+            if (key.equals(record.moveTo(slots[i] - 1).getKey()))
+                return slots[i] - 1;
+        }
+        return -1;
+    }
+
+    private int register(long offset, long hash) {
+        if (size == offsets.length)
+            offsets = Arrays.copyOf(offsets, size * 2);
+        int ordinal = size;
+        offsets[size++] = offset;
+        if (size * 2 > slots.length)
+            rehash();
+        insert(ordinal, hash);
+        return ordinal;
+    }
+
+    private void insert(int ordinal, long hash) {
+        int mask = slots.length - 1;
+        int i = slot(hash, mask);
+        String key = null;
+        for (; slots[i] != 0; i = (i + 1) & mask) {
+            if (hashes[i] != hash)
+                continue;
+            if (key == null)
+                key = new StoredRecord<>(this).moveTo(ordinal).getKey();
+            if (key.equals(new StoredRecord<>(this).moveTo(slots[i] - 1).getKey()))
+                break;
+        }
+        hashes[i] = hash;
+        slots[i] = ordinal + 1;
+    }
+
+    private void rehash() {
+        long[] oldHashes = hashes;
+        int[] oldSlots = slots;
+        hashes = new long[oldSlots.length * 2];
+        slots = new int[oldSlots.length * 2];
+        int mask = slots.length - 1;
+        for (int j = 0; j < oldSlots.length; j++) {
+            if (oldSlots[j] == 0)
+                continue;
+            //the keys are distinct already, a free slot is enough
+            int i = slot(oldHashes[j], mask);
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            hashes[i] = oldHashes[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    private static int slot(long hash, int mask) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static long hash(String key) {
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.Range;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Collects all the pages of a paged resource keeping up to parallelism page requests in flight.
+ * The first page is requested alone in order to find out the page size applied by the server; after that the next
+ * pages are requested speculatively at offsets start+pageSize, start+2*pageSize... and consumed in order.
+ * If a page reports a nextPageStart different from the guessed offset the speculative requests are discarded and
+ * the walk continues from the reported value. A parallelism of 1 means a strictly sequential walk.
+ */
+class PageCollector<T> {
+
+    private final Function<Range, CompletableFuture<Page<T>>> pageFunction;
+    private final int limit;
+    private final int parallelism;
+
+    private final Set<T> values = new HashSet<>();
+    private final Deque<PendingPage<T>> inFlight = new ArrayDeque<>();
+    private final CompletableFuture<Set<T>> result = new CompletableFuture<>();
+    private int pageSize;
+    private int nextStart;
+
+    private PageCollector(Function<Range, CompletableFuture<Page<T>>> pageFunction, int limit, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism should be greater than 0 not:" + parallelism);
+        this.pageFunction = pageFunction;
+        this.limit = limit;
+        this.parallelism = parallelism;
+    }
+
+    public static <T> CompletableFuture<Set<T>> collect(Function<Range, CompletableFuture<Page<T>>> pageFunction, int limit, int parallelism) {
+        return new PageCollector<>(pageFunction, limit, parallelism).start();
+    }
+
+    private CompletableFuture<Set<T>> start() {
+        try {
+            pageFunction.apply(new Range(0, limit)).whenComplete(this::onFirstPage);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private synchronized void onFirstPage(Page<T> page, Throwable e) {
+        try {
+            if (e != null) {
+                result.completeExceptionally(unwrap(e));
+                return;
+            }
+            values.addAll(page.getValues());
+            if (isLastPage(page)) {
+                result.complete(values);
+                return;
+            }
+            pageSize = page.getLimit() > 0 ? page.getLimit() : limit;
+            nextStart = page.getNextPageStart();
+            fill();
+            drain();
+        } catch (RuntimeException | Error failure) {
+            fail(failure);
+        }
+    }
+
+    private synchronized void onPage(Page<T> page, Throwable e) {
+        try {
+            consume(page, e);
+            drain();
+        } catch (RuntimeException | Error failure) {
+            fail(failure);
+        }
+    }
+
+    /**
+     * Consumes the pages at the head of the window while they are already completed, which is common for the cached
+     * or coalesced pages, then waits for the first one still in flight. A loop rather than a callback per page, so
+     * the stack does not grow with the number of pages.
+     */
+    private void drain() {
+        while (!result.isDone()) {
+            CompletableFuture<Page<T>> head = inFlight.peekFirst().page;
+            if (!head.isDone()) {
+                head.whenComplete(this::onPage);
+                return;
+            }
+            Page<T> page = null;
+            Throwable e = null;
+            try {
+                page = head.join();
+            } catch (CompletionException | CancellationException failure) {
+                e = failure;
+            }
+            consume(page, e);
+        }
+    }
+
+    /**
+     * Consumes the page at the head of the window and requests the next ones
+     */
+    private void consume(Page<T> page, Throwable e) {
+        PendingPage<T> consumed = inFlight.removeFirst();
+        if (e != null) {
+            discard();
+            result.completeExceptionally(unwrap(e));
+            return;
+        }
+        values.addAll(page.getValues());
+        if (isLastPage(page)) {
+            discard();
+            result.complete(values);
+            return;
+        }
+        if (page.getNextPageStart() != consumed.start + pageSize) {
+            //the speculative offsets are wrong, restart the window from what the server said
+            discard();
+            nextStart = page.getNextPageStart();
+        }
+        fill();
+    }
+
+    private void fill() {
+        while (inFlight.size() < parallelism) {
+            inFlight.addLast(new PendingPage<>(nextStart, pageFunction.apply(new Range(nextStart, pageSize))));
+            nextStart += pageSize;
+        }
+    }
+
+    private void fail(Throwable e) {
+        discard();
+        result.completeExceptionally(e);
+    }
+
+    /**
+     * A missing or negative nextPageStart ends the walk as well, see PageSpliterator.isLastPage
+     */
+    private static boolean isLastPage(Page<?> page) {
+        Integer nextPageStart = page.getNextPageStart();
+        return page.isLastPage() || nextPageStart == null || nextPageStart < 0;
+    }
+
+    private void discard() {
+        for (PendingPage<T> pending : inFlight) {
+            pending.page.cancel(false);
+        }
+        inFlight.clear();
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static class PendingPage<T> {
+        private final int start;
+        private final CompletableFuture<Page<T>> page;
+
+        private PendingPage(int start, CompletableFuture<Page<T>> page) {
+            this.start = start;
+            this.page = page;
+        }
+    }
+}
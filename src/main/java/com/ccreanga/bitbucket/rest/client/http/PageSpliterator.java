@@ -0,0 +1,81 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.Range;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Sequential spliterator over the elements of a paged resource. A page is requested only when the elements of the
+ * previous one were consumed, so at most one page is kept in memory and a short-circuiting stream operation stops
+ * the requests.
+ */
+class PageSpliterator<T> implements Spliterator<T> {
+
+    private final Function<Range, Page<T>> pageFunction;
+    private final int limit;
+    private Page<T> page;
+    private Iterator<T> values;
+
+    public PageSpliterator(Function<Range, Page<T>> pageFunction, int limit) {
+        this.pageFunction = pageFunction;
+        this.limit = limit;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (values == null || !values.hasNext()) {
+            if (page != null && isLastPage(page)) {
+                return false;
+            }
+            int start = page == null ? 0 : page.getNextPageStart();
+            page = pageFunction.apply(new Range(start, limit));
+            values = page.getValues().iterator();
+        }
+        action.accept(values.next());
+        return true;
+    }
+
+    /**
+     * A page without a usable nextPageStart ends the stream as well, the adapters read a missing one as -1
+     */
+    private static boolean isLastPage(Page<?> page) {
+        Integer nextPageStart = page.getNextPageStart();
+        return page.isLastPage() || nextPageStart == null || nextPageStart < 0;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
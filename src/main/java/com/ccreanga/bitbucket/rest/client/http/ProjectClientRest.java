@@ -23,6 +23,7 @@ import com.ccreanga.bitbucket.rest.client.http.dto.CreateRepositoryRequest;
 import com.ccreanga.bitbucket.rest.client.model.Branch;
 import com.ccreanga.bitbucket.rest.client.model.ProjectType;
 import com.ccreanga.bitbucket.rest.client.model.Task;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffVisitor;
 import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestChange;
 import com.ccreanga.bitbucket.rest.client.model.Page;
 import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
@@ -39,6 +40,8 @@ import com.google.gson.JsonElement;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static com.ccreanga.bitbucket.rest.client.http.responseparsers.Parsers.*;
 import static com.ccreanga.bitbucket.rest.client.http.HttpMethod.*;
@@ -53,11 +56,10 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
 
     @Override
     public Page<Project> getProjects(@Nonnull Range range) {
-        String requestUrl = "/rest/api/1.0/projects" + addLimits(range);
+        String requestUrl = projectsUrl(range);
 
         try {
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return pageParser(projectParser()).apply(jsonElement);
+            return execute(requestUrl, GET, pageAdapter(projectAdapter())).get();
         }catch (ResourceNotFoundException e){
             return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
         }
@@ -65,36 +67,57 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
     }
 
     public Set<Project> getProjects() {
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<Project> page = getProjects(range);
-        Set<Project> projects = new HashSet<>(page.getSize());
-        projects.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getProjects(range);
-            projects.addAll(page.getValues());
-        }
-        return projects;
+        return join(getProjectsAsync());
+    }
+
+    @Override
+    public CompletableFuture<Page<Project>> getProjectsAsync(@Nonnull Range range) {
+        return recoverNotFound(
+                executeAsync(projectsUrl(range), GET, pageAdapter(projectAdapter())).thenApply(Optional::get),
+                ProjectClientRest::emptyPage);
+    }
+
+    @Override
+    public CompletableFuture<Set<Project>> getProjectsAsync() {
+        return getAllAsync(this::getProjectsAsync, DEFAULT_LIMIT);
+    }
+
+    @Override
+    public Stream<Project> streamProjects() {
+        return stream(this::getProjects, DEFAULT_LIMIT);
+    }
+
+    private String projectsUrl(Range range) {
+        return "/rest/api/1.0/projects" + addLimits(range);
     }
 
     @Override
     public Optional<Project> getProjectByKey(@Nonnull String projectKey) {
         try {
-            String requestUrl = String.format("/rest/api/1.0/projects/%s", projectKey);
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return Optional.of(projectParser().apply(jsonElement));
+            String requestUrl = projectUrl(projectKey);
+            return execute(requestUrl, GET, projectAdapter());
         } catch (ResourceNotFoundException e) {
             return Optional.empty();
         }
     }
 
+    @Override
+    public CompletableFuture<Optional<Project>> getProjectByKeyAsync(@Nonnull String projectKey) {
+        return recoverNotFound(
+                executeAsync(projectUrl(projectKey), GET, projectAdapter()),
+                Optional::empty);
+    }
+
+    private String projectUrl(String projectKey) {
+        return String.format("/rest/api/1.0/projects/%s", projectKey);
+    }
+
     @Override
     public Page<Repository> getProjectRepositories(@Nonnull String projectKey, @Nonnull Range range) {
-        String requestUrl = String.format("/rest/api/1.0/projects/%s/repos", projectKey) + addLimits(range);
+        String requestUrl = projectRepositoriesUrl(projectKey, range);
 
         try {
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return pageParser(repositoryParser()).apply(jsonElement);
+            return execute(requestUrl, GET, pageAdapter(repositoryAdapter())).get();
         }catch (ResourceNotFoundException e){
             return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
         }
@@ -102,24 +125,35 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
 
     @Override
     public Set<Repository> getProjectRepositories(@Nonnull String projectKey) {
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<Repository> page = getProjectRepositories(projectKey,range);
-        Set<Repository> repositories = new HashSet<>(page.getSize());
-        repositories.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getProjectRepositories(projectKey, range);
-            repositories.addAll(page.getValues());
-        }
-        return repositories;
+        return join(getProjectRepositoriesAsync(projectKey));
+    }
+
+    @Override
+    public CompletableFuture<Page<Repository>> getProjectRepositoriesAsync(@Nonnull String projectKey, @Nonnull Range range) {
+        return recoverNotFound(
+                executeAsync(projectRepositoriesUrl(projectKey, range), GET, pageAdapter(repositoryAdapter())).thenApply(Optional::get),
+                ProjectClientRest::emptyPage);
+    }
+
+    @Override
+    public CompletableFuture<Set<Repository>> getProjectRepositoriesAsync(@Nonnull String projectKey) {
+        return getAllAsync(range -> getProjectRepositoriesAsync(projectKey, range), DEFAULT_LIMIT);
+    }
+
+    @Override
+    public Stream<Repository> streamProjectRepositories(@Nonnull String projectKey) {
+        return stream(range -> getProjectRepositories(projectKey, range), DEFAULT_LIMIT);
+    }
+
+    private String projectRepositoriesUrl(String projectKey, Range range) {
+        return String.format("/rest/api/1.0/projects/%s/repos", projectKey) + addLimits(range);
     }
 
     @Override
     public Page<Repository> getAllRepositories(@Nonnull Range range) {
-        String requestUrl = "/rest/api/1.0/repos" + addLimits(range);
+        String requestUrl = allRepositoriesUrl(range);
         try {
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return pageParser(repositoryParser()).apply(jsonElement);
+            return execute(requestUrl, GET, pageAdapter(repositoryAdapter())).get();
         }catch (ResourceNotFoundException e){
             return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
         }
@@ -127,46 +161,57 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
 
     @Override
     public Set<Repository> getAllRepositories() {
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<Repository> page = getAllRepositories(range);
-        Set<Repository> repositories = new HashSet<>(page.getSize());
-        repositories.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getAllRepositories(range);
-            repositories.addAll(page.getValues());
-        }
-        return repositories;
+        return join(getAllRepositoriesAsync());
+    }
+
+    @Override
+    public CompletableFuture<Page<Repository>> getAllRepositoriesAsync(@Nonnull Range range) {
+        return recoverNotFound(
+                executeAsync(allRepositoriesUrl(range), GET, pageAdapter(repositoryAdapter())).thenApply(Optional::get),
+                ProjectClientRest::emptyPage);
+    }
+
+    @Override
+    public CompletableFuture<Set<Repository>> getAllRepositoriesAsync() {
+        return getAllAsync(this::getAllRepositoriesAsync, DEFAULT_LIMIT);
+    }
+
+    @Override
+    public Stream<Repository> streamAllRepositories() {
+        return stream(this::getAllRepositories, DEFAULT_LIMIT);
+    }
+
+    private String allRepositoriesUrl(Range range) {
+        return "/rest/api/1.0/repos" + addLimits(range);
     }
 
     @Override
     public Optional<Repository> getRepositoryBySlug(@Nonnull String projectKey, @Nonnull String repositorySlug) {
         try {
-            String requestUrl = String.format("/rest/api/1.0/projects/%s/repos/%s", projectKey, repositorySlug);
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return Optional.of(repositoryParser().apply(jsonElement));
+            String requestUrl = repositoryUrl(projectKey, repositorySlug);
+            return execute(requestUrl, GET, repositoryAdapter());
         } catch (ResourceNotFoundException e) {
             return Optional.empty();
         }
     }
 
     @Override
-    public Page<Branch> getBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query, @Nonnull Range range, boolean details) {
-        String requestUrl = String.format("/rest/api/1.0/projects/%s/repos/%s/branches", projectKey, repositorySlug) + addLimits(range);
-        if (query!=null)
-            requestUrl += addParameter("filterText", query);
-        requestUrl += "&details=" + details + "&orderBy=MODIFICATION";
+    public CompletableFuture<Optional<Repository>> getRepositoryBySlugAsync(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return recoverNotFound(
+                executeAsync(repositoryUrl(projectKey, repositorySlug), GET, repositoryAdapter()),
+                Optional::empty);
+    }
 
+    private String repositoryUrl(String projectKey, String repositorySlug) {
+        return String.format("/rest/api/1.0/projects/%s/repos/%s", projectKey, repositorySlug);
+    }
+
+    @Override
+    public Page<Branch> getBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query, @Nonnull Range range, boolean details) {
+        String requestUrl = branchesUrl(projectKey, repositorySlug, query, range, details);
 
         try {
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            Page<Branch> page = pageParser(branchParser()).apply(jsonElement);
-            List<Branch> list = page.getValues();
-            for (Branch branch : list) {
-                branch.setProjectKey(projectKey);
-                branch.setRepositorySlug(repositorySlug);
-            }
-            return page;
+            return setBranchLocation(execute(requestUrl, GET, pageAdapter(branchAdapter())).get(), projectKey, repositorySlug);
 
         }catch (ResourceNotFoundException e){
             return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
@@ -174,6 +219,31 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
 
     }
 
+    @Override
+    public CompletableFuture<Page<Branch>> getBranchesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query, @Nonnull Range range, boolean details) {
+        return recoverNotFound(
+                executeAsync(branchesUrl(projectKey, repositorySlug, query, range, details), GET, pageAdapter(branchAdapter())).
+                        thenApply(page -> setBranchLocation(page.get(), projectKey, repositorySlug)),
+                ProjectClientRest::emptyPage);
+    }
+
+    private String branchesUrl(String projectKey, String repositorySlug, String query, Range range, boolean details) {
+        String requestUrl = String.format("/rest/api/1.0/projects/%s/repos/%s/branches", projectKey, repositorySlug) + addLimits(range);
+        if (query!=null)
+            requestUrl += addParameter("filterText", query);
+        requestUrl += "&details=" + details + "&orderBy=MODIFICATION";
+        return requestUrl;
+    }
+
+    private Page<Branch> setBranchLocation(Page<Branch> page, String projectKey, String repositorySlug) {
+        List<Branch> list = page.getValues();
+        for (Branch branch : list) {
+            branch.setProjectKey(projectKey);
+            branch.setRepositorySlug(repositorySlug);
+        }
+        return page;
+    }
+
     @Override
     public Page<Branch> getBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query, @Nonnull Range range) {
         return getBranches(projectKey, repositorySlug, query, range, true);
@@ -181,25 +251,25 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
 
     @Override
     public Set<Branch> getBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query) {
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<Branch> page = getBranches(projectKey, repositorySlug, query, range);
-        Set<Branch> branches = new HashSet<>(page.getSize());
-        branches.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getBranches(projectKey, repositorySlug, query, range);
-            branches.addAll( page.getValues());
-        }
-        return branches;
+        return join(getBranchesAsync(projectKey, repositorySlug, query));
+    }
+
+    @Override
+    public CompletableFuture<Set<Branch>> getBranchesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query) {
+        return getAllAsync(range -> getBranchesAsync(projectKey, repositorySlug, query, range, true), DEFAULT_LIMIT);
+    }
+
+    @Override
+    public Stream<Branch> streamBranches(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nullable String query) {
+        return stream(range -> getBranches(projectKey, repositorySlug, query, range), DEFAULT_LIMIT);
     }
 
     @Override
     public Page<Repository> getForks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Range range) {
-        String requestUrl = String.format("/rest/api/1.0/projects/%s/repos/%s/forks", projectKey, repositorySlug) + addLimits(range);
+        String requestUrl = forksUrl(projectKey, repositorySlug, range);
 
         try {
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return pageParser(repositoryParser()).apply(jsonElement);
+            return execute(requestUrl, GET, pageAdapter(repositoryAdapter())).get();
         }catch (ResourceNotFoundException e){
             return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
         }
@@ -207,30 +277,52 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
 
     @Override
     public Set<Repository> getForks(@Nonnull String projectKey, @Nonnull String repositorySlug) {
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<Repository> page = getForks(projectKey, repositorySlug, range);
-        Set<Repository> repositories = new HashSet<>(page.getSize());
-        repositories.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getForks(projectKey, repositorySlug, range);
-            repositories.addAll( page.getValues());
-        }
-        return repositories;
+        return join(getForksAsync(projectKey, repositorySlug));
+    }
+
+
+    @Override
+    public CompletableFuture<Page<Repository>> getForksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Range range) {
+        return recoverNotFound(
+                executeAsync(forksUrl(projectKey, repositorySlug, range), GET, pageAdapter(repositoryAdapter())).thenApply(Optional::get),
+                ProjectClientRest::emptyPage);
     }
 
+    @Override
+    public CompletableFuture<Set<Repository>> getForksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return getAllAsync(range -> getForksAsync(projectKey, repositorySlug, range), DEFAULT_LIMIT);
+    }
+
+    @Override
+    public Stream<Repository> streamForks(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return stream(range -> getForks(projectKey, repositorySlug, range), DEFAULT_LIMIT);
+    }
+
+    private String forksUrl(String projectKey, String repositorySlug, Range range) {
+        return String.format("/rest/api/1.0/projects/%s/repos/%s/forks", projectKey, repositorySlug) + addLimits(range);
+    }
 
     @Override
     public Optional<Branch> getDefaultBranch(@Nonnull String projectKey, @Nonnull String repositorySlug) {
         try {
-            String requestUrl = String.format("/rest/api/1.0/projects/%s/repos/%s/branches/default", projectKey, repositorySlug);
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return Optional.of(branchParser().apply(jsonElement));
+            String requestUrl = defaultBranchUrl(projectKey, repositorySlug);
+            return execute(requestUrl, GET, branchAdapter());
         } catch (ResourceNotFoundException e) {
             return Optional.empty();
         }
     }
 
+    @Override
+    public CompletableFuture<Optional<Branch>> getDefaultBranchAsync(@Nonnull String projectKey, @Nonnull String repositorySlug) {
+        return recoverNotFound(
+                executeAsync(defaultBranchUrl(projectKey, repositorySlug), GET, branchAdapter()),
+                Optional::empty);
+    }
+
+    private String defaultBranchUrl(String projectKey, String repositorySlug) {
+        return String.format("/rest/api/1.0/projects/%s/repos/%s/branches/default", projectKey, repositorySlug);
+    }
+
     @Override
     public Page<PullRequest> getPullRequests(
             @Nonnull String projectKey,
@@ -250,16 +342,7 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
             PullRequestState pullRequestState,
             boolean incoming,
             String branchId) {
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<PullRequest> page = getPullRequests(projectKey, repositorySlug, pullRequestState,incoming,branchId, range);
-        Set<PullRequest> pullRequests = new HashSet<>(page.getSize());
-        pullRequests.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getPullRequests(projectKey, repositorySlug, pullRequestState,incoming,branchId, range);
-            pullRequests.addAll(page.getValues());
-        }
-        return pullRequests;
+        return join(getPullRequestsAsync(projectKey, repositorySlug, pullRequestState, incoming, branchId, true, null, null, null));
     }
 
 
@@ -275,16 +358,7 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
             PullRequestRole[] pullRequestRoles,
             boolean[] approved) {
 
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<PullRequest> page = getPullRequests(projectKey, repositorySlug, pullRequestState,incoming,branchId,newestFirst,users,pullRequestRoles,approved,range);
-        Set<PullRequest> pullRequests = new HashSet<>(page.getSize());
-        pullRequests.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getPullRequests(projectKey, repositorySlug, pullRequestState,incoming,branchId,newestFirst,users,pullRequestRoles,approved, range);
-            pullRequests.addAll(page.getValues());
-        }
-        return pullRequests;
+        return join(getPullRequestsAsync(projectKey, repositorySlug, pullRequestState, incoming, branchId, newestFirst, users, pullRequestRoles, approved));
     }
 
 
@@ -301,6 +375,74 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
             boolean[] approved,
             @Nonnull Range range) {
 
+        String requestUrl = pullRequestsUrl(projectKey, repositorySlug, pullRequestState, incoming, branchId, newestFirst, users, pullRequestRoles, approved, range);
+
+        try {
+            return execute(requestUrl, GET, pageAdapter(pullRequestAdapter())).get();
+        }catch (ResourceNotFoundException e){
+            return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
+        }
+
+    }
+
+    @Override
+    public CompletableFuture<Page<PullRequest>> getPullRequestsAsync(
+            @Nonnull String projectKey,
+            @Nonnull String repositorySlug,
+            PullRequestState pullRequestState,
+            boolean incoming,
+            String branchId,
+            boolean newestFirst,
+            String[] users,
+            PullRequestRole[] pullRequestRoles,
+            boolean[] approved,
+            @Nonnull Range range) {
+        String requestUrl = pullRequestsUrl(projectKey, repositorySlug, pullRequestState, incoming, branchId, newestFirst, users, pullRequestRoles, approved, range);
+        return recoverNotFound(
+                executeAsync(requestUrl, GET, pageAdapter(pullRequestAdapter())).thenApply(Optional::get),
+                ProjectClientRest::emptyPage);
+    }
+
+    @Override
+    public CompletableFuture<Set<PullRequest>> getPullRequestsAsync(
+            @Nonnull String projectKey,
+            @Nonnull String repositorySlug,
+            PullRequestState pullRequestState,
+            boolean incoming,
+            String branchId,
+            boolean newestFirst,
+            String[] users,
+            PullRequestRole[] pullRequestRoles,
+            boolean[] approved) {
+        return getAllAsync(range -> getPullRequestsAsync(projectKey, repositorySlug, pullRequestState, incoming, branchId, newestFirst, users, pullRequestRoles, approved, range), DEFAULT_LIMIT);
+    }
+
+    @Override
+    public Stream<PullRequest> streamPullRequests(
+            @Nonnull String projectKey,
+            @Nonnull String repositorySlug,
+            PullRequestState pullRequestState,
+            boolean incoming,
+            String branchId,
+            boolean newestFirst,
+            String[] users,
+            PullRequestRole[] pullRequestRoles,
+            boolean[] approved) {
+        return stream(range -> getPullRequests(projectKey, repositorySlug, pullRequestState, incoming, branchId, newestFirst, users, pullRequestRoles, approved, range), DEFAULT_LIMIT);
+    }
+
+    private String pullRequestsUrl(
+            String projectKey,
+            String repositorySlug,
+            PullRequestState pullRequestState,
+            boolean incoming,
+            String branchId,
+            boolean newestFirst,
+            String[] users,
+            PullRequestRole[] pullRequestRoles,
+            boolean[] approved,
+            Range range) {
+
         // this is defined in the REST API
         final int maxParticipantParams = 10;
         if (((approved!=null) || (pullRequestRoles!=null)) && (users==null))
@@ -344,63 +486,130 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
             }
         }
 
+        return requestUrl;
+    }
+
+        @Override
+    public Page<PullRequestChange> getPullRequestsChanges(
+            @Nonnull String projectKey,
+            @Nonnull String repositorySlug,
+            @Nonnull Long pullRequestId,
+            String sinceCommitId,
+            @Nonnull Range range) {
+        String requestUrl = pullRequestsChangesUrl(projectKey, repositorySlug, pullRequestId, sinceCommitId, range);
+
         try {
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return pageParser(pullRequestParser()).apply(jsonElement);
+            return execute(requestUrl, GET, pageAdapter(pullRequestChangeAdapter())).get();
         }catch (ResourceNotFoundException e){
             return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
         }
 
     }
 
-        @Override
-    public Page<PullRequestChange> getPullRequestsChanges(
+    @Override
+    public CompletableFuture<Page<PullRequestChange>> getPullRequestsChangesAsync(
             @Nonnull String projectKey,
             @Nonnull String repositorySlug,
             @Nonnull Long pullRequestId,
             String sinceCommitId,
             @Nonnull Range range) {
+        return recoverNotFound(
+                executeAsync(pullRequestsChangesUrl(projectKey, repositorySlug, pullRequestId, sinceCommitId, range), GET, pageAdapter(pullRequestChangeAdapter())).
+                        thenApply(Optional::get),
+                ProjectClientRest::emptyPage);
+    }
+
+    @Override
+    public CompletableFuture<Set<PullRequestChange>> getPullRequestsChangesAsync(
+            @Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId) {
+        return getAllAsync(range -> getPullRequestsChangesAsync(projectKey, repositorySlug, pullRequestId, sinceCommitId, range), DEFAULT_LIMIT);
+    }
+
+    @Override
+    public Stream<PullRequestChange> streamPullRequestsChanges(
+            @Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId) {
+        return stream(range -> getPullRequestsChanges(projectKey, repositorySlug, pullRequestId, sinceCommitId, range), DEFAULT_LIMIT);
+    }
+
+    @Override
+    public boolean streamPullRequestDiff(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId,
+                                         int contextLines, @Nonnull DiffVisitor visitor) {
+        return streamDiff(pullRequestDiffUrl(projectKey, repositorySlug, pullRequestId, contextLines), visitor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> streamPullRequestDiffAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId,
+                                                                 int contextLines, @Nonnull DiffVisitor visitor) {
+        return streamDiffAsync(pullRequestDiffUrl(projectKey, repositorySlug, pullRequestId, contextLines), visitor);
+    }
+
+    @Override
+    public boolean streamCommitDiff(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull String commitId,
+                                    @Nullable String sinceCommitId, int contextLines, @Nonnull DiffVisitor visitor) {
+        return streamDiff(commitDiffUrl(projectKey, repositorySlug, commitId, sinceCommitId, contextLines), visitor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> streamCommitDiffAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull String commitId,
+                                                            @Nullable String sinceCommitId, int contextLines, @Nonnull DiffVisitor visitor) {
+        return streamDiffAsync(commitDiffUrl(projectKey, repositorySlug, commitId, sinceCommitId, contextLines), visitor);
+    }
+
+    /**
+     * The body is read from the socket while the visitor consumes it
+     */
+    private boolean streamDiff(String requestUrl, DiffVisitor visitor) {
+        try {
+            return executeStreaming(requestUrl, diffStreamAdapter(visitor)).orElse(false);
+        } catch (ResourceNotFoundException e) {
+            return false;
+        }
+    }
+
+    private CompletableFuture<Boolean> streamDiffAsync(String requestUrl, DiffVisitor visitor) {
+        return recoverNotFound(
+                executeStreamingAsync(requestUrl, diffStreamAdapter(visitor)).thenApply(truncated -> truncated.orElse(false)),
+                () -> false);
+    }
+
+    private String pullRequestDiffUrl(String projectKey, String repositorySlug, Long pullRequestId, int contextLines) {
+        return String.format("/rest/api/1.0/projects/%s/repos/%s/pull-requests/%s/diff?contextLines=%d",
+                projectKey,
+                repositorySlug,
+                pullRequestId,
+                contextLines);
+    }
+
+    private String commitDiffUrl(String projectKey, String repositorySlug, String commitId, String sinceCommitId, int contextLines) {
+        return String.format("/rest/api/1.0/projects/%s/repos/%s/commits/%s/diff?contextLines=%d",
+                projectKey,
+                repositorySlug,
+                commitId,
+                contextLines) + addParameter("since", sinceCommitId);
+    }
+
+    private String pullRequestsChangesUrl(String projectKey, String repositorySlug, Long pullRequestId, String sinceCommitId, Range range) {
         String requestUrl = String.format("/rest/api/1.0/projects/%s/repos/%s/pull-requests/%s/changes",
                 projectKey,
                 repositorySlug,
                 pullRequestId) + addLimits(range);
         if (sinceCommitId!=null)
             requestUrl+="&since="+sinceCommitId;
-
-        try {
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return pageParser(pullRequestChangeParser()).apply(jsonElement);
-        }catch (ResourceNotFoundException e){
-            return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
-        }
-
+        return requestUrl;
     }
 
     @Override
     public Set<PullRequestChange> getPullRequestsChanges(
             @Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, String sinceCommitId) {
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<PullRequestChange> page = getPullRequestsChanges(projectKey, repositorySlug, pullRequestId, sinceCommitId, range);
-        Set<PullRequestChange> pullRequestChanges = new HashSet<>(page.getSize());
-        pullRequestChanges.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getPullRequestsChanges(projectKey, repositorySlug, pullRequestId, sinceCommitId, range);
-            pullRequestChanges.addAll( page.getValues());
-        }
-        return pullRequestChanges;
+        return join(getPullRequestsChangesAsync(projectKey, repositorySlug, pullRequestId, sinceCommitId));
     }
 
     @Override
     public Page<PullRequestActivity> getPullRequestsActivities(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range) {
-        String requestUrl = String.format("/rest/api/1.0/projects/%s/repos/%s/pull-requests/%s/activities",
-                projectKey,
-                repositorySlug,
-                pullRequestId) + addLimits(range);
+        String requestUrl = pullRequestsActivitiesUrl(projectKey, repositorySlug, pullRequestId, range);
 
         try {
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return pageParser(pullRequestActivityParser(pullRequestId)).apply(jsonElement);
+            return execute(requestUrl, GET, pageAdapter(pullRequestActivityAdapter(pullRequestId))).get();
         }catch (ResourceNotFoundException e){
             return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
         }
@@ -408,55 +617,75 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
     }
 
     @Override
-    public Set<PullRequestActivity> getPullRequestsActivities(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<PullRequestActivity> page = getPullRequestsActivities(projectKey, repositorySlug, pullRequestId, range);
-        Set<PullRequestActivity> pullRequestActivities = new HashSet<>(page.getSize());
-        pullRequestActivities.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getPullRequestsActivities(projectKey, repositorySlug, pullRequestId, range);
-            pullRequestActivities.addAll( page.getValues());
-        }
-        return pullRequestActivities;
+    public CompletableFuture<Page<PullRequestActivity>> getPullRequestsActivitiesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range) {
+        return recoverNotFound(
+                executeAsync(pullRequestsActivitiesUrl(projectKey, repositorySlug, pullRequestId, range), GET, pageAdapter(pullRequestActivityAdapter(pullRequestId))).
+                        thenApply(Optional::get),
+                ProjectClientRest::emptyPage);
     }
 
     @Override
-    public Page<Task> getPullRequestsTasks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range){
-        String requestUrl = String.format("/rest/api/1.0/projects/%s/repos/%s/pull-requests/%s/activities",
+    public CompletableFuture<Set<PullRequestActivity>> getPullRequestsActivitiesAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return getAllAsync(range -> getPullRequestsActivitiesAsync(projectKey, repositorySlug, pullRequestId, range), DEFAULT_LIMIT);
+    }
+
+    @Override
+    public Stream<PullRequestActivity> streamPullRequestsActivities(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return stream(range -> getPullRequestsActivities(projectKey, repositorySlug, pullRequestId, range), DEFAULT_LIMIT);
+    }
+
+    private String pullRequestsActivitiesUrl(String projectKey, String repositorySlug, Long pullRequestId, Range range) {
+        return String.format("/rest/api/1.0/projects/%s/repos/%s/pull-requests/%s/activities",
                 projectKey,
                 repositorySlug,
                 pullRequestId) + addLimits(range);
+    }
+
+    @Override
+    public Set<PullRequestActivity> getPullRequestsActivities(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return join(getPullRequestsActivitiesAsync(projectKey, repositorySlug, pullRequestId));
+    }
+
+    @Override
+    public Page<Task> getPullRequestsTasks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range){
+        String requestUrl = pullRequestsActivitiesUrl(projectKey, repositorySlug, pullRequestId, range);
 
         try {
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return pageParser(taskParser()).apply(jsonElement);
+            return execute(requestUrl, GET, pageAdapter(taskAdapter())).get();
         }catch (ResourceNotFoundException e){
             return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
         }
     }
 
+    @Override
+    public CompletableFuture<Page<Task>> getPullRequestsTasksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId, @Nonnull Range range) {
+        return recoverNotFound(
+                executeAsync(pullRequestsActivitiesUrl(projectKey, repositorySlug, pullRequestId, range), GET, pageAdapter(taskAdapter())).
+                        thenApply(Optional::get),
+                ProjectClientRest::emptyPage);
+    }
+
+    @Override
+    public CompletableFuture<Set<Task>> getPullRequestsTasksAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return getAllAsync(range -> getPullRequestsTasksAsync(projectKey, repositorySlug, pullRequestId, range), DEFAULT_LIMIT);
+    }
+
+    @Override
+    public Stream<Task> streamPullRequestsTasks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
+        return stream(range -> getPullRequestsTasks(projectKey, repositorySlug, pullRequestId, range), DEFAULT_LIMIT);
+    }
+
     @Override
     public Set<Task> getPullRequestsTasks(@Nonnull String projectKey, @Nonnull String repositorySlug, @Nonnull Long pullRequestId) {
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<Task> page = getPullRequestsTasks(projectKey, repositorySlug, pullRequestId, range);
-        Set<Task> tasks = new HashSet<>(page.getSize());
-        tasks.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getPullRequestsTasks(projectKey, repositorySlug, pullRequestId, range);
-            tasks.addAll( page.getValues());
-        }
-        return tasks;
+        return join(getPullRequestsTasksAsync(projectKey, repositorySlug, pullRequestId));
     }
 
     @Override
     public Page<User> getUsers(@Nonnull Range range) {
-        String requestUrl = "/rest/api/1.0/users" + addLimits(range);
+        String requestUrl = usersUrl(range);
 
         try {
-            JsonElement jsonElement = execute(requestUrl, GET).get();
-            return pageParser(userParser()).apply(jsonElement);
+            return execute(requestUrl, GET, pageAdapter(userAdapter())).get();
         }catch (ResourceNotFoundException e){
             return new Page<>(0,0,true,0,0, Collections.EMPTY_LIST);
         }
@@ -465,16 +694,28 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
 
     @Override
     public Set<User> getUsers() {
-        Range range = new Range(0, DEFAULT_LIMIT);
-        Page<User> page = getUsers(range);
-        Set<User> users = new HashSet<>(page.getSize());
-        users.addAll(page.getValues());
-        while(!page.isLastPage()){
-            range = new Range(page.getNextPageStart(), DEFAULT_LIMIT);
-            page = getUsers(range);
-            users.addAll(page.getValues());
-        }
-        return users;
+        return join(getUsersAsync());
+    }
+
+    @Override
+    public CompletableFuture<Page<User>> getUsersAsync(@Nonnull Range range) {
+        return recoverNotFound(
+                executeAsync(usersUrl(range), GET, pageAdapter(userAdapter())).thenApply(Optional::get),
+                ProjectClientRest::emptyPage);
+    }
+
+    @Override
+    public CompletableFuture<Set<User>> getUsersAsync() {
+        return getAllAsync(this::getUsersAsync, DEFAULT_LIMIT);
+    }
+
+    @Override
+    public Stream<User> streamUsers() {
+        return stream(this::getUsers, DEFAULT_LIMIT);
+    }
+
+    private String usersUrl(Range range) {
+        return "/rest/api/1.0/users" + addLimits(range);
     }
 
     @Override
@@ -482,6 +723,16 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
         String requestUrl = "/rest/api/1.0/application-properties";
 
         JsonElement jsonElement = execute(requestUrl, GET).get();
+        return parseApplicationProperties(jsonElement);
+    }
+
+    @Override
+    public CompletableFuture<ImmutableMap<String, String>> getBitBucketApplicationPropertiesAsync() {
+        String requestUrl = "/rest/api/1.0/application-properties";
+        return executeAsync(requestUrl, GET).thenApply(jsonElement -> parseApplicationProperties(jsonElement.get()));
+    }
+
+    private ImmutableMap<String, String> parseApplicationProperties(JsonElement jsonElement) {
         ImmutableMap.Builder<String, String> resultBuilder = ImmutableMap.builder();
         if (jsonElement != null) {
             for (Map.Entry<String, JsonElement> entry : jsonElement.getAsJsonObject().entrySet()) {
@@ -517,6 +768,9 @@ class ProjectClientRest extends BitBucketClient implements ProjectClient {
         execute(requestUrl, DELETE);
     }
 
+    private static <T> Page<T> emptyPage() {
+        return new Page<>(0, 0, true, 0, 0, Collections.<T>emptyList());
+    }
 
 
 }
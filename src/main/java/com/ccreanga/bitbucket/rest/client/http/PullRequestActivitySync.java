@@ -0,0 +1,152 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.ProjectClient;
+import com.ccreanga.bitbucket.rest.client.Range;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivityCheckpoint;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Incremental synchronization of the pull request activities. For every pull request it remembers the newest activity
+ * already returned and, as the server returns the activities newest first, it pages only until it reaches that mark.
+ * The first synchronization of a pull request returns its whole history.
+ * <p>
+ * The checkpoints can be exported with {@link #getCheckpoints()}, stored (they are serializable) and passed back to
+ * {@link #PullRequestActivitySync(ProjectClient, int, Iterable)} after a restart.
+ * <p>
+ * The class is thread safe, however the same pull request should not be synchronized concurrently: both calls would
+ * return the same delta.
+ */
+public class PullRequestActivitySync {
+
+    public static final int DEFAULT_PAGE_SIZE = 25;
+
+    private final ProjectClient client;
+    private final int pageSize;
+    private final ConcurrentMap<String, PullRequestActivityCheckpoint> checkpoints = new ConcurrentHashMap<>();
+
+    public PullRequestActivitySync(@Nonnull ProjectClient client) {
+        this(client, DEFAULT_PAGE_SIZE, Collections.emptyList());
+    }
+
+    /**
+     * @param pageSize    the number of activities requested per page; most deltas are small so the first page is
+     *                    usually the only one requested
+     * @param checkpoints checkpoints saved by a previous instance
+     */
+    public PullRequestActivitySync(@Nonnull ProjectClient client, int pageSize, @Nonnull Iterable<PullRequestActivityCheckpoint> checkpoints) {
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("pageSize should be greater than 0 not:" + pageSize);
+        this.client = Objects.requireNonNull(client);
+        this.pageSize = pageSize;
+        for (PullRequestActivityCheckpoint checkpoint : checkpoints) {
+            update(checkpoint);
+        }
+    }
+
+    /**
+     * Returns the activities created since the previous call for the same pull request, oldest first, and moves the
+     * checkpoint to the newest of them.
+     *
+     * @param projectKey     the project key
+     * @param repositorySlug the repository slug
+     * @param pullRequestId  the pull request id
+     * @return the new activities, oldest first; empty if nothing changed
+     */
+    public List<PullRequestActivity> sync(@Nonnull String projectKey, @Nonnull String repositorySlug, long pullRequestId) {
+        return BitBucketClient.join(syncAsync(projectKey, repositorySlug, pullRequestId));
+    }
+
+    /**
+     * Asynchronous version of {@link #sync(String, String, long)}
+     */
+    public CompletableFuture<List<PullRequestActivity>> syncAsync(@Nonnull String projectKey, @Nonnull String repositorySlug, long pullRequestId) {
+        PullRequestActivityCheckpoint checkpoint = checkpoints.get(key(projectKey, repositorySlug, pullRequestId));
+        return collect(projectKey, repositorySlug, pullRequestId, checkpoint, 0, new ArrayList<>())
+                .thenApply(newestFirst -> {
+                    if (newestFirst.isEmpty())
+                        return Collections.<PullRequestActivity>emptyList();
+                    PullRequestActivity newest = newestFirst.get(0);
+                    if (newest.getId() != null)
+                        update(new PullRequestActivityCheckpoint(projectKey, repositorySlug, pullRequestId, newest.getId(), newest.getCreatedDate()));
+                    Collections.reverse(newestFirst);
+                    return Collections.unmodifiableList(newestFirst);
+                });
+    }
+
+    private CompletableFuture<List<PullRequestActivity>> collect(String projectKey, String repositorySlug, long pullRequestId,
+                                                                 PullRequestActivityCheckpoint checkpoint, int start,
+                                                                 List<PullRequestActivity> collected) {
+        return client.getPullRequestsActivitiesAsync(projectKey, repositorySlug, pullRequestId, new Range(start, pageSize))
+                .thenCompose(page -> {
+                    for (PullRequestActivity activity : page.getValues()) {
+                        if (checkpoint != null && checkpoint.isSeen(activity))
+                            return CompletableFuture.completedFuture(collected);
+                        collected.add(activity);
+                    }
+                    if (isLast(page))
+                        return CompletableFuture.completedFuture(collected);
+                    return collect(projectKey, repositorySlug, pullRequestId, checkpoint, page.getNextPageStart(), collected);
+                });
+    }
+
+    private static boolean isLast(Page<?> page) {
+        return page.isLastPage() || page.getNextPageStart() == null || page.getValues().isEmpty();
+    }
+
+    /**
+     * @return the checkpoint of the pull request, or null if it was never synchronized
+     */
+    public PullRequestActivityCheckpoint getCheckpoint(@Nonnull String projectKey, @Nonnull String repositorySlug, long pullRequestId) {
+        return checkpoints.get(key(projectKey, repositorySlug, pullRequestId));
+    }
+
+    /**
+     * @return a serializable snapshot of all the checkpoints
+     */
+    public List<PullRequestActivityCheckpoint> getCheckpoints() {
+        return new ArrayList<>(checkpoints.values());
+    }
+
+    /**
+     * Forgets the pull request, the next synchronization returns its whole history.
+     */
+    public void reset(@Nonnull String projectKey, @Nonnull String repositorySlug, long pullRequestId) {
+        checkpoints.remove(key(projectKey, repositorySlug, pullRequestId));
+    }
+
+    private void update(PullRequestActivityCheckpoint checkpoint) {
+        checkpoints.merge(key(checkpoint.getProjectKey(), checkpoint.getRepositorySlug(), checkpoint.getPullRequestId()),
+                checkpoint, (old, current) -> current.isNewerThan(old) ? current : old);
+    }
+
+    private static String key(String projectKey, String repositorySlug, long pullRequestId) {
+        return projectKey + '/' + repositorySlug + '/' + pullRequestId;
+    }
+}
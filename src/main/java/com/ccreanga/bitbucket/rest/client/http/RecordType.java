@@ -0,0 +1,94 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.http.codec.Codec;
+import com.ccreanga.bitbucket.rest.client.http.codec.ModelCodecs;
+import com.ccreanga.bitbucket.rest.client.model.Commit;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestBranch;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Describes how the values of one type are kept in a {@link MappedResultStore}: the codec of the value, its key and
+ * the two primitive attributes (a timestamp and a tag) stored in the record header, readable without decoding it.
+ */
+public final class RecordType<T> {
+
+    /**
+     * Keyed by projectKey/repositorySlug/id of the target branch, timestamp = creation date, tag = state ordinal
+     */
+    public static final RecordType<PullRequest> PULL_REQUESTS = new RecordType<>(ModelCodecs.PULL_REQUEST,
+            pullRequest -> {
+                PullRequestBranch to = pullRequest.getTo();
+                return to != null ? to.getProjectKey() + "/" + to.getRepositorySlug() + "/" + pullRequest.getId() :
+                        String.valueOf(pullRequest.getId());
+            },
+            pullRequest -> pullRequest.getCreatedDate() != null ? pullRequest.getCreatedDate().getTime() : 0,
+            pullRequest -> pullRequest.getState() != null ? pullRequest.getState().ordinal() : -1);
+
+    /**
+     * Keyed by hash, timestamp = author timestamp, tag = number of parents
+     */
+    public static final RecordType<Commit> COMMITS = new RecordType<>(ModelCodecs.COMMIT,
+            Commit::getId,
+            Commit::getAuthorTimestamp,
+            commit -> commit.getParentsIds() != null ? commit.getParentsIds().size() : 0);
+
+    /**
+     * Keyed by id (the activity ids are unique on a server), timestamp = creation date, tag = action type ordinal
+     */
+    public static final RecordType<PullRequestActivity> PULL_REQUEST_ACTIVITIES = new RecordType<>(
+            ModelCodecs.PULL_REQUEST_ACTIVITY,
+            activity -> String.valueOf(activity.getId()),
+            activity -> activity.getCreatedDate() != null ? activity.getCreatedDate().getTime() : 0,
+            activity -> activity.getActionType() != null ? activity.getActionType().ordinal() : -1);
+
+    private final Codec<T> codec;
+    private final Function<? super T, String> key;
+    private final ToLongFunction<? super T> timestamp;
+    private final ToIntFunction<? super T> tag;
+
+    public RecordType(Codec<T> codec, Function<? super T, String> key, ToLongFunction<? super T> timestamp,
+                      ToIntFunction<? super T> tag) {
+        this.codec = codec;
+        this.key = key;
+        this.timestamp = timestamp;
+        this.tag = tag;
+    }
+
+    public Codec<T> getCodec() {
+        return codec;
+    }
+
+    public String keyOf(T value) {
+        return key.apply(value);
+    }
+
+    public long timestampOf(T value) {
+        return timestamp.applyAsLong(value);
+    }
+
+    public int tagOf(T value) {
+        return tag.applyAsInt(value);
+    }
+}
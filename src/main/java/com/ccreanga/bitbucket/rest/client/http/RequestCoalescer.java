@@ -0,0 +1,97 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical requests: while a call for a key is in flight, the calls for the same key
+ * wait for its result instead of sending their own request. The key is released as soon as the call completes, so
+ * nothing is cached past that moment. The keys are compared with equals: they have to identify the result, not only
+ * the request, when the same request may be turned into different results.
+ */
+class RequestCoalescer {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Runs the call, or waits for the call already in flight for the key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> call) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new BitBucketException(e.getCause());
+            }
+        }
+        try {
+            T value = call.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Starts the call, which has to complete the future it receives, or joins the call already in flight for the key.
+     * Every caller gets its own dependent future, so cancelling it does not affect the other callers (nor the call).
+     * A call throwing instead of completing its future fails the callers already waiting for it and releases the key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(Object key, Consumer<CompletableFuture<T>> call) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.thenApply(value -> (T) value);
+        }
+        flight.whenComplete((value, e) -> flights.remove(key, flight));
+        try {
+            call.accept((CompletableFuture<T>) (CompletableFuture<?>) flight);
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        return flight.thenApply(value -> (T) value);
+    }
+
+    /**
+     * @return the number of calls served by a call already in flight
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+}
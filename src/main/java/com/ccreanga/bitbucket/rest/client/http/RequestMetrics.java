@@ -0,0 +1,43 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * Instrumentation SPI called by the client for every attempt of a request (the retries are reported separately) and
+ * for every parsed response. The methods are called on the caller thread or on an I/O dispatcher thread, so they
+ * should be fast and thread safe. The endpoint is the url template, for example /projects/{key}/repos.
+ */
+public interface RequestMetrics {
+
+    /**
+     * Does nothing, the default of BitBucketClientConfig.requestMetrics
+     */
+    RequestMetrics NONE = new RequestMetrics() {
+    };
+
+    /**
+     * Called when an attempt received a response or failed without one
+     */
+    default void onRequest(RequestSample sample) {
+    }
+
+    /**
+     * Called after the body of a successful response was turned into the model
+     */
+    default void onParse(String endpoint, long parseNanos) {
+    }
+}
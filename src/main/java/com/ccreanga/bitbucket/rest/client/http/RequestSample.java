@@ -0,0 +1,109 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * The measurements of one request attempt. The times are in nanoseconds.
+ */
+public class RequestSample {
+
+    private final String endpoint;
+    private final String method;
+    private final int statusCode;
+    private final long bytesReceived;
+    private final long sendTimeNanos;
+    private final long timeToFirstByteNanos;
+    private final long latencyNanos;
+
+    public RequestSample(String endpoint, String method, int statusCode, long bytesReceived,
+                         long sendTimeNanos, long timeToFirstByteNanos, long latencyNanos) {
+        this.endpoint = endpoint;
+        this.method = method;
+        this.statusCode = statusCode;
+        this.bytesReceived = bytesReceived;
+        this.sendTimeNanos = sendTimeNanos;
+        this.timeToFirstByteNanos = timeToFirstByteNanos;
+        this.latencyNanos = latencyNanos;
+    }
+
+    /**
+     * @return the url template, without the /rest/api/1.0 prefix and the query string
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the status code, 0 if the attempt failed without a response
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return 1 to 5 for the 1xx to 5xx status codes, 0 if the attempt failed without a response
+     */
+    public int getStatusClass() {
+        return statusCode / 100;
+    }
+
+    /**
+     * @return the bytes of the response body read from the connection, before the decompression
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * @return the time from the end of the client side throttling until the request was written: the lease of a
+     * pooled connection, the connect of a new connection and the write of the request
+     */
+    public long getSendTimeNanos() {
+        return sendTimeNanos;
+    }
+
+    /**
+     * @return the time between writing the request and receiving the response headers, -1 without a response
+     */
+    public long getTimeToFirstByteNanos() {
+        return timeToFirstByteNanos;
+    }
+
+    /**
+     * @return the time between leaving the client side throttling and reading the whole response
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestSample{" +
+                "endpoint='" + endpoint + '\'' +
+                ", method='" + method + '\'' +
+                ", statusCode=" + statusCode +
+                ", bytesReceived=" + bytesReceived +
+                ", sendTimeNanos=" + sendTimeNanos +
+                ", timeToFirstByteNanos=" + timeToFirstByteNanos +
+                ", latencyNanos=" + latencyNanos +
+                '}';
+    }
+}
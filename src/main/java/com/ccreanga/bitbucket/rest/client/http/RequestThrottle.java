@@ -0,0 +1,208 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side admission control applied to every attempt of a request:
+ * <ul>
+ * <li>the global and the endpoint family token buckets delay the requests over the configured rates</li>
+ * <li>the circuit breaker of the endpoint family rejects the requests while the family is failing</li>
+ * <li>the bulkhead of the endpoint family bounds its requests in flight, so a slow family can not take all the
+ * pooled connections</li>
+ * <li>the adaptive concurrency limit, if enabled, bounds the requests in flight of all the families</li>
+ * </ul>
+ * A slot acquired with acquire/acquireAsync has to be given back with exactly one of the release/cancel methods.
+ */
+class RequestThrottle {
+
+    private final TokenBucket globalBucket;
+    private final Map<EndpointFamily, TokenBucket> familyBuckets = new EnumMap<>(EndpointFamily.class);
+    private final Map<EndpointFamily, CircuitBreaker> circuitBreakers = new EnumMap<>(EndpointFamily.class);
+    private final Map<EndpointFamily, ConcurrencyLimiter> bulkheads = new EnumMap<>(EndpointFamily.class);
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public RequestThrottle(BitBucketClientConfig config) {
+        globalBucket = config.getRateLimit() > 0 ? new TokenBucket(config.getRateLimit(), config.getRateLimitBurst()) : null;
+        for (Map.Entry<EndpointFamily, Double> rateLimit : config.getEndpointRateLimits().entrySet()) {
+            familyBuckets.put(rateLimit.getKey(), new TokenBucket(rateLimit.getValue(), config.getRateLimitBurst()));
+        }
+        if (config.isCircuitBreaker()) {
+            for (EndpointFamily family : EndpointFamily.values()) {
+                circuitBreakers.put(family, new CircuitBreaker(family,
+                        config.getCircuitBreakerWindowSize(),
+                        config.getCircuitBreakerMinimumCalls(),
+                        config.getCircuitBreakerFailureRateThreshold(),
+                        config.getCircuitBreakerOpenDuration()));
+            }
+        }
+        for (Map.Entry<EndpointFamily, Integer> bulkheadLimit : config.getBulkheadLimits().entrySet()) {
+            bulkheads.put(bulkheadLimit.getKey(), new ConcurrencyLimiter(bulkheadLimit.getValue()));
+        }
+        concurrencyLimiter = config.isAdaptiveConcurrency() ?
+                new AdaptiveConcurrencyLimiter(config.getMinConcurrencyLimit(), config.getMaxConcurrencyLimit(), config.getLatencyTolerance()) :
+                null;
+    }
+
+    /**
+     * @return how many milliseconds the request has to wait before being sent, according to the rate limits
+     */
+    public long reserve(HttpRequest request) {
+        long wait = globalBucket != null ? globalBucket.reserve() : 0;
+        TokenBucket familyBucket = familyBuckets.get(EndpointFamily.of(request.getUrl()));
+        if (familyBucket != null) {
+            wait = Math.max(wait, familyBucket.reserve());
+        }
+        return TimeUnit.NANOSECONDS.toMillis(wait + 999_999);
+    }
+
+    /**
+     * Blocks until the request can be sent
+     * @throws CircuitBreakerOpenException if the circuit breaker of the request is open
+     */
+    public void acquire(HttpRequest request) {
+        EndpointFamily family = EndpointFamily.of(request.getUrl());
+        CircuitBreaker circuitBreaker = circuitBreakers.get(family);
+        if (circuitBreaker != null)
+            circuitBreaker.acquirePermission();
+        ConcurrencyLimiter bulkhead = bulkheads.get(family);
+        try {
+            if (bulkhead != null)
+                bulkhead.acquire();
+        } catch (RuntimeException e) {
+            if (circuitBreaker != null)
+                circuitBreaker.onCancel();
+            throw e;
+        }
+        try {
+            if (concurrencyLimiter != null)
+                concurrencyLimiter.acquire();
+        } catch (RuntimeException e) {
+            if (bulkhead != null)
+                bulkhead.release();
+            if (circuitBreaker != null)
+                circuitBreaker.onCancel();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the task when the request can be sent
+     * @throws CircuitBreakerOpenException if the circuit breaker of the request is open
+     */
+    public void acquireAsync(HttpRequest request, Runnable task) {
+        EndpointFamily family = EndpointFamily.of(request.getUrl());
+        CircuitBreaker circuitBreaker = circuitBreakers.get(family);
+        if (circuitBreaker != null)
+            circuitBreaker.acquirePermission();
+        ConcurrencyLimiter bulkhead = bulkheads.get(family);
+        Runnable limited = concurrencyLimiter != null ? () -> concurrencyLimiter.acquireAsync(task) : task;
+        if (bulkhead != null) {
+            bulkhead.acquireAsync(limited);
+        } else {
+            limited.run();
+        }
+    }
+
+    /**
+     * Releases the slot of a request that received a response
+     */
+    public void release(HttpRequest request, long latencyNanos, int statusCode) {
+        EndpointFamily family = EndpointFamily.of(request.getUrl());
+        if (concurrencyLimiter != null) {
+            if (statusCode == 429 || statusCode == 503) {
+                concurrencyLimiter.releaseOverloaded();
+            } else {
+                concurrencyLimiter.release(latencyNanos);
+            }
+        }
+        releaseBulkhead(family);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(family);
+        if (circuitBreaker != null) {
+            if (statusCode >= 500) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        }
+    }
+
+    /**
+     * Releases the slot of a request that failed without a response
+     */
+    public void release(HttpRequest request, Exception e) {
+        if (!(e instanceof IOException)) {
+            cancel(request);
+            return;
+        }
+        EndpointFamily family = EndpointFamily.of(request.getUrl());
+        if (concurrencyLimiter != null) {
+            if (e instanceof InterruptedIOException) {
+                concurrencyLimiter.releaseOverloaded();
+            } else {
+                concurrencyLimiter.release();
+            }
+        }
+        releaseBulkhead(family);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(family);
+        if (circuitBreaker != null)
+            circuitBreaker.onFailure();
+    }
+
+    /**
+     * Releases the slot of a request that was not sent
+     */
+    public void cancel(HttpRequest request) {
+        EndpointFamily family = EndpointFamily.of(request.getUrl());
+        if (concurrencyLimiter != null)
+            concurrencyLimiter.release();
+        releaseBulkhead(family);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(family);
+        if (circuitBreaker != null)
+            circuitBreaker.onCancel();
+    }
+
+    private void releaseBulkhead(EndpointFamily family) {
+        ConcurrencyLimiter bulkhead = bulkheads.get(family);
+        if (bulkhead != null)
+            bulkhead.release();
+    }
+
+    /**
+     * @return the current concurrency limit, -1 if the adaptive concurrency is disabled
+     */
+    public int getConcurrencyLimit() {
+        return concurrencyLimiter != null ? concurrencyLimiter.getLimit() : -1;
+    }
+
+    /**
+     * @return the state of the circuit breaker of every endpoint family, empty if the circuit breakers are disabled
+     */
+    public Map<EndpointFamily, CircuitBreakerState> getCircuitBreakerStates() {
+        Map<EndpointFamily, CircuitBreakerState> states = new EnumMap<>(EndpointFamily.class);
+        for (Map.Entry<EndpointFamily, CircuitBreaker> circuitBreaker : circuitBreakers.entrySet()) {
+            states.put(circuitBreaker.getKey(), circuitBreaker.getValue().getState());
+        }
+        return states;
+    }
+}
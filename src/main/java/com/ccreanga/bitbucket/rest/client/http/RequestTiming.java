@@ -0,0 +1,70 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * The times of one request attempt, measured from the moment it left the client side throttling.
+ */
+class RequestTiming {
+
+    /**
+     * The context attribute holding the timing of a blocking request
+     */
+    public static final String ATTRIBUTE = "bitbucket.request-timing";
+
+    private final long start = System.nanoTime();
+    private volatile long sendTime = -1;
+    private volatile long timeToFirstByte = -1;
+    private volatile long latency = -1;
+
+    /**
+     * The request was written, so the connection was leased and connected
+     */
+    public void onRequestSent() {
+        sendTime = System.nanoTime() - start;
+    }
+
+    /**
+     * @return the time elapsed since the start
+     */
+    public long onResponseReceived() {
+        long elapsed = System.nanoTime() - start;
+        long sent = sendTime;
+        timeToFirstByte = sent >= 0 ? elapsed - sent : elapsed;
+        return elapsed;
+    }
+
+    /**
+     * Fixes the latency when the response was received entirely, before it is converted
+     * @return the latency
+     */
+    public long onResponseCompleted() {
+        latency = System.nanoTime() - start;
+        return latency;
+    }
+
+    public RequestSample toSample(HttpRequest httpRequest, int statusCode, CountingEntity entity) {
+        long latency = this.latency >= 0 ? this.latency : System.nanoTime() - start;
+        long sent = sendTime;
+        return new RequestSample(httpRequest.getEndpoint(), httpRequest.getMethod().name(), statusCode,
+                entity != null ? entity.getCount() : 0,
+                sent >= 0 ? sent : latency,
+                timeToFirstByte,
+                latency);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Consumes a response without copying its body. For a successful response with an entity the body is passed as a
+ * Reader over the entity content and response.getBody() is null; otherwise the body is null and the response is
+ * the buffered one returned by BitBucketHttpExecutor.execute(HttpRequest).
+ */
+interface ResponseBodyHandler<T> {
+
+    T handle(HttpResponse response, Reader body) throws IOException;
+
+    /**
+     * The values produced by the handler are cached and shared under the url and this key, so two handlers may share
+     * a value only if they have equal keys. By default the handler itself, so nothing is shared with another handler.
+     * @return an object with value semantics identifying what the handler produces
+     */
+    default Object getResultKey() {
+        return this;
+    }
+}
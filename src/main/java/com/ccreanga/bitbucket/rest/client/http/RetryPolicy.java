@@ -0,0 +1,128 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.utils.DateUtils;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides if a GET or DELETE request is sent again after a response with one of the retry status codes or after
+ * an I/O error, and how long to wait before that. The wait is the Retry-After value sent by the server if present,
+ * otherwise a random value between 0 and min(maxBackoff, initialBackoff * 2^(attempt-1)) ("full jitter"), so the
+ * clients failing at the same moment do not retry at the same moment. A Retry-After longer than maxBackoff is not
+ * waited for and the response is returned.
+ */
+class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final Set<Integer> statusCodes;
+    private final boolean retryOnIOException;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder statusRetries = new LongAdder();
+    private final LongAdder ioRetries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public RetryPolicy(BitBucketClientConfig config) {
+        this.maxAttempts = config.getMaxAttempts();
+        this.initialBackoff = config.getRetryInitialBackoff();
+        this.maxBackoff = config.getRetryMaxBackoff();
+        this.statusCodes = config.getRetryStatusCodes();
+        this.retryOnIOException = config.isRetryOnIOException();
+    }
+
+    public void onAttempt() {
+        attempts.increment();
+    }
+
+    /**
+     * @return how many milliseconds to wait before sending the request again, -1 if the response should be returned
+     */
+    public long getDelay(HttpRequest request, int attempt, org.apache.http.HttpResponse response) {
+        if (!statusCodes.contains(response.getStatusLine().getStatusCode()) || !isIdempotent(request))
+            return -1;
+        if (attempt >= maxAttempts) {
+            exhausted.increment();
+            return -1;
+        }
+        long retryAfter = getRetryAfter(response.getFirstHeader(HttpHeaders.RETRY_AFTER));
+        if (retryAfter > maxBackoff)
+            return -1;
+        statusRetries.increment();
+        return retryAfter >= 0 ? retryAfter : backoff(attempt);
+    }
+
+    /**
+     * @return how many milliseconds to wait before sending the request again, -1 if the error should be thrown
+     */
+    public long getDelay(HttpRequest request, int attempt, Exception e) {
+        if (!retryOnIOException || !(e instanceof IOException) || !isIdempotent(request))
+            return -1;
+        //a wrong host name or certificate does not fix itself
+        if (e instanceof UnknownHostException || e instanceof SSLException)
+            return -1;
+        if (attempt >= maxAttempts) {
+            exhausted.increment();
+            return -1;
+        }
+        ioRetries.increment();
+        return backoff(attempt);
+    }
+
+    long backoff(int attempt) {
+        long ceiling = initialBackoff << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxBackoff)
+            ceiling = maxBackoff;
+        return ceiling == 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * @return the Retry-After value in milliseconds (delay-seconds or HTTP-date), -1 if missing or invalid
+     */
+    static long getRetryAfter(Header header) {
+        if (header == null)
+            return -1;
+        String value = header.getValue().trim();
+        try {
+            long seconds = Long.parseLong(value);
+            return seconds < 0 ? -1 : seconds * 1000;
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    private static boolean isIdempotent(HttpRequest request) {
+        return request.getMethod() != HttpMethod.POST;
+    }
+
+    public RetryStats getStats() {
+        return new RetryStats(attempts.sum(), statusRetries.sum(), ioRetries.sum(), exhausted.sum());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * Requests sent by the executor, including the retries.
+ */
+public class RetryStats {
+
+    private final long attempts;
+    private final long statusRetries;
+    private final long ioRetries;
+    private final long exhausted;
+
+    public RetryStats(long attempts, long statusRetries, long ioRetries, long exhausted) {
+        this.attempts = attempts;
+        this.statusRetries = statusRetries;
+        this.ioRetries = ioRetries;
+        this.exhausted = exhausted;
+    }
+
+    /**
+     * @return the number of requests sent, the first attempts and the retries
+     */
+    public long getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return the number of retries caused by a retry status code
+     */
+    public long getStatusRetries() {
+        return statusRetries;
+    }
+
+    /**
+     * @return the number of retries caused by an I/O error
+     */
+    public long getIoRetries() {
+        return ioRetries;
+    }
+
+    public long getRetries() {
+        return statusRetries + ioRetries;
+    }
+
+    /**
+     * @return the number of requests that failed after maxAttempts attempts
+     */
+    public long getExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryStats{" +
+                "attempts=" + attempts +
+                ", statusRetries=" + statusRetries +
+                ", ioRetries=" + ioRetries +
+                ", exhausted=" + exhausted +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.model.Branch;
+import com.ccreanga.bitbucket.rest.client.model.Project;
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
+
+/**
+ * Receives the objects found by the {@link InstanceCrawler} as soon as their page is parsed. The methods are called
+ * concurrently from the crawler threads, the implementations have to be thread safe. An exception thrown by a method
+ * fails only the task that found the object and is reported to {@link #onError(CrawlLevel, String, Throwable)}.
+ */
+public interface SnapshotSink {
+
+    default void onProject(Project project) {
+    }
+
+    default void onRepository(Repository repository) {
+    }
+
+    default void onBranch(Repository repository, Branch branch) {
+    }
+
+    default void onPullRequest(Repository repository, PullRequest pullRequest) {
+    }
+
+    /**
+     * Called when a task fails; the crawl goes on with the other tasks
+     *
+     * @param level the level of the failed task
+     * @param key   the project key or the projectKey/repositorySlug of the failed task, empty for the project list
+     * @param error the failure
+     */
+    default void onError(CrawlLevel level, String key, Throwable error) {
+    }
+}
@@ -21,10 +21,10 @@ import com.ccreanga.bitbucket.rest.client.Range;
 import com.ccreanga.bitbucket.rest.client.SshClient;
 import com.ccreanga.bitbucket.rest.client.model.Page;
 import com.ccreanga.bitbucket.rest.client.model.RepositorySshKey;
-import com.ccreanga.bitbucket.rest.client.http.responseparsers.Parsers;
 import com.ccreanga.bitbucket.rest.client.model.UserSshKey;
-import com.google.gson.JsonElement;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.ccreanga.bitbucket.rest.client.http.responseparsers.Parsers.*;
 
@@ -36,16 +36,34 @@ class SshClientRest extends BitBucketClient implements SshClient {
 
     @Override
     public Page<RepositorySshKey> getRepositoryKeys(String projectKey, String repositorySlug, Range range) {
-        String requestUrl = String.format("/rest/keys/1.0/projects/%s/repos/%s/ssh", projectKey, repositorySlug) + addLimits(range);
-        JsonElement jsonElement = execute(requestUrl, HttpMethod.GET, (String) null).get();
-        return pageParser(repositorySshKeyParser()).apply(jsonElement);
+        String requestUrl = repositoryKeysUrl(projectKey, repositorySlug, range);
+        return execute(requestUrl, HttpMethod.GET, pageAdapter(repositorySshKeyAdapter())).get();
     }
 
     @Override
     public Page<UserSshKey> getCurrentUserKeys(Range range) {
-        String requestUrl = "/rest/ssh/1.0/keys" + addLimits(range);
-        JsonElement jsonElement = execute(requestUrl, HttpMethod.GET, (String) null).get();
-        return pageParser(Parsers.userSshKeyParser()).apply(jsonElement);
+        String requestUrl = currentUserKeysUrl(range);
+        return execute(requestUrl, HttpMethod.GET, pageAdapter(userSshKeyAdapter())).get();
+    }
+
+    @Override
+    public CompletableFuture<Page<RepositorySshKey>> getRepositoryKeysAsync(String projectKey, String repositorySlug, Range range) {
+        return executeAsync(repositoryKeysUrl(projectKey, repositorySlug, range), HttpMethod.GET, pageAdapter(repositorySshKeyAdapter())).
+                thenApply(Optional::get);
+    }
+
+    @Override
+    public CompletableFuture<Page<UserSshKey>> getCurrentUserKeysAsync(Range range) {
+        return executeAsync(currentUserKeysUrl(range), HttpMethod.GET, pageAdapter(userSshKeyAdapter())).
+                thenApply(Optional::get);
+    }
+
+    private String repositoryKeysUrl(String projectKey, String repositorySlug, Range range) {
+        return String.format("/rest/keys/1.0/projects/%s/repos/%s/ssh", projectKey, repositorySlug) + addLimits(range);
+    }
+
+    private String currentUserKeysUrl(Range range) {
+        return "/rest/ssh/1.0/keys" + addLimits(range);
     }
 
 }
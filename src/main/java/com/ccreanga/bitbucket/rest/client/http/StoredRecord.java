@@ -0,0 +1,121 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.http.codec.BinaryReader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight view of a record of a {@link MappedResultStore}. It reads the header fields straight from the mapped
+ * bytes, decodes the key on demand and the value only when {@link #get()} is called; {@link #moveTo(int)} points it
+ * to another record without allocating. A view is not thread safe.
+ */
+public class StoredRecord<T> {
+
+    private final MappedResultStore<T> store;
+    private final BinaryReader reader = new BinaryReader(ByteBuffer.allocate(0));
+    private int ordinal = -1;
+    private ByteBuffer segment;
+    private int offset;
+
+    StoredRecord(MappedResultStore<T> store) {
+        this.store = store;
+        reader.setVersion(store.getSchemaVersion());
+    }
+
+    public StoredRecord<T> moveTo(int ordinal) {
+        long position = store.offsetOf(ordinal);
+        this.ordinal = ordinal;
+        this.segment = store.segmentOf(position);
+        this.offset = store.segmentOffsetOf(position);
+        return this;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return the size of the record in the file, header included
+     */
+    public int getLength() {
+        return segment.getInt(offset);
+    }
+
+    public long getKeyHash() {
+        return segment.getLong(offset + 4);
+    }
+
+    public long getTimestamp() {
+        return segment.getLong(offset + 12);
+    }
+
+    public int getTag() {
+        return segment.getInt(offset + 20);
+    }
+
+    public String getKey() {
+        return reader.reset(body()).readString();
+    }
+
+    /**
+     * @return a read only buffer over the encoded value, without copying it
+     */
+    public ByteBuffer getValueBytes() {
+        return value().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return the decoded value
+     */
+    public T get() {
+        return store.getType().getCodec().read(reader.reset(value()));
+    }
+
+    /**
+     * The value follows the key and has its own string table
+     */
+    private ByteBuffer value() {
+        BinaryReader in = reader.reset(body());
+        in.skipString();
+        ByteBuffer value = segment.duplicate();
+        value.position(offset + MappedResultStore.RECORD_HEADER + in.position());
+        value.limit(offset + getLength());
+        return value.slice();
+    }
+
+    private ByteBuffer body() {
+        if (segment == null)
+            throw new IllegalStateException("the view does not point to a record");
+        ByteBuffer body = segment.duplicate();
+        body.position(offset + MappedResultStore.RECORD_HEADER);
+        body.limit(offset + getLength());
+        return body.slice();
+    }
+
+    @Override
+    public String toString() {
+        return "StoredRecord{" +
+                "ordinal=" + ordinal +
+                ", key=" + (segment != null ? getKey() : null) +
+                ", timestamp=" + (segment != null ? getTimestamp() : 0) +
+                ", tag=" + (segment != null ? getTag() : 0) +
+                '}';
+    }
+}
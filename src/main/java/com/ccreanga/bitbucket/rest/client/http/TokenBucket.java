@@ -0,0 +1,56 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+/**
+ * Token bucket holding up to burst tokens and refilled with permitsPerSecond tokens per second. A reservation always
+ * takes a token, possibly going into debt, and returns how long the caller has to wait until its token is refilled;
+ * so the waiting callers are served in the reservation order without a queue.
+ */
+class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0)
+            throw new IllegalArgumentException("permitsPerSecond should be greater than 0 not:" + permitsPerSecond);
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * @return how many nanoseconds to wait before using the reserved token
+     */
+    public synchronized long reserve() {
+        return reserve(System.nanoTime());
+    }
+
+    synchronized long reserve(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+        }
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.codec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Decodes the values written by a {@link BinaryWriter} from a byte buffer, heap or memory mapped, starting at its
+ * position. The buffer is not copied; the string table only keeps the positions of the strings, which are decoded
+ * the first time they are read and then shared by all their occurrences. A reader is not thread safe.
+ */
+public class BinaryReader {
+
+    private ByteBuffer buffer;
+    private int version = ModelCodecs.SCHEMA_VERSION;
+    private byte[] scratch = new byte[64];
+
+    private int stringCount;
+    private int[] stringPositions = new int[16];
+    private int[] stringLengths = new int[16];
+    private String[] strings = new String[16];
+
+    public BinaryReader(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    public BinaryReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Points the reader to another buffer and clears the string table, so that one reader can decode many messages
+     */
+    public BinaryReader reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        Arrays.fill(strings, 0, stringCount, null);
+        stringCount = 0;
+        return this;
+    }
+
+    /**
+     * @return the schema version of the data, the codecs read the fields added by a later version only if it is recent enough
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public BinaryReader setVersion(int version) {
+        this.version = version;
+        return this;
+    }
+
+    public int readByte() {
+        return buffer.get();
+    }
+
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalStateException("malformed varint at:" + buffer.position());
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalStateException("malformed varlong at:" + buffer.position());
+    }
+
+    public int readSignedVarInt() {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long readLong() {
+        return buffer.getLong();
+    }
+
+    public Long readNullableLong() {
+        return readBoolean() ? readSignedVarLong() : null;
+    }
+
+    public Date readDate() {
+        Long time = readNullableLong();
+        return time != null ? new Date(time) : null;
+    }
+
+    public String readString() {
+        int header = readVarInt();
+        if (header == 0)
+            return null;
+        if ((header & 1) != 0)
+            return tableString(header >>> 1);
+        int index = addString(header);
+        String value = decode(buffer.position(), stringLengths[index]);
+        buffer.position(buffer.position() + stringLengths[index]);
+        strings[index] = value;
+        return value;
+    }
+
+    /**
+     * Moves past a string without decoding it
+     */
+    public void skipString() {
+        int header = readVarInt();
+        if (header == 0 || (header & 1) != 0)
+            return;
+        int index = addString(header);
+        buffer.position(buffer.position() + stringLengths[index]);
+    }
+
+    private int addString(int header) {
+        int length = (header >>> 1) - 1;
+        if (length > buffer.remaining())
+            throw new BufferUnderflowException();
+        if (stringCount == strings.length) {
+            stringPositions = Arrays.copyOf(stringPositions, stringCount * 2);
+            stringLengths = Arrays.copyOf(stringLengths, stringCount * 2);
+            strings = Arrays.copyOf(strings, stringCount * 2);
+        }
+        stringPositions[stringCount] = buffer.position();
+        stringLengths[stringCount] = length;
+        return stringCount++;
+    }
+
+    private String tableString(int index) {
+        if (index >= stringCount)
+            throw new IllegalStateException("unknown string " + index + " at:" + buffer.position());
+        if (strings[index] == null)
+            strings[index] = decode(stringPositions[index], stringLengths[index]);
+        return strings[index];
+    }
+
+    private String decode(int position, int length) {
+        if (buffer.hasArray())
+            return new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        if (scratch.length < length)
+            scratch = new byte[Math.max(scratch.length * 2, length)];
+        int current = buffer.position();
+        buffer.position(position);
+        buffer.get(scratch, 0, length);
+        buffer.position(current);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public <E extends Enum<E>> E readEnum(E[] values) {
+        int ordinal = readVarInt() - 1;
+        return ordinal >= 0 ? values[ordinal] : null;
+    }
+
+    /**
+     * @return the size of a collection written by {@link BinaryWriter#writeSize(int)}, -1 for null
+     */
+    public int readSize() {
+        return readVarInt() - 1;
+    }
+
+    public int position() {
+        return buffer.position();
+    }
+
+    public int remaining() {
+        return buffer.remaining();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Growable buffer encoding the primitive values of the binary codec. The integers are written as varints (7 bits per
+ * byte, zigzag for the signed ones) and the nullable values are prefixed by a presence marker. The strings go through
+ * a string table: the first occurrence of a value is written as UTF-8 and numbered, the next ones as its number, so
+ * the names, emails and hashes repeated in a message take a byte or two. A writer is reused after {@link #reset()},
+ * which also clears the string table, and is not thread safe.
+ */
+public class BinaryWriter {
+
+    private final Map<String, Integer> strings = new HashMap<>();
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter() {
+        this(256);
+    }
+
+    public BinaryWriter(int initialCapacity) {
+        if (initialCapacity <= 0)
+            throw new IllegalArgumentException("initialCapacity should be greater than 0 not:" + initialCapacity);
+        buffer = new byte[initialCapacity];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a non negative int on 1 to 5 bytes
+     */
+    public void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Writes a non negative long on 1 to 10 bytes
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Writes an int of any sign, zigzag encoded so that the small negative values stay short
+     */
+    public void writeSignedVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    public void writeNullableLong(Long value) {
+        writeBoolean(value != null);
+        if (value != null)
+            writeSignedVarLong(value);
+    }
+
+    public void writeDate(Date value) {
+        writeNullableLong(value != null ? value.getTime() : null);
+    }
+
+    /**
+     * Writes 0 for null, (index << 1) | 1 for a value already in the string table, otherwise (length + 1) << 1
+     * followed by the UTF-8 bytes
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = strings.putIfAbsent(value, strings.size());
+        if (index != null) {
+            writeVarInt((index << 1) | 1);
+            return;
+        }
+        int length = value.length();
+        int start = position;
+        //ascii fast path, the usual case for keys, hashes and urls: one byte per char, no intermediate array
+        writeVarInt((length + 1) << 1);
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                position = start;
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt((bytes.length + 1) << 1);
+                writeBytes(bytes, 0, bytes.length);
+                return;
+            }
+            buffer[position++] = (byte) c;
+        }
+    }
+
+    /**
+     * Writes the ordinal + 1 (0 for null)
+     */
+    public void writeEnum(Enum<?> value) {
+        writeVarInt(value != null ? value.ordinal() + 1 : 0);
+    }
+
+    /**
+     * Writes the size + 1 of a collection, 0 for null
+     */
+    public void writeSize(int size) {
+        writeVarInt(size + 1);
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    /**
+     * @return the number of bytes written since the last reset
+     */
+    public int size() {
+        return position;
+    }
+
+    public void reset() {
+        position = 0;
+        strings.clear();
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Copies the bytes written to the target, from its current position
+     */
+    public void writeTo(ByteBuffer target) {
+        target.put(buffer, 0, position);
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+    }
+}
@@ -0,0 +1,600 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.codec;
+
+import com.ccreanga.bitbucket.rest.client.model.Branch;
+import com.ccreanga.bitbucket.rest.client.model.BuildStatsSummary;
+import com.ccreanga.bitbucket.rest.client.model.Comment;
+import com.ccreanga.bitbucket.rest.client.model.CommentAnchor;
+import com.ccreanga.bitbucket.rest.client.model.Commit;
+import com.ccreanga.bitbucket.rest.client.model.FileChangeType;
+import com.ccreanga.bitbucket.rest.client.model.FileType;
+import com.ccreanga.bitbucket.rest.client.model.LineType;
+import com.ccreanga.bitbucket.rest.client.model.Link;
+import com.ccreanga.bitbucket.rest.client.model.MinimalCommit;
+import com.ccreanga.bitbucket.rest.client.model.NodeType;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.ccreanga.bitbucket.rest.client.model.Path;
+import com.ccreanga.bitbucket.rest.client.model.PermittedOperations;
+import com.ccreanga.bitbucket.rest.client.model.Project;
+import com.ccreanga.bitbucket.rest.client.model.ProjectType;
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.RepositorySshKey;
+import com.ccreanga.bitbucket.rest.client.model.RepositoryState;
+import com.ccreanga.bitbucket.rest.client.model.SshKey;
+import com.ccreanga.bitbucket.rest.client.model.Task;
+import com.ccreanga.bitbucket.rest.client.model.TaskOperations;
+import com.ccreanga.bitbucket.rest.client.model.TaskState;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.ccreanga.bitbucket.rest.client.model.UserSshKey;
+import com.ccreanga.bitbucket.rest.client.model.UserType;
+import com.ccreanga.bitbucket.rest.client.model.diff.CompactDiff;
+import com.ccreanga.bitbucket.rest.client.model.diff.Diff;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffHunk;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffLine;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffSegment;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffSegmentType;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestBranch;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestChange;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestParticipant;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestRole;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestState;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivityActionType;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivityCheckpoint;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestApprovedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestCommentActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestDeclinedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestMergedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestOpenedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestReOpenedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestRescopedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestReviewedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestUnapprovedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestUpdatedActivity;
+
+import com.google.gson.JsonParser;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Hand written codecs of the model, without reflection: the fields are written in constructor order, the nested
+ * objects inline behind a presence marker. The activities are prefixed by their action type, which selects the
+ * subclass when they are read back.
+ * <p>
+ * {@link #encode(Codec, Object)} prefixes a message with {@link #SCHEMA_VERSION}. A field added to a type is written
+ * after the existing ones and read only when {@link BinaryReader#getVersion()} is recent enough, so the messages of
+ * the older versions stay readable; a message of a newer version is rejected.
+ */
+public final class ModelCodecs {
+
+    /**
+     * Version of the encoding, incremented whenever a codec writes a field that the previous version did not
+     */
+    public static final int SCHEMA_VERSION = 1;
+
+    private static final UserType[] USER_TYPES = UserType.values();
+    private static final PullRequestState[] PULL_REQUEST_STATES = PullRequestState.values();
+    private static final PullRequestRole[] PULL_REQUEST_ROLES = PullRequestRole.values();
+    private static final PullRequestActivityActionType[] ACTION_TYPES = PullRequestActivityActionType.values();
+    private static final LineType[] LINE_TYPES = LineType.values();
+    private static final FileType[] FILE_TYPES = FileType.values();
+    private static final DiffSegmentType[] SEGMENT_TYPES = DiffSegmentType.values();
+    private static final ProjectType[] PROJECT_TYPES = ProjectType.values();
+    private static final RepositoryState[] REPOSITORY_STATES = RepositoryState.values();
+    private static final TaskState[] TASK_STATES = TaskState.values();
+    private static final FileChangeType[] FILE_CHANGE_TYPES = FileChangeType.values();
+    private static final NodeType[] NODE_TYPES = NodeType.values();
+
+    public static final Codec<User> USER = codec((out, user) -> {
+        out.writeVarLong(user.getId());
+        out.writeString(user.getName());
+        out.writeString(user.getEmailAddress());
+        out.writeString(user.getDisplayName());
+        out.writeBoolean(user.isActive());
+        out.writeString(user.getSlug());
+        out.writeEnum(user.getType());
+    }, in -> new User(in.readVarLong(), in.readString(), in.readString(), in.readString(), in.readBoolean(),
+            in.readString(), in.readEnum(USER_TYPES)));
+
+    public static final Codec<Link> LINK = codec((out, link) -> {
+        out.writeString(link.getHref());
+        out.writeString(link.getName());
+    }, in -> new Link(in.readString(), in.readString()));
+
+    public static final Codec<Project> PROJECT = codec((out, project) -> {
+        out.writeString(project.getKey());
+        out.writeVarLong(project.getId());
+        out.writeString(project.getName());
+        out.writeString(project.getDescription());
+        out.writeBoolean(project.isPublic());
+        out.writeBoolean(project.isPersonal());
+        out.writeEnum(project.getType());
+        out.writeString(project.getSelfUrl());
+    }, in -> new Project(in.readString(), in.readVarLong(), in.readString(), in.readString(), in.readBoolean(),
+            in.readBoolean(), in.readEnum(PROJECT_TYPES), in.readString()));
+
+    public static final Codec<Repository> REPOSITORY = new Codec<Repository>() {
+        @Override
+        public void write(BinaryWriter out, Repository repository) {
+            out.writeString(repository.getHierarchyId());
+            out.writeVarLong(repository.getId());
+            out.writeString(repository.getSlug());
+            out.writeString(repository.getName());
+            out.writeBoolean(repository.isPublic());
+            out.writeBoolean(repository.isFork());
+            out.writeBoolean(repository.isForkable());
+            out.writeString(repository.getSshCloneUrl());
+            out.writeString(repository.getHttpCloneUrl());
+            out.writeString(repository.getSelfUrl());
+            writeNullable(out, repository.getProject(), PROJECT);
+            writeNullable(out, repository.getOrigin(), this);
+            out.writeString(repository.getScmId());
+            out.writeEnum(repository.getState());
+            out.writeString(repository.getStatusMessage());
+        }
+
+        @Override
+        public Repository read(BinaryReader in) {
+            return new Repository(in.readString(), in.readVarLong(), in.readString(), in.readString(), in.readBoolean(),
+                    in.readBoolean(), in.readBoolean(), in.readString(), in.readString(), in.readString(),
+                    readNullable(in, PROJECT), readNullable(in, this), in.readString(), in.readEnum(REPOSITORY_STATES),
+                    in.readString());
+        }
+    };
+
+    /**
+     * The metadata of a branch is kept as its JSON text
+     */
+    public static final Codec<Branch> BRANCH = codec((out, branch) -> {
+        out.writeString(branch.getId());
+        out.writeString(branch.getDisplayId());
+        out.writeString(branch.getLatestChangeset());
+        out.writeBoolean(branch.isDefault());
+        out.writeString(branch.getRepositorySlug());
+        out.writeString(branch.getProjectKey());
+        out.writeString(branch.getMetadata() != null ? branch.getMetadata().toString() : null);
+    }, in -> {
+        Branch branch = new Branch(in.readString(), in.readString(), in.readString(), in.readBoolean());
+        branch.setRepositorySlug(in.readString());
+        branch.setProjectKey(in.readString());
+        String metadata = in.readString();
+        if (metadata != null)
+            branch.setMetadata(new JsonParser().parse(metadata).getAsJsonObject());
+        return branch;
+    });
+
+    public static final Codec<BuildStatsSummary> BUILD_STATS_SUMMARY = codec((out, summary) -> {
+        out.writeNullableLong(summary.getFailed());
+        out.writeNullableLong(summary.getInProgress());
+        out.writeNullableLong(summary.getSuccessful());
+    }, in -> {
+        BuildStatsSummary.Builder builder = BuildStatsSummary.builder();
+        builder.setFailed(in.readNullableLong());
+        builder.setInProgress(in.readNullableLong());
+        builder.setSuccessful(in.readNullableLong());
+        return builder.build();
+    });
+
+    /**
+     * The build summaries keyed by commit, as returned by the build status client
+     */
+    public static final Codec<Map<String, BuildStatsSummary>> BUILD_STATS = map(BUILD_STATS_SUMMARY);
+
+    public static final Codec<SshKey> SSH_KEY = codec((out, key) -> {
+        out.writeString(key.getText());
+        out.writeString(key.getLabel());
+        out.writeVarLong(key.getId());
+    }, in -> new SshKey(in.readString(), in.readString(), in.readVarLong()));
+
+    public static final Codec<UserSshKey> USER_SSH_KEY = codec((out, key) -> {
+        out.writeVarLong(key.getId());
+        out.writeString(key.getText());
+        out.writeString(key.getLabel());
+    }, in -> new UserSshKey(in.readVarLong(), in.readString(), in.readString()));
+
+    public static final Codec<RepositorySshKey> REPOSITORY_SSH_KEY = codec((out, key) -> {
+        out.writeVarLong(key.getId());
+        out.writeString(key.getText());
+        out.writeString(key.getLabel());
+        writeNullable(out, key.getRepository(), REPOSITORY);
+        out.writeString(key.getPermission());
+    }, in -> new RepositorySshKey(in.readVarLong(), in.readString(), in.readString(), readNullable(in, REPOSITORY),
+            in.readString()));
+
+    public static final Codec<PullRequestBranch> PULL_REQUEST_BRANCH = codec((out, branch) -> {
+        out.writeString(branch.getId());
+        out.writeString(branch.getRepositorySlug());
+        out.writeString(branch.getRepositoryName());
+        out.writeString(branch.getProjectKey());
+    }, in -> new PullRequestBranch(in.readString(), in.readString(), in.readString(), in.readString()));
+
+    public static final Codec<PullRequestParticipant> PULL_REQUEST_PARTICIPANT = codec((out, participant) -> {
+        writeNullable(out, participant.getUser(), USER);
+        out.writeEnum(participant.getRole());
+        out.writeBoolean(participant.isApproved());
+    }, in -> new PullRequestParticipant(readNullable(in, USER), in.readEnum(PULL_REQUEST_ROLES), in.readBoolean()));
+
+    public static final Codec<PullRequest> PULL_REQUEST = codec((out, pullRequest) -> {
+        out.writeVarLong(pullRequest.getId());
+        out.writeVarLong(pullRequest.getVersion());
+        out.writeString(pullRequest.getTitle());
+        out.writeString(pullRequest.getDescription());
+        out.writeEnum(pullRequest.getState());
+        out.writeBoolean(pullRequest.isOpen());
+        out.writeBoolean(pullRequest.isClosed());
+        out.writeDate(pullRequest.getCreatedDate());
+        out.writeDate(pullRequest.getUpdatedDate());
+        writeNullable(out, pullRequest.getFrom(), PULL_REQUEST_BRANCH);
+        writeNullable(out, pullRequest.getTo(), PULL_REQUEST_BRANCH);
+        out.writeBoolean(pullRequest.isLocked());
+        writeNullable(out, pullRequest.getAuthor(), PULL_REQUEST_PARTICIPANT);
+        writeList(out, pullRequest.getReviewers(), PULL_REQUEST_PARTICIPANT);
+        writeList(out, pullRequest.getParticipants(), PULL_REQUEST_PARTICIPANT);
+        out.writeString(pullRequest.getSelfUrl());
+    }, in -> new PullRequest(in.readVarLong(), in.readVarLong(), in.readString(), in.readString(),
+            in.readEnum(PULL_REQUEST_STATES), in.readBoolean(), in.readBoolean(), in.readDate(), in.readDate(),
+            readNullable(in, PULL_REQUEST_BRANCH), readNullable(in, PULL_REQUEST_BRANCH), in.readBoolean(),
+            readNullable(in, PULL_REQUEST_PARTICIPANT), readList(in, PULL_REQUEST_PARTICIPANT),
+            readList(in, PULL_REQUEST_PARTICIPANT), in.readString()));
+
+    public static final Codec<MinimalCommit> MINIMAL_COMMIT = codec((out, commit) -> {
+        out.writeString(commit.getId());
+        out.writeString(commit.getDisplayId());
+    }, in -> new MinimalCommit(in.readString(), in.readString()));
+
+    public static final Codec<Commit> COMMIT = codec((out, commit) -> {
+        out.writeString(commit.getId());
+        out.writeString(commit.getDisplayId());
+        out.writeString(commit.getAuthorName());
+        out.writeString(commit.getAuthorEmail());
+        out.writeSignedVarLong(commit.getAuthorTimestamp());
+        out.writeString(commit.getMessage());
+        writeList(out, commit.getParentsIds(), MINIMAL_COMMIT);
+    }, in -> new Commit(in.readString(), in.readString(), in.readString(), in.readString(), in.readSignedVarLong(),
+            in.readString(), readList(in, MINIMAL_COMMIT)));
+
+    public static final Codec<PermittedOperations> PERMITTED_OPERATIONS = codec((out, operations) -> {
+        out.writeBoolean(operations.isEditable());
+        out.writeBoolean(operations.isDeletable());
+    }, in -> new PermittedOperations(in.readBoolean(), in.readBoolean()));
+
+    public static final Codec<Comment> COMMENT = new Codec<Comment>() {
+        @Override
+        public void write(BinaryWriter out, Comment comment) {
+            out.writeVarLong(comment.getId());
+            out.writeVarLong(comment.getVersion());
+            out.writeString(comment.getText());
+            writeNullable(out, comment.getAuthor(), USER);
+            out.writeDate(comment.getCreated());
+            out.writeDate(comment.getUpdated());
+            writeList(out, comment.getComments(), this);
+            writeNullable(out, comment.getPermittedOperations(), PERMITTED_OPERATIONS);
+        }
+
+        @Override
+        public Comment read(BinaryReader in) {
+            return new Comment(in.readVarLong(), in.readVarLong(), in.readString(), readNullable(in, USER),
+                    in.readDate(), in.readDate(), readList(in, this), readNullable(in, PERMITTED_OPERATIONS));
+        }
+    };
+
+    public static final Codec<TaskOperations> TASK_OPERATIONS = codec((out, operations) -> {
+        out.writeBoolean(operations.isEditable());
+        out.writeBoolean(operations.isDeletable());
+        out.writeBoolean(operations.isTransitionable());
+    }, in -> new TaskOperations(in.readBoolean(), in.readBoolean(), in.readBoolean()));
+
+    public static final Codec<Task> TASK = codec((out, task) -> {
+        out.writeVarLong(task.getId());
+        out.writeEnum(task.getTaskState());
+        out.writeString(task.getText());
+        out.writeDate(task.getCreated());
+        writeNullable(out, task.getComment(), COMMENT);
+        writeNullable(out, task.getUser(), USER);
+        writeNullable(out, task.getTaskOperations(), TASK_OPERATIONS);
+    }, in -> new Task(in.readVarLong(), in.readEnum(TASK_STATES), in.readString(), in.readDate(),
+            readNullable(in, COMMENT), readNullable(in, USER), readNullable(in, TASK_OPERATIONS)));
+
+    public static final Codec<CommentAnchor> COMMENT_ANCHOR = codec((out, anchor) -> {
+        out.writeString(anchor.getFromHash());
+        out.writeString(anchor.getToHash());
+        out.writeSignedVarLong(anchor.getLine());
+        out.writeEnum(anchor.getLineType());
+        out.writeEnum(anchor.getFileType());
+        out.writeString(anchor.getPath());
+        out.writeString(anchor.getSrcPath());
+        out.writeBoolean(anchor.isOrphaned());
+    }, in -> new CommentAnchor(in.readString(), in.readString(), in.readSignedVarLong(), in.readEnum(LINE_TYPES),
+            in.readEnum(FILE_TYPES), in.readString(), in.readString(), in.readBoolean()));
+
+    public static final Codec<Path> PATH = codec((out, path) -> {
+        String[] components = path.getComponents();
+        out.writeSize(components.length);
+        for (String component : components) {
+            out.writeString(component);
+        }
+    }, in -> {
+        String[] components = new String[in.readSize()];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = in.readString();
+        }
+        return new Path(components);
+    });
+
+    public static final Codec<DiffLine> DIFF_LINE = codec((out, line) -> {
+        out.writeSignedVarInt(line.getDestination());
+        out.writeString(line.getLine());
+        out.writeSignedVarInt(line.getSource());
+        out.writeBoolean(line.isTruncated());
+    }, in -> new DiffLine(in.readSignedVarInt(), in.readString(), in.readSignedVarInt(), in.readBoolean()));
+
+    public static final Codec<DiffSegment> DIFF_SEGMENT = codec((out, segment) -> {
+        writeList(out, segment.getLines(), DIFF_LINE);
+        out.writeEnum(segment.getType());
+        out.writeBoolean(segment.isTruncated());
+    }, in -> new DiffSegment(readList(in, DIFF_LINE), in.readEnum(SEGMENT_TYPES), in.readBoolean()));
+
+    public static final Codec<DiffHunk> DIFF_HUNK = codec((out, hunk) -> {
+        out.writeSignedVarInt(hunk.getDestinationLine());
+        out.writeSignedVarInt(hunk.getDestinationSpan());
+        writeList(out, hunk.getSegments(), DIFF_SEGMENT);
+        out.writeSignedVarInt(hunk.getSourceLine());
+        out.writeSignedVarInt(hunk.getSourceSpan());
+        out.writeBoolean(hunk.isTruncated());
+    }, in -> new DiffHunk(in.readSignedVarInt(), in.readSignedVarInt(), readList(in, DIFF_SEGMENT),
+            in.readSignedVarInt(), in.readSignedVarInt(), in.readBoolean()));
+
+    public static final Codec<Diff> DIFF = codec((out, diff) -> {
+        writeNullable(out, diff.getDestination(), PATH);
+        writeList(out, diff.getHunks(), DIFF_HUNK);
+        writeNullable(out, diff.getSource(), PATH);
+        out.writeBoolean(diff.isBinary());
+        out.writeBoolean(diff.isTruncated());
+    }, in -> new Diff(readNullable(in, PATH), readList(in, DIFF_HUNK), readNullable(in, PATH), in.readBoolean(),
+            in.readBoolean()));
+
+    public static final Codec<CompactDiff> COMPACT_DIFF = codec((out, diff) -> {
+        writeNullable(out, diff.getSource(), PATH);
+        writeNullable(out, diff.getDestination(), PATH);
+        out.writeBoolean(diff.isBinary());
+        out.writeBoolean(diff.isTruncated());
+        out.writeSize(diff.getHunkCount());
+        for (int i = 0; i < diff.getHunkCount(); i++) {
+            DIFF_HUNK.write(out, diff.getHunk(i));
+        }
+    }, in -> {
+        Path source = readNullable(in, PATH);
+        Path destination = readNullable(in, PATH);
+        boolean binary = in.readBoolean();
+        boolean truncated = in.readBoolean();
+        CompactDiff.Builder builder = CompactDiff.builder();
+        for (int i = in.readSize(); i > 0; i--) {
+            builder.addHunk(DIFF_HUNK.read(in));
+        }
+        return builder.build(source, destination, binary, truncated);
+    });
+
+    public static final Codec<PullRequestChange> PULL_REQUEST_CHANGE = codec((out, change) -> {
+        out.writeString(change.getContentId());
+        out.writeString(change.getFromContentId());
+        writeNullable(out, change.getPath(), PATH);
+        writeNullable(out, change.getSrcPath(), PATH);
+        out.writeEnum(change.getType());
+        out.writeBoolean(change.isExecutable());
+        out.writeSignedVarInt(change.getPercentUnchanged());
+        out.writeEnum(change.getNodeType());
+        out.writeBoolean(change.isSrcExecutable());
+        out.writeString(change.getSelfUrl());
+    }, in -> new PullRequestChange(in.readString(), in.readString(), readNullable(in, PATH), readNullable(in, PATH),
+            in.readEnum(FILE_CHANGE_TYPES), in.readBoolean(), in.readSignedVarInt(), in.readEnum(NODE_TYPES),
+            in.readBoolean(), in.readString()));
+
+    public static final Codec<PullRequestActivity> PULL_REQUEST_ACTIVITY = codec((out, activity) -> {
+        out.writeEnum(activity.getActionType());
+        out.writeNullableLong(activity.getId());
+        out.writeDate(activity.getCreatedDate());
+        writeNullable(out, activity.getUser(), USER);
+        out.writeVarLong(activity.getPullRequestId());
+        if (activity instanceof PullRequestCommentActivity) {
+            PullRequestCommentActivity comment = (PullRequestCommentActivity) activity;
+            out.writeString(comment.getActionComment());
+            writeNullable(out, comment.getComment(), COMMENT);
+            writeNullable(out, comment.getCommentAnchor(), COMMENT_ANCHOR);
+            writeNullable(out, comment.getDiff(), DIFF);
+        } else if (activity instanceof PullRequestRescopedActivity) {
+            PullRequestRescopedActivity rescope = (PullRequestRescopedActivity) activity;
+            out.writeString(rescope.getFromHash());
+            out.writeString(rescope.getPreviousFromHash());
+            out.writeString(rescope.getPreviousToHash());
+            out.writeString(rescope.getToHash());
+            writeList(out, rescope.getAdded(), COMMIT);
+            writeList(out, rescope.getRemoved(), COMMIT);
+        }
+    }, ModelCodecs::readActivity);
+
+    public static final Codec<PullRequestActivityCheckpoint> PULL_REQUEST_ACTIVITY_CHECKPOINT = codec((out, checkpoint) -> {
+        out.writeString(checkpoint.getProjectKey());
+        out.writeString(checkpoint.getRepositorySlug());
+        out.writeVarLong(checkpoint.getPullRequestId());
+        out.writeSignedVarLong(checkpoint.getActivityId());
+        out.writeDate(checkpoint.getCreatedDate());
+    }, in -> new PullRequestActivityCheckpoint(in.readString(), in.readString(), in.readVarLong(),
+            in.readSignedVarLong(), in.readDate()));
+
+    private ModelCodecs() {
+    }
+
+    /**
+     * @return the value encoded as a message: the schema version followed by the value
+     */
+    public static <T> byte[] encode(Codec<T> codec, T value) {
+        BinaryWriter out = new BinaryWriter();
+        out.writeVarInt(SCHEMA_VERSION);
+        codec.write(out, value);
+        return out.toByteArray();
+    }
+
+    public static <T> T decode(Codec<T> codec, byte[] message) {
+        return decode(codec, new BinaryReader(ByteBuffer.wrap(message)));
+    }
+
+    /**
+     * Reads a message written by {@link #encode(Codec, Object)}
+     *
+     * @throws IllegalArgumentException if the message was written by a newer version
+     */
+    public static <T> T decode(Codec<T> codec, BinaryReader in) {
+        int version = in.readVarInt();
+        if (version < 1 || version > SCHEMA_VERSION)
+            throw new IllegalArgumentException("schema version should be between 1 and " + SCHEMA_VERSION + " not:" + version);
+        return codec.read(in.setVersion(version));
+    }
+
+    public static <T> Codec<Page<T>> page(Codec<T> valueCodec) {
+        return codec((out, page) -> {
+            out.writeSignedVarInt(page.getSize());
+            out.writeSignedVarInt(page.getLimit());
+            out.writeBoolean(page.isLastPage());
+            out.writeSignedVarInt(page.getStart());
+            out.writeBoolean(page.getNextPageStart() != null);
+            if (page.getNextPageStart() != null)
+                out.writeSignedVarInt(page.getNextPageStart());
+            writeList(out, page.getValues(), valueCodec);
+        }, in -> new Page<>(in.readSignedVarInt(), in.readSignedVarInt(), in.readBoolean(), in.readSignedVarInt(),
+                in.readBoolean() ? in.readSignedVarInt() : null, readList(in, valueCodec)));
+    }
+
+    public static <T> Codec<List<T>> list(Codec<T> valueCodec) {
+        return codec((out, values) -> writeList(out, values, valueCodec), in -> readList(in, valueCodec));
+    }
+
+    /**
+     * Maps with string keys, read back in the same order
+     */
+    public static <V> Codec<Map<String, V>> map(Codec<V> valueCodec) {
+        return codec((out, map) -> {
+            out.writeSize(map.size());
+            for (Map.Entry<String, V> entry : map.entrySet()) {
+                out.writeString(entry.getKey());
+                writeNullable(out, entry.getValue(), valueCodec);
+            }
+        }, in -> {
+            int size = in.readSize();
+            Map<String, V> map = new LinkedHashMap<>(Math.max(size, 0) * 2);
+            for (int i = 0; i < size; i++) {
+                map.put(in.readString(), readNullable(in, valueCodec));
+            }
+            return map;
+        });
+    }
+
+    private static PullRequestActivity readActivity(BinaryReader in) {
+        PullRequestActivityActionType actionType = in.readEnum(ACTION_TYPES);
+        Long id = in.readNullableLong();
+        Date createdDate = in.readDate();
+        User user = readNullable(in, USER);
+        long pullRequestId = in.readVarLong();
+        if (actionType == null)
+            throw new IllegalStateException("activity without action type:" + id);
+        switch (actionType) {
+            case COMMENTED:
+                return new PullRequestCommentActivity(id, createdDate, user, pullRequestId, in.readString(),
+                        readNullable(in, COMMENT), readNullable(in, COMMENT_ANCHOR), readNullable(in, DIFF));
+            case RESCOPED:
+                return new PullRequestRescopedActivity(id, createdDate, user, pullRequestId, in.readString(),
+                        in.readString(), in.readString(), in.readString(), readList(in, COMMIT), readList(in, COMMIT));
+            case MERGED:
+                return new PullRequestMergedActivity(id, createdDate, user, pullRequestId);
+            case APPROVED:
+                return new PullRequestApprovedActivity(id, createdDate, user, pullRequestId);
+            case DECLINED:
+                return new PullRequestDeclinedActivity(id, createdDate, user, pullRequestId);
+            case OPENED:
+                return new PullRequestOpenedActivity(id, createdDate, user, pullRequestId);
+            case REOPENED:
+                return new PullRequestReOpenedActivity(id, createdDate, user, pullRequestId);
+            case UNAPPROVED:
+                return new PullRequestUnapprovedActivity(id, createdDate, user, pullRequestId);
+            case UPDATED:
+                return new PullRequestUpdatedActivity(id, createdDate, user, pullRequestId);
+            case REVIEWED:
+                return new PullRequestReviewedActivity(id, createdDate, user, pullRequestId);
+            default:
+                throw new IllegalStateException("unknown action type:" + actionType);
+        }
+    }
+
+    public static <T> void writeNullable(BinaryWriter out, T value, Codec<T> codec) {
+        out.writeBoolean(value != null);
+        if (value != null)
+            codec.write(out, value);
+    }
+
+    public static <T> T readNullable(BinaryReader in, Codec<T> codec) {
+        return in.readBoolean() ? codec.read(in) : null;
+    }
+
+    /**
+     * Writes the size followed by the elements; null is written as an empty list, the model copies its lists
+     */
+    public static <T> void writeList(BinaryWriter out, List<T> values, Codec<T> codec) {
+        if (values == null) {
+            out.writeSize(0);
+            return;
+        }
+        out.writeSize(values.size());
+        for (T value : values) {
+            codec.write(out, value);
+        }
+    }
+
+    public static <T> List<T> readList(BinaryReader in, Codec<T> codec) {
+        int size = in.readSize();
+        if (size <= 0)
+            return Collections.emptyList();
+        List<T> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(codec.read(in));
+        }
+        return values;
+    }
+
+    private static <T> Codec<T> codec(BiConsumer<BinaryWriter, T> writer, Function<BinaryReader, T> reader) {
+        return new Codec<T>() {
+            @Override
+            public void write(BinaryWriter out, T value) {
+                writer.accept(out, value);
+            }
+
+            @Override
+            public T read(BinaryReader in) {
+                return reader.apply(in);
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Branch;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class BranchAdapter extends ObjectAdapter<Branch> {
+
+    @Override
+    protected Branch readObject(JsonReader in) throws IOException {
+        String id = null;
+        String displayId = null;
+        String latestChangeset = null;
+        boolean isDefault = false;
+        JsonObject metadata = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "id":
+                    id = in.nextString();
+                    break;
+                case "displayId":
+                    displayId = in.nextString();
+                    break;
+                case "latestChangeset":
+                    latestChangeset = in.nextString();
+                    break;
+                case "isDefault":
+                    isDefault = in.nextBoolean();
+                    break;
+                case "metadata":
+                    //the metadata is kept as json, its content depends on the plugins installed on the server
+                    metadata = new JsonParser().parse(in).getAsJsonObject();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        Branch branch = new Branch(id, displayId, latestChangeset, isDefault);
+        if (metadata != null) {
+            branch.setMetadata(metadata);
+        }
+        return branch;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.BuildStatsSummary;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.Map;
+
+class BuildStatsAdapter extends ObjectAdapter<Map<String, BuildStatsSummary>> {
+
+    @Override
+    protected Map<String, BuildStatsSummary> readObject(JsonReader in) throws IOException {
+        ImmutableMap.Builder<String, BuildStatsSummary> builder = ImmutableMap.builder();
+        while (in.hasNext()) {
+            String commit = in.nextName();
+            BuildStatsSummary.Builder element = BuildStatsSummary.builder();
+            in.beginObject();
+            for (String field = nextField(in); field != null; field = nextField(in)) {
+                switch (field) {
+                    case "failed":
+                        element.setFailed(in.nextLong());
+                        break;
+                    case "inProgress":
+                        element.setInProgress(in.nextLong());
+                        break;
+                    case "successful":
+                        element.setSuccessful(in.nextLong());
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            builder.put(commit, element.build());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Comment;
+import com.ccreanga.bitbucket.rest.client.model.PermittedOperations;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+class CommentAdapter extends ObjectAdapter<Comment> {
+
+    @Override
+    protected Comment readObject(JsonReader in) throws IOException {
+        long id = 0;
+        long version = 0;
+        String text = null;
+        User author = null;
+        long createdDate = 0;
+        long updatedDate = 0;
+        List<Comment> comments = Collections.emptyList();
+        PermittedOperations permittedOperations = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "id":
+                    id = in.nextLong();
+                    break;
+                case "version":
+                    version = in.nextLong();
+                    break;
+                case "text":
+                    text = in.nextString();
+                    break;
+                case "author":
+                    author = Parsers.userAdapter().read(in);
+                    break;
+                case "createdDate":
+                    createdDate = in.nextLong();
+                    break;
+                case "updatedDate":
+                    updatedDate = in.nextLong();
+                    break;
+                case "comments":
+                    comments = readList(in, this);
+                    break;
+                case "permittedOperations":
+                    permittedOperations = Parsers.permittedOperationsAdapter().read(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new Comment(id, version, text, author, new Date(createdDate), new Date(updatedDate), comments, permittedOperations);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.CommentAnchor;
+import com.ccreanga.bitbucket.rest.client.model.FileType;
+import com.ccreanga.bitbucket.rest.client.model.LineType;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class CommentAnchorAdapter extends ObjectAdapter<CommentAnchor> {
+
+    @Override
+    protected CommentAnchor readObject(JsonReader in) throws IOException {
+        String fromHash = null;
+        String toHash = null;
+        long line = -1;
+        LineType lineType = null;
+        FileType fileType = null;
+        String path = null;
+        String srcPath = null;
+        boolean orphaned = false;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "fromHash":
+                    fromHash = in.nextString();
+                    break;
+                case "toHash":
+                    toHash = in.nextString();
+                    break;
+                case "line":
+                    line = in.nextLong();
+                    break;
+                case "lineType":
+                    lineType = LineType.valueOf(in.nextString());
+                    break;
+                case "fileType":
+                    fileType = FileType.valueOf(in.nextString());
+                    break;
+                case "path":
+                    path = in.nextString();
+                    break;
+                case "srcPath":
+                    srcPath = in.nextString();
+                    break;
+                case "orphaned":
+                    orphaned = in.nextBoolean();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new CommentAnchor(fromHash, toHash, line, lineType, fileType, path, srcPath, orphaned);
+    }
+}
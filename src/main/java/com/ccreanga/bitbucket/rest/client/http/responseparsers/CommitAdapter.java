@@ -0,0 +1,75 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Commit;
+import com.ccreanga.bitbucket.rest.client.model.MinimalCommit;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+class CommitAdapter extends ObjectAdapter<Commit> {
+
+    @Override
+    protected Commit readObject(JsonReader in) throws IOException {
+        String id = null;
+        String displayId = null;
+        String authorName = null;
+        String authorEmail = null;
+        long authorTimestamp = 0;
+        String message = null;
+        List<MinimalCommit> parents = Collections.emptyList();
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "id":
+                    id = in.nextString();
+                    break;
+                case "displayId":
+                    displayId = in.nextString();
+                    break;
+                case "author":
+                    in.beginObject();
+                    for (String authorField = nextField(in); authorField != null; authorField = nextField(in)) {
+                        if ("name".equals(authorField)) {
+                            authorName = in.nextString();
+                        } else if ("emailAddress".equals(authorField)) {
+                            authorEmail = in.nextString();
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    break;
+                case "authorTimestamp":
+                    authorTimestamp = in.nextLong();
+                    break;
+                case "message":
+                    message = in.nextString();
+                    break;
+                case "parents":
+                    parents = readList(in, Parsers.minimalCommitAdapter());
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new Commit(id, displayId, authorName, authorEmail, authorTimestamp, message, parents);
+    }
+}
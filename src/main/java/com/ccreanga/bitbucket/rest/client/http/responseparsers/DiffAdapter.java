@@ -0,0 +1,61 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Path;
+import com.ccreanga.bitbucket.rest.client.model.diff.Diff;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffHunk;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+class DiffAdapter extends ObjectAdapter<Diff> {
+
+    @Override
+    protected Diff readObject(JsonReader in) throws IOException {
+        Path destination = null;
+        List<DiffHunk> hunks = Collections.emptyList();
+        Path source = null;
+        boolean binary = false;
+        boolean truncated = false;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "destination":
+                    destination = Parsers.pathAdapter().read(in);
+                    break;
+                case "hunks":
+                    hunks = readList(in, Parsers.diffHunkAdapter());
+                    break;
+                case "source":
+                    source = Parsers.pathAdapter().read(in);
+                    break;
+                case "binary":
+                    binary = in.nextBoolean();
+                    break;
+                case "truncated":
+                    truncated = in.nextBoolean();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new Diff(destination, hunks, source, binary, truncated);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffHunk;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffSegment;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+class DiffHunkAdapter extends ObjectAdapter<DiffHunk> {
+
+    @Override
+    protected DiffHunk readObject(JsonReader in) throws IOException {
+        int destinationLine = 0;
+        int destinationSpan = 0;
+        List<DiffSegment> segments = Collections.emptyList();
+        int sourceLine = 0;
+        int sourceSpan = 0;
+        boolean truncated = false;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "destinationLine":
+                    destinationLine = in.nextInt();
+                    break;
+                case "destinationSpan":
+                    destinationSpan = in.nextInt();
+                    break;
+                case "segments":
+                    segments = readList(in, Parsers.diffSegmentAdapter());
+                    break;
+                case "sourceLine":
+                    sourceLine = in.nextInt();
+                    break;
+                case "sourceSpan":
+                    sourceSpan = in.nextInt();
+                    break;
+                case "truncated":
+                    truncated = in.nextBoolean();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new DiffHunk(destinationLine, destinationSpan, segments, sourceLine, sourceSpan, truncated);
+    }
+}
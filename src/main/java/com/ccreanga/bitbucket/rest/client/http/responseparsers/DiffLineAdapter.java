@@ -0,0 +1,53 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffLine;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class DiffLineAdapter extends ObjectAdapter<DiffLine> {
+
+    @Override
+    protected DiffLine readObject(JsonReader in) throws IOException {
+        int destination = 0;
+        String line = null;
+        int source = 0;
+        boolean truncated = false;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "destination":
+                    destination = in.nextInt();
+                    break;
+                case "line":
+                    line = in.nextString();
+                    break;
+                case "source":
+                    source = in.nextInt();
+                    break;
+                case "truncated":
+                    truncated = in.nextBoolean();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new DiffLine(destination, line, source, truncated);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Path;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffHunk;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffVisitor;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses a diff response ({"diffs": [...], "truncated": ...}) handing every hunk to the visitor as soon as it is
+ * read, instead of building the list of {@link com.ccreanga.bitbucket.rest.client.model.diff.Diff}.
+ * The value read is the truncated flag of the whole response.
+ */
+class DiffStreamAdapter extends ObjectAdapter<Boolean> {
+
+    private final DiffVisitor visitor;
+
+    DiffStreamAdapter(DiffVisitor visitor) {
+        this.visitor = visitor;
+    }
+
+    @Override
+    protected Boolean readObject(JsonReader in) throws IOException {
+        boolean truncated = false;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "diffs":
+                    readDiffs(in);
+                    break;
+                case "truncated":
+                    truncated = in.nextBoolean();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return truncated;
+    }
+
+    private void readDiffs(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                in.skipValue();
+                continue;
+            }
+            in.beginObject();
+            readDiff(in);
+            in.endObject();
+        }
+        in.endArray();
+    }
+
+    private void readDiff(JsonReader in) throws IOException {
+        Path destination = null;
+        Path source = null;
+        boolean binary = false;
+        boolean truncated = false;
+        boolean started = false;
+        //the hunks read before any path, kept until the end of the diff
+        List<DiffHunk> pending = new ArrayList<>();
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "destination":
+                    destination = Parsers.pathAdapter().read(in);
+                    break;
+                case "hunks":
+                    if (!started && (source != null || destination != null)) {
+                        visitor.startDiff(source, destination);
+                        started = true;
+                    }
+                    readHunks(in, started ? null : pending);
+                    break;
+                case "source":
+                    source = Parsers.pathAdapter().read(in);
+                    break;
+                case "binary":
+                    binary = in.nextBoolean();
+                    break;
+                case "truncated":
+                    truncated = in.nextBoolean();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        if (!started)
+            visitor.startDiff(source, destination);
+        pending.forEach(visitor::hunk);
+        visitor.endDiff(source, destination, binary, truncated);
+    }
+
+    private void readHunks(JsonReader in, List<DiffHunk> pending) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            DiffHunk hunk = Parsers.diffHunkAdapter().read(in);
+            if (hunk == null)
+                continue;
+            if (pending != null)
+                pending.add(hunk);
+            else
+                visitor.hunk(hunk);
+        }
+        in.endArray();
+    }
+}
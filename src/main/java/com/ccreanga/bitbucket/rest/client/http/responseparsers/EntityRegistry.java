@@ -0,0 +1,182 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Project;
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canonicalizing registry of the users, projects and repositories, keyed by id. The parsers hand every entity they
+ * build to the registry of the current parse, which returns the instance already registered for the id if it is
+ * equal to the new one; otherwise the new one is registered, with its repetitive strings (names, slugs, emails, urls)
+ * interned. The same author parsed a million times is then kept in memory once.
+ * <p>
+ * The instances are held through weak references, an entity nobody else references can be collected; maximumSize
+ * bounds the number of ids of every type. A registry can be shared by several clients.
+ */
+public class EntityRegistry {
+
+    /**
+     * Returns the entities unchanged
+     */
+    public static final EntityRegistry NONE = new EntityRegistry();
+
+    private static final ThreadLocal<EntityRegistry> CURRENT = new ThreadLocal<>();
+
+    private final Cache<Long, User> users;
+    private final Cache<Long, Project> projects;
+    private final Cache<Long, Repository> repositories;
+    private final Interner<String> strings;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private EntityRegistry() {
+        users = null;
+        projects = null;
+        repositories = null;
+        strings = null;
+    }
+
+    /**
+     * @param maximumSize the maximum number of ids kept for every entity type
+     */
+    public EntityRegistry(long maximumSize) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("maximumSize should be greater than 0 not:" + maximumSize);
+        users = CacheBuilder.newBuilder().maximumSize(maximumSize).weakValues().build();
+        projects = CacheBuilder.newBuilder().maximumSize(maximumSize).weakValues().build();
+        repositories = CacheBuilder.newBuilder().maximumSize(maximumSize).weakValues().build();
+        strings = Interners.newWeakInterner();
+    }
+
+    /**
+     * Makes this registry the one used by the parsers of the current thread until the scope is closed
+     */
+    public Scope open() {
+        EntityRegistry previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null)
+                CURRENT.remove();
+            else
+                CURRENT.set(previous);
+        };
+    }
+
+    static EntityRegistry current() {
+        EntityRegistry registry = CURRENT.get();
+        return registry != null ? registry : NONE;
+    }
+
+    public User canonical(User user) {
+        if (users == null || user == null)
+            return user;
+        User registered = users.getIfPresent(user.getId());
+        if (user.equals(registered)) {
+            hits.increment();
+            return registered;
+        }
+        misses.increment();
+        User canonical = new User(user.getId(), intern(user.getName()), intern(user.getEmailAddress()), intern(user.getDisplayName()),
+                user.isActive(), intern(user.getSlug()), user.getType());
+        users.put(user.getId(), canonical);
+        return canonical;
+    }
+
+    public Project canonical(Project project) {
+        if (projects == null || project == null)
+            return project;
+        Project registered = projects.getIfPresent(project.getId());
+        if (project.equals(registered)) {
+            hits.increment();
+            return registered;
+        }
+        misses.increment();
+        Project canonical = new Project(intern(project.getKey()), project.getId(), intern(project.getName()), intern(project.getDescription()),
+                project.isPublic(), project.isPersonal(), project.getType(), intern(project.getSelfUrl()));
+        projects.put(project.getId(), canonical);
+        return canonical;
+    }
+
+    /**
+     * The project and the origin of the repository should already be canonical, the parsers register them first
+     */
+    public Repository canonical(Repository repository) {
+        if (repositories == null || repository == null)
+            return repository;
+        Repository registered = repositories.getIfPresent(repository.getId());
+        if (repository.equals(registered)) {
+            hits.increment();
+            return registered;
+        }
+        misses.increment();
+        Repository canonical = new Repository(intern(repository.getHierarchyId()), repository.getId(), intern(repository.getSlug()),
+                intern(repository.getName()), repository.isPublic(), repository.isFork(), repository.isForkable(),
+                intern(repository.getSshCloneUrl()), intern(repository.getHttpCloneUrl()), intern(repository.getSelfUrl()),
+                repository.getProject(), repository.getOrigin(), intern(repository.getScmId()), repository.getState(),
+                intern(repository.getStatusMessage()));
+        repositories.put(repository.getId(), canonical);
+        return canonical;
+    }
+
+    public String intern(String value) {
+        return strings == null || value == null ? value : strings.intern(value);
+    }
+
+    /**
+     * @return the number of parsed entities replaced by a registered instance
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of parsed entities registered because their id was unknown or their fields changed
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        if (this == NONE)
+            return "EntityRegistry.NONE";
+        return "EntityRegistry{" +
+                "users=" + users.size() +
+                ", projects=" + projects.size() +
+                ", repositories=" + repositories.size() +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                '}';
+    }
+
+    /**
+     * Restores the registry used before {@link #open()}
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.http.dto.BitBucketError;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class ErrorAdapter extends ObjectAdapter<BitBucketError> {
+
+    @Override
+    protected BitBucketError readObject(JsonReader in) throws IOException {
+        String message = null;
+        String context = null;
+        String exceptionName = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "message":
+                    message = in.nextString();
+                    break;
+                case "context":
+                    context = in.nextString();
+                    break;
+                case "exceptionName":
+                    exceptionName = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new BitBucketError(message, context, exceptionName);
+    }
+}
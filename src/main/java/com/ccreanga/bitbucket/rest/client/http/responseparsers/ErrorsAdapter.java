@@ -0,0 +1,41 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.http.dto.BitBucketError;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+class ErrorsAdapter extends ObjectAdapter<List<BitBucketError>> {
+
+    @Override
+    protected List<BitBucketError> readObject(JsonReader in) throws IOException {
+        List<BitBucketError> errors = Collections.emptyList();
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            if ("error".equals(field)) {
+                errors = readList(in, Parsers.errorAdapter());
+            } else {
+                in.skipValue();
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Bridges a tree parser to the streaming API: only the current value is read as a JsonElement, which is then handed
+ * to the parser.
+ */
+class JsonElementAdapter<T> implements StreamParser<T> {
+    private final Function<JsonElement, T> parser;
+
+    public JsonElementAdapter(Function<JsonElement, T> parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        return parser.apply(new JsonParser().parse(in));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return parser.equals(((JsonElementAdapter<?>) o).parser);
+    }
+
+    @Override
+    public int hashCode() {
+        return parser.hashCode();
+    }
+}
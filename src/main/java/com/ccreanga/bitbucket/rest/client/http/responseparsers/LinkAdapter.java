@@ -0,0 +1,54 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Link;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class LinkAdapter extends ObjectAdapter<Link> {
+
+    private final String linkName;
+    private final String textName;
+
+    public LinkAdapter() {
+        this("href", "name");
+    }
+
+    public LinkAdapter(String linkName, String textName) {
+        this.linkName = linkName;
+        this.textName = textName;
+    }
+
+    @Override
+    protected Link readObject(JsonReader in) throws IOException {
+        String href = null;
+        String name = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            if (linkName.equals(field)) {
+                href = in.nextString();
+            } else if (textName.equals(field)) {
+                name = in.nextString();
+            } else {
+                in.skipValue();
+            }
+        }
+        return new Link(href, name);
+    }
+}
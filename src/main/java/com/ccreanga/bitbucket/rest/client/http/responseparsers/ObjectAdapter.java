@@ -0,0 +1,99 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Link;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Base class of the streaming parsers. A subclass reads the fields of one JSON object straight from the JsonReader
+ * and builds the model object, without materializing a JsonElement tree. Anything other than an object (including
+ * null) is skipped and parsed as null, like the tree parsers do.
+ */
+abstract class ObjectAdapter<T> implements StreamParser<T> {
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+        in.beginObject();
+        T value = readObject(in);
+        in.endObject();
+        return value;
+    }
+
+    /**
+     * Reads the fields of the current object, the unknown ones should be skipped with in.skipValue()
+     */
+    protected abstract T readObject(JsonReader in) throws IOException;
+
+    /**
+     * @return the name of the next field having a non null value, or null if there are no more fields. A null value
+     * is treated as a missing field.
+     */
+    protected static String nextField(JsonReader in) throws IOException {
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() != JsonToken.NULL) {
+                return name;
+            }
+            in.nextNull();
+        }
+        return null;
+    }
+
+    protected static <E> List<E> readList(JsonReader in, StreamParser<E> elementAdapter) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return Collections.emptyList();
+        }
+        List<E> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(elementAdapter.read(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    /**
+     * Reads a "links" object and returns the first "self" link, parsed by selfLinkAdapter
+     */
+    protected static String readSelfLink(JsonReader in, StreamParser<Link> selfLinkAdapter) throws IOException {
+        String selfUrl = null;
+        in.beginObject();
+        for (String name = nextField(in); name != null; name = nextField(in)) {
+            if ("self".equals(name)) {
+                List<Link> self = readList(in, selfLinkAdapter);
+                selfUrl = self.isEmpty() ? null : self.get(0).getHref();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return selfUrl;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a page token by token, the values being parsed one at a time by valueAdapter, so the page envelope is never
+ * materialized as a tree. Produces the same Page as PageParser.
+ */
+class PageAdapter<T> extends ObjectAdapter<Page<T>> {
+    private final StreamParser<T> valueAdapter;
+
+    public PageAdapter(StreamParser<T> valueAdapter) {
+        this.valueAdapter = valueAdapter;
+    }
+
+    @Override
+    protected Page<T> readObject(JsonReader in) throws IOException {
+        int size = 0;
+        int limit = 0;
+        boolean lastPage = false;
+        int start = 0;
+        int nextPageStart = -1;
+        List<T> values = Collections.emptyList();
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "size":
+                    size = in.nextInt();
+                    break;
+                case "limit":
+                    limit = in.nextInt();
+                    break;
+                case "isLastPage":
+                    lastPage = in.nextBoolean();
+                    break;
+                case "start":
+                    start = in.nextInt();
+                    break;
+                case "nextPageStart":
+                    nextPageStart = (int) in.nextLong();
+                    break;
+                case "values":
+                    values = readList(in, valueAdapter);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new Page<>(size, limit, lastPage, start, nextPageStart, values);
+    }
+
+    /**
+     * A new adapter is created for each request, the executor caches the parsed pages by url and adapter
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return valueAdapter.equals(((PageAdapter<?>) o).valueAdapter);
+    }
+
+    @Override
+    public int hashCode() {
+        return valueAdapter.hashCode();
+    }
+}
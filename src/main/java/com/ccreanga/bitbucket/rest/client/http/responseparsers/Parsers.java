@@ -24,6 +24,7 @@ import com.ccreanga.bitbucket.rest.client.model.diff.Diff;
 import com.ccreanga.bitbucket.rest.client.model.diff.DiffHunk;
 import com.ccreanga.bitbucket.rest.client.model.diff.DiffLine;
 import com.ccreanga.bitbucket.rest.client.model.diff.DiffSegment;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffVisitor;
 import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
 import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
 import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestBranch;
@@ -65,6 +66,27 @@ public class Parsers {
         return new PageParser<>(valueParser);
     }
 
+    /**
+     * Streaming counterpart of pageParser, reading the page directly from a JsonReader
+     */
+    public static <T> StreamParser<Page<T>> pageAdapter(StreamParser<T> valueAdapter) {
+        return new PageAdapter<>(valueAdapter);
+    }
+
+    /**
+     * pageAdapter reading the values with a tree parser, see adapter()
+     */
+    public static <T> StreamParser<Page<T>> pageAdapterFromTree(Function<JsonElement, T> valueParser) {
+        return new PageAdapter<>(adapter(valueParser));
+    }
+
+    /**
+     * Wraps a tree parser so it can be used on a JsonReader, one value at a time
+     */
+    public static <T> StreamParser<T> adapter(Function<JsonElement, T> parser) {
+        return new JsonElementAdapter<>(parser);
+    }
+
     public static Function<JsonElement, Project> projectParser() {
         return PROJECT_PARSER;
     }
@@ -149,6 +171,123 @@ public class Parsers {
     public static Function<JsonElement,TaskOperations> taskOperationsParser(){return  TASK_OPERATIONS_PARSER;}
     public static Function<JsonElement,PermittedOperations> permittedOperationsParser(){return  PERMITTED_OPERATIONS_PARSER;}
 
+    //streaming parsers, they build the same model objects as the tree parsers above straight from a JsonReader
+
+    public static StreamParser<Link> linkAdapter() {
+        return LINK_ADAPTER;
+    }
+
+    public static StreamParser<PullRequestActivity> pullRequestActivityAdapter(long pullRequestId) {
+        return new PullRequestActivityAdapter(pullRequestId);
+    }
+
+    public static StreamParser<Map<String, BuildStatsSummary>> buildStatsAdapter() {
+        return BUILD_STATS_ADAPTER;
+    }
+
+    public static StreamParser<Branch> branchAdapter() {
+        return BRANCH_ADAPTER;
+    }
+
+    public static StreamParser<Project> projectAdapter() {
+        return PROJECT_ADAPTER;
+    }
+
+    public static StreamParser<Repository> repositoryAdapter() {
+        return REPOSITORY_ADAPTER;
+    }
+
+    public static StreamParser<RepositorySshKey> repositorySshKeyAdapter() {
+        return REPOSITORY_SSH_KEY_ADAPTER;
+    }
+
+    public static StreamParser<UserSshKey> userSshKeyAdapter() {
+        return USER_SSH_KEY_ADAPTER;
+    }
+
+    public static StreamParser<User> userAdapter() {
+        return USER_ADAPTER;
+    }
+
+    public static StreamParser<PullRequest> pullRequestAdapter() {
+        return PULL_REQUEST_ADAPTER;
+    }
+
+    public static StreamParser<PullRequestParticipant> pullRequestParticipantAdapter() {
+        return PULL_REQUEST_PARTICIPANT_ADAPTER;
+    }
+
+    public static StreamParser<PullRequestBranch> pullRequestBranchAdapter() {
+        return PULL_REQUEST_BRANCH_ADAPTER;
+    }
+
+    public static StreamParser<PullRequestChange> pullRequestChangeAdapter() {
+        return PULL_REQUEST_CHANGE_ADAPTER;
+    }
+
+    public static StreamParser<Comment> commentAdapter() {
+        return COMMENT_ADAPTER;
+    }
+
+    public static StreamParser<Path> pathAdapter() {
+        return PATH_ADAPTER;
+    }
+
+    public static StreamParser<BitBucketError> errorAdapter() {
+        return ERROR_ADAPTER;
+    }
+
+    public static StreamParser<List<BitBucketError>> errorsAdapter() {
+        return ERRORS_ADAPTER;
+    }
+
+    public static StreamParser<Commit> commitAdapter() {
+        return COMMIT_ADAPTER;
+    }
+
+    public static StreamParser<MinimalCommit> minimalCommitAdapter() {
+        return MINIMAL_COMMIT_ADAPTER;
+    }
+
+    public static StreamParser<CommentAnchor> commentAnchorAdapter() {
+        return COMMENT_ANCHOR_ADAPTER;
+    }
+
+    public static StreamParser<Diff> diffAdapter() {
+        return DIFF_ADAPTER;
+    }
+
+    public static StreamParser<DiffLine> diffLineAdapter() {
+        return DIFF_LINE_ADAPTER;
+    }
+
+    public static StreamParser<DiffHunk> diffHunkAdapter() {
+        return DIFF_HUNK_ADAPTER;
+    }
+
+    public static StreamParser<DiffSegment> diffSegmentAdapter() {
+        return DIFF_SEGMENT_ADAPTER;
+    }
+
+    /**
+     * @return an adapter handing the hunks of a diff response to the visitor, see DiffStreamAdapter
+     */
+    public static StreamParser<Boolean> diffStreamAdapter(DiffVisitor visitor) {
+        return new DiffStreamAdapter(visitor);
+    }
+
+    public static StreamParser<Task> taskAdapter() {
+        return TASK_ADAPTER;
+    }
+
+    public static StreamParser<TaskOperations> taskOperationsAdapter() {
+        return TASK_OPERATIONS_ADAPTER;
+    }
+
+    public static StreamParser<PermittedOperations> permittedOperationsAdapter() {
+        return PERMITTED_OPERATIONS_ADAPTER;
+    }
+
     private static BuildStatsParser BUILD_STATS_PARSER = new BuildStatsParser();
 
     private static BranchParser BRANCH_PARSER = new BranchParser();
@@ -182,4 +321,31 @@ public class Parsers {
 
     private static ErrorParser ERROR_PARSER = new ErrorParser();
     private static ErrorsParser ERRORS_PARSER = new ErrorsParser();
+
+    private static LinkAdapter LINK_ADAPTER = new LinkAdapter();
+    private static BuildStatsAdapter BUILD_STATS_ADAPTER = new BuildStatsAdapter();
+    private static BranchAdapter BRANCH_ADAPTER = new BranchAdapter();
+    private static ProjectAdapter PROJECT_ADAPTER = new ProjectAdapter();
+    private static RepositoryAdapter REPOSITORY_ADAPTER = new RepositoryAdapter();
+    private static RepositorySshKeyAdapter REPOSITORY_SSH_KEY_ADAPTER = new RepositorySshKeyAdapter();
+    private static UserSshKeyAdapter USER_SSH_KEY_ADAPTER = new UserSshKeyAdapter();
+    private static UserAdapter USER_ADAPTER = new UserAdapter();
+    private static PullRequestAdapter PULL_REQUEST_ADAPTER = new PullRequestAdapter();
+    private static PullRequestParticipantAdapter PULL_REQUEST_PARTICIPANT_ADAPTER = new PullRequestParticipantAdapter();
+    private static PullRequestBranchAdapter PULL_REQUEST_BRANCH_ADAPTER = new PullRequestBranchAdapter();
+    private static PullRequestChangeAdapter PULL_REQUEST_CHANGE_ADAPTER = new PullRequestChangeAdapter();
+    private static CommentAdapter COMMENT_ADAPTER = new CommentAdapter();
+    private static PathAdapter PATH_ADAPTER = new PathAdapter();
+    private static ErrorAdapter ERROR_ADAPTER = new ErrorAdapter();
+    private static ErrorsAdapter ERRORS_ADAPTER = new ErrorsAdapter();
+    private static CommitAdapter COMMIT_ADAPTER = new CommitAdapter();
+    private static MinimalCommitAdapter MINIMAL_COMMIT_ADAPTER = new MinimalCommitAdapter();
+    private static CommentAnchorAdapter COMMENT_ANCHOR_ADAPTER = new CommentAnchorAdapter();
+    private static DiffAdapter DIFF_ADAPTER = new DiffAdapter();
+    private static DiffLineAdapter DIFF_LINE_ADAPTER = new DiffLineAdapter();
+    private static DiffHunkAdapter DIFF_HUNK_ADAPTER = new DiffHunkAdapter();
+    private static DiffSegmentAdapter DIFF_SEGMENT_ADAPTER = new DiffSegmentAdapter();
+    private static TaskAdapter TASK_ADAPTER = new TaskAdapter();
+    private static TaskOperationsAdapter TASK_OPERATIONS_ADAPTER = new TaskOperationsAdapter();
+    private static PermittedOperationsAdapter PERMITTED_OPERATIONS_ADAPTER = new PermittedOperationsAdapter();
 }
@@ -0,0 +1,70 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Project;
+import com.ccreanga.bitbucket.rest.client.model.ProjectType;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class ProjectAdapter extends ObjectAdapter<Project> {
+
+    @Override
+    protected Project readObject(JsonReader in) throws IOException {
+        String key = null;
+        long id = 0;
+        String name = null;
+        String description = null;
+        boolean isPublic = false;
+        boolean isPersonal = false;
+        ProjectType type = null;
+        String selfUrl = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "key":
+                    key = in.nextString();
+                    break;
+                case "id":
+                    id = in.nextLong();
+                    break;
+                case "name":
+                    name = in.nextString();
+                    break;
+                case "description":
+                    description = in.nextString();
+                    break;
+                case "public":
+                    isPublic = in.nextBoolean();
+                    break;
+                case "isPersonal":
+                    isPersonal = in.nextBoolean();
+                    break;
+                case "type":
+                    type = ProjectType.valueOf(in.nextString());
+                    break;
+                case "links":
+                    selfUrl = readSelfLink(in, Parsers.linkAdapter());
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return EntityRegistry.current().canonical(new Project(key, id, name, description, isPublic, isPersonal, type, selfUrl));
+    }
+}
@@ -40,7 +40,7 @@ class ProjectParser implements Function<JsonElement, Project> {
         }
 
 
-        return new Project(
+        return EntityRegistry.current().canonical(new Project(
                 json.get("key").getAsString(),
                 json.get("id").getAsLong(),
                 json.get("name").getAsString(),
@@ -49,7 +49,7 @@ class ProjectParser implements Function<JsonElement, Project> {
                 optionalJsonBoolean(json, "isPersonal"),
                 ProjectType.valueOf(json.get("type").getAsString()),
                 selfUrl
-        );
+        ));
     }
 
 }
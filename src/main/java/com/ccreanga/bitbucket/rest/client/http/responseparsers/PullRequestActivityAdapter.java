@@ -0,0 +1,179 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Comment;
+import com.ccreanga.bitbucket.rest.client.model.CommentAnchor;
+import com.ccreanga.bitbucket.rest.client.model.Commit;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.ccreanga.bitbucket.rest.client.model.diff.Diff;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivityActionType;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestApprovedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestCommentActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestDeclinedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestMergedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestOpenedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestReOpenedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestRescopedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestReviewedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestUnapprovedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestUpdatedActivity;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The action field decides the activity type but it is not necessarily the first one, so all the fields are read
+ * before building the activity.
+ */
+class PullRequestActivityAdapter extends ObjectAdapter<PullRequestActivity> {
+
+    private long pullRequestId;
+
+    public PullRequestActivityAdapter(long pullRequestId) {
+        this.pullRequestId = pullRequestId;
+    }
+
+    @Override
+    protected PullRequestActivity readObject(JsonReader in) throws IOException {
+        Long id = null;
+        long createdDate = 0;
+        User user = null;
+        PullRequestActivityActionType actionType = null;
+        String commentAction = null;
+        Comment comment = null;
+        CommentAnchor commentAnchor = null;
+        Diff diff = null;
+        String fromHash = null;
+        String previousFromHash = null;
+        String previousToHash = null;
+        String toHash = null;
+        List<Commit> added = new ArrayList<>();
+        List<Commit> removed = new ArrayList<>();
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "id":
+                    id = in.nextLong();
+                    break;
+                case "createdDate":
+                    createdDate = in.nextLong();
+                    break;
+                case "user":
+                    user = Parsers.userAdapter().read(in);
+                    break;
+                case "action":
+                    actionType = PullRequestActivityActionType.valueOf(in.nextString());
+                    break;
+                case "commentAction":
+                    commentAction = in.nextString();
+                    break;
+                case "comment":
+                    comment = Parsers.commentAdapter().read(in);
+                    break;
+                case "commentAnchor":
+                    commentAnchor = Parsers.commentAnchorAdapter().read(in);
+                    break;
+                case "diff":
+                    diff = Parsers.diffAdapter().read(in);
+                    break;
+                case "fromHash":
+                    fromHash = in.nextString();
+                    break;
+                case "previousFromHash":
+                    previousFromHash = in.nextString();
+                    break;
+                case "previousToHash":
+                    previousToHash = in.nextString();
+                    break;
+                case "toHash":
+                    toHash = in.nextString();
+                    break;
+                case "added":
+                    added = readCommits(in);
+                    break;
+                case "removed":
+                    removed = readCommits(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+
+        Date created = new Date(createdDate);
+        if (actionType == null)
+            throw new RuntimeException("cannot parse action:" + actionType);
+        switch (actionType) {
+            case COMMENTED:
+                return new PullRequestCommentActivity(id, created, user, pullRequestId, commentAction, comment, commentAnchor, diff);
+            case RESCOPED:
+                return new PullRequestRescopedActivity(id, created, user, pullRequestId, fromHash, previousFromHash, previousToHash, toHash, added, removed);
+            case MERGED:
+                return new PullRequestMergedActivity(id, created, user, pullRequestId);
+            case APPROVED:
+                return new PullRequestApprovedActivity(id, created, user, pullRequestId);
+            case DECLINED:
+                return new PullRequestDeclinedActivity(id, created, user, pullRequestId);
+            case UNAPPROVED:
+                return new PullRequestUnapprovedActivity(id, created, user, pullRequestId);
+            case OPENED:
+                return new PullRequestOpenedActivity(id, created, user, pullRequestId);
+            case REOPENED:
+                return new PullRequestReOpenedActivity(id, created, user, pullRequestId);
+            case UPDATED:
+                return new PullRequestUpdatedActivity(id, created, user, pullRequestId);
+            case REVIEWED:
+                return new PullRequestReviewedActivity(id, created, user, pullRequestId);
+            default:
+                throw new RuntimeException("cannot parse action:" + actionType);
+        }
+    }
+
+    private static List<Commit> readCommits(JsonReader in) throws IOException {
+        List<Commit> changesets = new ArrayList<>();
+        List<Commit> commits = new ArrayList<>();
+        in.beginObject();
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            if ("changesets".equals(field)) {
+                changesets.addAll(readList(in, Parsers.commitAdapter()));
+            } else if ("commits".equals(field)) {
+                commits.addAll(readList(in, Parsers.commitAdapter()));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        changesets.addAll(commits);
+        return changesets;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return pullRequestId == ((PullRequestActivityAdapter) o).pullRequestId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(pullRequestId);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestBranch;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestParticipant;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestState;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+class PullRequestAdapter extends ObjectAdapter<PullRequest> {
+
+    @Override
+    protected PullRequest readObject(JsonReader in) throws IOException {
+        long id = 0;
+        long version = 0;
+        String title = null;
+        String description = null;
+        PullRequestState state = null;
+        boolean open = false;
+        boolean closed = false;
+        long createdDate = 0;
+        long updatedDate = 0;
+        PullRequestBranch from = null;
+        PullRequestBranch to = null;
+        boolean locked = false;
+        PullRequestParticipant author = null;
+        List<PullRequestParticipant> reviewers = Collections.emptyList();
+        List<PullRequestParticipant> participants = Collections.emptyList();
+        String selfUrl = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "id":
+                    id = in.nextLong();
+                    break;
+                case "version":
+                    version = in.nextLong();
+                    break;
+                case "title":
+                    title = in.nextString();
+                    break;
+                case "description":
+                    description = in.nextString();
+                    break;
+                case "state":
+                    state = PullRequestState.valueOf(in.nextString());
+                    break;
+                case "open":
+                    open = in.nextBoolean();
+                    break;
+                case "closed":
+                    closed = in.nextBoolean();
+                    break;
+                case "createdDate":
+                    createdDate = in.nextLong();
+                    break;
+                case "updatedDate":
+                    updatedDate = in.nextLong();
+                    break;
+                case "fromRef":
+                    from = Parsers.pullRequestBranchAdapter().read(in);
+                    break;
+                case "toRef":
+                    to = Parsers.pullRequestBranchAdapter().read(in);
+                    break;
+                case "locked":
+                    locked = in.nextBoolean();
+                    break;
+                case "author":
+                    author = Parsers.pullRequestParticipantAdapter().read(in);
+                    break;
+                case "reviewers":
+                    reviewers = readList(in, Parsers.pullRequestParticipantAdapter());
+                    break;
+                case "participants":
+                    participants = readList(in, Parsers.pullRequestParticipantAdapter());
+                    break;
+                case "links":
+                    selfUrl = readSelfLink(in, Parsers.linkAdapter());
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new PullRequest(id, version, title, description, state, open, closed, new Date(createdDate), new Date(updatedDate),
+                from, to, locked, author, reviewers, participants, selfUrl);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestBranch;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class PullRequestBranchAdapter extends ObjectAdapter<PullRequestBranch> {
+
+    @Override
+    protected PullRequestBranch readObject(JsonReader in) throws IOException {
+        String id = null;
+        String repositorySlug = null;
+        String repositoryName = null;
+        String projectKey = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "id":
+                    id = in.nextString();
+                    break;
+                case "repository":
+                    in.beginObject();
+                    for (String repositoryField = nextField(in); repositoryField != null; repositoryField = nextField(in)) {
+                        switch (repositoryField) {
+                            case "slug":
+                                repositorySlug = in.nextString();
+                                break;
+                            case "name":
+                                repositoryName = in.nextString();
+                                break;
+                            case "project":
+                                in.beginObject();
+                                for (String projectField = nextField(in); projectField != null; projectField = nextField(in)) {
+                                    if ("key".equals(projectField)) {
+                                        projectKey = in.nextString();
+                                    } else {
+                                        in.skipValue();
+                                    }
+                                }
+                                in.endObject();
+                                break;
+                            default:
+                                in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new PullRequestBranch(id, repositorySlug, repositoryName, projectKey);
+    }
+}
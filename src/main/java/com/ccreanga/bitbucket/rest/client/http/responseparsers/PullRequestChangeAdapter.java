@@ -0,0 +1,77 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.FileChangeType;
+import com.ccreanga.bitbucket.rest.client.model.NodeType;
+import com.ccreanga.bitbucket.rest.client.model.Path;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestChange;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class PullRequestChangeAdapter extends ObjectAdapter<PullRequestChange> {
+
+    @Override
+    protected PullRequestChange readObject(JsonReader in) throws IOException {
+        String contentId = null;
+        String fromContentId = null;
+        Path path = null;
+        Path srcPath = null;
+        FileChangeType type = null;
+        boolean executable = false;
+        int percentUnchanged = 0;
+        NodeType nodeType = null;
+        String selfUrl = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "contentId":
+                    contentId = in.nextString();
+                    break;
+                case "fromContentId":
+                    fromContentId = in.nextString();
+                    break;
+                case "path":
+                    path = Parsers.pathAdapter().read(in);
+                    break;
+                case "srcPath":
+                    srcPath = Parsers.pathAdapter().read(in);
+                    break;
+                case "type":
+                    type = FileChangeType.valueOf(in.nextString());
+                    break;
+                case "executable":
+                    executable = in.nextBoolean();
+                    break;
+                case "percentUnchanged":
+                    percentUnchanged = in.nextInt();
+                    break;
+                case "nodeType":
+                    nodeType = NodeType.valueOf(in.nextString());
+                    break;
+                case "links":
+                    selfUrl = readSelfLink(in, Parsers.linkAdapter());
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        //like PullRequestChangeParser, srcExecutable is taken from the executable field
+        return new PullRequestChange(contentId, fromContentId, path, srcPath, type, executable, percentUnchanged, nodeType, executable, selfUrl);
+    }
+}
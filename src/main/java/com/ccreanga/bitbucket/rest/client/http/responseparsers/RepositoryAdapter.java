@@ -0,0 +1,118 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Link;
+import com.ccreanga.bitbucket.rest.client.model.Project;
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.RepositoryState;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.List;
+
+class RepositoryAdapter extends ObjectAdapter<Repository> {
+
+    private static final LinkAdapter SELF_LINK_ADAPTER = new LinkAdapter("url", "text");
+
+    @Override
+    protected Repository readObject(JsonReader in) throws IOException {
+        String hierarchyId = null;
+        long id = 0;
+        String slug = null;
+        String name = null;
+        boolean isPublic = false;
+        boolean isFork = false;
+        boolean isForkable = false;
+        String sshCloneUrl = null;
+        String httpCloneUrl = null;
+        String selfUrl = null;
+        Project project = null;
+        Repository origin = null;
+        String scmId = null;
+        RepositoryState state = null;
+        String statusMessage = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "hierarchyId":
+                    hierarchyId = in.nextString();
+                    break;
+                case "id":
+                    id = in.nextLong();
+                    break;
+                case "slug":
+                    slug = in.nextString();
+                    break;
+                case "name":
+                    name = in.nextString();
+                    break;
+                case "public":
+                    isPublic = in.nextBoolean();
+                    break;
+                case "fork":
+                    isFork = in.nextBoolean();
+                    break;
+                case "forkable":
+                    isForkable = in.nextBoolean();
+                    break;
+                case "links":
+                    in.beginObject();
+                    for (String link = nextField(in); link != null; link = nextField(in)) {
+                        if ("self".equals(link)) {
+                            List<Link> self = readList(in, SELF_LINK_ADAPTER);
+                            selfUrl = self.isEmpty() ? null : self.get(0).getHref();
+                        } else if ("clone".equals(link)) {
+                            List<Link> clone = readList(in, Parsers.linkAdapter());
+                            Link first = clone.get(0);
+                            Link second = clone.get(1);
+                            if (first.getName().equals("http")) {
+                                httpCloneUrl = first.getHref();
+                                sshCloneUrl = second.getHref();
+                            } else {
+                                sshCloneUrl = first.getHref();
+                                httpCloneUrl = second.getHref();
+                            }
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    break;
+                case "project":
+                    project = Parsers.projectAdapter().read(in);
+                    break;
+                case "origin":
+                    origin = read(in);
+                    break;
+                case "scmId":
+                    scmId = in.nextString();
+                    break;
+                case "state":
+                    state = RepositoryState.valueOf(in.nextString());
+                    break;
+                case "statusMessage":
+                    statusMessage = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return EntityRegistry.current().canonical(new Repository(hierarchyId, id, slug, name, isPublic, isFork, isForkable,
+                sshCloneUrl, httpCloneUrl, selfUrl, project, origin, scmId, state, statusMessage));
+    }
+}
@@ -65,7 +65,7 @@ class RepositoryParser implements Function<JsonElement, Repository> {
             }
         }
 
-        return new Repository(
+        return EntityRegistry.current().canonical(new Repository(
                 optionalJsonString(json, "hierarchyId"),
                 json.get("id").getAsLong(),
                 json.get("slug").getAsString(),
@@ -81,7 +81,7 @@ class RepositoryParser implements Function<JsonElement, Repository> {
                 json.get("scmId").getAsString(),
                 RepositoryState.valueOf(json.get("state").getAsString()),
                 json.get("statusMessage").getAsString()
-        );
+        ));
 
     }
 
@@ -0,0 +1,68 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.RepositorySshKey;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class RepositorySshKeyAdapter extends ObjectAdapter<RepositorySshKey> {
+
+    @Override
+    protected RepositorySshKey readObject(JsonReader in) throws IOException {
+        long id = 0;
+        String text = null;
+        String label = null;
+        Repository repository = null;
+        String permission = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "key":
+                    in.beginObject();
+                    for (String keyField = nextField(in); keyField != null; keyField = nextField(in)) {
+                        switch (keyField) {
+                            case "id":
+                                id = in.nextLong();
+                                break;
+                            case "text":
+                                text = in.nextString();
+                                break;
+                            case "label":
+                                label = in.nextString();
+                                break;
+                            default:
+                                in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    break;
+                case "repository":
+                    repository = Parsers.repositoryAdapter().read(in);
+                    break;
+                case "permission":
+                    permission = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new RepositorySshKey(id, text, label, repository, permission);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Streaming counterpart of the Function&lt;JsonElement, T&gt; tree parsers, reading one value from a JsonReader. The
+ * model objects are only read, so unlike a Gson TypeAdapter there is no write side.
+ */
+@FunctionalInterface
+public interface StreamParser<T> {
+
+    /**
+     * Reads the current value, null if it is not a JSON object
+     */
+    T read(JsonReader in) throws IOException;
+
+    /**
+     * Reads a value already parsed as a tree, as TypeAdapter.fromJsonTree does. The tree is written back to JSON
+     * text, which is only acceptable for the buffered responses, the large ones being streamed.
+     */
+    default T fromJsonTree(JsonElement json) {
+        try {
+            return read(new JsonReader(new StringReader(json.toString())));
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Comment;
+import com.ccreanga.bitbucket.rest.client.model.Task;
+import com.ccreanga.bitbucket.rest.client.model.TaskOperations;
+import com.ccreanga.bitbucket.rest.client.model.TaskState;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.Date;
+
+class TaskAdapter extends ObjectAdapter<Task> {
+
+    @Override
+    protected Task readObject(JsonReader in) throws IOException {
+        long id = 0;
+        TaskState state = null;
+        String text = null;
+        long createdDate = 0;
+        Comment anchor = null;
+        User author = null;
+        TaskOperations permittedOperations = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "id":
+                    id = in.nextLong();
+                    break;
+                case "state":
+                    state = TaskState.valueOf(in.nextString());
+                    break;
+                case "text":
+                    text = in.nextString();
+                    break;
+                case "createdDate":
+                    createdDate = in.nextLong();
+                    break;
+                case "anchor":
+                    anchor = Parsers.commentAdapter().read(in);
+                    break;
+                case "author":
+                    author = Parsers.userAdapter().read(in);
+                    break;
+                case "permittedOperations":
+                    permittedOperations = Parsers.taskOperationsAdapter().read(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new Task(id, state, text, new Date(createdDate), anchor, author, permittedOperations);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.TaskOperations;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class TaskOperationsAdapter extends ObjectAdapter<TaskOperations> {
+
+    @Override
+    protected TaskOperations readObject(JsonReader in) throws IOException {
+        boolean editable = false;
+        boolean deletable = false;
+        boolean transitionable = false;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "editable":
+                    editable = in.nextBoolean();
+                    break;
+                case "deletable":
+                    deletable = in.nextBoolean();
+                    break;
+                case "transitionable":
+                    transitionable = in.nextBoolean();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new TaskOperations(editable, deletable, transitionable);
+    }
+}
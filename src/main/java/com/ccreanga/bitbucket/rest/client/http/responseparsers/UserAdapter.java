@@ -0,0 +1,66 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.ccreanga.bitbucket.rest.client.model.UserType;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class UserAdapter extends ObjectAdapter<User> {
+
+    @Override
+    protected User readObject(JsonReader in) throws IOException {
+        long id = 0;
+        String name = null;
+        String emailAddress = null;
+        String displayName = null;
+        boolean active = false;
+        String slug = null;
+        UserType type = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "id":
+                    id = in.nextLong();
+                    break;
+                case "name":
+                    name = in.nextString();
+                    break;
+                case "emailAddress":
+                    emailAddress = in.nextString();
+                    break;
+                case "displayName":
+                    displayName = in.nextString();
+                    break;
+                case "active":
+                    active = in.nextBoolean();
+                    break;
+                case "slug":
+                    slug = in.nextString();
+                    break;
+                case "type":
+                    type = UserType.valueOf(in.nextString());
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return EntityRegistry.current().canonical(new User(id, name, emailAddress, displayName, active, slug, type));
+    }
+}
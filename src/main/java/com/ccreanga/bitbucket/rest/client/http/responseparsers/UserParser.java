@@ -27,7 +27,7 @@ public class UserParser implements Function<JsonElement, User> {
     @Override
     public User apply(JsonElement jsonElement) {
         JsonObject json = jsonElement.getAsJsonObject();
-        return new User(
+        return EntityRegistry.current().canonical(new User(
                 json.get("id").getAsLong(),
                 json.get("name").getAsString(),
                 json.get("emailAddress").getAsString(),
@@ -35,7 +35,7 @@ public class UserParser implements Function<JsonElement, User> {
                 json.get("active").getAsBoolean(),
                 json.get("slug").getAsString(),
                 UserType.valueOf(json.get("type").getAsString())
-        );
+        ));
 
     }
 }
@@ -0,0 +1,49 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.UserSshKey;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+class UserSshKeyAdapter extends ObjectAdapter<UserSshKey> {
+
+    @Override
+    protected UserSshKey readObject(JsonReader in) throws IOException {
+        long id = 0;
+        String text = null;
+        String label = null;
+        for (String field = nextField(in); field != null; field = nextField(in)) {
+            switch (field) {
+                case "id":
+                    id = in.nextLong();
+                    break;
+                case "text":
+                    text = in.nextString();
+                    break;
+                case "label":
+                    label = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        return new UserSshKey(id, text, label);
+    }
+}
@@ -33,6 +33,10 @@ public class Path implements Serializable {
         this.components = Arrays.copyOf(components,components.length);
     }
 
+    public String[] getComponents() {
+        return Arrays.copyOf(components, components.length);
+    }
+
     public String toFilePath(){
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < components.length; i++) {
@@ -0,0 +1,310 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.model.diff;
+
+import com.ccreanga.bitbucket.rest.client.model.Path;
+
+import java.io.Serializable;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Columnar representation of the diff of one file. The text of all the lines is kept in a single char array and
+ * every other attribute in primitive arrays indexed by line, segment or hunk, so a diff of n lines takes a handful
+ * of objects instead of the 3n+ objects (DiffLine, String, char array...) of {@link Diff}.
+ * <p>
+ * The lines are numbered from 0 across the whole file; {@link #toDiff()} and {@link #getHunk(int)} rebuild the object
+ * model when needed.
+ */
+public class CompactDiff implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final DiffSegmentType[] SEGMENT_TYPES = DiffSegmentType.values();
+
+    private final Path source;
+    private final Path destination;
+    private final boolean binary;
+    private final boolean truncated;
+
+    private final char[] text;
+    //line i is text[lineOffsets[i]..lineOffsets[i+1])
+    private final int[] lineOffsets;
+    private final int[] sourceLines;
+    private final int[] destinationLines;
+    private final BitSet truncatedLines;
+
+    //segment i holds the lines segmentStarts[i]..segmentStarts[i+1]
+    private final int[] segmentStarts;
+    private final byte[] segmentTypes;
+    private final BitSet truncatedSegments;
+
+    //hunk i holds the segments hunkStarts[i]..hunkStarts[i+1]; 4 ints per hunk: sourceLine, sourceSpan, destinationLine, destinationSpan
+    private final int[] hunkStarts;
+    private final int[] hunkHeaders;
+    private final BitSet truncatedHunks;
+
+    private CompactDiff(Builder builder, Path source, Path destination, boolean binary, boolean truncated) {
+        this.source = source;
+        this.destination = destination;
+        this.binary = binary;
+        this.truncated = truncated;
+        this.text = Arrays.copyOf(builder.text, builder.textLength);
+        this.lineOffsets = Arrays.copyOf(builder.lineOffsets, builder.lineCount + 1);
+        this.sourceLines = Arrays.copyOf(builder.sourceLines, builder.lineCount);
+        this.destinationLines = Arrays.copyOf(builder.destinationLines, builder.lineCount);
+        this.truncatedLines = (BitSet) builder.truncatedLines.clone();
+        this.segmentStarts = Arrays.copyOf(builder.segmentStarts, builder.segmentCount + 1);
+        this.segmentTypes = Arrays.copyOf(builder.segmentTypes, builder.segmentCount);
+        this.truncatedSegments = (BitSet) builder.truncatedSegments.clone();
+        this.hunkStarts = Arrays.copyOf(builder.hunkStarts, builder.hunkCount + 1);
+        this.hunkHeaders = Arrays.copyOf(builder.hunkHeaders, builder.hunkCount * 4);
+        this.truncatedHunks = (BitSet) builder.truncatedHunks.clone();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static CompactDiff of(Diff diff) {
+        Builder builder = new Builder();
+        diff.getHunks().forEach(builder::addHunk);
+        return builder.build(diff.getSource(), diff.getDestination(), diff.isBinary(), diff.isTruncated());
+    }
+
+    public Path getSource() {
+        return source;
+    }
+
+    public Path getDestination() {
+        return destination;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public int getLineCount() {
+        return sourceLines.length;
+    }
+
+    /**
+     * @return the text of the line, a view over the shared buffer
+     */
+    public CharSequence getLineText(int line) {
+        return CharBuffer.wrap(text, lineOffsets[line], lineOffsets[line + 1] - lineOffsets[line]).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a copy of the text of the line
+     */
+    public String getLine(int line) {
+        return new String(text, lineOffsets[line], lineOffsets[line + 1] - lineOffsets[line]);
+    }
+
+    public int getSourceLine(int line) {
+        return sourceLines[line];
+    }
+
+    public int getDestinationLine(int line) {
+        return destinationLines[line];
+    }
+
+    public boolean isLineTruncated(int line) {
+        return truncatedLines.get(line);
+    }
+
+    /**
+     * @return the type of the segment holding the line
+     */
+    public DiffSegmentType getLineType(int line) {
+        if (line < 0 || line >= getLineCount())
+            throw new IndexOutOfBoundsException("line:" + line);
+        int index = Arrays.binarySearch(segmentStarts, 0, segmentTypes.length, line);
+        //several empty segments can start at the same line, the last one holds it
+        if (index >= 0) {
+            while (index + 1 < segmentTypes.length && segmentStarts[index + 1] == line)
+                index++;
+        } else {
+            index = -index - 2;
+        }
+        return type(segmentTypes[index]);
+    }
+
+    public int getHunkCount() {
+        return hunkStarts.length - 1;
+    }
+
+    /**
+     * @return the hunk rebuilt as objects
+     */
+    public DiffHunk getHunk(int hunk) {
+        List<DiffSegment> segments = new ArrayList<>(hunkStarts[hunk + 1] - hunkStarts[hunk]);
+        for (int segment = hunkStarts[hunk]; segment < hunkStarts[hunk + 1]; segment++) {
+            List<DiffLine> lines = new ArrayList<>(segmentStarts[segment + 1] - segmentStarts[segment]);
+            for (int line = segmentStarts[segment]; line < segmentStarts[segment + 1]; line++) {
+                lines.add(new DiffLine(destinationLines[line], getLine(line), sourceLines[line], truncatedLines.get(line)));
+            }
+            segments.add(new DiffSegment(lines, type(segmentTypes[segment]), truncatedSegments.get(segment)));
+        }
+        int header = hunk * 4;
+        return new DiffHunk(hunkHeaders[header + 2], hunkHeaders[header + 3], segments,
+                hunkHeaders[header], hunkHeaders[header + 1], truncatedHunks.get(hunk));
+    }
+
+    public Diff toDiff() {
+        List<DiffHunk> hunks = new ArrayList<>(getHunkCount());
+        for (int hunk = 0; hunk < getHunkCount(); hunk++) {
+            hunks.add(getHunk(hunk));
+        }
+        return new Diff(destination, hunks, source, binary, truncated);
+    }
+
+    private static DiffSegmentType type(byte ordinal) {
+        return ordinal < 0 ? null : SEGMENT_TYPES[ordinal];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompactDiff that = (CompactDiff) o;
+        return binary == that.binary &&
+                truncated == that.truncated &&
+                Objects.equals(source, that.source) &&
+                Objects.equals(destination, that.destination) &&
+                Arrays.equals(text, that.text) &&
+                Arrays.equals(lineOffsets, that.lineOffsets) &&
+                Arrays.equals(sourceLines, that.sourceLines) &&
+                Arrays.equals(destinationLines, that.destinationLines) &&
+                truncatedLines.equals(that.truncatedLines) &&
+                Arrays.equals(segmentStarts, that.segmentStarts) &&
+                Arrays.equals(segmentTypes, that.segmentTypes) &&
+                truncatedSegments.equals(that.truncatedSegments) &&
+                Arrays.equals(hunkStarts, that.hunkStarts) &&
+                Arrays.equals(hunkHeaders, that.hunkHeaders) &&
+                truncatedHunks.equals(that.truncatedHunks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(source, destination, binary, truncated, Arrays.hashCode(text), Arrays.hashCode(sourceLines),
+                Arrays.hashCode(destinationLines), Arrays.hashCode(hunkHeaders));
+    }
+
+    @Override
+    public String toString() {
+        return "CompactDiff{" +
+                "source=" + source +
+                ", destination=" + destination +
+                ", hunks=" + getHunkCount() +
+                ", lines=" + getLineCount() +
+                ", chars=" + text.length +
+                ", binary=" + binary +
+                ", truncated=" + truncated +
+                '}';
+    }
+
+    /**
+     * Appends the hunks of one file; the arrays grow like an ArrayList and are trimmed by build. The arrays indexed
+     * by line, segment or hunk grow together, the offset arrays keeping their one extra element.
+     */
+    public static class Builder {
+        private char[] text = new char[1024];
+        private int textLength;
+        private int[] lineOffsets = new int[65];
+        private int[] sourceLines = new int[64];
+        private int[] destinationLines = new int[64];
+        private final BitSet truncatedLines = new BitSet();
+        private int lineCount;
+        private int[] segmentStarts = new int[9];
+        private byte[] segmentTypes = new byte[8];
+        private final BitSet truncatedSegments = new BitSet();
+        private int segmentCount;
+        private int[] hunkStarts = new int[5];
+        private int[] hunkHeaders = new int[16];
+        private final BitSet truncatedHunks = new BitSet();
+        private int hunkCount;
+
+        private Builder() {
+        }
+
+        public Builder addHunk(DiffHunk hunk) {
+            if (hunkCount * 4 == hunkHeaders.length) {
+                hunkHeaders = Arrays.copyOf(hunkHeaders, hunkCount * 8);
+                hunkStarts = Arrays.copyOf(hunkStarts, hunkCount * 2 + 1);
+            }
+            int header = hunkCount * 4;
+            hunkHeaders[header] = hunk.getSourceLine();
+            hunkHeaders[header + 1] = hunk.getSourceSpan();
+            hunkHeaders[header + 2] = hunk.getDestinationLine();
+            hunkHeaders[header + 3] = hunk.getDestinationSpan();
+            truncatedHunks.set(hunkCount, hunk.isTruncated());
+            for (DiffSegment segment : hunk.getSegments()) {
+                addSegment(segment);
+            }
+            hunkCount++;
+            hunkStarts[hunkCount] = segmentCount;
+            return this;
+        }
+
+        private void addSegment(DiffSegment segment) {
+            if (segmentCount == segmentTypes.length) {
+                segmentTypes = Arrays.copyOf(segmentTypes, segmentCount * 2);
+                segmentStarts = Arrays.copyOf(segmentStarts, segmentCount * 2 + 1);
+            }
+            segmentTypes[segmentCount] = segment.getType() == null ? -1 : (byte) segment.getType().ordinal();
+            truncatedSegments.set(segmentCount, segment.isTruncated());
+            for (DiffLine line : segment.getLines()) {
+                addLine(line);
+            }
+            segmentCount++;
+            segmentStarts[segmentCount] = lineCount;
+        }
+
+        private void addLine(DiffLine line) {
+            if (lineCount == sourceLines.length) {
+                sourceLines = Arrays.copyOf(sourceLines, lineCount * 2);
+                destinationLines = Arrays.copyOf(destinationLines, lineCount * 2);
+                lineOffsets = Arrays.copyOf(lineOffsets, lineCount * 2 + 1);
+            }
+            String value = line.getLine() == null ? "" : line.getLine();
+            if (textLength + value.length() > text.length)
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + value.length()));
+            value.getChars(0, value.length(), text, textLength);
+            textLength += value.length();
+            sourceLines[lineCount] = line.getSource();
+            destinationLines[lineCount] = line.getDestination();
+            truncatedLines.set(lineCount, line.isTruncated());
+            lineCount++;
+            lineOffsets[lineCount] = textLength;
+        }
+
+        public CompactDiff build(Path source, Path destination, boolean binary, boolean truncated) {
+            return new CompactDiff(this, source, destination, binary, truncated);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.model.diff;
+
+import com.ccreanga.bitbucket.rest.client.model.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds a {@link CompactDiff} per file while the diff is streamed, only one hunk is held as objects at a time.
+ */
+public class CompactDiffCollector implements DiffVisitor {
+
+    private final List<CompactDiff> diffs = new ArrayList<>();
+    private CompactDiff.Builder current;
+
+    @Override
+    public void startDiff(Path source, Path destination) {
+        current = CompactDiff.builder();
+    }
+
+    @Override
+    public void hunk(DiffHunk hunk) {
+        current.addHunk(hunk);
+    }
+
+    @Override
+    public void endDiff(Path source, Path destination, boolean binary, boolean truncated) {
+        diffs.add(current.build(source, destination, binary, truncated));
+        current = null;
+    }
+
+    public List<CompactDiff> getDiffs() {
+        return Collections.unmodifiableList(diffs);
+    }
+}
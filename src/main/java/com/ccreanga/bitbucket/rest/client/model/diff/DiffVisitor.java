@@ -0,0 +1,42 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.model.diff;
+
+import com.ccreanga.bitbucket.rest.client.model.Path;
+
+/**
+ * Receives the diff of every file as it is parsed, one hunk at a time, so a large diff is never held in memory.
+ * For every file startDiff is called once, followed by the hunks in order and by endDiff.
+ * <p>
+ * startDiff receives the paths parsed before the first hunk (the server sends them first); if they come after the
+ * hunks, the hunks are buffered until the end of the file. endDiff always receives both paths.
+ */
+public interface DiffVisitor {
+
+    /**
+     * @param source      the source path, null for an added file
+     * @param destination the destination path, null for a deleted file
+     */
+    default void startDiff(Path source, Path destination) {
+    }
+
+    void hunk(DiffHunk hunk);
+
+    default void endDiff(Path source, Path destination, boolean binary, boolean truncated) {
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.model.pull.activity;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * The newest activity already seen on a pull request. The checkpoints are immutable and serializable, a daemon can
+ * store them and resume the synchronization after a restart.
+ */
+public class PullRequestActivityCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String projectKey;
+    private final String repositorySlug;
+    private final long pullRequestId;
+    private final long activityId;
+    private final Date createdDate;
+
+    public PullRequestActivityCheckpoint(String projectKey, String repositorySlug, long pullRequestId, long activityId, Date createdDate) {
+        this.projectKey = Objects.requireNonNull(projectKey);
+        this.repositorySlug = Objects.requireNonNull(repositorySlug);
+        this.pullRequestId = pullRequestId;
+        this.activityId = activityId;
+        this.createdDate = createdDate == null ? null : new Date(createdDate.getTime());
+    }
+
+    public String getProjectKey() {
+        return projectKey;
+    }
+
+    public String getRepositorySlug() {
+        return repositorySlug;
+    }
+
+    public long getPullRequestId() {
+        return pullRequestId;
+    }
+
+    /**
+     * @return the id of the newest activity seen
+     */
+    public long getActivityId() {
+        return activityId;
+    }
+
+    /**
+     * @return the creation date of the newest activity seen, can be null
+     */
+    public Date getCreatedDate() {
+        return createdDate == null ? null : new Date(createdDate.getTime());
+    }
+
+    /**
+     * @return true if the activity is not newer than this checkpoint. The ids grow with time, the date is used only
+     * when the activity has no id.
+     */
+    public boolean isSeen(PullRequestActivity activity) {
+        if (activity.getId() != null)
+            return activity.getId() <= activityId;
+        return createdDate != null && activity.getCreatedDate() != null && !activity.getCreatedDate().after(createdDate);
+    }
+
+    /**
+     * @return true if this checkpoint marks the same pull request as the other one and a newer activity
+     */
+    public boolean isNewerThan(PullRequestActivityCheckpoint other) {
+        return activityId > other.activityId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PullRequestActivityCheckpoint that = (PullRequestActivityCheckpoint) o;
+
+        if (pullRequestId != that.pullRequestId) return false;
+        if (activityId != that.activityId) return false;
+        if (!projectKey.equals(that.projectKey)) return false;
+        if (!repositorySlug.equals(that.repositorySlug)) return false;
+        return createdDate != null ? createdDate.equals(that.createdDate) : that.createdDate == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = projectKey.hashCode();
+        result = 31 * result + repositorySlug.hashCode();
+        result = 31 * result + (int) (pullRequestId ^ (pullRequestId >>> 32));
+        result = 31 * result + (int) (activityId ^ (activityId >>> 32));
+        result = 31 * result + (createdDate != null ? createdDate.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PullRequestActivityCheckpoint{" +
+                "projectKey='" + projectKey + '\'' +
+                ", repositorySlug='" + repositorySlug + '\'' +
+                ", pullRequestId=" + pullRequestId +
+                ", activityId=" + activityId +
+                ", createdDate=" + createdDate +
+                '}';
+    }
+}
@@ -0,0 +1,702 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.fakeserver;
+
+import com.ccreanga.bitbucket.rest.client.http.EndpointFamily;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestState;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An in-process Bitbucket Server answering the REST resources used by the clients (projects, repositories, branches,
+ * pull requests with their activities and changes, users, build statistics and ssh keys) from the generated
+ * {@link FakeFixtures}, with the Bitbucket paging (start, limit, isLastPage, nextPageStart). The latency, the error
+ * rate, the throttling (429) and the maximum number of concurrent requests (503) are configurable, so the client can be
+ * load tested and benchmarked without a Bitbucket instance. Every request is accepted whatever its credentials.
+ * <p>
+ * The responses are built on a cached pool of daemon threads. The JVM should run with
+ * -Dsun.net.httpserver.nodelay=true, which turns TCP_NODELAY on for the JDK http server, otherwise the delayed ACKs add
+ * 40ms to most of the blocking requests; the tests and the benchmarks set it.
+ */
+public class FakeBitbucketServer implements Closeable {
+
+    private static final String API = "/rest/api/1.0/";
+    private static final String BUILD_STATS = "/rest/build-status/latest/commits/stats";
+    private static final String USER_KEYS = "/rest/ssh/1.0/keys";
+    private static final String REPOSITORY_KEYS = "/rest/keys/1.0/projects/";
+
+    private final FakeFixtures fixtures;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String baseUrl;
+
+    private final int defaultPageLimit;
+    private final int maxPageLimit;
+    private final long[] latency;
+    private final Map<EndpointFamily, long[]> familyLatency;
+    private final double errorRate;
+    private final int errorStatusCode;
+    private final Throttle throttle;
+    private final boolean retryAfter;
+    private final Semaphore concurrency;
+    private final boolean compression;
+    private final boolean entityTags;
+
+    private final AtomicInteger failNext = new AtomicInteger();
+    private volatile int failNextStatusCode;
+
+    private final Map<EndpointFamily, LongAdder> requests = new EnumMap<>(EndpointFamily.class);
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    private FakeBitbucketServer(Builder builder) throws IOException {
+        this.defaultPageLimit = builder.defaultPageLimit;
+        this.maxPageLimit = builder.maxPageLimit;
+        this.latency = builder.latency;
+        this.familyLatency = new EnumMap<>(builder.familyLatency);
+        this.errorRate = builder.errorRate;
+        this.errorStatusCode = builder.errorStatusCode;
+        this.throttle = builder.throttleRate > 0 ? new Throttle(builder.throttleRate, builder.throttleBurst) : null;
+        this.retryAfter = builder.retryAfter;
+        this.concurrency = builder.maxConcurrentRequests > 0 ? new Semaphore(builder.maxConcurrentRequests) : null;
+        this.compression = builder.compression;
+        this.entityTags = builder.entityTags;
+        for (EndpointFamily family : EndpointFamily.values()) {
+            requests.put(family, new LongAdder());
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-bitbucket-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        fixtures = new FakeFixtures(builder, baseUrl);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the url to give to the client, http://localhost:port
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public FakeFixtures getFixtures() {
+        return fixtures;
+    }
+
+    /**
+     * Answers the next count requests with the status code, whatever the error rate.
+     */
+    public void failNext(int count, int statusCode) {
+        failNextStatusCode = statusCode;
+        failNext.set(count);
+    }
+
+    /**
+     * @return the number of requests received, including the rejected ones
+     */
+    public long getRequests() {
+        return requests.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getRequests(EndpointFamily family) {
+        return requests.get(family).sum();
+    }
+
+    /**
+     * @return the number of requests answered with 429 by the throttling
+     */
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    /**
+     * @return the number of requests answered with 503 because of too many concurrent requests
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the number of requests failed by the error rate or by failNext
+     */
+    public long getInjectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    /**
+     * @return the number of requests answered with 304
+     */
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getRawPath();
+            EndpointFamily family = EndpointFamily.of(path);
+            requests.get(family).increment();
+            if (concurrency != null && !concurrency.tryAcquire()) {
+                rejected.increment();
+                sendError(exchange, 503, "Too many concurrent requests");
+                return;
+            }
+            try {
+                serve(exchange, path, family);
+            } finally {
+                if (concurrency != null)
+                    concurrency.release();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void serve(HttpExchange exchange, String path, EndpointFamily family) throws IOException {
+        if (throttle != null) {
+            long wait = throttle.tryAcquire(System.nanoTime());
+            if (wait > 0) {
+                throttled.increment();
+                if (retryAfter)
+                    exchange.getResponseHeaders().set("Retry-After", String.valueOf((wait + 999_999_999) / 1_000_000_000));
+                sendError(exchange, 429, "Rate limit exceeded");
+                return;
+            }
+        }
+        sleep(family);
+        int injected = injectedStatusCode();
+        if (injected > 0) {
+            injectedErrors.increment();
+            sendError(exchange, injected, "Injected error");
+            return;
+        }
+
+        Content content;
+        try {
+            content = route(exchange, path, parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (IllegalArgumentException | IllegalStateException | JsonParseException e) {
+            //a malformed parameter or build statistics body
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        if (content == null) {
+            sendError(exchange, 404, "Not found: " + path);
+            return;
+        }
+        byte[] body = toBytes(content);
+        if (entityTags && exchange.getRequestMethod().equals("GET")) {
+            String etag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.increment();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+        send(exchange, 200, body);
+    }
+
+    private Content route(HttpExchange exchange, String path, Map<String, String> query) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.equals(BUILD_STATS)) {
+            if (!method.equals("POST"))
+                throw new IllegalArgumentException("POST expected");
+            JsonElement commits = new JsonParser().parse(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+            return out -> {
+                out.beginObject();
+                for (JsonElement commit : commits.getAsJsonArray()) {
+                    out.name(commit.getAsString());
+                    fixtures.writeBuildStats(out, commit.getAsString());
+                }
+                out.endObject();
+            };
+        }
+        if (!method.equals("GET"))
+            throw new IllegalArgumentException("GET expected");
+        if (path.equals(USER_KEYS))
+            return page(query, fixtures.getSshKeysPerRepository(), (out, i) -> fixtures.writeUserSshKey(out, i, "key-" + i));
+        if (path.startsWith(REPOSITORY_KEYS)) {
+            //{key}/repos/{slug}/ssh
+            String[] segments = path.substring(REPOSITORY_KEYS.length()).split("/");
+            if (segments.length != 4 || !segments[1].equals("repos") || !segments[3].equals("ssh"))
+                return null;
+            int project = fixtures.projectIndex(segments[0]);
+            int repository = fixtures.repositoryIndex(segments[2]);
+            if (project < 0 || repository < 0)
+                return null;
+            return page(query, fixtures.getSshKeysPerRepository(), (out, i) -> fixtures.writeRepositorySshKey(out, project, repository, i));
+        }
+        if (path.startsWith(API))
+            return api(path.substring(API.length()).split("/"), query);
+        return null;
+    }
+
+    private Content api(String[] segments, Map<String, String> query) {
+        switch (segments[0]) {
+            case "users":
+                return segments.length == 1 ? page(query, fixtures.getUsers(), fixtures::writeUser) : null;
+            case "application-properties":
+                return segments.length == 1 ? fixtures::writeApplicationProperties : null;
+            case "repos":
+                int repositories = fixtures.getRepositoriesPerProject();
+                return segments.length == 1 ? page(query, fixtures.getRepositories(),
+                        (out, i) -> fixtures.writeRepository(out, i / repositories, i % repositories)) : null;
+            case "projects":
+                break;
+            default:
+                return null;
+        }
+        if (segments.length == 1)
+            return page(query, fixtures.getProjects(), fixtures::writeProject);
+        int project = fixtures.projectIndex(segments[1]);
+        if (project < 0)
+            return null;
+        if (segments.length == 2)
+            return out -> fixtures.writeProject(out, project);
+        if (!segments[2].equals("repos"))
+            return null;
+        if (segments.length == 3)
+            return page(query, fixtures.getRepositoriesPerProject(), (out, i) -> fixtures.writeRepository(out, project, i));
+        int repository = fixtures.repositoryIndex(segments[3]);
+        if (repository < 0)
+            return null;
+        if (segments.length == 4)
+            return out -> fixtures.writeRepository(out, project, repository);
+        return repositoryResource(Arrays.copyOfRange(segments, 4, segments.length), query, project, repository);
+    }
+
+    private Content repositoryResource(String[] segments, Map<String, String> query, int project, int repository) {
+        switch (segments[0]) {
+            case "branches":
+                if (segments.length == 1)
+                    return page(query, fixtures.getBranchesPerRepository(), (out, i) -> fixtures.writeBranch(out, project, repository, i));
+                if (segments.length == 2 && segments[1].equals("default") && fixtures.getBranchesPerRepository() > 0)
+                    return out -> fixtures.writeBranch(out, project, repository, 0);
+                return null;
+            case "forks":
+                return segments.length == 1 ? page(query, 0, null) : null;
+            case "pull-requests":
+                break;
+            default:
+                return null;
+        }
+        if (segments.length == 1)
+            return pullRequests(query, project, repository);
+        int id = parseInt(segments[1], -1);
+        if (!fixtures.hasPullRequest(id))
+            return null;
+        if (segments.length == 2)
+            return out -> fixtures.writePullRequest(out, project, repository, id);
+        if (segments.length != 3)
+            return null;
+        switch (segments[2]) {
+            case "activities":
+                return page(query, fixtures.getActivitiesPerPullRequest(), (out, i) -> fixtures.writeActivity(out, project, repository, id, i));
+            case "changes":
+                return page(query, fixtures.getChangesPerPullRequest(), (out, i) -> fixtures.writeChange(out, project, repository, id, i));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Supports the state, order (NEWEST by default) and at filters; all the pull requests target master.
+     */
+    private Content pullRequests(Map<String, String> query, int project, int repository) {
+        PullRequestState state = PullRequestState.valueOf(query.getOrDefault("state", "OPEN"));
+        boolean oldestFirst = "OLDEST".equals(query.get("order"));
+        String at = query.get("at");
+        int[] ids = at == null || at.equals("refs/heads/master") || at.equals("master") ? fixtures.pullRequestIds(state) : new int[0];
+        return page(query, ids.length,
+                (out, i) -> fixtures.writePullRequest(out, project, repository, ids[oldestFirst ? ids.length - 1 - i : i]));
+    }
+
+    private Content page(Map<String, String> query, int total, FakeFixtures.ItemWriter item) {
+        int start = parseInt(query.get("start"), 0);
+        int limit = parseInt(query.get("limit"), defaultPageLimit);
+        if (start < 0)
+            throw new IllegalArgumentException("start should be positive not:" + start);
+        int pageLimit = limit <= 0 ? defaultPageLimit : Math.min(limit, maxPageLimit);
+        return out -> FakeFixtures.writePage(out, total, start, pageLimit, item);
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number:" + value);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null)
+            return parameters;
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0)
+                parameters.putIfAbsent(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"),
+                        URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+        }
+        return parameters;
+    }
+
+    private void sleep(EndpointFamily family) {
+        long[] delay = familyLatency.getOrDefault(family, latency);
+        long millis = delay[0] + (delay[1] > 0 ? ThreadLocalRandom.current().nextLong(delay[1] + 1) : 0);
+        if (millis <= 0)
+            return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int injectedStatusCode() {
+        if (failNext.get() > 0 && failNext.getAndDecrement() > 0)
+            return failNextStatusCode;
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate)
+            return errorStatusCode;
+        return 0;
+    }
+
+    private void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
+        send(exchange, statusCode, toBytes(out -> {
+            out.beginObject();
+            out.name("errors").beginArray();
+            out.beginObject().name("context").nullValue().name("message").value(message).name("exceptionName").nullValue().endObject();
+            out.endArray();
+            out.endObject();
+        }));
+    }
+
+    private void send(HttpExchange exchange, int statusCode, byte[] body) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (compression && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] toBytes(Content content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (JsonWriter out = new JsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            content.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private interface Content {
+        void write(JsonWriter out) throws IOException;
+    }
+
+    /**
+     * Token bucket rejecting the requests finding it empty, unlike the client one which makes them wait.
+     */
+    private static class Throttle {
+        private final double permitsPerNano;
+        private final double burst;
+        private double tokens;
+        private long lastRefill;
+
+        private Throttle(double permitsPerSecond, int burst) {
+            this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+            this.burst = Math.max(1, burst);
+            this.tokens = this.burst;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise the nanoseconds until the next token
+         */
+        private synchronized long tryAcquire(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+                lastRefill = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / permitsPerNano));
+        }
+    }
+
+    public static class Builder {
+        int projects = 5;
+        int repositoriesPerProject = 10;
+        int branchesPerRepository = 10;
+        int pullRequestsPerRepository = 50;
+        int activitiesPerPullRequest = 10;
+        int changesPerPullRequest = 20;
+        int users = 100;
+        int sshKeysPerRepository = 2;
+        long seed = 42;
+        private int port;
+        private int defaultPageLimit = 25;
+        private int maxPageLimit = 1000;
+        private long[] latency = {0, 0};
+        private final Map<EndpointFamily, long[]> familyLatency = new EnumMap<>(EndpointFamily.class);
+        private double errorRate;
+        private int errorStatusCode = 500;
+        private double throttleRate;
+        private int throttleBurst;
+        private boolean retryAfter = true;
+        private int maxConcurrentRequests;
+        private boolean compression;
+        private boolean entityTags;
+
+        private Builder() {
+        }
+
+        public Builder setProjects(int projects) {
+            this.projects = checkNotNegative("projects", projects);
+            return this;
+        }
+
+        public Builder setRepositoriesPerProject(int repositoriesPerProject) {
+            this.repositoriesPerProject = checkNotNegative("repositoriesPerProject", repositoriesPerProject);
+            return this;
+        }
+
+        public Builder setBranchesPerRepository(int branchesPerRepository) {
+            this.branchesPerRepository = checkNotNegative("branchesPerRepository", branchesPerRepository);
+            return this;
+        }
+
+        public Builder setPullRequestsPerRepository(int pullRequestsPerRepository) {
+            this.pullRequestsPerRepository = checkNotNegative("pullRequestsPerRepository", pullRequestsPerRepository);
+            return this;
+        }
+
+        /**
+         * @param activitiesPerPullRequest at least 1, the OPENED activity
+         */
+        public Builder setActivitiesPerPullRequest(int activitiesPerPullRequest) {
+            if (activitiesPerPullRequest <= 0)
+                throw new IllegalArgumentException("activitiesPerPullRequest should be greater than 0 not:" + activitiesPerPullRequest);
+            this.activitiesPerPullRequest = activitiesPerPullRequest;
+            return this;
+        }
+
+        public Builder setChangesPerPullRequest(int changesPerPullRequest) {
+            this.changesPerPullRequest = checkNotNegative("changesPerPullRequest", changesPerPullRequest);
+            return this;
+        }
+
+        public Builder setUsers(int users) {
+            if (users <= 0)
+                throw new IllegalArgumentException("users should be greater than 0 not:" + users);
+            this.users = users;
+            return this;
+        }
+
+        /**
+         * @param sshKeysPerRepository the number of access keys of each repository, also the number of keys of the
+         *                             current user
+         */
+        public Builder setSshKeysPerRepository(int sshKeysPerRepository) {
+            this.sshKeysPerRepository = checkNotNegative("sshKeysPerRepository", sshKeysPerRepository);
+            return this;
+        }
+
+        /**
+         * @param seed changes the generated hashes, users and build statistics
+         */
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @param port the port, 0 (default) for a free one
+         */
+        public Builder setPort(int port) {
+            this.port = checkNotNegative("port", port);
+            return this;
+        }
+
+        /**
+         * @param defaultPageLimit the page size when the request has no limit, 25 by default
+         * @param maxPageLimit     the largest page size, the larger limits are reduced to it, 1000 by default
+         */
+        public Builder setPageLimits(int defaultPageLimit, int maxPageLimit) {
+            if (defaultPageLimit <= 0)
+                throw new IllegalArgumentException("defaultPageLimit should be greater than 0 not:" + defaultPageLimit);
+            if (maxPageLimit < defaultPageLimit)
+                throw new IllegalArgumentException("maxPageLimit should be at least defaultPageLimit not:" + maxPageLimit);
+            this.defaultPageLimit = defaultPageLimit;
+            this.maxPageLimit = maxPageLimit;
+            return this;
+        }
+
+        /**
+         * @param latency the delay in milliseconds added to every response
+         * @param jitter  a random delay between 0 and jitter milliseconds added to the latency
+         */
+        public Builder setLatency(long latency, long jitter) {
+            this.latency = new long[]{checkNotNegative("latency", latency), checkNotNegative("jitter", jitter)};
+            return this;
+        }
+
+        /**
+         * Same as {@link #setLatency(long, long)} but only for the requests of the family
+         */
+        public Builder setLatency(EndpointFamily family, long latency, long jitter) {
+            if (family == null)
+                throw new IllegalArgumentException("family should not be null");
+            familyLatency.put(family, new long[]{checkNotNegative("latency", latency), checkNotNegative("jitter", jitter)});
+            return this;
+        }
+
+        /**
+         * @param errorRate  the fraction of the requests failing, between 0 and 1
+         * @param statusCode the status code of the failed requests
+         */
+        public Builder setErrorRate(double errorRate, int statusCode) {
+            if (errorRate < 0 || errorRate > 1)
+                throw new IllegalArgumentException("errorRate should be between 0 and 1 not:" + errorRate);
+            if (statusCode < 400 || statusCode > 599)
+                throw new IllegalArgumentException("statusCode should be between 400 and 599 not:" + statusCode);
+            this.errorRate = errorRate;
+            this.errorStatusCode = statusCode;
+            return this;
+        }
+
+        /**
+         * @param requestsPerSecond the sustained rate; the requests above it are answered with 429
+         * @param burst             the number of requests accepted at once after an idle period
+         */
+        public Builder setThrottle(double requestsPerSecond, int burst) {
+            if (requestsPerSecond <= 0)
+                throw new IllegalArgumentException("requestsPerSecond should be greater than 0 not:" + requestsPerSecond);
+            this.throttleRate = requestsPerSecond;
+            this.throttleBurst = burst;
+            return this;
+        }
+
+        /**
+         * @param retryAfter send the Retry-After header (in seconds) with the 429 responses, true by default
+         */
+        public Builder setRetryAfter(boolean retryAfter) {
+            this.retryAfter = retryAfter;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentRequests the requests above it are answered with 503 at once, 0 (default) for no limit
+         */
+        public Builder setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = checkNotNegative("maxConcurrentRequests", maxConcurrentRequests);
+            return this;
+        }
+
+        /**
+         * @param compression gzip the responses when the request accepts it, false by default
+         */
+        public Builder setCompression(boolean compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * @param entityTags send an ETag with the GET responses and answer with 304 when If-None-Match matches it,
+         *                   false by default
+         */
+        public Builder setEntityTags(boolean entityTags) {
+            this.entityTags = entityTags;
+            return this;
+        }
+
+        private static int checkNotNegative(String name, int value) {
+            if (value < 0)
+                throw new IllegalArgumentException(name + " should be positive not:" + value);
+            return value;
+        }
+
+        private static long checkNotNegative(String name, long value) {
+            if (value < 0)
+                throw new IllegalArgumentException(name + " should be positive not:" + value);
+            return value;
+        }
+
+        /**
+         * @return the started server, to be closed
+         */
+        public FakeBitbucketServer start() throws IOException {
+            return new FakeBitbucketServer(this);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.fakeserver;
+
+import com.ccreanga.bitbucket.rest.client.ProjectClient;
+import com.ccreanga.bitbucket.rest.client.Range;
+import com.ccreanga.bitbucket.rest.client.http.BitBucketClientConfig;
+import com.ccreanga.bitbucket.rest.client.http.BitBucketClientFactory;
+import com.ccreanga.bitbucket.rest.client.http.BitBucketCredentials;
+import com.ccreanga.bitbucket.rest.client.model.BuildStatsSummary;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.ccreanga.bitbucket.rest.client.model.Project;
+import com.ccreanga.bitbucket.rest.client.model.Task;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestState;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivityActionType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+public class FakeBitbucketServerTest {
+
+    private FakeBitbucketServer server;
+    private BitBucketClientFactory factory;
+
+    @After
+    public void tearDown() {
+        if (factory != null)
+            factory.shutdown();
+        if (server != null)
+            server.close();
+    }
+
+    private ProjectClient start(FakeBitbucketServer.Builder serverBuilder, BitBucketClientConfig config) throws IOException {
+        server = serverBuilder.start();
+        factory = new BitBucketClientFactory(server.getBaseUrl(), new BitBucketCredentials("user", "password"), config);
+        return factory.getProjectClient();
+    }
+
+    @Test
+    public void testPaging() throws IOException {
+        ProjectClient client = start(FakeBitbucketServer.builder().setProjects(7).setRepositoriesPerProject(3).setPageLimits(2, 4),
+                BitBucketClientConfig.builder().build());
+
+        Page<Project> page = client.getProjects(new Range(2, 10));
+        Assert.assertEquals(4, page.getSize());
+        Assert.assertEquals(4, page.getLimit());
+        Assert.assertFalse(page.isLastPage());
+        Assert.assertEquals(Integer.valueOf(6), page.getNextPageStart());
+        Assert.assertEquals("PRJ2", page.getValues().get(0).getKey());
+
+        page = client.getProjects(new Range(6, 4));
+        Assert.assertEquals(1, page.getSize());
+        Assert.assertTrue(page.isLastPage());
+
+        Assert.assertEquals(7, client.getProjects().size());
+        Assert.assertEquals(21, client.getAllRepositories().size());
+        Assert.assertEquals("repo-2", client.getRepositoryBySlug("PRJ6", "repo-2").get().getSlug());
+        Assert.assertFalse(client.getProjectByKey("PRJ7").isPresent());
+        Assert.assertFalse(client.getRepositoryBySlug("PRJ0", "repo-3").isPresent());
+    }
+
+    @Test
+    public void testPullRequests() throws IOException {
+        ProjectClient client = start(FakeBitbucketServer.builder().setProjects(1).setRepositoriesPerProject(1).
+                        setPullRequestsPerRepository(40).setActivitiesPerPullRequest(8).setChangesPerPullRequest(30),
+                BitBucketClientConfig.builder().build());
+        FakeFixtures fixtures = server.getFixtures();
+
+        List<PullRequest> merged = client.streamPullRequests("PRJ0", "repo-0", PullRequestState.MERGED, true, null, false, null, null, null).
+                collect(Collectors.toList());
+        Assert.assertEquals(fixtures.getPullRequests(PullRequestState.MERGED), merged.size());
+        Assert.assertEquals(5, merged.get(0).getId());
+        Assert.assertTrue(merged.stream().allMatch(pullRequest -> pullRequest.getState() == PullRequestState.MERGED));
+        Assert.assertEquals(40, client.getPullRequests("PRJ0", "repo-0", null, true, null).size());
+
+        List<PullRequestActivity> activities = client.streamPullRequestsActivities("PRJ0", "repo-0", 5L).collect(Collectors.toList());
+        Assert.assertEquals(8, activities.size());
+        Assert.assertEquals(PullRequestActivityActionType.MERGED, activities.get(0).getActionType());
+        Assert.assertEquals(PullRequestActivityActionType.OPENED, activities.get(7).getActionType());
+        Assert.assertEquals(30, client.getPullRequestsChanges("PRJ0", "repo-0", 5L, null).size());
+        Assert.assertEquals(fixtures.getUsers(), client.getUsers().size());
+
+        List<String> commits = Arrays.asList(fixtures.branchCommit(0, 0, 0), fixtures.branchCommit(0, 0, 1));
+        Map<String, BuildStatsSummary> summaries = factory.getBuildStatusClient().getBuildSummaries(commits);
+        Assert.assertEquals(commits.size(), summaries.size());
+        Assert.assertEquals(fixtures.getSshKeysPerRepository(), factory.getSshClient().getRepositoryKeys("PRJ0", "repo-0", new Range(0, 10)).getSize());
+    }
+
+    @Test
+    public void testRevalidatedUrlReadWithTwoAdapters() throws IOException {
+        ProjectClient client = start(FakeBitbucketServer.builder().setProjects(1).setRepositoriesPerProject(1).
+                        setPullRequestsPerRepository(5).setActivitiesPerPullRequest(8).setEntityTags(true),
+                BitBucketClientConfig.builder().build());
+
+        //the tasks are read from the activities url
+        Range range = new Range(0, 25);
+        for (int i = 0; i < 2; i++) {
+            Page<PullRequestActivity> activities = client.getPullRequestsActivities("PRJ0", "repo-0", 5L, range);
+            Assert.assertEquals(8, activities.getSize());
+            Assert.assertEquals(PullRequestActivityActionType.MERGED, activities.getValues().get(0).getActionType());
+            Page<Task> tasks = client.getPullRequestsTasks("PRJ0", "repo-0", 5L, range);
+            Assert.assertEquals(8, tasks.getSize());
+            Task task = tasks.getValues().get(0);
+            Assert.assertNotNull(task);
+        }
+        Assert.assertEquals(2, server.getNotModified());
+    }
+
+    @Test
+    public void testConcurrentUrlReadWithTwoAdapters() throws IOException {
+        ProjectClient client = start(FakeBitbucketServer.builder().setProjects(1).setRepositoriesPerProject(1).
+                        setPullRequestsPerRepository(5).setActivitiesPerPullRequest(8).setLatency(200, 0),
+                BitBucketClientConfig.builder().build());
+
+        Range range = new Range(0, 25);
+        CompletableFuture<Page<PullRequestActivity>> activities = client.getPullRequestsActivitiesAsync("PRJ0", "repo-0", 5L, range);
+        CompletableFuture<Page<PullRequestActivity>> sameActivities = client.getPullRequestsActivitiesAsync("PRJ0", "repo-0", 5L, range);
+        CompletableFuture<Page<Task>> tasks = client.getPullRequestsTasksAsync("PRJ0", "repo-0", 5L, range);
+
+        Assert.assertEquals(PullRequestActivityActionType.MERGED, activities.join().getValues().get(0).getActionType());
+        Assert.assertSame(activities.join(), sameActivities.join());
+        Task task = tasks.join().getValues().get(0);
+        Assert.assertNotNull(task);
+        //the activities are coalesced, the tasks are requested on their own
+        Assert.assertEquals(2, server.getRequests());
+    }
+
+    @Test
+    public void testInjectedErrorsAreRetried() throws IOException {
+        ProjectClient client = start(FakeBitbucketServer.builder(),
+                BitBucketClientConfig.builder().setMaxAttempts(3).setRetryInitialBackoff(1).setRetryMaxBackoff(5).build());
+
+        server.failNext(2, 503);
+        Assert.assertEquals(10, client.getProjectRepositories("PRJ0", new Range(0, 10)).getSize());
+        Assert.assertEquals(2, server.getInjectedErrors());
+        Assert.assertEquals(2, factory.getRetryStats().getStatusRetries());
+    }
+
+    @Test
+    public void testThrottling() throws IOException {
+        ProjectClient client = start(FakeBitbucketServer.builder().setThrottle(50, 1).setRetryAfter(false).
+                        setCompression(true).setPageLimits(10, 10),
+                BitBucketClientConfig.builder().setMaxAttempts(20).setRetryInitialBackoff(10).setRetryMaxBackoff(40).build());
+
+        //10 pages requested at once through a bucket holding one token
+        Assert.assertEquals(100, client.getUsers().size());
+        Assert.assertTrue(server.getThrottled() > 0);
+        Assert.assertTrue(factory.getRetryStats().getStatusRetries() > 0);
+        Assert.assertTrue(factory.getCompressionStats().getResponses() > 0);
+    }
+}
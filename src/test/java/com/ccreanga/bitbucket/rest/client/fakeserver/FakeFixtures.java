@@ -0,0 +1,495 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.fakeserver;
+
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequestState;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The content of the fake instance: every entity is computed from its indexes and the seed when it is written, so
+ * nothing is kept in memory and the same sizes and seed always give the same content. The projects are PRJ0, PRJ1...
+ * and their repositories repo-0, repo-1...; the pull request ids start at 1 and every 5th pull request is MERGED, every
+ * 7th one DECLINED, the others are OPEN.
+ */
+public class FakeFixtures {
+
+    private static final long EPOCH = 1_450_000_000_000L;
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final String PROJECT_PREFIX = "PRJ";
+    private static final String REPOSITORY_PREFIX = "repo-";
+    private static final String[] ACTIONS = {"COMMENTED", "RESCOPED", "APPROVED", "COMMENTED", "UPDATED", "REVIEWED"};
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final int projects;
+    private final int repositoriesPerProject;
+    private final int branchesPerRepository;
+    private final int pullRequestsPerRepository;
+    private final int activitiesPerPullRequest;
+    private final int changesPerPullRequest;
+    private final int users;
+    private final int sshKeysPerRepository;
+    private final long seed;
+    private final String baseUrl;
+    //the pull request ids of each state, newest first
+    private final Map<PullRequestState, int[]> pullRequestIds = new EnumMap<>(PullRequestState.class);
+
+    FakeFixtures(FakeBitbucketServer.Builder builder, String baseUrl) {
+        this.projects = builder.projects;
+        this.repositoriesPerProject = builder.repositoriesPerProject;
+        this.branchesPerRepository = builder.branchesPerRepository;
+        this.pullRequestsPerRepository = builder.pullRequestsPerRepository;
+        this.activitiesPerPullRequest = builder.activitiesPerPullRequest;
+        this.changesPerPullRequest = builder.changesPerPullRequest;
+        this.users = builder.users;
+        this.sshKeysPerRepository = builder.sshKeysPerRepository;
+        this.seed = builder.seed;
+        this.baseUrl = baseUrl;
+        for (PullRequestState state : PullRequestState.values()) {
+            pullRequestIds.put(state, IntStream.iterate(pullRequestsPerRepository, id -> id - 1).limit(pullRequestsPerRepository).
+                    filter(id -> state == PullRequestState.ALL || pullRequestState(id) == state).toArray());
+        }
+    }
+
+    public int getProjects() {
+        return projects;
+    }
+
+    public int getRepositoriesPerProject() {
+        return repositoriesPerProject;
+    }
+
+    public int getRepositories() {
+        return projects * repositoriesPerProject;
+    }
+
+    public int getBranchesPerRepository() {
+        return branchesPerRepository;
+    }
+
+    public int getPullRequestsPerRepository() {
+        return pullRequestsPerRepository;
+    }
+
+    public int getActivitiesPerPullRequest() {
+        return activitiesPerPullRequest;
+    }
+
+    public int getChangesPerPullRequest() {
+        return changesPerPullRequest;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getSshKeysPerRepository() {
+        return sshKeysPerRepository;
+    }
+
+    public String projectKey(int project) {
+        return PROJECT_PREFIX + project;
+    }
+
+    public String repositorySlug(int repository) {
+        return REPOSITORY_PREFIX + repository;
+    }
+
+    public PullRequestState pullRequestState(int id) {
+        if (id % 5 == 0)
+            return PullRequestState.MERGED;
+        if (id % 7 == 0)
+            return PullRequestState.DECLINED;
+        return PullRequestState.OPEN;
+    }
+
+    /**
+     * @param state the state, ALL for all of them
+     * @return the number of pull requests of each repository in that state
+     */
+    public int getPullRequests(PullRequestState state) {
+        return pullRequestIds.get(state).length;
+    }
+
+    /**
+     * @return the latest commit of a branch; the build statistics of a commit are the same everywhere
+     */
+    public String branchCommit(int project, int repository, int branch) {
+        return hash(mix(1, project, repository, branch));
+    }
+
+    /**
+     * @return the project index or -1 if there is no such project
+     */
+    int projectIndex(String key) {
+        return index(key, PROJECT_PREFIX, projects);
+    }
+
+    int repositoryIndex(String slug) {
+        return index(slug, REPOSITORY_PREFIX, repositoriesPerProject);
+    }
+
+    boolean hasPullRequest(long id) {
+        return id >= 1 && id <= pullRequestsPerRepository;
+    }
+
+    int[] pullRequestIds(PullRequestState state) {
+        return pullRequestIds.get(state);
+    }
+
+    private static int index(String value, String prefix, int count) {
+        if (!value.startsWith(prefix) || value.length() == prefix.length() || value.length() > prefix.length() + 9)
+            return -1;
+        int index = 0;
+        for (int i = prefix.length(); i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            index = index * 10 + (c - '0');
+        }
+        return index < count ? index : -1;
+    }
+
+    /**
+     * Writes the items [start, start + limit) of a collection having total items as a Bitbucket page.
+     */
+    static void writePage(JsonWriter out, int total, int start, int limit, ItemWriter item) throws IOException {
+        int size = Math.max(0, Math.min(limit, total - start));
+        boolean lastPage = start + size >= total;
+        out.beginObject();
+        out.name("size").value(size);
+        out.name("limit").value(limit);
+        out.name("isLastPage").value(lastPage);
+        out.name("values").beginArray();
+        for (int i = start; i < start + size; i++) {
+            item.write(out, i);
+        }
+        out.endArray();
+        out.name("start").value(start);
+        if (!lastPage)
+            out.name("nextPageStart").value(start + size);
+        out.endObject();
+    }
+
+    void writeUser(JsonWriter out, int user) throws IOException {
+        out.beginObject();
+        out.name("name").value("user" + user);
+        out.name("emailAddress").value("user" + user + "@example.com");
+        out.name("id").value(user + 1);
+        out.name("displayName").value("User " + user);
+        out.name("active").value(true);
+        out.name("slug").value("user" + user);
+        out.name("type").value("NORMAL");
+        out.endObject();
+    }
+
+    void writeProject(JsonWriter out, int project) throws IOException {
+        out.beginObject();
+        out.name("key").value(projectKey(project));
+        out.name("id").value(project + 1);
+        out.name("name").value("Project " + project);
+        out.name("description").value("Generated project " + project);
+        out.name("public").value(project % 2 == 0);
+        out.name("type").value("NORMAL");
+        out.name("links").beginObject();
+        out.name("self").beginArray().beginObject().name("href").value(baseUrl + "/projects/" + projectKey(project)).endObject().endArray();
+        out.endObject();
+        out.endObject();
+    }
+
+    void writeRepository(JsonWriter out, int project, int repository) throws IOException {
+        String slug = repositorySlug(repository);
+        String path = projectKey(project).toLowerCase() + "/" + slug + ".git";
+        out.beginObject();
+        out.name("slug").value(slug);
+        out.name("id").value(repositoryId(project, repository));
+        out.name("name").value(slug);
+        out.name("scmId").value("git");
+        out.name("state").value("AVAILABLE");
+        out.name("statusMessage").value("Available");
+        out.name("forkable").value(true);
+        out.name("project");
+        writeProject(out, project);
+        out.name("public").value(false);
+        out.name("links").beginObject();
+        out.name("clone").beginArray();
+        out.beginObject().name("href").value("ssh://git@localhost:7999/" + path).name("name").value("ssh").endObject();
+        out.beginObject().name("href").value(baseUrl + "/scm/" + path).name("name").value("http").endObject();
+        out.endArray();
+        out.name("self").beginArray().beginObject().name("url").value(baseUrl + "/projects/" + projectKey(project) + "/repos/" + slug + "/browse").endObject().endArray();
+        out.endObject();
+        out.endObject();
+    }
+
+    void writeBranch(JsonWriter out, int project, int repository, int branch) throws IOException {
+        out.beginObject();
+        out.name("id").value("refs/heads/" + branchName(branch));
+        out.name("displayId").value(branchName(branch));
+        out.name("latestChangeset").value(branchCommit(project, repository, branch));
+        out.name("isDefault").value(branch == 0);
+        out.endObject();
+    }
+
+    void writePullRequest(JsonWriter out, int project, int repository, int id) throws IOException {
+        PullRequestState state = pullRequestState(id);
+        long createdDate = pullRequestDate(project, repository, id);
+        int author = user(2, project, repository, id);
+        out.beginObject();
+        out.name("id").value(id);
+        out.name("version").value(id % 3);
+        out.name("title").value("Pull request " + id);
+        out.name("description").value("Generated pull request " + id + " of " + projectKey(project) + "/" + repositorySlug(repository));
+        out.name("state").value(state.name());
+        out.name("open").value(state == PullRequestState.OPEN);
+        out.name("closed").value(state != PullRequestState.OPEN);
+        out.name("createdDate").value(createdDate);
+        out.name("updatedDate").value(createdDate + (state == PullRequestState.OPEN ? HOUR / 2 : 24 * HOUR));
+        out.name("fromRef");
+        writeRef(out, project, repository, 1 + id % Math.max(1, branchesPerRepository - 1));
+        out.name("toRef");
+        writeRef(out, project, repository, 0);
+        out.name("locked").value(false);
+        out.name("author");
+        writeParticipant(out, author, "AUTHOR", false);
+        out.name("reviewers").beginArray();
+        writeParticipant(out, (author + 1) % users, "REVIEWER", state == PullRequestState.MERGED || id % 2 == 0);
+        out.endArray();
+        out.name("participants").beginArray().endArray();
+        out.name("links").beginObject();
+        out.name("self").beginArray().beginObject().name("href").
+                value(baseUrl + "/projects/" + projectKey(project) + "/repos/" + repositorySlug(repository) + "/pull-requests/" + id).endObject().endArray();
+        out.endObject();
+        out.endObject();
+    }
+
+    /**
+     * Writes the activity at the position of the list, the newest one being the first; the oldest one is always
+     * OPENED and the newest one of a merged or declined pull request MERGED or DECLINED.
+     */
+    void writeActivity(JsonWriter out, int project, int repository, int pullRequest, int position) throws IOException {
+        int index = activitiesPerPullRequest - 1 - position;
+        long id = ((long) (repositoryId(project, repository) - 1) * pullRequestsPerRepository + pullRequest - 1) * activitiesPerPullRequest + index + 1;
+        long createdDate = pullRequestDate(project, repository, pullRequest) + index * MINUTE;
+        PullRequestState state = pullRequestState(pullRequest);
+        String action;
+        if (index == 0)
+            action = "OPENED";
+        else if (index == activitiesPerPullRequest - 1 && state != PullRequestState.OPEN)
+            action = state.name();
+        else
+            action = ACTIONS[index % ACTIONS.length];
+        int user = user(3, id, 0, 0);
+        out.beginObject();
+        out.name("id").value(id);
+        out.name("createdDate").value(createdDate);
+        out.name("user");
+        writeUser(out, user);
+        out.name("action").value(action);
+        if (action.equals("COMMENTED")) {
+            out.name("commentAction").value("ADDED");
+            out.name("comment").beginObject();
+            out.name("properties").beginObject().name("repositoryId").value(repositoryId(project, repository)).endObject();
+            out.name("id").value(id);
+            out.name("version").value(0);
+            out.name("text").value("Comment " + index + " on pull request " + pullRequest);
+            out.name("author");
+            writeUser(out, user);
+            out.name("createdDate").value(createdDate);
+            out.name("updatedDate").value(createdDate);
+            out.name("comments").beginArray().endArray();
+            out.name("permittedOperations").beginObject().name("editable").value(false).name("deletable").value(false).endObject();
+            out.endObject();
+        } else if (action.equals("RESCOPED")) {
+            String fromHash = hash(mix(4, id, 0, 0));
+            String previousFromHash = hash(mix(4, id, 1, 0));
+            String toHash = branchCommit(project, repository, 0);
+            out.name("fromHash").value(fromHash);
+            out.name("previousFromHash").value(previousFromHash);
+            out.name("previousToHash").value(toHash);
+            out.name("toHash").value(toHash);
+            out.name("added").beginObject();
+            out.name("commits").beginArray();
+            writeCommit(out, fromHash, previousFromHash, user, createdDate);
+            out.endArray();
+            out.name("total").value(1);
+            out.endObject();
+            out.name("removed").beginObject().name("commits").beginArray().endArray().name("total").value(0).endObject();
+        }
+        out.endObject();
+    }
+
+    void writeChange(JsonWriter out, int project, int repository, int pullRequest, int change) throws IOException {
+        long h = mix(5, repositoryId(project, repository), pullRequest, change);
+        String type = change % 10 == 0 ? "ADD" : change % 10 == 1 ? "MOVE" : "MODIFY";
+        out.beginObject();
+        out.name("contentId").value(hash(h));
+        if (!type.equals("ADD"))
+            out.name("fromContentId").value(hash(mix(h)));
+        out.name("path");
+        writePath(out, change, "File" + change + ".java");
+        if (type.equals("MOVE")) {
+            out.name("srcPath");
+            writePath(out, change, "Old" + change + ".java");
+        }
+        out.name("executable").value(false);
+        out.name("percentUnchanged").value(-1);
+        out.name("type").value(type);
+        out.name("nodeType").value("FILE");
+        out.name("srcExecutable").value(false);
+        out.name("links").beginObject();
+        out.name("self").beginArray().beginObject().name("href").
+                value(baseUrl + "/projects/" + projectKey(project) + "/repos/" + repositorySlug(repository) + "/browse/src/module" + change % 8 + "/File" + change + ".java").endObject().endArray();
+        out.endObject();
+        out.endObject();
+    }
+
+    /**
+     * Writes made up build statistics of a commit, derived from its hash.
+     */
+    void writeBuildStats(JsonWriter out, String commit) throws IOException {
+        long h = mix(6, commit.hashCode(), 0, 0);
+        out.beginObject();
+        out.name("successful").value(h & 3);
+        out.name("inProgress").value((h >>> 2) & 1);
+        out.name("failed").value(((h >>> 3) & 3) == 0 ? 1 : 0);
+        out.endObject();
+    }
+
+    void writeRepositorySshKey(JsonWriter out, int project, int repository, int key) throws IOException {
+        out.beginObject();
+        out.name("key");
+        writeUserSshKey(out, repositoryId(project, repository) * sshKeysPerRepository + key, "deploy-" + key);
+        out.name("repository");
+        writeRepository(out, project, repository);
+        out.name("permission").value(key % 2 == 0 ? "REPO_READ" : "REPO_WRITE");
+        out.endObject();
+    }
+
+    void writeUserSshKey(JsonWriter out, int key, String label) throws IOException {
+        out.beginObject();
+        out.name("id").value(key + 1);
+        out.name("text").value("ssh-rsa AAAAB3NzaC1yc2E" + hash(mix(7, key, 0, 0)) + " " + label + "@example.com");
+        out.name("label").value(label);
+        out.endObject();
+    }
+
+    void writeApplicationProperties(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("version").value("4.0.0");
+        out.name("buildNumber").value("4000000");
+        out.name("buildDate").value(String.valueOf(EPOCH));
+        out.name("displayName").value("Bitbucket");
+        out.endObject();
+    }
+
+    private void writeRef(JsonWriter out, int project, int repository, int branch) throws IOException {
+        out.beginObject();
+        out.name("id").value("refs/heads/" + branchName(branch));
+        out.name("displayId").value(branchName(branch));
+        out.name("latestCommit").value(branchCommit(project, repository, branch));
+        out.name("repository").beginObject();
+        out.name("slug").value(repositorySlug(repository));
+        out.name("name").value(repositorySlug(repository));
+        out.name("project").beginObject().name("key").value(projectKey(project)).endObject();
+        out.endObject();
+        out.endObject();
+    }
+
+    private void writeParticipant(JsonWriter out, int user, String role, boolean approved) throws IOException {
+        out.beginObject();
+        out.name("user");
+        writeUser(out, user);
+        out.name("role").value(role);
+        out.name("approved").value(approved);
+        out.endObject();
+    }
+
+    private void writeCommit(JsonWriter out, String id, String parent, int user, long timestamp) throws IOException {
+        out.beginObject();
+        out.name("id").value(id);
+        out.name("displayId").value(id.substring(0, 11));
+        out.name("author").beginObject().name("name").value("user" + user).name("emailAddress").value("user" + user + "@example.com").endObject();
+        out.name("authorTimestamp").value(timestamp);
+        out.name("message").value("Change " + id.substring(0, 7));
+        out.name("parents").beginArray().beginObject().name("id").value(parent).name("displayId").value(parent.substring(0, 11)).endObject().endArray();
+        out.endObject();
+    }
+
+    private static void writePath(JsonWriter out, int change, String name) throws IOException {
+        String module = "module" + change % 8;
+        out.beginObject();
+        out.name("components").beginArray().value("src").value(module).value(name).endArray();
+        out.name("parent").value("src/" + module);
+        out.name("name").value(name);
+        out.name("toString").value("src/" + module + "/" + name);
+        out.endObject();
+    }
+
+    private static String branchName(int branch) {
+        return branch == 0 ? "master" : "feature-" + branch;
+    }
+
+    private int repositoryId(int project, int repository) {
+        return project * repositoriesPerProject + repository + 1;
+    }
+
+    private long pullRequestDate(int project, int repository, int id) {
+        return EPOCH + id * HOUR + repositoryId(project, repository) * MINUTE;
+    }
+
+    private int user(long kind, long a, long b, long c) {
+        return (int) Math.floorMod(mix(kind, a, b, c), (long) users);
+    }
+
+    private long mix(long kind, long a, long b, long c) {
+        return mix(mix(mix(mix(seed ^ kind) ^ a) ^ b) ^ c);
+    }
+
+    /**
+     * The 64 bit finalizer of MurmurHash3
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * @return a 40 characters hex string looking like a commit hash
+     */
+    private static String hash(long h) {
+        char[] chars = new char[40];
+        long value = h;
+        for (int i = 0; i < chars.length; i++) {
+            if (i % 16 == 0 && i > 0)
+                value = mix(value + i);
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    interface ItemWriter {
+        void write(JsonWriter out, int index) throws IOException;
+    }
+}
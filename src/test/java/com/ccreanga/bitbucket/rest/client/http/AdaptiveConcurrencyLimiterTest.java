@@ -0,0 +1,74 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void testRequestsOverTheLimitWait() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 2, 2);
+        AtomicInteger started = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            limiter.acquireAsync(started::incrementAndGet);
+        }
+        Assert.assertEquals(2, started.get());
+        limiter.release(1_000_000);
+        Assert.assertEquals(3, started.get());
+        limiter.release();
+        Assert.assertEquals(4, started.get());
+        Assert.assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    public void testMultiplicativeDecreaseAdditiveIncrease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 20, 2);
+        limiter.acquireAsync(() -> {
+        });
+        limiter.releaseOverloaded();
+        Assert.assertEquals((int) (20 * AdaptiveConcurrencyLimiter.BACKOFF_RATIO), limiter.getLimit());
+
+        //about one more slot per limit requests completed normally
+        int limit = limiter.getLimit();
+        for (int i = 0; i < 2 * limit + 2; i++) {
+            limiter.acquireAsync(() -> {
+            });
+            limiter.release(0);
+        }
+        Assert.assertEquals(limit + 2, limiter.getLimit());
+    }
+
+    @Test
+    public void testLatencySpikeDecreases() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 10, 2);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquireAsync(() -> {
+            });
+            limiter.release(1_000);
+        }
+        Assert.assertEquals(10, limiter.getLimit());
+        limiter.acquireAsync(() -> {
+        });
+        limiter.release(1_000_000);
+        Assert.assertEquals(7, limiter.getLimit());
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BitBucketHttpExecutorTest {
+
+    @Test(timeout = 10000)
+    public void testSlotIsReleasedWhenTheRequestCanNotBeCreated() {
+        BitBucketHttpExecutor executor = new BitBucketHttpExecutor("http://localhost:1", new BitBucketCredentials("user", "password"),
+                BitBucketClientConfig.builder().setBulkheadLimit(EndpointFamily.PROJECTS, 1).setMaxAttempts(1).build());
+        try {
+            //the space is not a valid url character, the request fails before being sent
+            HttpRequest request = new HttpRequest("/rest/api/1.0/projects/A B", HttpMethod.GET, null);
+            for (int i = 0; i < 3; i++) {
+                try {
+                    executor.execute(request);
+                    Assert.fail();
+                } catch (IllegalArgumentException e) {
+                    //the bulkhead slot was given back, otherwise the next attempt would block
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
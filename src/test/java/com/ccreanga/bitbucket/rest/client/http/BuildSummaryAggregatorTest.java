@@ -0,0 +1,80 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.model.BuildStatsSummary;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class BuildSummaryAggregatorTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<String>> requests = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized CompletableFuture<Map<String, BuildStatsSummary>> send(List<String> commits) {
+        requests.add(commits);
+        Map<String, BuildStatsSummary> summaries = new HashMap<>();
+        for (String commit : commits) {
+            BuildStatsSummary.Builder builder = BuildStatsSummary.builder();
+            builder.setSuccessful((long) commit.length());
+            summaries.put(commit, builder.build());
+        }
+        return CompletableFuture.completedFuture(summaries);
+    }
+
+    @Test
+    public void testLookupsMergedUntilTheWindowElapses() throws Exception {
+        BuildSummaryAggregator aggregator = new BuildSummaryAggregator(this::send, 50, 100, scheduler);
+        CompletableFuture<Map<String, BuildStatsSummary>> first = aggregator.getBuildSummaries(Arrays.asList("a", "bb"));
+        CompletableFuture<Map<String, BuildStatsSummary>> second = aggregator.getBuildSummaries(Arrays.asList("bb", "ccc"));
+        Assert.assertFalse(first.isDone());
+
+        Assert.assertEquals(2, first.get(5, TimeUnit.SECONDS).size());
+        Assert.assertEquals(Long.valueOf(3), second.get(5, TimeUnit.SECONDS).get("ccc").getSuccessful());
+        Assert.assertFalse(second.get().containsKey("a"));
+        Assert.assertEquals(Arrays.asList(Arrays.asList("a", "bb", "ccc")), requests);
+    }
+
+    @Test
+    public void testFullBatchSentImmediately() {
+        BuildSummaryAggregator aggregator = new BuildSummaryAggregator(this::send, 60_000, 3, scheduler);
+        CompletableFuture<Map<String, BuildStatsSummary>> first = aggregator.getBuildSummaries(Arrays.asList("a", "b"));
+        CompletableFuture<Map<String, BuildStatsSummary>> second = aggregator.getBuildSummaries(Arrays.asList("c"));
+        Assert.assertTrue(first.isDone());
+        Assert.assertTrue(second.isDone());
+        Assert.assertEquals(1, requests.size());
+        //the next lookup starts a new batch
+        Assert.assertFalse(aggregator.getBuildSummaries(Arrays.asList("d")).isDone());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.model.BuildStatsSummary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class BuildSummaryBatcherTest {
+
+    private final List<List<String>> requests = new ArrayList<>();
+    private final List<CompletableFuture<Map<String, BuildStatsSummary>>> inFlight = new ArrayList<>();
+
+    private CompletableFuture<Map<String, BuildStatsSummary>> send(List<String> commits) {
+        requests.add(new ArrayList<>(commits));
+        CompletableFuture<Map<String, BuildStatsSummary>> future = new CompletableFuture<>();
+        inFlight.add(future);
+        return future;
+    }
+
+    //the commits whose name starts with "running" have a build in progress
+    private void completeAll() {
+        while (!inFlight.isEmpty()) {
+            CompletableFuture<Map<String, BuildStatsSummary>> future = inFlight.remove(0);
+            Map<String, BuildStatsSummary> summaries = new HashMap<>();
+            for (String commit : requests.get(requests.size() - inFlight.size() - 1)) {
+                summaries.put(commit, summary(commit.startsWith("running") ? 1L : 0L));
+            }
+            future.complete(summaries);
+        }
+    }
+
+    private static BuildStatsSummary summary(long inProgress) {
+        BuildStatsSummary.Builder builder = BuildStatsSummary.builder();
+        builder.setInProgress(inProgress);
+        builder.setSuccessful(1L);
+        builder.setFailed(0L);
+        return builder.build();
+    }
+
+    @Test
+    public void testChunksAndParallelism() {
+        BuildSummaryBatcher batcher = new BuildSummaryBatcher(this::send, 10, 2, 0);
+        List<String> commits = IntStream.range(0, 45).mapToObj(i -> "c" + i).collect(Collectors.toList());
+
+        CompletableFuture<Map<String, BuildStatsSummary>> result = batcher.getBuildSummaries(commits);
+        //only parallelism chunks in flight
+        Assert.assertEquals(2, inFlight.size());
+        inFlight.remove(0).complete(new HashMap<>());
+        Assert.assertEquals(3, requests.size());
+        while (requests.size() < 5 || !inFlight.isEmpty()) {
+            inFlight.remove(0).complete(new HashMap<>());
+        }
+        Assert.assertTrue(result.isDone());
+        Assert.assertEquals(Arrays.asList(10, 10, 10, 10, 5), requests.stream().map(List::size).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFinishedSummariesAreCached() {
+        BuildSummaryBatcher batcher = new BuildSummaryBatcher(this::send, 100, 4, 100);
+        CompletableFuture<Map<String, BuildStatsSummary>> first = batcher.getBuildSummaries(Arrays.asList("done", "running", "done"));
+        Assert.assertEquals(Arrays.asList("done", "running"), requests.get(0));
+        completeAll();
+        Assert.assertEquals(2, first.join().size());
+
+        CompletableFuture<Map<String, BuildStatsSummary>> second = batcher.getBuildSummaries(Arrays.asList("done", "running"));
+        Assert.assertEquals(Arrays.asList("running"), requests.get(1));
+        completeAll();
+        Assert.assertEquals(summary(0), second.join().get("done"));
+        Assert.assertEquals(summary(1), second.join().get("running"));
+
+        Assert.assertTrue(batcher.getBuildSummaries(Arrays.asList("done")).isDone());
+        Assert.assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testFailure() {
+        BuildSummaryBatcher batcher = new BuildSummaryBatcher(this::send, 1, 1, 0);
+        CompletableFuture<Map<String, BuildStatsSummary>> result = batcher.getBuildSummaries(Arrays.asList("a", "b", "c"));
+        inFlight.remove(0).completeExceptionally(new BitBucketException("failed"));
+        Assert.assertTrue(result.isCompletedExceptionally());
+        //the remaining chunks are not sent
+        Assert.assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void testChunkFunctionThrowing() {
+        BuildSummaryBatcher batcher = new BuildSummaryBatcher(commits -> {
+            requests.add(commits);
+            throw new BitBucketException("failed");
+        }, 1, 1, 0);
+        CompletableFuture<Map<String, BuildStatsSummary>> result = batcher.getBuildSummaries(Arrays.asList("a", "b", "c"));
+        Assert.assertTrue(result.isCompletedExceptionally());
+        Assert.assertEquals(1, requests.size());
+    }
+}
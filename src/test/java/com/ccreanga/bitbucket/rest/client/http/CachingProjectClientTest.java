@@ -0,0 +1,130 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.ProjectClient;
+import com.ccreanga.bitbucket.rest.client.model.Project;
+import com.ccreanga.bitbucket.rest.client.model.ProjectType;
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.RepositoryState;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ConcurrentHashMultiset;
+import com.google.common.collect.Multiset;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+public class CachingProjectClientTest {
+
+    private static final Project PROJECT = new Project("P", 1, "project", null, false, false, ProjectType.NORMAL, null);
+    private static final Repository REPOSITORY = new Repository(null, 1, "repo", "Repo", false, false, true,
+            null, null, null, PROJECT, null, "git", RepositoryState.AVAILABLE, "Available");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final Multiset<String> calls = ConcurrentHashMultiset.create();
+    private BiFunction<String, Object[], Object> answer;
+    private CachingProjectClient client;
+
+    @Before
+    public void setUp() {
+        //records every call as "method[arguments]" and delegates the result to answer
+        ProjectClient delegate = (ProjectClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ProjectClient.class},
+                (proxy, method, args) -> {
+                    calls.add(method.getName() + Arrays.toString(args));
+                    return answer.apply(method.getName(), args);
+                });
+        client = CachingProjectClient.builder(delegate)
+                .setMaximumSize(2)
+                .setProjectTtl(1_000)
+                .setTicker(ticker)
+                .build();
+    }
+
+    @Test
+    public void testHitsAndExpiration() {
+        answer = (method, args) -> Optional.of(PROJECT);
+
+        Assert.assertSame(PROJECT, client.getProjectByKey("P").get());
+        Assert.assertSame(PROJECT, client.getProjectByKey("P").get());
+        Assert.assertEquals(1, calls.count("getProjectByKey[P]"));
+        Assert.assertEquals(1, client.getProjectStats().hitCount());
+        Assert.assertEquals(1, client.getProjectStats().missCount());
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_001));
+        client.getProjectByKey("P");
+        Assert.assertEquals(2, calls.count("getProjectByKey[P]"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        answer = (method, args) -> Optional.empty();
+        client.getProjectByKey("A");
+        client.getProjectByKey("B");
+        client.getProjectByKey("A");
+        client.getProjectByKey("C");
+        client.getProjectByKey("A");
+        client.getProjectByKey("B");
+        Assert.assertEquals(1, calls.count("getProjectByKey[A]"));
+        Assert.assertEquals(2, calls.count("getProjectByKey[B]"));
+    }
+
+    @Test
+    public void testWritesInvalidate() {
+        answer = (method, args) -> method.equals("createRepository") ? REPOSITORY : Optional.empty();
+
+        client.getRepositoryBySlug("P", "repo");
+        client.createRepository("P", "Repo", "git", true);
+        client.getRepositoryBySlug("P", "repo");
+        Assert.assertEquals(2, calls.count("getRepositoryBySlug[P, repo]"));
+
+        client.deleteProject("P");
+        client.getRepositoryBySlug("P", "repo");
+        Assert.assertEquals(3, calls.count("getRepositoryBySlug[P, repo]"));
+    }
+
+    @Test
+    public void testAsyncFailuresAreNotCached() {
+        answer = (method, args) -> {
+            CompletableFuture<Optional<Project>> result = new CompletableFuture<>();
+            if (calls.count("getProjectByKeyAsync[P]") == 1)
+                result.completeExceptionally(new BitBucketException("failed"));
+            else
+                result.complete(Optional.empty());
+            return result;
+        };
+
+        Assert.assertTrue(client.getProjectByKeyAsync("P").isCompletedExceptionally());
+        Assert.assertFalse(client.getProjectByKeyAsync("P").join().isPresent());
+        Assert.assertFalse(client.getProjectByKeyAsync("P").join().isPresent());
+        Assert.assertEquals(2, calls.count("getProjectByKeyAsync[P]"));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CircuitBreakerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static void assertRejected(CircuitBreaker circuitBreaker, long now) {
+        try {
+            circuitBreaker.acquirePermission(now);
+            Assert.fail();
+        } catch (CircuitBreakerOpenException e) {
+            Assert.assertEquals(EndpointFamily.PULL_REQUESTS, e.getEndpointFamily());
+        }
+    }
+
+    @Test
+    public void testOpensOnFailureRate() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(EndpointFamily.PULL_REQUESTS, 10, 4, 0.5, 1000);
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.acquirePermission(0);
+            circuitBreaker.onOutcome(true, 0);
+        }
+        //not enough calls yet
+        Assert.assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+        circuitBreaker.acquirePermission(0);
+        circuitBreaker.onOutcome(false, 0);
+        Assert.assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        assertRejected(circuitBreaker, SECOND / 2);
+        Assert.assertEquals(1, circuitBreaker.getRejected());
+    }
+
+    @Test
+    public void testStaysClosedBelowThreshold() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(EndpointFamily.PULL_REQUESTS, 10, 4, 0.5, 1000);
+        for (int i = 0; i < 100; i++) {
+            circuitBreaker.acquirePermission(0);
+            circuitBreaker.onOutcome(i % 3 == 1, 0);
+        }
+        Assert.assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenProbe() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(EndpointFamily.PULL_REQUESTS, 2, 2, 0.5, 1000);
+        circuitBreaker.onOutcome(true, 0);
+        circuitBreaker.onOutcome(true, 0);
+        Assert.assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+
+        //the probe fails, the breaker opens again
+        circuitBreaker.acquirePermission(SECOND);
+        Assert.assertEquals(CircuitBreakerState.HALF_OPEN, circuitBreaker.getState());
+        assertRejected(circuitBreaker, SECOND);
+        circuitBreaker.onOutcome(true, SECOND);
+        Assert.assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        assertRejected(circuitBreaker, SECOND + SECOND / 2);
+
+        //a cancelled probe lets another one through, a successful probe closes the breaker
+        circuitBreaker.acquirePermission(2 * SECOND);
+        circuitBreaker.onCancel();
+        circuitBreaker.acquirePermission(2 * SECOND);
+        circuitBreaker.onOutcome(false, 2 * SECOND);
+        Assert.assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+        circuitBreaker.acquirePermission(2 * SECOND);
+    }
+
+    @Test
+    public void testBulkhead() {
+        ConcurrencyLimiter bulkhead = new ConcurrencyLimiter(2);
+        AtomicInteger started = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            bulkhead.acquireAsync(started::incrementAndGet);
+        }
+        Assert.assertEquals(2, started.get());
+        Assert.assertEquals(3, bulkhead.getWaiting());
+        bulkhead.release();
+        Assert.assertEquals(3, started.get());
+        Assert.assertEquals(2, bulkhead.getInFlight());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class ConditionalRequestCacheTest {
+
+    private static final String URL = "/rest/api/1.0/projects/P";
+
+    @Test
+    public void testRevalidation() throws Exception {
+        ConditionalRequestCache cache = new ConditionalRequestCache(10);
+        HttpGet first = new HttpGet(URL);
+        Assert.assertNull(cache.prepare(URL, first));
+        Assert.assertNull(first.getFirstHeader(HttpUtil.IF_NONE_MATCH));
+
+        Object value = new Object();
+        cache.store(URL, new HttpResponse(200, "OK", ImmutableMap.of("etag", "\"1\"", "last-modified", "Mon, 05 Oct 2026 10:00:00 GMT"), null), value);
+
+        HttpGet second = new HttpGet(URL);
+        ConditionalRequestCache.Entry entry = cache.prepare(URL, second);
+        Assert.assertEquals("\"1\"", second.getFirstHeader(HttpUtil.IF_NONE_MATCH).getValue());
+        Assert.assertEquals("Mon, 05 Oct 2026 10:00:00 GMT", second.getFirstHeader(HttpUtil.IF_MODIFIED_SINCE).getValue());
+        Assert.assertSame(value, cache.notModified(URL, entry, stored -> null));
+        Assert.assertEquals(1, cache.getNotModifiedCount());
+    }
+
+    @Test
+    public void testValuesAreKeptByResultKey() throws Exception {
+        ConditionalRequestCache cache = new ConditionalRequestCache(10);
+        Object activities = new Object();
+        cache.store(URL, "activities", new HttpResponse(200, "OK", ImmutableMap.of("ETag", "\"1\""), null), activities, null);
+
+        HttpGet request = new HttpGet(URL);
+        Assert.assertNull(cache.prepare(URL, "tasks", request));
+        Assert.assertNull(request.getFirstHeader(HttpUtil.IF_NONE_MATCH));
+        Object tasks = new Object();
+        cache.store(URL, "tasks", new HttpResponse(200, "OK", ImmutableMap.of("ETag", "\"1\""), null), tasks, null);
+
+        Assert.assertSame(activities, cache.notModified(URL, "activities", cache.prepare(URL, "activities", new HttpGet(URL)), stored -> null));
+        Assert.assertSame(tasks, cache.notModified(URL, "tasks", cache.prepare(URL, "tasks", new HttpGet(URL)), stored -> null));
+    }
+
+    @Test
+    public void testResponseWithoutValidatorsDropsTheEntry() {
+        ConditionalRequestCache cache = new ConditionalRequestCache(10);
+        cache.store(URL, new HttpResponse(200, "OK", ImmutableMap.of("ETag", "\"1\""), null), new Object());
+        cache.store(URL, new HttpResponse(200, "OK", Collections.emptyMap(), null), new Object());
+
+        HttpGet request = new HttpGet(URL);
+        Assert.assertNull(cache.prepare(URL, request));
+        Assert.assertNull(request.getFirstHeader(HttpUtil.IF_NONE_MATCH));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class ContentDecoderTest {
+
+    private static final byte[] CONTENT = Strings.repeat("{\"name\":\"value\"}", 1000).getBytes(StandardCharsets.UTF_8);
+
+    private static HttpEntity encoded(String encoding) throws IOException {
+        return encoded(encoding, false);
+    }
+
+    private static HttpEntity encoded(String encoding, boolean rawDeflate) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = encoding.equals("gzip") ? new GZIPOutputStream(out) :
+                new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, rawDeflate))) {
+            deflater.write(CONTENT);
+        }
+        ByteArrayEntity entity = new ByteArrayEntity(out.toByteArray());
+        entity.setContentEncoding(encoding);
+        return entity;
+    }
+
+    @Test
+    public void testInflate() throws IOException {
+        ContentDecoder decoder = new ContentDecoder();
+        HttpEntity gzip = encoded("gzip");
+        try (InputStream in = decoder.decode(gzip).getContent()) {
+            Assert.assertArrayEquals(CONTENT, ByteStreams.toByteArray(in));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        decoder.decode(encoded("deflate")).writeTo(out);
+        Assert.assertArrayEquals(CONTENT, out.toByteArray());
+
+        CompressionStats stats = decoder.getStats();
+        Assert.assertEquals(2, stats.getResponses());
+        Assert.assertEquals(2 * CONTENT.length, stats.getUncompressedBytes());
+        Assert.assertTrue(stats.getCompressedBytes() >= gzip.getContentLength());
+        Assert.assertTrue(stats.getCompressionRatio() < 0.1);
+    }
+
+    @Test
+    public void testRawDeflate() throws IOException {
+        try (InputStream in = new ContentDecoder().decode(encoded("deflate", true)).getContent()) {
+            Assert.assertArrayEquals(CONTENT, ByteStreams.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void testIdentity() {
+        ContentDecoder decoder = new ContentDecoder();
+        HttpEntity entity = new ByteArrayEntity(CONTENT);
+        Assert.assertSame(entity, decoder.decode(entity));
+        Assert.assertEquals(0, decoder.getStats().getResponses());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+public class DiskResponseStoreTest {
+
+    private static final String URL = "/rest/api/1.0/projects?start=0";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static HttpResponse response(String eTag) {
+        return new HttpResponse(200, "OK", ImmutableMap.of("ETag", eTag, "Content-Type", "application/json;charset=UTF-8"), null);
+    }
+
+    @Test
+    public void testRevalidationAfterRestart() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        ConditionalRequestCache cache = new ConditionalRequestCache(10, new DiskResponseStore(directory, "user@server", 1 << 20, 60_000));
+        cache.store(URL, response("\"1\""), new Object(), "{\"values\":[\"é\"]}");
+
+        //a new process: nothing in memory, the validators come from the disk
+        DiskResponseStore store = new DiskResponseStore(directory, "user@server", 1 << 20, 60_000);
+        Assert.assertTrue(store.getSize() > 0);
+        ConditionalRequestCache restarted = new ConditionalRequestCache(10, store);
+        HttpGet request = new HttpGet(URL);
+        ConditionalRequestCache.Entry entry = restarted.prepare(URL, request);
+        Assert.assertEquals("\"1\"", request.getFirstHeader(HttpUtil.IF_NONE_MATCH).getValue());
+        String value = restarted.notModified(URL, entry, HttpResponse::getBody);
+        Assert.assertEquals("{\"values\":[\"é\"]}", value);
+        //rebuilt once, then served from memory
+        Assert.assertSame(value, restarted.notModified(URL, restarted.prepare(URL, new HttpGet(URL)), stored -> "parsed again"));
+
+        //another user does not see the entry
+        ConditionalRequestCache otherUser = new ConditionalRequestCache(10, new DiskResponseStore(directory, "other@server", 1 << 20, 60_000));
+        Assert.assertNull(otherUser.prepare(URL, new HttpGet(URL)));
+    }
+
+    @Test
+    public void testExpiredEntriesAreDropped() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        DiskResponseStore store = new DiskResponseStore(directory, "", 1 << 20, 60_000);
+        store.store(URL, response("\"1\""), "[]");
+        Assert.assertNotNull(store.load(URL));
+        File[] files = folder.getRoot().listFiles();
+        Assert.assertEquals(1, files.length);
+        Files.setLastModifiedTime(files[0].toPath(), FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(2)));
+        Assert.assertNull(store.load(URL));
+        Assert.assertEquals(0, folder.getRoot().listFiles().length);
+        Assert.assertEquals(0, store.getSize());
+    }
+
+    @Test
+    public void testEvictsTheLeastRecentlyValidated() throws Exception {
+        DiskResponseStore store = new DiskResponseStore(folder.getRoot().toPath(), "", 10_000, 60_000);
+        char[] body = new char[900];
+        for (int i = 0; i < 20; i++) {
+            store.store(URL + i, response("\"" + i + "\""), new String(body));
+            //the first entry is revalidated all the time
+            store.validated(URL + 0);
+            //distinct modification times
+            Thread.sleep(5);
+        }
+        Assert.assertTrue(store.getSize() <= 10_000);
+        Assert.assertNotNull(store.load(URL + 0));
+        Assert.assertNotNull(store.load(URL + 19));
+        Assert.assertNull(store.load(URL + 1));
+        //too large for the store
+        store.store(URL, response("\"1\""), new String(new char[2000]));
+        Assert.assertNull(store.load(URL));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.ProjectClient;
+import com.ccreanga.bitbucket.rest.client.model.Branch;
+import com.ccreanga.bitbucket.rest.client.model.Project;
+import com.ccreanga.bitbucket.rest.client.model.ProjectType;
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.RepositoryState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class InstanceCrawlerTest {
+
+    private final AtomicInteger branchListings = new AtomicInteger();
+    private final AtomicInteger maxBranchListings = new AtomicInteger();
+
+    //3 projects with 4 repositories each, every repository has 5 branches except P1/r2 whose listing fails
+    private final ProjectClient client = (ProjectClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ProjectClient.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "streamProjects":
+                        return IntStream.range(0, 3).mapToObj(i -> project("P" + i));
+                    case "streamProjectRepositories":
+                        return IntStream.range(0, 4).mapToObj(i -> repository((String) args[0], "r" + i));
+                    case "streamBranches":
+                        if (args[0].equals("P1") && args[1].equals("r2"))
+                            throw new BitBucketException("failed");
+                        return branches();
+                    case "streamPullRequests":
+                        return Stream.empty();
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+
+    private static Project project(String key) {
+        return new Project(key, 1, key, null, false, false, ProjectType.NORMAL, null);
+    }
+
+    private static Repository repository(String projectKey, String slug) {
+        return new Repository(null, 1, slug, slug, false, false, true,
+                null, null, null, project(projectKey), null, "git", RepositoryState.AVAILABLE, "Available");
+    }
+
+    private Stream<Branch> branches() {
+        int running = branchListings.incrementAndGet();
+        maxBranchListings.accumulateAndGet(running, Math::max);
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        branchListings.decrementAndGet();
+        return IntStream.range(0, 5).mapToObj(i -> new Branch("refs/heads/b" + i, "b" + i, "0", i == 0));
+    }
+
+    @Test
+    public void testCrawl() throws Exception {
+        Set<String> branches = ConcurrentHashMap.newKeySet();
+        List<String> errors = new ArrayList<>();
+        List<CrawlProgress> reports = new ArrayList<>();
+        InstanceCrawler crawler = InstanceCrawler.builder(client)
+                .setParallelism(6)
+                .setLevelConcurrency(CrawlLevel.BRANCHES, 2)
+                .setProgressListener(progress -> {
+                    synchronized (reports) {
+                        reports.add(progress);
+                    }
+                }, 60_000)
+                .build();
+
+        CrawlProgress progress = crawler.crawl(new SnapshotSink() {
+            @Override
+            public void onBranch(Repository repository, Branch branch) {
+                branches.add(repository.getProject().getKey() + "/" + repository.getSlug() + "/" + branch.getDisplayId());
+            }
+
+            @Override
+            public synchronized void onError(CrawlLevel level, String key, Throwable error) {
+                errors.add(level + " " + key);
+            }
+        }).get(10, TimeUnit.SECONDS);
+
+        Assert.assertTrue(progress.isDone());
+        Assert.assertEquals(3, progress.getFound(CrawlLevel.PROJECTS));
+        Assert.assertEquals(12, progress.getFound(CrawlLevel.REPOSITORIES));
+        Assert.assertEquals(55, progress.getFound(CrawlLevel.BRANCHES));
+        Assert.assertEquals(55, branches.size());
+        Assert.assertEquals(11, progress.getCompleted(CrawlLevel.BRANCHES));
+        Assert.assertEquals(12, progress.getCompleted(CrawlLevel.PULL_REQUESTS));
+        Assert.assertEquals(1, progress.getTotalFailed());
+        Assert.assertEquals("[BRANCHES P1/r2]", errors.toString());
+        Assert.assertEquals(0, progress.getPending());
+        Assert.assertTrue(maxBranchListings.get() <= 2);
+        //the final progress is reported as well
+        Assert.assertTrue(reports.get(reports.size() - 1).isDone());
+    }
+}
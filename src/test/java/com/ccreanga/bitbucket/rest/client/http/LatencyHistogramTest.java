@@ -0,0 +1,93 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsAreContiguous() {
+        for (int index = 1; index < LatencyHistogram.indexOf(1L << 40); index++) {
+            Assert.assertEquals(LatencyHistogram.highestValueAt(index - 1) + 1, LatencyHistogram.lowestValueAt(index));
+            Assert.assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.lowestValueAt(index)));
+            Assert.assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.highestValueAt(index)));
+        }
+    }
+
+    @Test
+    public void testPercentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram(1_000_000_000L);
+        Random random = new Random(1);
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            //log-normal like latencies between 100us and a few seconds
+            long value = (long) Math.exp(5 + random.nextDouble() * 10);
+            values.add(value);
+            histogram.record(value);
+        }
+        values.sort(null);
+        HistogramSnapshot snapshot = histogram.getSnapshot();
+        Assert.assertEquals(values.size(), snapshot.getCount());
+        Assert.assertEquals(values.get(values.size() - 1).longValue(), snapshot.getMax());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = values.get((int) Math.ceil(percentile / 100 * values.size()) - 1);
+            long reported = snapshot.getValueAtPercentile(percentile);
+            Assert.assertTrue(percentile + ": " + exact + " " + reported, reported >= exact && reported <= exact * 1.04);
+        }
+    }
+
+    @Test
+    public void testClampsAndConcurrentRecords() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 2000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        HistogramSnapshot snapshot = histogram.getSnapshot();
+        Assert.assertEquals(40_000, snapshot.getCount());
+        Assert.assertEquals(1000, snapshot.getMax());
+        Assert.assertEquals(1000, snapshot.getValueAtPercentile(100));
+        Assert.assertEquals(0, new LatencyHistogram(1000).getSnapshot().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testEndpointTemplate() {
+        Assert.assertEquals("/projects/{key}/repos/{slug}/pull-requests/{id}/activities",
+                EndpointTemplate.of("/rest/api/1.0/projects/PRJ/repos/my-repo/pull-requests/12/activities?start=0&limit=25"));
+        Assert.assertEquals("/projects/{key}/repos", EndpointTemplate.of("/rest/api/1.0/projects/~USER/repos?start=0"));
+        Assert.assertEquals("/projects/{key}/repos/{slug}/branches/default",
+                EndpointTemplate.of("/rest/api/1.0/projects/PRJ/repos/r/branches/default"));
+        Assert.assertEquals("/rest/build-status/latest/commits/stats", EndpointTemplate.of("/rest/build-status/latest/commits/stats"));
+        Assert.assertEquals("/rest/build-status/1.0/commits/{id}", EndpointTemplate.of("/rest/build-status/1.0/commits/a1b2c3"));
+        Assert.assertEquals("/rest/keys/1.0/projects/{key}/repos/{slug}/ssh", EndpointTemplate.of("/rest/keys/1.0/projects/P/repos/r/ssh?start=0"));
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.http.codec.BinaryReader;
+import com.ccreanga.bitbucket.rest.client.http.codec.ModelCodecs;
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.Parsers;
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.TestUtil;
+import com.ccreanga.bitbucket.rest.client.model.Commit;
+import com.ccreanga.bitbucket.rest.client.model.MinimalCommit;
+import com.ccreanga.bitbucket.rest.client.model.pull.PullRequest;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivityActionType;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class MappedResultStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static PullRequestActivity activity(String name) {
+        return Parsers.pullRequestActivityParser(101).apply(new JsonParser().parse(TestUtil.loadString(name)));
+    }
+
+    private static Commit commit(int i) {
+        return new Commit(String.format("%040x", i), String.format("%011x", i), "Jane Citizen", "jane@example.com",
+                1359085920L + i, "commit " + i, Collections.singletonList(new MinimalCommit(String.format("%040x", i + 1), "abc")));
+    }
+
+    @Test
+    public void testAppendLookupAndReopen() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("activities.store");
+        PullRequestActivity commented = activity("pull_requests_activities_commented.json");
+        PullRequestActivity rescoped = activity("pull_requests_activities_rescoped.json");
+        PullRequestActivity merged = activity("pull_requests_activities_merged.json");
+
+        try (MappedResultStore<PullRequestActivity> store = new MappedResultStore<>(file, RecordType.PULL_REQUEST_ACTIVITIES)) {
+            //the samples share the same id
+            store.append("commented", commented);
+            store.append("rescoped", rescoped);
+            store.append("merged", merged);
+            Assert.assertEquals(3, store.size());
+            StoredRecord<PullRequestActivity> record = store.get("rescoped");
+            Assert.assertEquals(PullRequestActivityActionType.RESCOPED.ordinal(), record.getTag());
+            Assert.assertEquals(rescoped.getCreatedDate().getTime(), record.getTimestamp());
+            Assert.assertEquals(rescoped, record.get());
+            Assert.assertNull(store.get("missing"));
+        }
+
+        try (MappedResultStore<PullRequestActivity> store = new MappedResultStore<>(file, RecordType.PULL_REQUEST_ACTIVITIES)) {
+            Assert.assertEquals(3, store.size());
+            List<PullRequestActivity> activities = new ArrayList<>();
+            for (StoredRecord<PullRequestActivity> record : store) {
+                activities.add(record.get());
+            }
+            Assert.assertEquals(commented, activities.get(0));
+            Assert.assertEquals(rescoped, activities.get(1));
+            Assert.assertEquals(merged.getId(), activities.get(2).getId());
+            Assert.assertEquals(merged.getCreatedDate(), activities.get(2).getCreatedDate());
+
+            //the last record of a key wins
+            store.append("commented", merged);
+            Assert.assertEquals(4, store.size());
+            Assert.assertEquals(3, store.get("commented").getOrdinal());
+            Assert.assertEquals(1, store.get("rescoped").getOrdinal());
+        }
+    }
+
+    @Test
+    public void testRecordsDoNotSpanSegments() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("commits.store");
+        int count = 500;
+        try (MappedResultStore<Commit> store = new MappedResultStore<>(file, RecordType.COMMITS, 4096)) {
+            for (int i = 0; i < count; i++) {
+                store.append(commit(i));
+            }
+            Assert.assertTrue(store.getDataSize() > 10 * 4096);
+        }
+        Assert.assertTrue(Files.size(file) < 30 * 4096);
+
+        try (MappedResultStore<Commit> store = new MappedResultStore<>(file, RecordType.COMMITS, 4096)) {
+            Assert.assertEquals(count, store.size());
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(commit(i), store.read(String.format("%040x", i)));
+            }
+            //the key of a commit is its id, the value bytes decode without the key
+            Assert.assertEquals(commit(9), ModelCodecs.COMMIT.read(new BinaryReader(store.get(String.format("%040x", 9)).getValueBytes())));
+            Assert.assertEquals(1, store.getRecord(7).getTag());
+            Assert.assertEquals(1359085927L, store.getRecord(7).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testInterruptedRecordIsCleared() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("commits.store");
+        long interrupted;
+        try (MappedResultStore<Commit> store = new MappedResultStore<>(file, RecordType.COMMITS, 4096)) {
+            for (int i = 0; i < 3; i++) {
+                store.append(commit(i));
+            }
+            interrupted = store.offsetOf(2);
+        }
+        //the length of the last record was not written
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), interrupted);
+        }
+        long fileSize = Files.size(file);
+
+        try (MappedResultStore<Commit> store = new MappedResultStore<>(file, RecordType.COMMITS, 4096)) {
+            Assert.assertEquals(2, store.size());
+            Assert.assertEquals(interrupted, store.getDataSize());
+            byte[] bytes = Files.readAllBytes(file);
+            for (long i = interrupted; i < fileSize; i++) {
+                Assert.assertEquals(0, bytes[(int) i]);
+            }
+            store.append(commit(3));
+            Assert.assertEquals(commit(3), store.read(String.format("%040x", 3)));
+        }
+    }
+
+    @Test
+    public void testPullRequestKey() throws Exception {
+        PullRequest pullRequest = Parsers.pullRequestParser().apply(new JsonParser().parse(TestUtil.loadString("pull_requests.json")));
+        try (MappedResultStore<PullRequest> store = new MappedResultStore<>(folder.getRoot().toPath().resolve("pr.store"), RecordType.PULL_REQUESTS)) {
+            store.append(pullRequest);
+            String key = pullRequest.getTo().getProjectKey() + "/" + pullRequest.getTo().getRepositorySlug() + "/101";
+            Assert.assertEquals(pullRequest, store.read(key));
+            Assert.assertEquals(pullRequest, RecordType.PULL_REQUESTS.getCodec().read(new BinaryReader(store.get(key).getValueBytes())));
+        }
+    }
+}
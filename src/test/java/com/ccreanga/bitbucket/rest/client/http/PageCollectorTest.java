@@ -0,0 +1,143 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.Range;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class PageCollectorTest {
+
+    /**
+     * Simulates a paged resource with total elements; the server caps the page size at maxLimit
+     */
+    private static Page<Integer> page(Range range, int total, int maxLimit) {
+        int limit = Math.min(range.getLimit(), maxLimit);
+        int end = Math.min(total, range.getStart() + limit);
+        List<Integer> values = new ArrayList<>();
+        for (int i = range.getStart(); i < end; i++) {
+            values.add(i);
+        }
+        boolean lastPage = end >= total;
+        return new Page<>(values.size(), limit, lastPage, range.getStart(), lastPage ? null : end, values);
+    }
+
+    @Test
+    public void testSequential() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        Set<Integer> values = PageCollector.<Integer>collect(range -> {
+            requests.incrementAndGet();
+            return CompletableFuture.completedFuture(page(range, 950, 100));
+        }, 100, 1).get();
+        Assert.assertEquals(950, values.size());
+        Assert.assertEquals(10, requests.get());
+    }
+
+    @Test
+    public void testParallelUsesTheServerPageSize() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            AtomicInteger requests = new AtomicInteger();
+            Function<Range, CompletableFuture<Page<Integer>>> pageFunction = range -> {
+                requests.incrementAndGet();
+                return CompletableFuture.supplyAsync(() -> page(range, 1000, 25), executor);
+            };
+            Set<Integer> values = PageCollector.collect(pageFunction, 100, 4).get();
+            Assert.assertEquals(1000, values.size());
+            //40 pages plus at most parallelism-1 speculative requests past the end
+            Assert.assertTrue(requests.get() >= 40 && requests.get() <= 43);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testIrregularPagesRestartTheWindow() throws Exception {
+        //every page returns one element less than the limit, so the guessed offsets are always wrong
+        Set<Integer> values = PageCollector.<Integer>collect(range -> {
+            Page<Integer> page = page(new Range(range.getStart(), range.getLimit() - 1), 100, 100);
+            return CompletableFuture.completedFuture(new Page<>(page.getSize(), range.getLimit(), page.isLastPage(),
+                    page.getStart(), page.getNextPageStart(), page.getValues()));
+        }, 10, 3).get();
+        Assert.assertEquals(100, values.size());
+    }
+
+    @Test
+    public void testManyCompletedPages() throws Exception {
+        //cached pages are already completed, the walk should not recurse once per page
+        Set<Integer> values = PageCollector.<Integer>collect(range -> CompletableFuture.completedFuture(page(range, 100_000, 10)), 10, 2).get();
+        Assert.assertEquals(100_000, values.size());
+    }
+
+    @Test
+    public void testNegativeNextPageStartEndsTheWalk() throws Exception {
+        //the adapters read a missing nextPageStart as -1
+        Set<Integer> values = PageCollector.<Integer>collect(range -> {
+            Page<Integer> page = page(range, 1000, 100);
+            return CompletableFuture.completedFuture(range.getStart() == 0 ? page :
+                    new Page<>(page.getSize(), page.getLimit(), false, page.getStart(), -1, page.getValues()));
+        }, 100, 2).get();
+        Assert.assertEquals(200, values.size());
+    }
+
+    @Test
+    public void testPageFunctionThrowing() throws Exception {
+        CompletableFuture<Set<Integer>> result = PageCollector.collect(range -> {
+            if (range.getStart() >= 300)
+                throw new BitBucketException("failed");
+            return CompletableFuture.completedFuture(page(range, 1000, 100));
+        }, 100, 2);
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof BitBucketException);
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        CompletableFuture<Set<Integer>> result = PageCollector.collect(range -> {
+            if (range.getStart() >= 200) {
+                CompletableFuture<Page<Integer>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new BitBucketException("failed"));
+                return failed;
+            }
+            return CompletableFuture.completedFuture(page(range, 1000, 100));
+        }, 100, 2);
+        try {
+            result.join();
+            Assert.fail();
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof BitBucketException);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.Range;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+public class PageSpliteratorTest {
+
+    private static Page<Integer> page(Range range, int total) {
+        int end = Math.min(total, range.getStart() + range.getLimit());
+        List<Integer> values = new ArrayList<>();
+        for (int i = range.getStart(); i < end; i++) {
+            values.add(i);
+        }
+        boolean lastPage = end >= total;
+        return new Page<>(values.size(), range.getLimit(), lastPage, range.getStart(), lastPage ? null : end, values);
+    }
+
+    @Test
+    public void testAllPages() {
+        AtomicInteger requests = new AtomicInteger();
+        List<Integer> values = StreamSupport.stream(new PageSpliterator<Integer>(range -> {
+            requests.incrementAndGet();
+            return page(range, 250);
+        }, 100), false).collect(Collectors.toList());
+        Assert.assertEquals(250, values.size());
+        Assert.assertEquals(Integer.valueOf(249), values.get(249));
+        Assert.assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testShortCircuitStopsTheRequests() {
+        AtomicInteger requests = new AtomicInteger();
+        List<Integer> values = StreamSupport.stream(new PageSpliterator<Integer>(range -> {
+            requests.incrementAndGet();
+            return page(range, 10_000);
+        }, 100), false).filter(i -> i >= 150).limit(5).collect(Collectors.toList());
+        Assert.assertEquals(5, values.size());
+        Assert.assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testMissingNextPageStartEndsTheStream() {
+        AtomicInteger requests = new AtomicInteger();
+        List<Integer> values = StreamSupport.stream(new PageSpliterator<Integer>(range -> {
+            requests.incrementAndGet();
+            Page<Integer> page = page(range, 250);
+            return new Page<>(page.getSize(), page.getLimit(), false, page.getStart(), -1, page.getValues());
+        }, 100), false).collect(Collectors.toList());
+        Assert.assertEquals(100, values.size());
+        Assert.assertEquals(1, requests.get());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import com.ccreanga.bitbucket.rest.client.ProjectClient;
+import com.ccreanga.bitbucket.rest.client.Range;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivityCheckpoint;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestApprovedActivity;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+public class PullRequestActivitySyncTest {
+
+    //newest first, as returned by the server
+    private final List<PullRequestActivity> activities = new ArrayList<>();
+    private final List<Integer> pageStarts = new ArrayList<>();
+    private ProjectClient client;
+
+    @Before
+    public void setUp() {
+        client = (ProjectClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ProjectClient.class},
+                (proxy, method, args) -> {
+                    Range range = (Range) args[3];
+                    pageStarts.add(range.getStart());
+                    int end = Math.min(activities.size(), range.getStart() + range.getLimit());
+                    boolean last = end == activities.size();
+                    return CompletableFuture.completedFuture(new Page<>(end - range.getStart(), range.getLimit(), last,
+                            range.getStart(), last ? null : end, activities.subList(range.getStart(), end)));
+                });
+    }
+
+    private void add(long... ids) {
+        for (long id : ids) {
+            activities.add(0, new PullRequestApprovedActivity(id, new Date(id * 1000), null, 1));
+        }
+    }
+
+    private static List<Long> ids(List<PullRequestActivity> activities) {
+        return activities.stream().map(PullRequestActivity::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testDelta() {
+        PullRequestActivitySync sync = new PullRequestActivitySync(client, 2, new ArrayList<>());
+        add(1, 2, 3, 4, 5);
+        Assert.assertEquals("[1, 2, 3, 4, 5]", ids(sync.sync("P", "r", 1)).toString());
+        Assert.assertEquals(5, sync.getCheckpoint("P", "r", 1).getActivityId());
+
+        pageStarts.clear();
+        Assert.assertTrue(sync.sync("P", "r", 1).isEmpty());
+        Assert.assertEquals("[0]", pageStarts.toString());
+
+        pageStarts.clear();
+        add(6, 7, 8);
+        Assert.assertEquals("[6, 7, 8]", ids(sync.sync("P", "r", 1)).toString());
+        //stops on the page holding the mark
+        Assert.assertEquals("[0, 2]", pageStarts.toString());
+    }
+
+    @Test
+    public void testResumeFromSerializedCheckpoints() throws Exception {
+        PullRequestActivitySync sync = new PullRequestActivitySync(client);
+        add(1, 2);
+        sync.sync("P", "r", 1);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(sync.getCheckpoints());
+        }
+        @SuppressWarnings("unchecked")
+        List<PullRequestActivityCheckpoint> restored = (List<PullRequestActivityCheckpoint>)
+                new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        Assert.assertEquals(sync.getCheckpoints(), restored);
+
+        add(3);
+        PullRequestActivitySync resumed = new PullRequestActivitySync(client, 10, restored);
+        Assert.assertEquals("[3]", ids(resumed.sync("P", "r", 1)).toString());
+        resumed.reset("P", "r", 1);
+        Assert.assertEquals(3, resumed.sync("P", "r", 1).size());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestCoalescerTest {
+
+    @Test
+    public void testConcurrentCallsShareOneExecution() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> coalescer.execute("/users", () -> {
+                    calls.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new BitBucketException(e);
+                    }
+                    return new Object();
+                })));
+            }
+            //wait for the followers to join the call in flight
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (coalescer.getCoalesced() < 7 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            Object first = results.get(0).get();
+            for (Future<Object> result : results) {
+                Assert.assertSame(first, result.get());
+            }
+            Assert.assertEquals(1, calls.get());
+            Assert.assertEquals(7, coalescer.getCoalesced());
+            //the key is released after the call
+            Assert.assertNotSame(first, coalescer.execute("/users", Object::new));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncFailureIsShared() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CompletableFuture<CompletableFuture<String>> leader = new CompletableFuture<>();
+        CompletableFuture<String> first = coalescer.executeAsync("/projects/A", leader::complete);
+        CompletableFuture<String> second = coalescer.executeAsync("/projects/A", result -> Assert.fail());
+        //cancelling a caller future does not cancel the call
+        second.cancel(false);
+        CompletableFuture<String> third = coalescer.executeAsync("/projects/A", result -> Assert.fail());
+        leader.get().completeExceptionally(new ResourceNotFoundException("not found", 404, "Not Found"));
+        //the failure is not kept either
+        Assert.assertEquals("not shared", coalescer.execute("/projects/A", () -> "not shared"));
+        Assert.assertTrue(first.isCompletedExceptionally());
+        Assert.assertTrue(third.isCompletedExceptionally());
+        Assert.assertEquals(2, coalescer.getCoalesced());
+    }
+
+    @Test
+    public void testAsyncCallThrowingReleasesTheKey() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        try {
+            coalescer.<String>executeAsync("/projects/A", result -> {
+                throw new BitBucketException("failed");
+            });
+            Assert.fail();
+        } catch (BitBucketException e) {
+            Assert.assertEquals("failed", e.getMessage());
+        }
+        Assert.assertEquals("sent", coalescer.<String>executeAsync("/projects/A", result -> result.complete("sent")).get());
+        Assert.assertEquals(0, coalescer.getCoalesced());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.Date;
+
+public class RetryPolicyTest {
+
+    private static final HttpRequest GET = new HttpRequest("/rest/api/1.0/projects", HttpMethod.GET, null);
+    private static final HttpRequest POST = new HttpRequest("/rest/api/1.0/projects", HttpMethod.POST, "{}");
+
+    private static RetryPolicy policy() {
+        return new RetryPolicy(BitBucketClientConfig.builder()
+                .setMaxAttempts(3)
+                .setRetryInitialBackoff(100)
+                .setRetryMaxBackoff(1_000)
+                .build());
+    }
+
+    private static org.apache.http.HttpResponse response(int status) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+    }
+
+    @Test
+    public void testBackoffIsBounded() {
+        RetryPolicy policy = policy();
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(policy.backoff(1) <= 100);
+            Assert.assertTrue(policy.backoff(3) <= 400);
+            Assert.assertTrue(policy.backoff(40) <= 1_000);
+        }
+    }
+
+    @Test
+    public void testStatusCodes() {
+        RetryPolicy policy = policy();
+        Assert.assertTrue(policy.getDelay(GET, 1, response(503)) >= 0);
+        Assert.assertTrue(policy.getDelay(GET, 2, response(429)) >= 0);
+        Assert.assertEquals(-1, policy.getDelay(GET, 3, response(503)));
+        Assert.assertEquals(-1, policy.getDelay(GET, 1, response(500)));
+        Assert.assertEquals(-1, policy.getDelay(POST, 1, response(503)));
+
+        RetryStats stats = policy.getStats();
+        Assert.assertEquals(2, stats.getStatusRetries());
+        Assert.assertEquals(1, stats.getExhausted());
+    }
+
+    @Test
+    public void testRetryAfter() {
+        RetryPolicy policy = policy();
+        org.apache.http.HttpResponse response = response(429);
+        response.setHeader("Retry-After", "1");
+        Assert.assertEquals(1_000, policy.getDelay(GET, 1, response));
+        response.setHeader("Retry-After", "2");
+        Assert.assertEquals(-1, policy.getDelay(GET, 1, response));
+
+        String date = DateUtils.formatDate(new Date(System.currentTimeMillis() + 60_000));
+        Assert.assertTrue(RetryPolicy.getRetryAfter(new BasicHeader("Retry-After", date)) > 50_000);
+        Assert.assertEquals(-1, RetryPolicy.getRetryAfter(new BasicHeader("Retry-After", "soon")));
+    }
+
+    @Test
+    public void testIOExceptions() {
+        RetryPolicy policy = policy();
+        Assert.assertTrue(policy.getDelay(GET, 1, new IOException("reset")) >= 0);
+        Assert.assertEquals(-1, policy.getDelay(GET, 1, new UnknownHostException("bitbucket")));
+        Assert.assertEquals(-1, policy.getDelay(POST, 1, new IOException("reset")));
+        Assert.assertEquals(-1, policy.getDelay(GET, 1, new IllegalStateException()));
+    }
+}
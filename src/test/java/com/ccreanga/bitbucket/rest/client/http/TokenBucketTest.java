@@ -0,0 +1,52 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void testBurstThenRate() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+        long now = System.nanoTime();
+        Assert.assertEquals(0, bucket.reserve(now));
+        Assert.assertEquals(0, bucket.reserve(now));
+        //the next tokens come every 100ms, the callers queue up in the reservation order
+        Assert.assertEquals(SECOND / 10, bucket.reserve(now));
+        Assert.assertEquals(2 * SECOND / 10, bucket.reserve(now));
+        //a long idle period refills only up to the burst
+        now += 10 * SECOND;
+        Assert.assertEquals(0, bucket.reserve(now));
+        Assert.assertEquals(0, bucket.reserve(now));
+        Assert.assertEquals(SECOND / 10, bucket.reserve(now));
+    }
+
+    @Test
+    public void testEndpointFamilies() {
+        Assert.assertEquals(EndpointFamily.PROJECTS, EndpointFamily.of("/rest/api/1.0/projects/P/repos?start=0&limit=100"));
+        Assert.assertEquals(EndpointFamily.PROJECTS, EndpointFamily.of("/rest/api/1.0/repos?start=0"));
+        Assert.assertEquals(EndpointFamily.PULL_REQUESTS, EndpointFamily.of("/rest/api/1.0/projects/P/repos/r/pull-requests/1/activities"));
+        Assert.assertEquals(EndpointFamily.BUILD_STATUS, EndpointFamily.of("/rest/build-status/latest/commits/stats"));
+        Assert.assertEquals(EndpointFamily.SSH_KEYS, EndpointFamily.of("/rest/ssh/1.0/keys?start=0"));
+        Assert.assertEquals(EndpointFamily.OTHER, EndpointFamily.of("/rest/api/1.0/users?start=0"));
+    }
+}
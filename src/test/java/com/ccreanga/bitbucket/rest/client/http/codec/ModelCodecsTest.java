@@ -0,0 +1,184 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.codec;
+
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.Parsers;
+import com.ccreanga.bitbucket.rest.client.http.responseparsers.TestUtil;
+import com.ccreanga.bitbucket.rest.client.model.Branch;
+import com.ccreanga.bitbucket.rest.client.model.BuildStatsSummary;
+import com.ccreanga.bitbucket.rest.client.model.Commit;
+import com.ccreanga.bitbucket.rest.client.model.Link;
+import com.ccreanga.bitbucket.rest.client.model.MinimalCommit;
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.RepositorySshKey;
+import com.ccreanga.bitbucket.rest.client.model.SshKey;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.ccreanga.bitbucket.rest.client.model.UserSshKey;
+import com.ccreanga.bitbucket.rest.client.model.UserType;
+import com.ccreanga.bitbucket.rest.client.model.diff.CompactDiff;
+import com.ccreanga.bitbucket.rest.client.model.diff.Diff;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivityCheckpoint;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestApprovedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestDeclinedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestOpenedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestReOpenedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestReviewedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestUnapprovedActivity;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestUpdatedActivity;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ModelCodecsTest {
+
+    private static final User USER = new User(101, "jcitizen", "jane@example.com", "Jane Citizen", true, "jcitizen", UserType.NORMAL);
+
+    private static JsonElement json(String name) {
+        return new JsonParser().parse(TestUtil.loadString(name));
+    }
+
+    private static <T> T roundTrip(Codec<T> codec, T value) {
+        T decoded = ModelCodecs.decode(codec, ModelCodecs.encode(codec, value));
+        Assert.assertEquals(value, decoded);
+        return decoded;
+    }
+
+    @Test
+    public void testParsedSamples() throws Exception {
+        roundTrip(ModelCodecs.PULL_REQUEST, Parsers.pullRequestParser().apply(json("pull_requests.json")));
+        roundTrip(ModelCodecs.PULL_REQUEST_ACTIVITY, Parsers.pullRequestActivityParser(1).apply(json("pull_requests_activities_commented.json")));
+        roundTrip(ModelCodecs.PULL_REQUEST_ACTIVITY, Parsers.pullRequestActivityParser(1).apply(json("pull_requests_activities_rescoped.json")));
+        roundTrip(ModelCodecs.PULL_REQUEST_ACTIVITY, Parsers.pullRequestActivityParser(1).apply(json("pull_requests_activities_merged.json")));
+        roundTrip(ModelCodecs.PULL_REQUEST_CHANGE, Parsers.pullRequestChangeParser().apply(json("pull_requests_changes.json")));
+        roundTrip(ModelCodecs.TASK, Parsers.taskParser().apply(json("pull_requests_tasks.json")));
+        Repository repository = roundTrip(ModelCodecs.REPOSITORY, Parsers.repositoryParser().apply(json("repo.json")));
+        roundTrip(ModelCodecs.page(ModelCodecs.USER), Parsers.pageParser(Parsers.userParser()).apply(json("pagedUsers.json")));
+
+        Diff diff = Parsers.diffParser().apply(json("diff.json").getAsJsonObject().getAsJsonArray("diffs").get(0));
+        roundTrip(ModelCodecs.DIFF, diff);
+        roundTrip(ModelCodecs.COMPACT_DIFF, CompactDiff.of(diff));
+
+        Repository fork = new Repository(null, 2, "fork", "fork", false, true, true, null, null, null,
+                repository.getProject(), repository, "git", repository.getState(), "Available");
+        roundTrip(ModelCodecs.REPOSITORY, fork);
+        roundTrip(ModelCodecs.REPOSITORY_SSH_KEY, new RepositorySshKey(3, "ssh-rsa AAAA", "deploy", fork, "REPO_READ"));
+    }
+
+    @Test
+    public void testActivityHierarchy() throws Exception {
+        Date created = new Date(1359085920000L);
+        List<PullRequestActivity> activities = Arrays.asList(
+                new PullRequestApprovedActivity(1L, created, USER, 7),
+                new PullRequestDeclinedActivity(2L, created, USER, 7),
+                new PullRequestOpenedActivity(3L, created, USER, 7),
+                new PullRequestReOpenedActivity(4L, created, null, 7),
+                new PullRequestReviewedActivity(5L, created, USER, 7),
+                new PullRequestUnapprovedActivity(null, null, USER, 7),
+                new PullRequestUpdatedActivity(7L, created, USER, 7));
+        Codec<List<PullRequestActivity>> codec = ModelCodecs.list(ModelCodecs.PULL_REQUEST_ACTIVITY);
+        //some activities do not implement equals
+        List<PullRequestActivity> decoded = ModelCodecs.decode(codec, ModelCodecs.encode(codec, activities));
+        Assert.assertEquals(activities.size(), decoded.size());
+        for (int i = 0; i < activities.size(); i++) {
+            PullRequestActivity activity = activities.get(i);
+            Assert.assertSame(activity.getClass(), decoded.get(i).getClass());
+            Assert.assertEquals(activity.getId(), decoded.get(i).getId());
+            Assert.assertEquals(activity.getCreatedDate(), decoded.get(i).getCreatedDate());
+            Assert.assertEquals(activity.getUser(), decoded.get(i).getUser());
+            Assert.assertEquals(activity.getPullRequestId(), decoded.get(i).getPullRequestId());
+            Assert.assertEquals(activity.getActionType(), decoded.get(i).getActionType());
+        }
+    }
+
+    @Test
+    public void testOtherTypes() throws Exception {
+        Branch branch = new Branch("refs/heads/master", "master", "8d51122def5632836d1cb1026e879069e10a1e13", true);
+        branch.setProjectKey("PRJ");
+        branch.setRepositorySlug("repo");
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("ahead", 3);
+        branch.setMetadata(metadata);
+        Assert.assertEquals(metadata, roundTrip(ModelCodecs.BRANCH, branch).getMetadata());
+
+        Map<String, BuildStatsSummary> builds = new LinkedHashMap<>();
+        BuildStatsSummary.Builder builder = BuildStatsSummary.builder();
+        builder.setFailed(1L);
+        builder.setSuccessful(12L);
+        builds.put("8d51122def5632836d1cb1026e879069e10a1e13", builder.build());
+        builds.put("e00cf62997a027bbf785614a93e2e55bb331d268", null);
+        roundTrip(ModelCodecs.BUILD_STATS, builds);
+
+        roundTrip(ModelCodecs.SSH_KEY, new SshKey("ssh-rsa AAAA", "laptop", 1));
+        roundTrip(ModelCodecs.USER_SSH_KEY, new UserSshKey(1, "ssh-rsa AAAA", "laptop"));
+        Link link = ModelCodecs.decode(ModelCodecs.LINK, ModelCodecs.encode(ModelCodecs.LINK, new Link("http://link/to/project", "self")));
+        Assert.assertEquals("http://link/to/project", link.getHref());
+        Assert.assertEquals("self", link.getName());
+        roundTrip(ModelCodecs.PULL_REQUEST_ACTIVITY_CHECKPOINT, new PullRequestActivityCheckpoint("PRJ", "repo", 7, -1, null));
+        roundTrip(ModelCodecs.page(ModelCodecs.COMMIT), new Page<>(1, 25, false, 0, 1, Collections.singletonList(
+                new Commit("def0123abcdef4567abcdef8987abcdef6543abc", "def0123abcd", "charlie", null, -1L, "More work 🚀",
+                        Collections.singletonList(new MinimalCommit("abcdef0123abcdef4567abcdef8987abcdef6543", "abcdef0"))))));
+    }
+
+    @Test
+    public void testRepeatedStringsAreWrittenOnce() throws Exception {
+        List<User> users = Collections.nCopies(100, USER);
+        byte[] message = ModelCodecs.encode(ModelCodecs.list(ModelCodecs.USER), users);
+        byte[] single = ModelCodecs.encode(ModelCodecs.USER, USER);
+        //after the first user, an id, the references of the 4 strings, a boolean and a type: 8 bytes
+        Assert.assertTrue(message.length < single.length + 99 * 8 + 2);
+        List<User> decoded = ModelCodecs.decode(ModelCodecs.list(ModelCodecs.USER), message);
+        Assert.assertEquals(users, decoded);
+        Assert.assertSame(decoded.get(0).getEmailAddress(), decoded.get(99).getEmailAddress());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNewerSchemaIsRejected() throws Exception {
+        byte[] message = ModelCodecs.encode(ModelCodecs.USER, USER);
+        message[0] = (byte) (ModelCodecs.SCHEMA_VERSION + 1);
+        ModelCodecs.decode(ModelCodecs.USER, message);
+    }
+
+    @Test
+    public void testVarints() throws Exception {
+        BinaryWriter out = new BinaryWriter(1);
+        long[] values = {0, 1, -1, 63, -64, 64, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            out.writeSignedVarLong(value);
+            out.writeVarLong(value);
+            out.writeSignedVarInt((int) value);
+        }
+        BinaryReader in = new BinaryReader(out.toByteArray());
+        for (long value : values) {
+            Assert.assertEquals(value, in.readSignedVarLong());
+            Assert.assertEquals(value, in.readVarLong());
+            Assert.assertEquals((int) value, in.readSignedVarInt());
+        }
+        Assert.assertEquals(0, in.remaining());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Path;
+import com.ccreanga.bitbucket.rest.client.model.diff.CompactDiff;
+import com.ccreanga.bitbucket.rest.client.model.diff.CompactDiffCollector;
+import com.ccreanga.bitbucket.rest.client.model.diff.Diff;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffHunk;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffLine;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffSegment;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffSegmentType;
+import com.ccreanga.bitbucket.rest.client.model.diff.DiffVisitor;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DiffStreamAdapterTest {
+
+    @Test
+    public void testEventsOrder() throws Exception {
+        List<String> events = new ArrayList<>();
+        boolean truncated = Parsers.diffStreamAdapter(new DiffVisitor() {
+            @Override
+            public void startDiff(Path source, Path destination) {
+                events.add("start " + source + " " + destination);
+            }
+
+            @Override
+            public void hunk(DiffHunk hunk) {
+                events.add("hunk " + hunk.getSourceLine());
+            }
+
+            @Override
+            public void endDiff(Path source, Path destination, boolean binary, boolean truncated) {
+                events.add("end " + binary);
+            }
+        }).read(new JsonReader(TestUtil.loadString("diff.json")));
+
+        Assert.assertTrue(truncated);
+        Assert.assertEquals(9, events.size());
+        Assert.assertEquals("hunk 1", events.get(1));
+        Assert.assertEquals("hunk 20", events.get(2));
+        Assert.assertEquals("end false", events.get(3));
+        //the second file has the hunks before the destination, which is known when the file starts anyway
+        Assert.assertTrue(events.get(4).startsWith("start null"));
+        Assert.assertFalse(events.get(4).endsWith("null"));
+        Assert.assertEquals("end true", events.get(8));
+    }
+
+    @Test
+    public void testCompactDiffMatchesTheObjectModel() throws Exception {
+        CompactDiffCollector collector = new CompactDiffCollector();
+        Parsers.diffStreamAdapter(collector).read(new JsonReader(TestUtil.loadString("diff.json")));
+
+        JsonElement json = new JsonParser().parse(TestUtil.loadString("diff.json"));
+        List<Diff> diffs = new ArrayList<>();
+        json.getAsJsonObject().getAsJsonArray("diffs").forEach(diff -> diffs.add(Parsers.diffAdapter().fromJsonTree(diff)));
+
+        Assert.assertEquals(3, collector.getDiffs().size());
+        for (int i = 0; i < diffs.size(); i++) {
+            CompactDiff compact = collector.getDiffs().get(i);
+            Assert.assertEquals(CompactDiff.of(diffs.get(i)), compact);
+            Assert.assertEquals(diffs.get(i), compact.toDiff());
+        }
+
+        CompactDiff main = collector.getDiffs().get(0);
+        Assert.assertEquals(7, main.getLineCount());
+        Assert.assertEquals("    int b = 3;", main.getLine(4));
+        Assert.assertEquals("", main.getLineText(1).toString());
+        Assert.assertEquals(DiffSegmentType.CONTEXT, main.getLineType(1));
+        Assert.assertEquals(DiffSegmentType.REMOVED, main.getLineType(2));
+        Assert.assertEquals(DiffSegmentType.ADDED, main.getLineType(3));
+        Assert.assertEquals(DiffSegmentType.ADDED, main.getLineType(6));
+        Assert.assertEquals(21, main.getDestinationLine(6));
+        Assert.assertTrue(main.isLineTruncated(6));
+        Assert.assertTrue(collector.getDiffs().get(2).isBinary());
+        Assert.assertEquals(0, collector.getDiffs().get(2).getLineCount());
+    }
+
+    @Test
+    public void testLargeCompactDiff() {
+        //10 hunks of 50 segments of 10 lines, past every initial capacity of the builder
+        List<DiffHunk> hunks = new ArrayList<>();
+        int line = 0;
+        for (int h = 0; h < 10; h++) {
+            List<DiffSegment> segments = new ArrayList<>();
+            for (int s = 0; s < 50; s++) {
+                List<DiffLine> lines = new ArrayList<>();
+                for (int l = 0; l < 10; l++, line++) {
+                    lines.add(new DiffLine(line + 1, "line " + line, line, line % 7 == 0));
+                }
+                segments.add(new DiffSegment(lines, DiffSegmentType.values()[s % 3], s % 5 == 0));
+            }
+            hunks.add(new DiffHunk(h * 500, 500, segments, h * 500, 500, h % 2 == 0));
+        }
+        Path path = new Path(new String[]{"src", "Main.java"});
+        Diff diff = new Diff(path, hunks, path, false, true);
+
+        CompactDiff compact = CompactDiff.of(diff);
+        Assert.assertEquals(5000, compact.getLineCount());
+        Assert.assertEquals("line 4999", compact.getLine(4999));
+        Assert.assertEquals(diff, compact.toDiff());
+    }
+}
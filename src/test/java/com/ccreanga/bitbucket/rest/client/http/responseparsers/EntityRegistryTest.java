@@ -0,0 +1,84 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.ccreanga.bitbucket.rest.client.model.Repository;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.google.gson.stream.JsonReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class EntityRegistryTest {
+
+    private static Page<PullRequestActivity> parseActivities() throws Exception {
+        return Parsers.pageAdapter(Parsers.pullRequestActivityAdapter(1)).
+                read(new JsonReader(TestUtil.loadString("pull_requests_activities.json")));
+    }
+
+    @Test
+    public void testSameUserSharedAcrossResponses() throws Exception {
+        EntityRegistry registry = new EntityRegistry(100);
+        List<PullRequestActivity> first;
+        List<PullRequestActivity> second;
+        EntityRegistry.Scope scope = registry.open();
+        try {
+            first = parseActivities().getValues();
+            second = parseActivities().getValues();
+        } finally {
+            scope.close();
+        }
+        User user = first.get(0).getUser();
+        for (PullRequestActivity activity : first) {
+            if (activity.getUser().getId() == user.getId())
+                Assert.assertSame(user, activity.getUser());
+        }
+        Assert.assertSame(user, second.get(0).getUser());
+        Assert.assertTrue(registry.getHits() > registry.getMisses());
+
+        //outside the scope the parsers build new instances
+        Assert.assertNotSame(user, parseActivities().getValues().get(0).getUser());
+        Assert.assertEquals(user, parseActivities().getValues().get(0).getUser());
+    }
+
+    @Test
+    public void testChangedEntityReplacesTheRegisteredOne() throws Exception {
+        EntityRegistry registry = new EntityRegistry(100);
+        EntityRegistry.Scope scope = registry.open();
+        try {
+            Repository repository = Parsers.repositoryAdapter().read(new JsonReader(TestUtil.loadString("repo.json")));
+            Assert.assertSame(repository, Parsers.repositoryAdapter().read(new JsonReader(TestUtil.loadString("repo.json"))));
+            Assert.assertSame(repository.getProject(), registry.canonical(repository.getProject()));
+
+            Repository renamed = new Repository(repository.getHierarchyId(), repository.getId(), repository.getSlug(), "renamed",
+                    repository.isPublic(), repository.isFork(), repository.isForkable(), repository.getSshCloneUrl(),
+                    repository.getHttpCloneUrl(), repository.getSelfUrl(), repository.getProject(), repository.getOrigin(),
+                    repository.getScmId(), repository.getState(), repository.getStatusMessage());
+            Repository canonical = registry.canonical(renamed);
+            Assert.assertEquals(renamed, canonical);
+            Assert.assertSame(canonical, registry.canonical(renamed));
+            //the strings are interned
+            Assert.assertSame(repository.getSlug(), canonical.getSlug());
+        } finally {
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.ccreanga.bitbucket.rest.client.model.Page;
+import com.ccreanga.bitbucket.rest.client.model.User;
+import com.ccreanga.bitbucket.rest.client.model.pull.activity.PullRequestActivity;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PageAdapterTest {
+
+    @Test
+    public void testActivitiesSameAsPageParser() throws Exception {
+        JsonElement element = new JsonParser().parse(TestUtil.loadString("pull_requests_activities.json"));
+        Page<PullRequestActivity> expected = Parsers.pageParser(Parsers.pullRequestActivityParser(1)).apply(element);
+
+        Page<PullRequestActivity> page = Parsers.pageAdapterFromTree(Parsers.pullRequestActivityParser(1)).
+                read(new JsonReader(TestUtil.loadString("pull_requests_activities.json")));
+        Assert.assertEquals(3, page.getValues().size());
+        Assert.assertEquals(expected, page);
+    }
+
+    @Test
+    public void testUsersSameAsPageParser() throws Exception {
+        JsonElement element = new JsonParser().parse(TestUtil.loadString("pagedUsers.json"));
+        Page<User> expected = Parsers.pageParser(Parsers.userParser()).apply(element);
+
+        Page<User> page = Parsers.pageAdapterFromTree(Parsers.userParser()).read(new JsonReader(TestUtil.loadString("pagedUsers.json")));
+        Assert.assertEquals(expected, page);
+    }
+}
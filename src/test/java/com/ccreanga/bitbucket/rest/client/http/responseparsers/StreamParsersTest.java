@@ -0,0 +1,110 @@
+/*
+ *
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  * http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package com.ccreanga.bitbucket.rest.client.http.responseparsers;
+
+import com.google.common.io.CharStreams;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Checks that the streaming parsers build the same objects as the tree parsers
+ */
+public class StreamParsersTest {
+
+    private static final String DIFF = "{\"source\":null,\"destination\":{\"components\":[\"src\",\"a.txt\"],\"name\":\"a.txt\"}," +
+            "\"hunks\":[{\"sourceLine\":1,\"sourceSpan\":2,\"destinationLine\":1,\"destinationSpan\":3,\"truncated\":false," +
+            "\"segments\":[{\"type\":\"ADDED\",\"truncated\":false,\"lines\":[{\"source\":1,\"destination\":1,\"line\":\"hello\",\"truncated\":false}]}," +
+            "{\"type\":\"CONTEXT\",\"truncated\":false,\"lines\":[{\"source\":1,\"destination\":2,\"line\":\"world\",\"truncated\":false}]}]}]," +
+            "\"truncated\":false}";
+
+    private static <T> void assertSame(Supplier<Reader> json, Function<com.google.gson.JsonElement, T> parser, StreamParser<T> adapter) throws IOException {
+        T expected = parser.apply(new JsonParser().parse(json.get()));
+        Assert.assertNotNull(expected);
+        Assert.assertEquals(expected, adapter.read(new JsonReader(json.get())));
+    }
+
+    private static <T> void assertSame(String json, Function<com.google.gson.JsonElement, T> parser, StreamParser<T> adapter) throws IOException {
+        assertSame(() -> new StringReader(json), parser, adapter);
+    }
+
+    @Test
+    public void testResources() throws Exception {
+        assertSame(() -> TestUtil.loadString("pull_requests_activities.json"),
+                Parsers.pageParser(Parsers.pullRequestActivityParser(1)), Parsers.pageAdapter(Parsers.pullRequestActivityAdapter(1)));
+        assertSame(() -> TestUtil.loadString("pull_requests_activities_commented.json"),
+                Parsers.pullRequestActivityParser(1), Parsers.pullRequestActivityAdapter(1));
+        assertSame(() -> TestUtil.loadString("pull_requests_activities_rescoped.json"),
+                Parsers.pullRequestActivityParser(1), Parsers.pullRequestActivityAdapter(1));
+        assertSame(() -> TestUtil.loadString("pull_requests_activities_merged.json"),
+                Parsers.pullRequestActivityParser(1), Parsers.pullRequestActivityAdapter(1));
+        assertSame(() -> TestUtil.loadString("pull_requests.json"), Parsers.pullRequestParser(), Parsers.pullRequestAdapter());
+        assertSame(() -> TestUtil.loadString("pull_requests_changes.json"), Parsers.pullRequestChangeParser(), Parsers.pullRequestChangeAdapter());
+        assertSame(() -> TestUtil.loadString("pull_requests_tasks.json"), Parsers.taskParser(), Parsers.taskAdapter());
+        assertSame(() -> TestUtil.loadString("repo.json"), Parsers.repositoryParser(), Parsers.repositoryAdapter());
+        assertSame(() -> TestUtil.loadString("pagedUsers.json"), Parsers.pageParser(Parsers.userParser()), Parsers.pageAdapter(Parsers.userAdapter()));
+    }
+
+    @Test
+    public void testDiff() throws Exception {
+        assertSame(DIFF, Parsers.diffParser(), Parsers.diffAdapter());
+    }
+
+    @Test
+    public void testBranch() throws Exception {
+        assertSame("{\"id\":\"refs/heads/master\",\"displayId\":\"master\",\"latestChangeset\":\"8d51122def56\",\"isDefault\":true," +
+                        "\"metadata\":{\"com.atlassian.bitbucket.server.bitbucket-branch:ahead-behind-metadata-provider\":{\"ahead\":0,\"behind\":2}}}",
+                Parsers.branchParser(), Parsers.branchAdapter());
+    }
+
+    @Test
+    public void testProject() throws Exception {
+        assertSame("{\"key\":\"PRJ\",\"id\":1,\"name\":\"My Cool Project\",\"description\":\"The description\",\"public\":true,\"type\":\"NORMAL\"," +
+                        "\"links\":{\"self\":[{\"href\":\"http://link/to/project\"}]}}",
+                Parsers.projectParser(), Parsers.projectAdapter());
+    }
+
+    @Test
+    public void testBuildStats() throws Exception {
+        assertSame("{\"8d51122def56\":{\"successful\":2,\"inProgress\":1,\"failed\":0},\"4b12658b6cd2\":{\"successful\":1}}",
+                Parsers.buildStatsParser(), Parsers.buildStatsAdapter());
+    }
+
+    @Test
+    public void testSshKeys() throws Exception {
+        assertSame("{\"id\":1,\"text\":\"ssh-rsa AAAAB3\",\"label\":\"me@example.com\"}", Parsers.userSshKeyParser(), Parsers.userSshKeyAdapter());
+        String repository = CharStreams.toString(TestUtil.loadString("repo.json"));
+        assertSame("{\"key\":{\"id\":1,\"text\":\"ssh-rsa AAAAB3\",\"label\":\"me@example.com\"},\"permission\":\"REPO_READ\",\"repository\":" + repository + "}",
+                Parsers.repositorySshKeyParser(), Parsers.repositorySshKeyAdapter());
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        //BitBucketError does not override equals
+        String json = "{\"error\":[{\"context\":null,\"message\":\"Authentication failed\",\"exceptionName\":\"com.atlassian.AuthenticationException\"}]}";
+        Assert.assertEquals(
+                Parsers.errorsParser().apply(new JsonParser().parse(json)).toString(),
+                Parsers.errorsAdapter().read(new JsonReader(new StringReader(json))).toString());
+    }
+}